@@ -24,6 +24,7 @@ import org.languagetool.bitext.BitextReader;
 import org.languagetool.bitext.StringPair;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.RuleMatchListener;
 import org.languagetool.rules.TextLevelRule;
 import org.languagetool.rules.bitext.BitextRule;
 import org.languagetool.rules.patterns.PatternRule;
@@ -35,8 +36,12 @@ import org.languagetool.tools.Tools;
 
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
@@ -118,6 +123,36 @@ public final class CommandLineTools {
     return ruleMatches.size();
   }
 
+  /**
+   * Check the text read from the given reader and print the results to System.out as soon as
+   * they are found, so texts of any length can be checked without loading them completely.
+   *
+   * @param reader the text to check, the reader is not closed
+   * @param lt Initialized LanguageTool
+   * @param apiFormat whether to print the result in XML format
+   * @param contextSize error text context size: -1 for default
+   * @return Number of rule matches to the input text.
+   * @see JLanguageTool#check(Reader, RuleMatchListener)
+   * @since 2.9
+   */
+  public static int checkText(final Reader reader, final JLanguageTool lt,
+                              final boolean apiFormat, int contextSize) throws IOException {
+    if (contextSize == -1) {
+      contextSize = DEFAULT_CONTEXT_SIZE;
+    }
+    final long startTime = System.currentTimeMillis();
+    final MatchPrinter printer = new MatchPrinter(apiFormat, contextSize);
+    if (apiFormat) {
+      printer.out.print(printer.serializer.getXmlStart(lt.getLanguage(), null));
+    }
+    lt.check(reader, printer);
+    if (apiFormat) {
+      printer.out.print(printer.serializer.getXmlEnd());
+    }
+    displayTimeStats(startTime, lt.getSentenceCount(), apiFormat);
+    return printer.matchCount;
+  }
+
   private static void displayTimeStats(final long startTime,
                                        final long sentCount, final boolean apiFormat) {
     final long endTime = System.currentTimeMillis();
@@ -150,27 +185,7 @@ public final class CommandLineTools {
     final ContextTools contextTools = new ContextTools();
     contextTools.setContextSize(contextSize);
     for (final RuleMatch match : ruleMatches) {
-      String output = i + prevMatches + ".) Line " + (match.getLine() + 1) + ", column "
-              + match.getColumn() + ", Rule ID: " + match.getRule().getId();
-      if (match.getRule() instanceof PatternRule) {
-        final PatternRule pRule = (PatternRule) match.getRule();
-        output += "[" + pRule.getSubId() + "]";
-      }
-      System.out.println(output);
-      String msg = match.getMessage();
-      msg = msg.replaceAll("<suggestion>", "'");
-      msg = msg.replaceAll("</suggestion>", "'");
-      System.out.println("Message: " + msg);
-      final List<String> replacements = match.getSuggestedReplacements();
-      if (!replacements.isEmpty()) {
-        System.out.println("Suggestion: "
-                + StringTools.listToString(replacements, "; "));
-      }
-      System.out.println(contextTools.getPlainTextContext(match.getFromPos(), match.getToPos(), contents));
-      if (match.getRule().getUrl() != null) {
-        System.out.println("More info: " +
-                match.getRule().getUrl().toString());
-      }
+      printMatch(match, i + prevMatches, contents, 0, contextTools);
       if (i < ruleMatches.size()) {
         System.out.println();
       }
@@ -178,6 +193,34 @@ public final class CommandLineTools {
     }
   }
 
+  /**
+   * @param textPos the position of {@code contents} in the text the match positions refer to
+   */
+  private static void printMatch(final RuleMatch match, final int matchNo, final String contents,
+                                 final int textPos, final ContextTools contextTools) {
+    String output = matchNo + ".) Line " + (match.getLine() + 1) + ", column "
+            + match.getColumn() + ", Rule ID: " + match.getRule().getId();
+    if (match.getRule() instanceof PatternRule) {
+      final PatternRule pRule = (PatternRule) match.getRule();
+      output += "[" + pRule.getSubId() + "]";
+    }
+    System.out.println(output);
+    String msg = match.getMessage();
+    msg = msg.replaceAll("<suggestion>", "'");
+    msg = msg.replaceAll("</suggestion>", "'");
+    System.out.println("Message: " + msg);
+    final List<String> replacements = match.getSuggestedReplacements();
+    if (!replacements.isEmpty()) {
+      System.out.println("Suggestion: "
+              + StringTools.listToString(replacements, "; "));
+    }
+    System.out.println(contextTools.getPlainTextContext(match.getFromPos() - textPos, match.getToPos() - textPos, contents));
+    if (match.getRule().getUrl() != null) {
+      System.out.println("More info: " +
+              match.getRule().getUrl().toString());
+    }
+  }
+
   /**
    * Checks the bilingual input (bitext) and displays the output (considering the target 
    * language) in API format or in the simple text format.
@@ -351,4 +394,41 @@ public final class CommandLineTools {
     return sb.toString();
   }
 
+  private static class MatchPrinter implements RuleMatchListener {
+
+    private final boolean apiFormat;
+    private final int contextSize;
+    private final ContextTools contextTools = new ContextTools();
+    private final RuleAsXmlSerializer serializer = new RuleAsXmlSerializer();
+    private final PrintStream out;
+
+    private int matchCount;
+
+    MatchPrinter(boolean apiFormat, int contextSize) throws UnsupportedEncodingException {
+      this.apiFormat = apiFormat;
+      this.contextSize = contextSize;
+      this.contextTools.setContextSize(contextSize);
+      this.out = apiFormat ? new PrintStream(System.out, true, "UTF-8") : System.out;
+    }
+
+    @Override
+    public void matchFound(RuleMatch ruleMatch, String text, int textPos) {
+      if (apiFormat) {
+        final StringWriter writer = new StringWriter();
+        try {
+          serializer.writeRuleMatchesXmlSnippet(Collections.singletonList(ruleMatch), text, textPos, contextSize, writer);
+        } catch (IOException e) {
+          throw new RuntimeException(e);  // cannot happen with a StringWriter
+        }
+        out.print(writer);
+      } else {
+        if (matchCount > 0) {
+          out.println();
+        }
+        printMatch(ruleMatch, matchCount + 1, text, textPos, contextTools);
+      }
+      matchCount++;
+    }
+  }
+
 }
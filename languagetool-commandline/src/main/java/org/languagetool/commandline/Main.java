@@ -46,8 +46,10 @@ import java.util.*;
  */
 class Main {
 
-  /* maximum file size to read in a single read */
+  /* maximum file size to read in a single read, larger files are checked while they are read */
   private static final int MAX_FILE_SIZE = 64000;
+  /* number of characters used to detect the language of the text from STDIN */
+  private static final int LANGUAGE_DETECTION_LENGTH = 2000;
 
   private final boolean verbose;
   private final boolean apiFormat;
@@ -166,11 +168,59 @@ class Main {
     }
     if (oneTime) {
       runOnFileInOneGo(filename, encoding, listUnknownWords, xmlFiltering);
+    } else if (!applySuggestions && !profileRules && !taggerOnly && !xmlFiltering) {
+      runOnFileStreaming(filename, encoding, listUnknownWords);
     } else {
       runOnFileLineByLine(filename, encoding, listUnknownWords);
     }
   }
 
+  /**
+   * Checks the file without reading it completely, so even large files are checked like
+   * one text and rules that work over paragraphs are still used.
+   */
+  private void runOnFileStreaming(String filename, String encoding, boolean listUnknownWords) throws IOException {
+    if (verbose) {
+      lt.setOutput(System.err);
+    }
+    if (!apiFormat) {
+      if (isStdIn(filename)) {
+        System.out.println("Working on STDIN...");
+      } else {
+        System.out.println("Working on " + filename + "...");
+      }
+    }
+    try (BufferedReader reader = new BufferedReader(getInputStreamReader(filename, encoding))) {
+      if (autoDetect && isStdIn(filename)) {
+        // files have been detected in runOnFile() already:
+        Language language = detectLanguageOfString(readAhead(reader, LANGUAGE_DETECTION_LENGTH));
+        if (language == null) {
+          System.err.println("Could not detect language well enough, using English");
+          language = new English();
+        }
+        System.out.println("Language used is: " + language.getName());
+        language.getSentenceTokenizer().setSingleLineBreaksMarksParagraph(singleLineBreakMarksParagraph);
+        changeLanguage(language, motherTongue, disabledRules, enabledRules);
+      }
+      CommandLineTools.checkText(reader, lt, apiFormat, -1);
+    }
+    if (listUnknownWords) {
+      System.out.println("Unknown words: " + lt.getUnknownWords());
+    }
+  }
+
+  private String readAhead(BufferedReader reader, int length) throws IOException {
+    reader.mark(length);
+    final char[] buffer = new char[length];
+    int pos = 0;
+    int count;
+    while (pos < length && (count = reader.read(buffer, pos, length - pos)) != -1) {
+      pos += count;
+    }
+    reader.reset();
+    return new String(buffer, 0, pos);
+  }
+
   private void runOnFileInOneGo(String filename, String encoding, boolean listUnknownWords, boolean xmlFiltering) throws IOException {
     if (bitextMode) {
       final TabBitextReader reader = new TabBitextReader(filename, encoding);
@@ -544,9 +594,11 @@ class Main {
     }
   }
 
-  private static Language detectLanguageOfFile(final String filename, final String encoding) throws IOException {
-    final String text = StringTools.readStream(new FileInputStream(filename), encoding);
-    return detectLanguageOfString(text);
+  private Language detectLanguageOfFile(final String filename, final String encoding) throws IOException {
+    // only the beginning is used, as large files are never read completely:
+    try (BufferedReader reader = new BufferedReader(getInputStreamReader(filename, encoding))) {
+      return detectLanguageOfString(readAhead(reader, MAX_FILE_SIZE));
+    }
   }
 
   private static Language detectLanguageOfString(final String text) {
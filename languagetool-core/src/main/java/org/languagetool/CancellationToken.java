@@ -0,0 +1,104 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Allows stopping a running check, either explicitly with {@link #cancel()} or
+ * by setting a deadline. The check tests the token between sentences and rules
+ * and throws a {@link CheckCancelledException} once it has been cancelled, so
+ * the check doesn't stop in the middle of a rule. Thread-safe.
+ * @since 2.9
+ */
+public class CancellationToken {
+
+  // the token of the check the current thread is working for, used by code that
+  // has no access to the token otherwise, like disambiguators:
+  private static final ThreadLocal<CancellationToken> currentToken = new ThreadLocal<>();
+
+  private final long deadlineMillis;
+
+  private volatile boolean cancelled;
+
+  /**
+   * A token without deadline, it is only cancelled by calling {@link #cancel()}.
+   */
+  public CancellationToken() {
+    this.deadlineMillis = Long.MAX_VALUE;
+  }
+
+  /**
+   * A token that gets cancelled automatically after the given time.
+   * @param timeoutMillis the time in milliseconds after which the token is cancelled
+   */
+  public CancellationToken(long timeoutMillis) {
+    if (timeoutMillis < 0) {
+      throw new IllegalArgumentException("timeoutMillis must be >= 0: " + timeoutMillis);
+    }
+    this.deadlineMillis = System.currentTimeMillis() + timeoutMillis;
+  }
+
+  /**
+   * Cancel the check(s) using this token.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * Whether {@link #cancel()} has been called or the deadline has passed.
+   */
+  public boolean isCancelled() {
+    if (!cancelled && deadlineMillis != Long.MAX_VALUE && System.currentTimeMillis() > deadlineMillis) {
+      cancelled = true;
+    }
+    return cancelled;
+  }
+
+  /**
+   * @throws CheckCancelledException if the token has been cancelled
+   */
+  public void checkCancelled() {
+    if (isCancelled()) {
+      throw new CheckCancelledException(deadlineMillis != Long.MAX_VALUE && System.currentTimeMillis() > deadlineMillis
+              ? "Check has reached its deadline" : "Check has been cancelled");
+    }
+  }
+
+  /**
+   * The token of the check that the current thread is working for, or {@code null}.
+   */
+  @Nullable
+  public static CancellationToken getCurrent() {
+    return currentToken.get();
+  }
+
+  /**
+   * Set the token of the check that the current thread is working for, {@code null} when done.
+   */
+  static void setCurrent(@Nullable CancellationToken token) {
+    if (token == null) {
+      currentToken.remove();
+    } else {
+      currentToken.set(token);
+    }
+  }
+
+}
@@ -28,6 +28,7 @@ import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.*;
 import org.languagetool.rules.patterns.FalseFriendRuleLoader;
 import org.languagetool.rules.patterns.PatternRule;
+import org.languagetool.rules.patterns.PatternRuleIndex;
 import org.languagetool.rules.patterns.PatternRuleLoader;
 import org.xml.sax.SAXException;
 
@@ -37,6 +38,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.io.Reader;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.util.*;
@@ -111,6 +113,7 @@ public class JLanguageTool {
   private final Set<String> disabledRules = new HashSet<>();
   private final Set<String> enabledRules = new HashSet<>();
   private final Set<String> disabledCategories = new HashSet<>();
+  private final Map<List<Rule>, PatternRuleIndex> ruleIndexes = new HashMap<>();
 
   private final Language language;
   private final Language motherTongue;
@@ -122,6 +125,11 @@ public class JLanguageTool {
   private boolean listUnknownWords;
   private Set<String> unknownWords;  
 
+  // the token of the running check:
+  private CancellationToken cancellationToken = new CancellationToken();
+
+  private ResultCache cache;
+
   /**
    * Constants for correct paragraph-rule handling:
    * <ul>
@@ -145,6 +153,11 @@ public class JLanguageTool {
   }
   
   private static final List<File> temporaryFiles = new ArrayList<>();
+  private static final int MAX_RULE_INDEXES = 32;
+  // paragraphs longer than this are split into sentences piece by piece when checking a stream:
+  private static final int STREAM_CHUNK_LENGTH = 20000;
+  // the minimum length of text that text-level rules consider when checking a stream:
+  private static final int STREAM_WINDOW_LENGTH = 100000;
   
   /**
    * Create a JLanguageTool and setup the built-in Java rules for the
@@ -445,7 +458,9 @@ public class JLanguageTool {
   /**
    * The main check method. Tokenizes the text into sentences and matches these
    * sentences against all currently active rules, adjusting error positions so they refer 
-   * to the original text <em>including</em> markup.
+   * to the original text <em>including</em> markup. Since 2.9, this also applies to the matches
+   * of text-level rules (see {@link TextLevelRule}), whose positions used to refer to the text
+   * without markup.
    * @since 2.3
    */
   public List<RuleMatch> check(final AnnotatedText text) throws IOException {
@@ -467,6 +482,58 @@ public class JLanguageTool {
    * @since 2.3
    */
   public List<RuleMatch> check(final AnnotatedText annotatedText, boolean tokenizeText, final ParagraphHandling paraMode) throws IOException {
+    return check(annotatedText, tokenizeText, paraMode, new CancellationToken());
+  }
+
+  /**
+   * Like {@link #check(AnnotatedText, boolean, ParagraphHandling)}, but the check can be stopped
+   * with the given token. The token is tested between sentences and between rules.
+   * @throws CheckCancelledException if the token gets cancelled before the check is done
+   * @since 2.9
+   */
+  public List<RuleMatch> check(final AnnotatedText annotatedText, boolean tokenizeText, final ParagraphHandling paraMode,
+                               CancellationToken cancellationToken) throws IOException {
+    this.cancellationToken = Objects.requireNonNull(cancellationToken);
+    try {
+      return checkInternal(annotatedText, tokenizeText, paraMode);
+    } finally {
+      this.cancellationToken = new CancellationToken();
+    }
+  }
+
+  /**
+   * Checks the text read from the given reader and passes the matches to the listener
+   * as soon as they are found. Unlike the other {@code check} methods, this never keeps more than
+   * a part of the text in memory, so texts of any length can be checked. Sentence-level rules
+   * work as usual, but text-level rules like {@link GenericUnpairedBracketsRule} only see a window
+   * of at least 100,000 characters that ends with a paragraph. The reader is not closed.
+   * As the positions of the matches are {@code int}s, the text must not be longer than
+   * {@code Integer.MAX_VALUE - 1} characters.
+   * @throws IllegalArgumentException if the text is longer than that, after the matches found
+   *   up to then have been passed to the listener
+   * @since 2.9
+   */
+  public void check(final Reader reader, final RuleMatchListener listener) throws IOException {
+    final List<Rule> allRules = getAllRules();
+    printIfVerbose(allRules.size() + " rules activated for language " + language);
+    unknownWords = new HashSet<>();
+    final int windowLength = hasActiveTextLevelRules(allRules) ? STREAM_WINDOW_LENGTH : 0;
+    final StreamingTextChecker checker =
+            new StreamingTextChecker(this, allRules, ParagraphHandling.NORMAL, listener, STREAM_CHUNK_LENGTH, windowLength);
+    checker.check(reader);
+    sentenceCount = checker.getSentenceCount();
+  }
+
+  private boolean hasActiveTextLevelRules(List<Rule> rules) {
+    for (Rule rule : rules) {
+      if (rule instanceof TextLevelRule && !ignoreRule(rule)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private List<RuleMatch> checkInternal(final AnnotatedText annotatedText, boolean tokenizeText, final ParagraphHandling paraMode) throws IOException {
     final List<String> sentences;
     if (tokenizeText) { 
       sentences = sentenceTokenize(annotatedText.getPlainText());
@@ -479,9 +546,7 @@ public class JLanguageTool {
 
     sentenceCount = sentences.size();
     unknownWords = new HashSet<>();
-    final List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
-    
-    List<RuleMatch> ruleMatches = performCheck(analyzedSentences, sentences, allRules, paraMode, annotatedText);
+    List<RuleMatch> ruleMatches = analyzeAndCheck(sentences, allRules, paraMode, annotatedText);
     ruleMatches = new SameRuleGroupFilter().filter(ruleMatches);
 
 //    Collections.sort(ruleMatches);  // SameRuleGroupFilter sorts rule matches already
@@ -500,12 +565,23 @@ public class JLanguageTool {
     return analyzeSentences(sentences);
   }
   
+  /**
+   * Analyze the sentences and check them with the given rules. The matches don't need
+   * to be sorted.
+   * @since 2.9
+   */
+  protected List<RuleMatch> analyzeAndCheck(final List<String> sentences, final List<Rule> allRules,
+                                            ParagraphHandling paraMode, final AnnotatedText annotatedText) throws IOException {
+    final List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
+    return performCheck(analyzedSentences, sentences, allRules, paraMode, annotatedText);
+  }
+
   protected List<AnalyzedSentence> analyzeSentences(final List<String> sentences) throws IOException {
     final List<AnalyzedSentence> analyzedSentences = new ArrayList<>();
     
     int j = 0;
     for (final String sentence : sentences) {
-      AnalyzedSentence analyzedSentence = getAnalyzedSentence(sentence);
+      AnalyzedSentence analyzedSentence = getAnalyzedSentence(sentence, cancellationToken);
       rememberUnknownWords(analyzedSentence);
       if (++j == sentences.size()) {
         final AnalyzedTokenReadings[] anTokens = analyzedSentence.getTokens();
@@ -519,6 +595,38 @@ public class JLanguageTool {
     return analyzedSentences;
   }
 
+  /**
+   * Like {@link #getAnalyzedSentence(String)}, but the disambiguation can be stopped with the given token.
+   * @since 2.9
+   */
+  protected AnalyzedSentence getAnalyzedSentence(final String sentence, CancellationToken cancellationToken) throws IOException {
+    cancellationToken.checkCancelled();
+    final CancellationToken prevToken = CancellationToken.getCurrent();
+    CancellationToken.setCurrent(cancellationToken);
+    try {
+      return getAnalyzedSentence(sentence);
+    } finally {
+      CancellationToken.setCurrent(prevToken);
+    }
+  }
+
+  /**
+   * Use the given cache for the matches of the sentence-level rules, or {@code null} to not use a cache.
+   * The cache may be shared with other instances, see {@link ResultCache}.
+   * @since 2.9
+   */
+  public void setCache(@Nullable ResultCache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * The token of the running check, tested between sentences and rules.
+   * @since 2.9
+   */
+  protected CancellationToken getCancellationToken() {
+    return cancellationToken;
+  }
+
   protected void printSentenceInfo(AnalyzedSentence analyzedSentence) {
     if (printStream != null) {
       printIfVerbose(analyzedSentence.toString());
@@ -528,10 +636,25 @@ public class JLanguageTool {
   
   protected List<RuleMatch> performCheck(final List<AnalyzedSentence> analyzedSentences, final List<String> sentences,
                                          final List<Rule> allRules, ParagraphHandling paraMode, final AnnotatedText annotatedText) throws IOException {
-    final Callable<List<RuleMatch>> matcher = new TextCheckCallable(allRules, sentences, analyzedSentences, paraMode, annotatedText, 0, 0, 1);
+    return performCheck(analyzedSentences, sentences, allRules, paraMode, annotatedText, 0, 0, 1);
+  }
+
+  /**
+   * Like {@link #performCheck(List, List, List, ParagraphHandling, AnnotatedText)}, but for sentences
+   * that don't start at the beginning of the text.
+   * @param charCount the character offset at which the first sentence starts
+   * @param lineCount the line at which the first sentence starts
+   * @param columnCount the column at which the first sentence starts
+   * @since 2.9
+   */
+  protected List<RuleMatch> performCheck(final List<AnalyzedSentence> analyzedSentences, final List<String> sentences,
+                                         final List<Rule> allRules, ParagraphHandling paraMode, final AnnotatedText annotatedText,
+                                         int charCount, int lineCount, int columnCount) throws IOException {
+    final Callable<List<RuleMatch>> matcher = new TextCheckCallable(allRules, sentences, analyzedSentences, paraMode, annotatedText,
+            charCount, lineCount, columnCount);
     try {
       return matcher.call();
-    } catch (IOException e) {
+    } catch (IOException | CheckCancelledException e) {
       throw e;
     } catch (Exception e) {
       throw new RuntimeException(e);
@@ -551,8 +674,28 @@ public class JLanguageTool {
       final List<Rule> rules, int charCount, int lineCount,
       int columnCount, final String sentence, final AnalyzedSentence analyzedSentence, final AnnotatedText annotatedText)
         throws IOException {
+    final LineIndex lineIndex = new LineIndex(Collections.singletonList(sentence), charCount, lineCount, columnCount);
+    return checkAnalyzedSentence(paraMode, rules, charCount, lineIndex, sentence, analyzedSentence, annotatedText, null, null);
+  }
+
+  /**
+   * @param lineIndex the lines of the text the sentence is part of, used to set the matches' line and column
+   * @param cacheKey the key for the matches of the sentence-local rules in the cache,
+   *                 or {@code null} to not use the cache
+   * @param ruleNanos map to which the time each rule takes is added (see {@link RuleCosts}),
+   *                  or {@code null} to not measure the time
+   */
+  private List<RuleMatch> checkAnalyzedSentence(final ParagraphHandling paraMode,
+      final List<Rule> rules, int charCount, LineIndex lineIndex, final String sentence,
+      final AnalyzedSentence analyzedSentence, final AnnotatedText annotatedText,
+      @Nullable ResultCache.Key cacheKey, @Nullable Map<String, long[]> ruleNanos) throws IOException {
+    final ResultCache.Entry cachedEntry = cacheKey != null ? cache.get(cacheKey) : null;
+    final boolean fillCache = cacheKey != null && cachedEntry == null;
+    final List<ResultCache.CachedMatch> localMatches = new ArrayList<>();
+    int cachedPos = 0;
     final List<RuleMatch> sentenceMatches = new ArrayList<>();
-    for (final Rule rule : rules) {
+    for (int i = 0; i < rules.size(); i++) {
+      final Rule rule = rules.get(i);
       if (rule instanceof TextLevelRule) {
         continue;
       }
@@ -566,16 +709,78 @@ public class JLanguageTool {
       if (paraMode == ParagraphHandling.ONLYPARA) {
         continue;
       }
+      if (cachedEntry != null && rule.isSentenceLocal()) {
+        // skip the matches of rules that have been skipped above:
+        while (cachedPos < cachedEntry.matches.length && cachedEntry.matches[cachedPos].ruleIndex < i) {
+          cachedPos++;
+        }
+        while (cachedPos < cachedEntry.matches.length && cachedEntry.matches[cachedPos].ruleIndex == i) {
+          final RuleMatch cachedMatch = cachedEntry.matches[cachedPos++].toRuleMatch(rule);
+          sentenceMatches.add(adjustRuleMatchPos(cachedMatch, charCount, lineIndex, annotatedText));
+        }
+        continue;
+      }
+      cancellationToken.checkCancelled();
+      final long startTime = ruleNanos != null ? System.nanoTime() : 0;
       final RuleMatch[] thisMatches = rule.match(analyzedSentence);
+      if (ruleNanos != null) {
+        RuleCosts.addNanos(ruleNanos, rule.getId(), System.nanoTime() - startTime);
+      }
       for (final RuleMatch element1 : thisMatches) {
-        final RuleMatch thisMatch = adjustRuleMatchPos(element1,
-            charCount, columnCount, lineCount, sentence, annotatedText);
-        sentenceMatches.add(thisMatch);
+        if (fillCache && rule.isSentenceLocal()) {
+          localMatches.add(new ResultCache.CachedMatch(i, element1));
+        }
+        sentenceMatches.add(adjustRuleMatchPos(element1, charCount, lineIndex, annotatedText));
       }
     }
+    if (fillCache) {
+      cache.put(cacheKey, new ResultCache.Entry(localMatches.toArray(new ResultCache.CachedMatch[localMatches.size()])));
+    }
     return new SameRuleGroupFilter().filter(sentenceMatches);
   }
 
+  /**
+   * A fingerprint of the given rules, of which of them are active and cached, and of their settings,
+   * used as part of the cache key.
+   */
+  private long getRuleFingerprint(List<Rule> rules) {
+    long fingerprint = 0xcbf29ce484222325L;
+    for (Rule rule : rules) {
+      String id = rule instanceof PatternRule ? rule.getId() + "[" + ((PatternRule) rule).getSubId() + "]" : rule.getId();
+      fingerprint = (fingerprint ^ Objects.hashCode(id)) * 0x100000001b3L;
+      fingerprint = (fingerprint ^ (ignoreRule(rule) ? 1 : 2)) * 0x100000001b3L;
+      fingerprint = (fingerprint ^ (rule.isSentenceLocal() ? 1 : 2)) * 0x100000001b3L;
+      fingerprint = (fingerprint ^ rule.getSettingsHash()) * 0x100000001b3L;
+    }
+    return fingerprint;
+  }
+
+  /**
+   * Look up the index and the fingerprint of the given rules. Both take time proportional to the number
+   * of rules, so a check that creates many {@link TextCheckCallable}s for the same rules should call this
+   * only once and pass the result to each of them.
+   */
+  PreparedRules prepareRules(List<Rule> rules) {
+    return new PreparedRules(rules, getPatternRuleIndex(rules), cache != null ? getRuleFingerprint(rules) : 0);
+  }
+
+  /**
+   * Get the index for the given rules. The index is only built once, later checks with the same rules
+   * (e.g. as returned by {@link #getAllRules()}) will re-use it. Synchronized, as
+   * {@link MultiThreadedJLanguageTool} may create its {@link TextCheckCallable}s in several threads.
+   */
+  private synchronized PatternRuleIndex getPatternRuleIndex(List<Rule> rules) {
+    PatternRuleIndex ruleIndex = ruleIndexes.get(rules);
+    if (ruleIndex == null) {
+      if (ruleIndexes.size() >= MAX_RULE_INDEXES) {
+        ruleIndexes.clear();  // rules have changed, e.g. by addRule()
+      }
+      ruleIndex = new PatternRuleIndex(rules);
+      ruleIndexes.put(new ArrayList<>(rules), ruleIndex);
+    }
+    return ruleIndex;
+  }
+
   private boolean ignoreRule(Rule rule) {
     if (disabledRules.contains(rule.getId())) {
       return true;
@@ -601,8 +806,19 @@ public class JLanguageTool {
    */
   public RuleMatch adjustRuleMatchPos(final RuleMatch match, int charCount,
       int columnCount, int lineCount, final String sentence, final AnnotatedText annotatedText) {
-    int fromPos = match.getFromPos() + charCount;
-    int toPos = match.getToPos() + charCount;
+    final LineIndex lineIndex = new LineIndex(Collections.singletonList(sentence), charCount, lineCount, columnCount);
+    return adjustRuleMatchPos(match, charCount, lineIndex, annotatedText);
+  }
+
+  /**
+   * @param lineIndex the lines of the text, used to set the match's line and column
+   */
+  private RuleMatch adjustRuleMatchPos(final RuleMatch match, int charCount,
+      LineIndex lineIndex, final AnnotatedText annotatedText) {
+    final int plainFromPos = match.getFromPos() + charCount;
+    final int plainToPos = match.getToPos() + charCount;
+    int fromPos = plainFromPos;
+    int toPos = plainToPos;
     if (annotatedText != null) {
       fromPos = annotatedText.getOriginalTextPositionFor(fromPos);
       toPos = annotatedText.getOriginalTextPositionFor(toPos - 1) + 1;
@@ -610,29 +826,11 @@ public class JLanguageTool {
     final RuleMatch thisMatch = new RuleMatch(match.getRule(),
         fromPos, toPos, match.getMessage(), match.getShortMessage());
     thisMatch.setSuggestedReplacements(match.getSuggestedReplacements());
-    final String sentencePartToError = sentence.substring(0, match.getFromPos());
-    final String sentencePartToEndOfError = sentence.substring(0, match.getToPos());
-    final int lastLineBreakPos = sentencePartToError.lastIndexOf('\n');
-    final int column;
-    final int endColumn;
-    if (lastLineBreakPos == -1) {
-      column = sentencePartToError.length() + columnCount;
-    } else {
-      column = sentencePartToError.length() - lastLineBreakPos;
-    }
-    final int lastLineBreakPosInError = sentencePartToEndOfError.lastIndexOf('\n');
-    if (lastLineBreakPosInError == -1) {
-      endColumn = sentencePartToEndOfError.length() + columnCount;
-    } else {
-      endColumn = sentencePartToEndOfError.length() - lastLineBreakPosInError;
-    }
-    final int lineBreaksToError = countLineBreaks(sentencePartToError);
-    final int lineBreaksToEndOfError = countLineBreaks(sentencePartToEndOfError);
-    thisMatch.setLine(lineCount + lineBreaksToError);
-    thisMatch.setEndLine(lineCount + lineBreaksToEndOfError);
-    thisMatch.setColumn(column);
-    thisMatch.setEndColumn(endColumn);
-    thisMatch.setOffset(match.getFromPos() + charCount);
+    thisMatch.setLine(lineIndex.getLine(plainFromPos));
+    thisMatch.setEndLine(lineIndex.getLine(plainToPos));
+    thisMatch.setColumn(lineIndex.getColumn(plainFromPos));
+    thisMatch.setEndColumn(lineIndex.getColumn(plainToPos));
+    thisMatch.setOffset(plainFromPos);
     return thisMatch;
   }
 
@@ -864,21 +1062,78 @@ public class JLanguageTool {
     }
   }
 
+  /**
+   * Rules together with their index and fingerprint, see {@link #prepareRules(List)}.
+   */
+  static class PreparedRules {
+
+    private final List<Rule> rules;
+    private final PatternRuleIndex ruleIndex;
+    private final long fingerprint;
+    private final boolean hasSentenceLevelRules;
+
+    private PreparedRules(List<Rule> rules, PatternRuleIndex ruleIndex, long fingerprint) {
+      this.rules = rules;
+      this.ruleIndex = ruleIndex;
+      this.fingerprint = fingerprint;
+      this.hasSentenceLevelRules = hasSentenceLevelRules(rules);
+    }
+
+    List<Rule> getRules() {
+      return rules;
+    }
+
+    private static boolean hasSentenceLevelRules(List<Rule> rules) {
+      for (Rule rule : rules) {
+        if (!(rule instanceof TextLevelRule)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
   class TextCheckCallable implements Callable<List<RuleMatch>> {
 
     private final List<Rule> rules;
+    private final PatternRuleIndex ruleIndex;
     private final ParagraphHandling paraMode;
     private final AnnotatedText annotatedText;
     private final List<String> sentences;
     private final List<AnalyzedSentence> analyzedSentences;
+    private final CancellationToken cancellationToken;
+    private final ResultCache cache;
+    private final long ruleFingerprint;
+    private final RuleCosts ruleCosts;
+    private final boolean hasSentenceLevelRules;
+    private final LineIndex lineIndex;
     
     private int charCount;
-    private int lineCount;
-    private int columnCount;
 
     TextCheckCallable(List<Rule> rules, List<String> sentences, List<AnalyzedSentence> analyzedSentences,
                       ParagraphHandling paraMode, AnnotatedText annotatedText, int charCount, int lineCount, int columnCount) {
-      this.rules = rules;
+      this(rules, sentences, analyzedSentences, paraMode, annotatedText, charCount,
+           new LineIndex(sentences, charCount, lineCount, columnCount), null);
+    }
+
+    /**
+     * @param lineIndex the lines of the text, which may be longer than the sentences
+     * @param ruleCosts where to record the time the rules take, or {@code null} to not measure the time
+     */
+    TextCheckCallable(List<Rule> rules, List<String> sentences, List<AnalyzedSentence> analyzedSentences,
+                      ParagraphHandling paraMode, AnnotatedText annotatedText, int charCount, LineIndex lineIndex,
+                      @Nullable RuleCosts ruleCosts) {
+      this(prepareRules(rules), sentences, analyzedSentences, paraMode, annotatedText, charCount, lineIndex, ruleCosts);
+    }
+
+    /**
+     * @param preparedRules the rules, as returned by {@link #prepareRules(List)} for this check
+     */
+    TextCheckCallable(PreparedRules preparedRules, List<String> sentences, List<AnalyzedSentence> analyzedSentences,
+                      ParagraphHandling paraMode, AnnotatedText annotatedText, int charCount, LineIndex lineIndex,
+                      @Nullable RuleCosts ruleCosts) {
+      this.rules = preparedRules.rules;
+      this.ruleIndex = preparedRules.ruleIndex;
       if (sentences.size() != analyzedSentences.size()) {
         throw new IllegalArgumentException("sentences and analyzedSentences do not have the same length : " + sentences.size() + " != " + analyzedSentences.size());
       }
@@ -886,104 +1141,83 @@ public class JLanguageTool {
       this.analyzedSentences = analyzedSentences;
       this.paraMode = paraMode;
       this.annotatedText = annotatedText;
+      this.cancellationToken = getCancellationToken();
+      this.cache = JLanguageTool.this.cache;
+      this.ruleFingerprint = preparedRules.fingerprint;
       this.charCount = charCount;
-      this.lineCount = lineCount;
-      this.columnCount = columnCount;
+      this.lineIndex = lineIndex;
+      this.ruleCosts = ruleCosts;
+      this.hasSentenceLevelRules = preparedRules.hasSentenceLevelRules;
     }
 
     @Override
     public List<RuleMatch> call() throws Exception {
       final List<RuleMatch> ruleMatches = new ArrayList<>();
+      final Map<String, long[]> ruleNanos = ruleCosts != null ? new HashMap<String, long[]>() : null;
       int i = 0;
       for (Rule rule : rules) {
         if (rule instanceof TextLevelRule && !ignoreRule(rule) && paraMode != ParagraphHandling.ONLYNONPARA) {
+          cancellationToken.checkCancelled();
+          final long startTime = ruleNanos != null ? System.nanoTime() : 0;
           RuleMatch[] matches = ((TextLevelRule) rule).match(analyzedSentences);
+          if (ruleNanos != null) {
+            RuleCosts.addNanos(ruleNanos, rule.getId(), System.nanoTime() - startTime);
+          }
+          // text-level rules report positions relative to the first of the sentences, just like
+          // sentence-level rules do relative to their sentence. Like those, they get mapped to the
+          // original text, including markup (before 2.9, they were left as positions in the plain text):
           for (RuleMatch match : matches) {
-            LineColumnRange range = getLineColumnRange(match);
-            match.setColumn(range.from.column);
-            match.setEndColumn(range.to.column);
-            match.setLine(range.from.line);
-            match.setEndLine(range.to.line);
+            ruleMatches.add(adjustRuleMatchPos(match, charCount, lineIndex, annotatedText));
           }
-          ruleMatches.addAll(Arrays.asList(matches));
         }
       }
+      if (!hasSentenceLevelRules) {
+        recordCosts(ruleNanos);
+        return ruleMatches;
+      }
       for (final AnalyzedSentence analyzedSentence : analyzedSentences) {
         final String sentence = sentences.get(i++);
+        cancellationToken.checkCancelled();
         try {
+          // only use the rules that can possibly match this sentence:
+          final List<Rule> candidateRules = ruleIndex.getCandidateRules(analyzedSentence);
           final List<RuleMatch> sentenceMatches =
-                  checkAnalyzedSentence(paraMode, rules, charCount, lineCount,
-                          columnCount, sentence, analyzedSentence, annotatedText);
+                  checkAnalyzedSentence(paraMode, candidateRules, charCount, lineIndex,
+                          sentence, analyzedSentence, annotatedText, getCacheKey(sentence, analyzedSentence), ruleNanos);
 
           ruleMatches.addAll(sentenceMatches);
           charCount += sentence.length();
-          lineCount += countLineBreaks(sentence);
-
-          // calculate matching column:
-          final int lineBreakPos = sentence.lastIndexOf('\n');
-          if (lineBreakPos == -1) {
-            columnCount += sentence.length();
-          } else {
-            if (lineBreakPos == 0) {
-              columnCount = sentence.length();
-              if (!language.getSentenceTokenizer().singleLineBreaksMarksPara()) {
-                columnCount--;
-              }
-            } else {
-              columnCount = sentence.length() - lineBreakPos;
-            }
-          }
+        } catch (CheckCancelledException e) {
+          throw e;
         } catch (Exception e) {
           throw new RuntimeException("Could not check sentence: '"
                   + StringUtils.abbreviate(analyzedSentence.toTextString(), 200) + "'", e);
         }
       }
+      recordCosts(ruleNanos);
       return ruleMatches;
     }
 
-    private LineColumnRange getLineColumnRange(RuleMatch match) {
-      LineColumnPosition fromPos = new LineColumnPosition(-1, -1);
-      LineColumnPosition toPos = new LineColumnPosition(-1, -1);
-      LineColumnPosition pos = new LineColumnPosition(0, 0);
-      int charCount = 0;
-      for (AnalyzedSentence analyzedSentence : analyzedSentences) {
-        for (AnalyzedTokenReadings readings : analyzedSentence.getTokens()) {
-          String token = readings.getToken();
-          if ("\n".equals(token)) {
-            pos.line++;
-            pos.column = 0;
-          }
-          pos.column += token.length();
-          charCount += token.length();
-          if (charCount == match.getFromPos()) {
-            fromPos = new LineColumnPosition(pos.line, pos.column);
-          } 
-          if (charCount == match.getToPos()) {
-            toPos = new LineColumnPosition(pos.line, pos.column);
-          }
+    private void recordCosts(@Nullable Map<String, long[]> ruleNanos) {
+      if (ruleCosts != null) {
+        int checkedChars = 0;
+        for (String sentence : sentences) {
+          checkedChars += sentence.length();
         }
+        ruleCosts.add(rules, ruleNanos, checkedChars);
       }
-      return new LineColumnRange(fromPos, toPos);
     }
-    
-    private class LineColumnPosition {
-      int line;
-      int column;
-      private LineColumnPosition(int line, int column) {
-        this.line = line;
-        this.column = column;
-      }
-    }
-  
-    private class LineColumnRange {
-      LineColumnPosition from;
-      LineColumnPosition to;
-      private LineColumnRange(LineColumnPosition from, LineColumnPosition to) {
-        this.from = from;
-        this.to = to;
+
+    @Nullable
+    private ResultCache.Key getCacheKey(String sentence, AnalyzedSentence analyzedSentence) {
+      if (cache == null || paraMode == ParagraphHandling.ONLYPARA) {
+        return null;
       }
+      final AnalyzedTokenReadings[] tokens = analyzedSentence.getTokens();
+      final boolean paragraphEnd = tokens[tokens.length - 1].isParagraphEnd();
+      return new ResultCache.Key(language, motherTongue, ruleFingerprint, sentence, paragraphEnd);
     }
-  
+
   }
 
 }
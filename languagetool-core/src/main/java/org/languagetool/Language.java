@@ -232,7 +232,8 @@ public abstract class Language {
   // -------------------------------------------------------------------------
 
   /**
-   * @param indexDir directory with a '3grams' sub directory which contains a Lucene index with 3gram occurrence counts
+   * @param indexDir directory with a '3grams' sub directory which contains a Lucene index with 3gram occurrence counts,
+   *                 or with a '3grams.bin' file as used by {@link org.languagetool.languagemodel.MappedLanguageModel}
    * @return a LanguageModel or {@code null} if this language doesn't support one
    * @since 2.7
    */
@@ -0,0 +1,99 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The offsets at which the lines of a text start, so the line and column of any offset
+ * can be found with a binary search instead of counting the line breaks before it.
+ * Lines are zero-based, columns start at 1.
+ * @since 2.9
+ */
+class LineIndex {
+
+  private final int startOffset;
+  private final int startLine;
+  private final int startColumn;
+  private final int[] lineStarts;
+  private final int lineStartCount;
+
+  /**
+   * @param sentences the text, usually only a part of it
+   * @param startOffset the offset at which the first sentence starts
+   * @param startLine the line at which the first sentence starts
+   * @param startColumn the column at which the first sentence starts
+   */
+  LineIndex(List<String> sentences, int startOffset, int startLine, int startColumn) {
+    this.startOffset = startOffset;
+    this.startLine = startLine;
+    this.startColumn = startColumn;
+    int[] starts = new int[16];
+    int count = 0;
+    int offset = startOffset;
+    for (String sentence : sentences) {
+      for (int i = 0; i < sentence.length(); i++) {
+        if (sentence.charAt(i) == '\n') {
+          if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+          }
+          starts[count++] = offset + i + 1;
+        }
+      }
+      offset += sentence.length();
+    }
+    this.lineStarts = starts;
+    this.lineStartCount = count;
+  }
+
+  /**
+   * The line of the character at the given offset of the complete text.
+   */
+  int getLine(int offset) {
+    return startLine + getLineIndex(offset);
+  }
+
+  /**
+   * The column of the character at the given offset of the complete text.
+   */
+  int getColumn(int offset) {
+    final int lineIndex = getLineIndex(offset);
+    if (lineIndex == 0) {
+      return offset - startOffset + startColumn;
+    }
+    return offset - lineStarts[lineIndex - 1] + 1;
+  }
+
+  // the number of lines that start at or before the offset:
+  private int getLineIndex(int offset) {
+    int low = 0;
+    int high = lineStartCount;
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (lineStarts[middle] <= offset) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+}
@@ -20,29 +20,56 @@ package org.languagetool;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.RecursiveTask;
 
 import org.languagetool.markup.AnnotatedText;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.TextLevelRule;
 
 /**
  * A variant of {@link JLanguageTool} that uses several threads for rule matching.
  * Use this if you want text checking to be fast and do not care about the 
  * high load that this might cause.
+ *
+ * <p>The rules are split into one chunk per thread, keeping the rules of a rule group
+ * together. The time each rule takes is measured, so that the chunks can be made equally
+ * expensive instead of equally large. The text is then split into parts so that each
+ * task of checking a part with a chunk of rules takes about the same time. Threads that are
+ * done early take over tasks from the others.
+ *
+ * <p>In {@link #setPipelined(boolean) pipelined} mode, a sentence is checked as soon as it
+ * has been analyzed, instead of after all sentences have been analyzed.
  * 
  * <p><b>Thread-safety:</b> See the remarks at {@link JLanguageTool}.
  */
 public class MultiThreadedJLanguageTool extends JLanguageTool {
-  
+
+  // the number of tasks per thread the work is split into, so that threads can help each other:
+  private static final int TASKS_PER_THREAD = 4;
+  // the number of sentences per thread that are analyzed but not yet checked in pipelined mode:
+  private static final int QUEUED_SENTENCES_PER_THREAD = 4;
+  // the chunks are created again if a chunk's share of the measured costs has changed by more than this factor:
+  private static final double MAX_COST_DRIFT = 1.5;
+
   private final int threadPoolSize;
-  private final ExecutorService threadPool;
+  private final ForkJoinPool threadPool;
+  private final RuleCosts ruleCosts = new RuleCosts();
+
+  // the rules of the last check and how they were split into chunks:
+  private List<Rule> chunkedRules;
+  private List<List<Rule>> ruleChunks;
+  private double[] ruleChunkCostShares;
+  private boolean ruleChunksFromMeasurements;
+  private boolean pipelined;
 
   public MultiThreadedJLanguageTool(Language language) {
     this(language, null);
@@ -70,7 +97,7 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
       throw new IllegalArgumentException("threadPoolSize must be >= 1: " + threadPoolSize);
     }
     this.threadPoolSize = threadPoolSize;
-    threadPool = Executors.newFixedThreadPool(getThreadPoolSize(), new DaemonThreadFactory());
+    threadPool = new ForkJoinPool(getThreadPoolSize());  // uses daemon threads, so we don't have to shut it down
   }
 
   private static int getDefaultThreadCount() {
@@ -90,11 +117,128 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
   }
   
   /**
-   * @return a fixed size executor with the given number of threads
+   * The executor that analyzes and checks the sentences. Subclasses may return another executor, but
+   * only with a {@link ForkJoinPool}, the threads can take over parts of each other's work.
+   * @return a fork/join pool with the given number of threads
    */
   protected ExecutorService getExecutorService() {
     return threadPool;
   }
+
+  RuleCosts getRuleCosts() {
+    return ruleCosts;
+  }
+
+  /**
+   * In pipelined mode, each sentence is checked with the sentence-level rules as soon as it has
+   * been analyzed. Only a few sentences per thread are analyzed ahead, so a long text's
+   * sentences are not all kept in memory at once, unless a text-level rule needs them. The
+   * first matches are found earlier, but the rules cannot be split as evenly between the threads
+   * as in the default mode. Use this for long texts.
+   * @since 2.9
+   */
+  public void setPipelined(boolean pipelined) {
+    this.pipelined = pipelined;
+  }
+
+  @Override
+  protected List<RuleMatch> analyzeAndCheck(List<String> sentences, List<Rule> allRules, ParagraphHandling paraMode,
+                                            AnnotatedText annotatedText) throws IOException {
+    if (!pipelined) {
+      return super.analyzeAndCheck(sentences, allRules, paraMode, annotatedText);
+    }
+    final List<Rule> sentenceLocalRules = new ArrayList<>();
+    final List<Rule> inOrderRules = new ArrayList<>();
+    final List<Rule> textLevelRules = new ArrayList<>();
+    for (List<Rule> group : getRuleGroups(allRules)) {
+      if (isSentenceLocal(group)) {
+        sentenceLocalRules.addAll(group);
+      } else {
+        for (Rule rule : group) {
+          if (rule instanceof TextLevelRule) {
+            textLevelRules.add(rule);
+          } else {
+            inOrderRules.add(rule);
+          }
+        }
+      }
+    }
+    // the rules are the same for each sentence, so their index and fingerprint are only looked up once:
+    final PreparedRules preparedSentenceLocalRules = prepareRules(sentenceLocalRules);
+    final PreparedRules preparedInOrderRules = prepareRules(inOrderRules);
+    final SentencePositions positions = new SentencePositions(sentences, 0);
+    final LineIndex lineIndex = new LineIndex(sentences, 0, 0, 1);
+    final int maxQueuedSentences = getThreadPoolSize() * QUEUED_SENTENCES_PER_THREAD;
+    final List<Future<AnalyzedSentence>> analyzedSentenceFutures = new ArrayList<>();
+    final List<Future<List<RuleMatch>>> sentenceMatchFutures = new ArrayList<>();
+    final List<List<RuleMatch>> inOrderMatches = new ArrayList<>();
+    final List<AnalyzedSentence> analyzedSentences = new ArrayList<>();
+    final List<RuleMatch> ruleMatches = new ArrayList<>();
+    final ExecutorService executorService = getExecutorService();
+    int checkedSentences = 0;
+    try {
+      for (int i = 0; i < sentences.size(); i++) {
+        // analyze the next sentences, but not too many ahead:
+        while (analyzedSentenceFutures.size() < sentences.size() && analyzedSentenceFutures.size() - checkedSentences < maxQueuedSentences) {
+          final int j = analyzedSentenceFutures.size();
+          analyzedSentenceFutures.add(executorService.submit(j < sentences.size() - 1
+                  ? new AnalyzeSentenceCallable(sentences.get(j))
+                  : new ParagraphEndAnalyzeSentenceCallable(sentences.get(j))));
+        }
+        final AnalyzedSentence analyzedSentence = analyzedSentenceFutures.get(i).get();
+        analyzedSentenceFutures.set(i, null);
+        rememberUnknownWords(analyzedSentence);
+        printSentenceInfo(analyzedSentence);
+        if (textLevelRules.size() > 0) {
+          // text-level rules get all sentences at once, so these sentences can't be dropped after their check:
+          analyzedSentences.add(analyzedSentence);
+        }
+        final List<String> sentence = sentences.subList(i, i + 1);
+        final List<AnalyzedSentence> analyzedSentenceList = Collections.singletonList(analyzedSentence);
+        sentenceMatchFutures.add(executorService.submit(new TextCheckCallable(preparedSentenceLocalRules, sentence, analyzedSentenceList,
+                paraMode, annotatedText, positions.charCounts[i], lineIndex, ruleCosts)));
+        // rules that keep state between sentences need to see the sentences in order, so they run in this thread:
+        inOrderMatches.add(new TextCheckCallable(preparedInOrderRules, sentence, analyzedSentenceList, paraMode, annotatedText,
+                positions.charCounts[i], lineIndex, ruleCosts).call());
+        // collect the matches in the order of the sentences:
+        while (checkedSentences <= i && (sentenceMatchFutures.get(checkedSentences).isDone() ||
+                analyzedSentenceFutures.size() - checkedSentences >= maxQueuedSentences)) {
+          ruleMatches.addAll(sentenceMatchFutures.get(checkedSentences).get());
+          ruleMatches.addAll(inOrderMatches.get(checkedSentences));
+          sentenceMatchFutures.set(checkedSentences, null);
+          inOrderMatches.set(checkedSentences, null);
+          checkedSentences++;
+        }
+      }
+      for (; checkedSentences < sentences.size(); checkedSentences++) {
+        ruleMatches.addAll(sentenceMatchFutures.get(checkedSentences).get());
+        ruleMatches.addAll(inOrderMatches.get(checkedSentences));
+      }
+      if (textLevelRules.size() > 0) {
+        ruleMatches.addAll(new TextCheckCallable(textLevelRules, sentences, analyzedSentences, paraMode, annotatedText,
+                0, lineIndex, ruleCosts).call());
+      }
+    } catch (ExecutionException e) {
+      throw getCancelledOrRuntimeException(e);
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    } finally {
+      cancelAll(analyzedSentenceFutures);
+      cancelAll(sentenceMatchFutures);
+    }
+    return ruleMatches;
+  }
+
+  // stop the tasks that are still running after an error:
+  private void cancelAll(List<? extends Future<?>> futures) {
+    for (Future<?> future : futures) {
+      if (future != null) {
+        future.cancel(true);
+      }
+    }
+  }
   
   @Override
   protected List<AnalyzedSentence> analyzeSentences(List<String> sentences) throws IOException {
@@ -122,7 +266,9 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
         analyzedSentences.add(analyzedSentence);
       }
       
-    } catch (InterruptedException | ExecutionException e) {
+    } catch (ExecutionException e) {
+      throw getCancelledOrRuntimeException(e);
+    } catch (InterruptedException e) {
       throw new RuntimeException(e);
     }
     
@@ -133,64 +279,320 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
   @Override
   protected List<RuleMatch> performCheck(final List<AnalyzedSentence> analyzedSentences, final List<String> sentences,
        final List<Rule> allRules, final ParagraphHandling paraMode, 
-       final AnnotatedText annotatedText) throws IOException {
-    int charCount = 0;
-    int lineCount = 0;
-    int columnCount = 1;
-
-    final List<RuleMatch> ruleMatches = new ArrayList<>();
-    
+       final AnnotatedText annotatedText, int charCount, int lineCount, int columnCount) throws IOException {
+    final SentencePositions positions = new SentencePositions(sentences, charCount);
+    final LineIndex lineIndex = new LineIndex(sentences, charCount, lineCount, columnCount);
+    final List<List<Rule>> chunks = getRuleChunks(allRules);
+    final double[] chunkCosts = new double[chunks.size()];
+    double totalCost = 0;
+    for (int i = 0; i < chunks.size(); i++) {
+      chunkCosts[i] = getCost(getRuleGroups(chunks.get(i)));
+      totalCost += chunkCosts[i];
+    }
+    final double maxTaskCost = totalCost * positions.getCharCount(0, sentences.size()) / (getThreadPoolSize() * TASKS_PER_THREAD);
+    final List<RuleChunkTask> tasks = new ArrayList<>();
+    for (int i = 0; i < chunks.size(); i++) {
+      final CheckContext context = new CheckContext(prepareRules(chunks.get(i)), chunkCosts[i], maxTaskCost, sentences,
+              analyzedSentences, positions, lineIndex, paraMode, annotatedText);
+      tasks.add(new RuleChunkTask(context, 0, sentences.size()));
+    }
     final ExecutorService executorService = getExecutorService();
+    if (!(executorService instanceof ForkJoinPool)) {
+      return performCheckPerChunk(executorService, tasks);
+    }
     try {
-      final List<Callable<List<RuleMatch>>> callables =
-              createTextCheckCallables(paraMode, annotatedText, analyzedSentences, sentences, allRules, charCount, lineCount, columnCount);
-      final List<Future<List<RuleMatch>>> futures = executorService.invokeAll(callables);
-      for (Future<List<RuleMatch>> future : futures) {
+      return ((ForkJoinPool) executorService).invoke(new RecursiveTask<List<RuleMatch>>() {
+        @Override
+        protected List<RuleMatch> compute() {
+          invokeAll(tasks);
+          final List<RuleMatch> ruleMatches = new ArrayList<>();
+          for (RuleChunkTask task : tasks) {
+            ruleMatches.addAll(task.join());
+          }
+          return ruleMatches;
+        }
+      });
+    } catch (RuntimeException e) {
+      throw getCancelledOrRuntimeException(e);
+    }
+  }
+
+  // without a fork/join pool, the tasks can't be split, so each chunk of rules checks the whole text:
+  private List<RuleMatch> performCheckPerChunk(ExecutorService executorService, List<RuleChunkTask> tasks) throws IOException {
+    final List<Callable<List<RuleMatch>>> callables = new ArrayList<>();
+    for (RuleChunkTask task : tasks) {
+      callables.add(task.toCallable());
+    }
+    try {
+      final List<RuleMatch> ruleMatches = new ArrayList<>();
+      for (Future<List<RuleMatch>> future : executorService.invokeAll(callables)) {
         ruleMatches.addAll(future.get());
       }
-    } catch (InterruptedException | ExecutionException e) {
+      return ruleMatches;
+    } catch (ExecutionException e) {
+      throw getCancelledOrRuntimeException(e);
+    } catch (InterruptedException e) {
       throw new RuntimeException(e);
     }
-    
-    return ruleMatches;
   }
 
-  private List<Callable<List<RuleMatch>>> createTextCheckCallables(ParagraphHandling paraMode,
-       AnnotatedText annotatedText, List<AnalyzedSentence> analyzedSentences, List<String> sentences, 
-       List<Rule> allRules, int charCount, int lineCount, int columnCount) {
-    final int threads = getThreadPoolSize();
-    final int totalRules = allRules.size();
-    final int chunkSize = totalRules / threads;
-    int firstItem = 0;
-    final List<Callable<List<RuleMatch>>> callables = new ArrayList<>();
-    
-    // split the rules - all rules are independent, so it makes more sense to split
-    // the rules than to split the text:
-    for (int i = 0; i < threads; i++) {
-      final List<Rule> subRules;
-      //TODO: make sure we don't split rules with same id so RuleGroupFilter still works
-      if (i == threads - 1) {
-        // make sure the last rules are not lost due to rounding issues:
-        subRules = allRules.subList(firstItem, totalRules);
+  private RuntimeException getCancelledOrRuntimeException(Exception e) {
+    // the fork/join pool may re-throw a copy of the exception with the original as its cause:
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof CheckCancelledException) {
+        // all tasks use the same token, so they all stop - no need to wrap the exception:
+        return (CheckCancelledException) t;
+      }
+    }
+    return e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+  }
+
+  /**
+   * Get the rules split into chunks, one per thread. The chunks are only created again if
+   * the rules have changed, if the first measurements of the rules' costs are available, or
+   * if the measured costs have changed so much that the chunks are no longer balanced. So the
+   * pattern rule index and the cache entries of the chunks can be re-used most of the time.
+   */
+  List<List<Rule>> getRuleChunks(List<Rule> allRules) {
+    final boolean measured = ruleCosts.hasMeasurements();
+    if (ruleChunks == null || !allRules.equals(chunkedRules) || (measured && !ruleChunksFromMeasurements)
+            || (measured && hasCostDrifted())) {
+      ruleChunks = createRuleChunks(allRules, getThreadPoolSize());
+      chunkedRules = new ArrayList<>(allRules);
+      ruleChunkCostShares = getCostShares(ruleChunks);
+      ruleChunksFromMeasurements = measured;
+    }
+    return ruleChunks;
+  }
+
+  private boolean hasCostDrifted() {
+    final double[] costShares = getCostShares(ruleChunks);
+    for (int i = 0; i < costShares.length; i++) {
+      if (costShares[i] > ruleChunkCostShares[i] * MAX_COST_DRIFT || ruleChunkCostShares[i] > costShares[i] * MAX_COST_DRIFT) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // each chunk's share of the total cost:
+  private double[] getCostShares(List<List<Rule>> chunks) {
+    final double[] costShares = new double[chunks.size()];
+    double totalCost = 0;
+    for (int i = 0; i < chunks.size(); i++) {
+      costShares[i] = getCost(getRuleGroups(chunks.get(i)));
+      totalCost += costShares[i];
+    }
+    for (int i = 0; i < costShares.length; i++) {
+      costShares[i] = totalCost > 0 ? costShares[i] / totalCost : 0;
+    }
+    return costShares;
+  }
+
+  /**
+   * Split the rules into chunks of about the same cost. The rules of a rule group (i.e. with the
+   * same id) stay in one chunk so that {@link org.languagetool.rules.SameRuleGroupFilter} still works.
+   * Rules that are not {@link Rule#isSentenceLocal() sentence-local} may keep state from one sentence
+   * to the next or, like text-level rules, need the complete text, so they get chunks of their own
+   * that are never split by sentences. These come first in the result.
+   */
+  List<List<Rule>> createRuleChunks(List<Rule> allRules, int chunkCount) {
+    final List<List<Rule>> wholeTextGroups = new ArrayList<>();
+    final List<List<Rule>> sentenceLocalGroups = new ArrayList<>();
+    for (List<Rule> group : getRuleGroups(allRules)) {
+      if (isSentenceLocal(group)) {
+        sentenceLocalGroups.add(group);
       } else {
-        subRules = allRules.subList(firstItem, firstItem + chunkSize);
+        wholeTextGroups.add(group);
+      }
+    }
+    final double wholeTextCost = getCost(wholeTextGroups);
+    final double sentenceLocalCost = getCost(sentenceLocalGroups);
+    final double totalCost = wholeTextCost + sentenceLocalCost;
+    final int wholeTextChunkCount = totalCost > 0 ? (int) Math.round(chunkCount * wholeTextCost / totalCost) : 1;
+    final List<List<Rule>> chunks = new ArrayList<>();
+    chunks.addAll(createRuleChunks(wholeTextGroups, wholeTextCost, Math.max(1, wholeTextChunkCount)));
+    chunks.addAll(createRuleChunks(sentenceLocalGroups, sentenceLocalCost, chunkCount));
+    return chunks;
+  }
+
+  private List<List<Rule>> createRuleChunks(List<List<Rule>> groups, double totalCost, int chunkCount) {
+    final List<List<Rule>> chunks = new ArrayList<>();
+    List<Rule> chunk = new ArrayList<>();
+    double cost = 0;
+    int chunkEnd = 1;
+    for (List<Rule> group : groups) {
+      chunk.addAll(group);
+      cost += ruleCosts.getCost(group.get(0).getId());
+      if (totalCost > 0 && cost >= totalCost * chunkEnd / chunkCount) {
+        chunks.add(chunk);
+        chunk = new ArrayList<>();
+        while (cost >= totalCost * chunkEnd / chunkCount && chunkEnd < chunkCount) {
+          chunkEnd++;  // an expensive group may fill more than one chunk
+        }
+      }
+    }
+    if (chunk.size() > 0) {
+      chunks.add(chunk);
+    }
+    return chunks;
+  }
+
+  // the rules of a group come one after the other:
+  private List<List<Rule>> getRuleGroups(List<Rule> rules) {
+    final List<List<Rule>> groups = new ArrayList<>();
+    List<Rule> group = null;
+    for (Rule rule : rules) {
+      if (group == null || !rule.getId().equals(group.get(0).getId())) {
+        group = new ArrayList<>();
+        groups.add(group);
+      }
+      group.add(rule);
+    }
+    return groups;
+  }
+
+  private static boolean isSentenceLocal(List<Rule> rules) {
+    for (Rule rule : rules) {
+      if (rule instanceof TextLevelRule || !rule.isSentenceLocal()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private double getCost(List<List<Rule>> groups) {
+    double cost = 0;
+    for (List<Rule> group : groups) {
+      cost += ruleCosts.getCost(group.get(0).getId());
+    }
+    return cost;
+  }
+
+  /**
+   * Everything a {@link RuleChunkTask} needs to check the text with a chunk of rules.
+   */
+  private static class CheckContext {
+    private final PreparedRules rules;
+    private final double costPerChar;
+    private final double maxTaskCost;
+    private final boolean splittable;
+    private final List<String> sentences;
+    private final List<AnalyzedSentence> analyzedSentences;
+    private final SentencePositions positions;
+    private final LineIndex lineIndex;
+    private final ParagraphHandling paraMode;
+    private final AnnotatedText annotatedText;
+
+    private CheckContext(PreparedRules rules, double costPerChar, double maxTaskCost, List<String> sentences,
+                         List<AnalyzedSentence> analyzedSentences, SentencePositions positions, LineIndex lineIndex,
+                         ParagraphHandling paraMode, AnnotatedText annotatedText) {
+      this.rules = rules;
+      this.costPerChar = costPerChar;
+      this.maxTaskCost = maxTaskCost;
+      this.splittable = isSentenceLocal(rules.getRules());
+      this.sentences = sentences;
+      this.analyzedSentences = analyzedSentences;
+      this.positions = positions;
+      this.lineIndex = lineIndex;
+      this.paraMode = paraMode;
+      this.annotatedText = annotatedText;
+    }
+  }
+
+  /**
+   * Check some sentences with a chunk of rules. If that's expected to take too long,
+   * the sentences are split in two parts and the other part is left for another thread.
+   */
+  private class RuleChunkTask extends RecursiveTask<List<RuleMatch>> {
+
+    private final CheckContext context;
+    private final int fromSentence;
+    private final int toSentence;
+
+    private RuleChunkTask(CheckContext context, int fromSentence, int toSentence) {
+      this.context = context;
+      this.fromSentence = fromSentence;
+      this.toSentence = toSentence;
+    }
+
+    @Override
+    protected List<RuleMatch> compute() {
+      final SentencePositions positions = context.positions;
+      final double cost = context.costPerChar * positions.getCharCount(fromSentence, toSentence);
+      if (context.splittable && toSentence - fromSentence > 1 && cost > context.maxTaskCost) {
+        final int middle = positions.getMiddle(fromSentence, toSentence);
+        final RuleChunkTask firstPart = new RuleChunkTask(context, fromSentence, middle);
+        final RuleChunkTask secondPart = new RuleChunkTask(context, middle, toSentence);
+        secondPart.fork();
+        final List<RuleMatch> ruleMatches = firstPart.compute();
+        ruleMatches.addAll(secondPart.join());
+        return ruleMatches;
+      }
+      try {
+        return toCallable().call();
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new RuntimeException(e);
       }
-      callables.add(new TextCheckCallable(subRules, sentences, analyzedSentences, paraMode, annotatedText, charCount, lineCount, columnCount));
-      firstItem = firstItem + chunkSize;
     }
-    return callables;
+
+    /**
+     * Check the sentences of this task with its chunk of rules, without splitting them.
+     */
+    private TextCheckCallable toCallable() {
+      return new TextCheckCallable(context.rules,
+              context.sentences.subList(fromSentence, toSentence), context.analyzedSentences.subList(fromSentence, toSentence),
+              context.paraMode, context.annotatedText, context.positions.charCounts[fromSentence], context.lineIndex, ruleCosts);
+    }
+  }
+
+  /**
+   * The character offset at which each sentence starts.
+   */
+  private static class SentencePositions {
+
+    private final int[] charCounts;
+
+    private SentencePositions(List<String> sentences, int charCount) {
+      charCounts = new int[sentences.size() + 1];
+      charCounts[0] = charCount;
+      for (int i = 0; i < sentences.size(); i++) {
+        charCounts[i + 1] = charCounts[i] + sentences.get(i).length();
+      }
+    }
+
+    private int getCharCount(int fromSentence, int toSentence) {
+      return charCounts[toSentence] - charCounts[fromSentence];
+    }
+
+    /**
+     * The sentence at which the text between the given sentences can be split
+     * into two parts of about the same length, never the first one.
+     */
+    private int getMiddle(int fromSentence, int toSentence) {
+      final int middleChar = (charCounts[fromSentence] + charCounts[toSentence]) / 2;
+      int pos = Arrays.binarySearch(charCounts, fromSentence + 1, toSentence, middleChar);
+      if (pos < 0) {
+        pos = -pos - 1;  // the insertion point
+      }
+      return Math.min(Math.max(pos, fromSentence + 1), toSentence - 1);
+    }
   }
 
   private class AnalyzeSentenceCallable implements Callable<AnalyzedSentence> {
     private final String sentence;
+    private final CancellationToken cancellationToken;
 
     private AnalyzeSentenceCallable(String sentence) {
       this.sentence = sentence;
+      this.cancellationToken = getCancellationToken();
     }
 
     @Override
     public AnalyzedSentence call() throws Exception {
-      return getAnalyzedSentence(sentence);
+      return getAnalyzedSentence(sentence, cancellationToken);
     }
   }
   
@@ -208,13 +610,4 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
       return analyzedSentence;
     }
   }
-
-  private static final class DaemonThreadFactory implements ThreadFactory {
-    @Override
-    public Thread newThread(Runnable r) {
-      Thread thread = new Thread(r);
-      thread.setDaemon(true); // so we don't have to shut down executor explicitly
-      return thread;
-    }
-  }
 }
@@ -0,0 +1,119 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads a text in chunks that end after a paragraph break, including the whitespace
+ * of the break, so each chunk can be split into sentences on its own. A chunk is
+ * returned without waiting for the paragraph break once it has reached the maximum length.
+ * @since 2.9
+ */
+class ParagraphReader {
+
+  private final Reader reader;
+  private final boolean singleLineBreaksMarksPara;
+  private final int maxLength;
+  private final char[] buffer = new char[8192];
+
+  private int bufferPos;
+  private int bufferEnd;
+  private boolean endOfText;
+  private boolean paragraphEnd;
+
+  /**
+   * @param singleLineBreaksMarksPara whether a single line break ends a paragraph, otherwise it
+   *                                  takes at least two line breaks (see {@link org.languagetool.tokenizers.SentenceTokenizer})
+   * @param maxLength the length after which a chunk is returned even if the paragraph hasn't ended
+   */
+  ParagraphReader(Reader reader, boolean singleLineBreaksMarksPara, int maxLength) {
+    if (maxLength <= 0) {
+      throw new IllegalArgumentException("maxLength must be > 0: " + maxLength);
+    }
+    this.reader = reader;
+    this.singleLineBreaksMarksPara = singleLineBreaksMarksPara;
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * The next chunk of text, or {@code null} at the end of the text.
+   */
+  @Nullable
+  String readChunk() throws IOException {
+    final StringBuilder sb = new StringBuilder();
+    final int minLineBreaks = singleLineBreaksMarksPara ? 1 : 2;
+    int lineBreaks = 0;
+    paragraphEnd = false;
+    while (fillBuffer()) {
+      final char c = buffer[bufferPos];
+      if (c == '\n') {
+        lineBreaks++;
+      } else if (!Character.isWhitespace(c)) {
+        if (lineBreaks >= minLineBreaks) {
+          paragraphEnd = true;
+          break;
+        }
+        lineBreaks = 0;
+      }
+      sb.append(c);
+      bufferPos++;
+      if (lineBreaks == 0 && sb.length() >= maxLength) {
+        break;
+      }
+    }
+    if (!fillBuffer()) {
+      paragraphEnd = true;
+    }
+    return sb.length() > 0 ? sb.toString() : null;
+  }
+
+  /**
+   * Whether the chunk returned by {@link #readChunk()} ends a paragraph, which is also
+   * the case for the last chunk of the text.
+   */
+  boolean isParagraphEnd() {
+    return paragraphEnd;
+  }
+
+  /**
+   * Whether the chunk returned by {@link #readChunk()} is the last one. To know this,
+   * the reader reads ahead after each chunk.
+   */
+  boolean isEndOfText() {
+    return endOfText;
+  }
+
+  private boolean fillBuffer() throws IOException {
+    while (bufferPos == bufferEnd && !endOfText) {
+      final int count = reader.read(buffer);
+      if (count == -1) {
+        endOfText = true;
+      } else {
+        bufferPos = 0;
+        bufferEnd = count;
+      }
+    }
+    return bufferPos < bufferEnd;
+  }
+
+}
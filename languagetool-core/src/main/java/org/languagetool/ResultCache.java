@@ -0,0 +1,265 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache for the sentence-level rule matches, so that a sentence that has already been checked
+ * with the same language and rules doesn't need to be checked again. Only the matches of
+ * rules for which {@link Rule#isSentenceLocal()} is {@code true} are cached, all other rules
+ * are always run. The matches are cached relative to the sentence, so the sentence may occur
+ * anywhere in a later text. If the cache is full, the least recently used sentences are evicted.
+ * The cache is limited both by the number of sentences and by their weight, which is the number
+ * of characters of a sentence and of its cached matches, so that long sentences and sentences with
+ * many matches take up more of the cache.
+ *
+ * <p>The cache doesn't keep references to the rules that created the matches. A cached match is
+ * given the rule at the same position in the rules of the {@link JLanguageTool} instance that
+ * gets it from the cache, so the cache doesn't keep the rules of another instance from being
+ * garbage-collected.
+ * 
+ * <p>A cache can be shared between {@link JLanguageTool} instances (see {@link JLanguageTool#setCache(ResultCache)})
+ * if they are configured in the same way, except for the enabled and disabled rules and categories,
+ * which are part of the cache key. This class is thread-safe.
+ * @since 2.9
+ */
+public class ResultCache {
+
+  /**
+   * The average weight of a sentence that is assumed if only the number of sentences is limited,
+   * see {@link #ResultCache(int)}.
+   */
+  static final int AVERAGE_SENTENCE_WEIGHT = 250;
+
+  // the approximate number of characters that the fields of a cached match take up besides its strings:
+  private static final int MATCH_OVERHEAD = 16;
+
+  private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final int maxSize;
+  private final long maxWeight;
+  private long weight;
+  private final AtomicLong lookups = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+
+  /**
+   * @param maxSize the maximum number of sentences whose matches are cached; their maximum
+   *                weight is {@code maxSize} times an assumed average weight of a sentence
+   */
+  public ResultCache(int maxSize) {
+    this(maxSize, (long) maxSize * AVERAGE_SENTENCE_WEIGHT);
+  }
+
+  /**
+   * @param maxSize the maximum number of sentences whose matches are cached
+   * @param maxWeight the maximum weight of the cached sentences, i.e. the number of characters
+   *                  of the sentences and their cached matches
+   */
+  public ResultCache(int maxSize, long maxWeight) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be > 0: " + maxSize);
+    }
+    if (maxWeight < 1) {
+      throw new IllegalArgumentException("maxWeight must be > 0: " + maxWeight);
+    }
+    this.maxSize = maxSize;
+    this.maxWeight = maxWeight;
+  }
+
+  /**
+   * The number of sentences whose matches are currently cached.
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * The weight of the currently cached sentences, i.e. the number of characters of the
+   * sentences and their cached matches.
+   */
+  public synchronized long getWeight() {
+    return weight;
+  }
+
+  /**
+   * The number of lookups that could be answered from the cache.
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * The number of lookups, i.e. of sentences checked with this cache.
+   */
+  public long getLookupCount() {
+    return lookups.get();
+  }
+
+  /**
+   * The share of lookups that could be answered from the cache, from {@code 0} to {@code 1}.
+   */
+  public float getHitRate() {
+    long lookupCount = lookups.get();
+    return lookupCount == 0 ? 0.0f : (float) hits.get() / lookupCount;
+  }
+
+  @Nullable
+  Entry get(Key key) {
+    lookups.incrementAndGet();
+    Entry entry;
+    synchronized (this) {
+      entry = entries.get(key);
+    }
+    if (entry != null) {
+      hits.incrementAndGet();
+    }
+    return entry;
+  }
+
+  synchronized void put(Key key, Entry entry) {
+    final int entryWeight = getWeight(key, entry);
+    if (entryWeight > maxWeight) {
+      return;
+    }
+    final Entry oldEntry = entries.put(key, entry);
+    if (oldEntry != null) {
+      weight -= getWeight(key, oldEntry);
+    }
+    weight += entryWeight;
+    // the iteration order is the access order, so the least recently used sentences come first:
+    final Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+    while (entries.size() > maxSize || weight > maxWeight) {
+      final Map.Entry<Key, Entry> eldest = iterator.next();
+      weight -= getWeight(eldest.getKey(), eldest.getValue());
+      iterator.remove();
+    }
+  }
+
+  private static int getWeight(Key key, Entry entry) {
+    int weight = key.sentence.length();
+    for (CachedMatch match : entry.matches) {
+      weight += match.getWeight();
+    }
+    return weight;
+  }
+
+  static class Key {
+
+    private final String language;
+    private final String motherTongue;
+    private final long ruleFingerprint;
+    private final String sentence;
+    private final boolean paragraphEnd;
+    private final int hashCode;
+
+    Key(Language language, @Nullable Language motherTongue, long ruleFingerprint, String sentence, boolean paragraphEnd) {
+      this.language = language.getShortNameWithCountryAndVariant();
+      this.motherTongue = motherTongue != null ? motherTongue.getShortNameWithCountryAndVariant() : null;
+      this.ruleFingerprint = ruleFingerprint;
+      this.sentence = Objects.requireNonNull(sentence);
+      this.paragraphEnd = paragraphEnd;
+      this.hashCode = Objects.hash(this.language, this.motherTongue, ruleFingerprint, sentence, paragraphEnd);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key other = (Key) o;
+      return hashCode == other.hashCode && ruleFingerprint == other.ruleFingerprint && paragraphEnd == other.paragraphEnd
+              && language.equals(other.language) && Objects.equals(motherTongue, other.motherTongue)
+              && sentence.equals(other.sentence);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * The sentence-relative matches of a sentence, ordered by the position of their
+   * rule in the list of rules that the sentence was checked with.
+   */
+  static class Entry {
+
+    final CachedMatch[] matches;
+
+    Entry(CachedMatch[] matches) {
+      this.matches = matches;
+    }
+  }
+
+  /**
+   * A sentence-relative match without its rule, but with the position of the
+   * rule in the list of rules that the sentence was checked with.
+   */
+  static class CachedMatch {
+
+    final int ruleIndex;
+    private final int fromPos;
+    private final int toPos;
+    private final String message;
+    private final String shortMessage;
+    private final String[] suggestions;
+
+    CachedMatch(int ruleIndex, RuleMatch match) {
+      this.ruleIndex = ruleIndex;
+      this.fromPos = match.getFromPos();
+      this.toPos = match.getToPos();
+      this.message = match.getMessage();
+      this.shortMessage = match.getShortMessage();
+      List<String> suggestions = match.getSuggestedReplacements();
+      this.suggestions = suggestions.toArray(new String[suggestions.size()]);
+    }
+
+    /**
+     * Create the match for the given rule, which must be at {@link #ruleIndex} in the
+     * list of rules of the {@link JLanguageTool} instance that uses the cached match.
+     */
+    RuleMatch toRuleMatch(Rule rule) {
+      final RuleMatch match = new RuleMatch(rule, fromPos, toPos, message, shortMessage);
+      match.setSuggestedReplacements(new ArrayList<>(Arrays.asList(suggestions)));
+      return match;
+    }
+
+    private int getWeight() {
+      int weight = MATCH_OVERHEAD + message.length();
+      if (shortMessage != null) {
+        weight += shortMessage.length();
+      }
+      for (String suggestion : suggestions) {
+        weight += suggestion.length();
+      }
+      return weight;
+    }
+  }
+
+}
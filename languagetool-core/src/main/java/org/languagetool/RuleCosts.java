@@ -0,0 +1,101 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.languagetool.rules.Rule;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The time that rules need to check a text, measured while checking. The cost is kept per
+ * rule id, so all rules of a rule group share one cost. It is the time in nanoseconds per
+ * character of the checked text and follows recent checks more than older ones. Used by
+ * {@link MultiThreadedJLanguageTool} to split the work so that all threads get the same share.
+ * This class is thread-safe.
+ * @since 2.9
+ */
+class RuleCosts {
+
+  // weight of the newest measurement:
+  private static final double WEIGHT = 0.3;
+  // cost of rules that have never been measured if no rule has been measured yet:
+  private static final double DEFAULT_COST = 1.0;
+
+  private final Map<String, Double> costs = new HashMap<>();
+
+  private double totalCost = 0;
+
+  /**
+   * Record the time the given rules needed for a text.
+   * @param rules the rules that were used, rules with no entry in {@code nanosByRuleId} took no time
+   * @param nanosByRuleId the time in nanoseconds per rule id
+   * @param charCount the length of the text
+   */
+  synchronized void add(List<Rule> rules, Map<String, long[]> nanosByRuleId, int charCount) {
+    if (charCount == 0) {
+      return;
+    }
+    String prevId = null;
+    for (Rule rule : rules) {
+      final String id = rule.getId();
+      if (id.equals(prevId)) {
+        continue;  // rules of a group come one after the other
+      }
+      prevId = id;
+      final long[] nanos = nanosByRuleId.get(id);
+      final double cost = nanos != null ? (double) nanos[0] / charCount : 0;
+      final Double oldCost = costs.get(id);
+      final double newCost = oldCost != null ? WEIGHT * cost + (1 - WEIGHT) * oldCost : cost;
+      costs.put(id, newCost);
+      totalCost += newCost - (oldCost != null ? oldCost : 0);
+    }
+  }
+
+  /**
+   * The time in nanoseconds per character that the rules with the given id take. For
+   * rules that have not been used yet, this is the average cost of all rules.
+   */
+  synchronized double getCost(String ruleId) {
+    final Double cost = costs.get(ruleId);
+    if (cost != null) {
+      return cost;
+    }
+    return costs.isEmpty() ? DEFAULT_COST : totalCost / costs.size();
+  }
+
+  synchronized boolean hasMeasurements() {
+    return !costs.isEmpty();
+  }
+
+  /**
+   * Add the time it took to run a rule to the times in {@code nanosByRuleId}. Not thread-safe,
+   * the map is supposed to be used by one thread only.
+   */
+  static void addNanos(Map<String, long[]> nanosByRuleId, String ruleId, long nanos) {
+    long[] ruleNanos = nanosByRuleId.get(ruleId);
+    if (ruleNanos == null) {
+      ruleNanos = new long[1];
+      nanosByRuleId.put(ruleId, ruleNanos);
+    }
+    ruleNanos[0] += nanos;
+  }
+
+}
@@ -0,0 +1,176 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.apache.commons.lang.StringUtils;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.RuleMatchListener;
+import org.languagetool.rules.SameRuleGroupFilter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks a text read piece by piece, see {@link JLanguageTool#check(Reader, RuleMatchListener)}.
+ * The text is split into sentences one paragraph after the other. The analyzed sentences are
+ * collected in a window that gets checked once it's long enough and ends with a paragraph, so
+ * the text-level rules see at least {@code windowLength} characters of context. The window is
+ * checked with {@link JLanguageTool#performCheck}, so {@link MultiThreadedJLanguageTool} uses its
+ * threads. After that, the matches are passed to the listener and the window starts anew.
+ * Only the window is kept in memory, no matter how long the text is.
+ * @since 2.9
+ */
+class StreamingTextChecker {
+
+  /** The maximum text length, so that all positions and the 1-based columns fit into an {@code int}. */
+  static final int MAX_TEXT_LENGTH = Integer.MAX_VALUE - 1;
+
+  private final JLanguageTool lt;
+  private final List<Rule> rules;
+  private final JLanguageTool.ParagraphHandling paraMode;
+  private final RuleMatchListener listener;
+  private final int chunkLength;
+  private final int windowLength;
+  private final int maxTextLength;
+
+  private final List<String> sentences = new ArrayList<>();
+  private final List<AnalyzedSentence> analyzedSentences = new ArrayList<>();
+
+  // the position of the window's start in the text:
+  private int charCount;
+  private int lineCount;
+  private int columnCount = 1;
+
+  private int windowCharCount;
+  private int sentenceCount;
+
+  /**
+   * @param chunkLength the maximum length of the text that's split into sentences at once if
+   *                    a paragraph is longer than that (see {@link ParagraphReader})
+   * @param windowLength the minimum length of the text that's checked at once, use {@code 0}
+   *                     to check each paragraph on its own, e.g. if there are no text-level rules
+   */
+  StreamingTextChecker(JLanguageTool lt, List<Rule> rules, JLanguageTool.ParagraphHandling paraMode,
+                       RuleMatchListener listener, int chunkLength, int windowLength) {
+    this(lt, rules, paraMode, listener, chunkLength, windowLength, MAX_TEXT_LENGTH);
+  }
+
+  /**
+   * @param maxTextLength the maximum number of characters, a longer text makes the check fail
+   *                      once its end is reached
+   */
+  StreamingTextChecker(JLanguageTool lt, List<Rule> rules, JLanguageTool.ParagraphHandling paraMode,
+                       RuleMatchListener listener, int chunkLength, int windowLength, int maxTextLength) {
+    this.lt = lt;
+    this.rules = rules;
+    this.paraMode = paraMode;
+    this.listener = listener;
+    this.chunkLength = chunkLength;
+    this.windowLength = windowLength;
+    this.maxTextLength = maxTextLength;
+  }
+
+  /**
+   * @throws IllegalArgumentException if the text is longer than the maximum text length, after
+   *   the matches found before that have been passed to the listener
+   */
+  void check(Reader reader) throws IOException {
+    final ParagraphReader paragraphReader =
+            new ParagraphReader(reader, lt.getLanguage().getSentenceTokenizer().singleLineBreaksMarksPara(), chunkLength);
+    String pendingText = "";
+    String chunk;
+    while ((chunk = paragraphReader.readChunk()) != null) {
+      final String text = pendingText + chunk;
+      final List<String> chunkSentences = lt.sentenceTokenize(text);
+      pendingText = "";
+      if (!paragraphReader.isEndOfText() && text.length() < 4 * chunkLength) {
+        // the last sentence might continue in the next chunk, and the tokenizer may add the
+        // whitespace of a paragraph break to the next sentence:
+        final String lastSentence = chunkSentences.get(chunkSentences.size() - 1);
+        if (!paragraphReader.isParagraphEnd() || StringUtils.isWhitespace(lastSentence)) {
+          pendingText = chunkSentences.remove(chunkSentences.size() - 1);
+        }
+      }
+      analyze(chunkSentences, paragraphReader.isEndOfText());
+      if (paragraphReader.isParagraphEnd() && windowCharCount >= windowLength || windowCharCount >= 2 * windowLength) {
+        checkWindow();
+      }
+    }
+    checkWindow();
+  }
+
+  /**
+   * The number of sentences checked so far.
+   */
+  int getSentenceCount() {
+    return sentenceCount;
+  }
+
+  private void analyze(List<String> chunkSentences, boolean endOfText) throws IOException {
+    for (int i = 0; i < chunkSentences.size(); i++) {
+      final String sentence = chunkSentences.get(i);
+      // neither charCount nor windowCharCount can overflow this way:
+      if (sentence.length() > maxTextLength - charCount - windowCharCount) {
+        throw new IllegalArgumentException("Text is too long, only texts of up to " + maxTextLength +
+                " characters can be checked, as the positions of the matches are ints");
+      }
+      AnalyzedSentence analyzedSentence = lt.getAnalyzedSentence(sentence, lt.getCancellationToken());
+      lt.rememberUnknownWords(analyzedSentence);
+      if (endOfText && i == chunkSentences.size() - 1) {
+        final AnalyzedTokenReadings[] anTokens = analyzedSentence.getTokens();
+        anTokens[anTokens.length - 1].setParagraphEnd();
+        analyzedSentence = new AnalyzedSentence(anTokens);
+      }
+      lt.printSentenceInfo(analyzedSentence);
+      sentences.add(sentence);
+      analyzedSentences.add(analyzedSentence);
+      windowCharCount += sentence.length();
+      sentenceCount++;
+    }
+  }
+
+  private void checkWindow() throws IOException {
+    if (sentences.isEmpty()) {
+      return;
+    }
+    final List<RuleMatch> ruleMatches = new SameRuleGroupFilter().filter(
+            lt.performCheck(analyzedSentences, sentences, rules, paraMode, null, charCount, lineCount, columnCount));
+    if (!ruleMatches.isEmpty()) {
+      final StringBuilder sb = new StringBuilder(windowCharCount);
+      for (String sentence : sentences) {
+        sb.append(sentence);
+      }
+      final String text = sb.toString();
+      for (RuleMatch ruleMatch : ruleMatches) {
+        listener.matchFound(ruleMatch, text, charCount);
+      }
+    }
+    final LineIndex lineIndex = new LineIndex(sentences, charCount, lineCount, columnCount);
+    charCount += windowCharCount;
+    lineCount = lineIndex.getLine(charCount);
+    columnCount = lineIndex.getColumn(charCount);
+    sentences.clear();
+    analyzedSentences.clear();
+    windowCharCount = 0;
+  }
+
+}
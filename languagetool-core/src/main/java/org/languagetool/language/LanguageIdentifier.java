@@ -19,6 +19,7 @@
 package org.languagetool.language;
 
 import com.google.common.base.Optional;
+import com.optimaize.langdetect.DetectedLanguage;
 import com.optimaize.langdetect.LanguageDetector;
 import com.optimaize.langdetect.LanguageDetectorBuilder;
 import com.optimaize.langdetect.ngram.NgramExtractors;
@@ -36,18 +37,30 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Identify the language of a text. Note that some languages might never be
  * detected because they are close to another language. Language variants like
  * en-US or en-GB are not detected, the result will be {@code en} for those.
  *
+ * <p>Long texts are not analyzed completely: detection runs on a sample made of
+ * several evenly spaced windows of the text and stops as soon as a language has been
+ * detected with enough confidence. Results are cached, so detecting the language of
+ * the same text again is cheap. This class is thread-safe.
+ *
  * @since 2.9
  */
 public class LanguageIdentifier {
 
   private static final double MINIMAL_CONFIDENCE = 0.9;
+  private static final int DEFAULT_MAX_SAMPLE_LENGTH = 2000;
+  private static final int DEFAULT_CACHE_SIZE = 1000;
+  private static final int SAMPLE_WINDOWS = 4;
+  private static final String NO_LANGUAGE = "";
 
   // ast and gl often prevent the correct detection of Spanish (as the are quite similar
   // to Spanish, I assume) so we disable them for now. See LanguageDetectionEval.java:
@@ -58,8 +71,43 @@ public class LanguageIdentifier {
 
   private final LanguageDetector languageDetector;
   private final TextObjectFactory textObjectFactory;
+  private final int maxSampleLength;
+  private final Map<TextFingerprint, String> cache;
+  private final AtomicLong lookups = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
 
   public LanguageIdentifier() {
+    this(DEFAULT_MAX_SAMPLE_LENGTH, DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * @param maxSampleLength the maximum number of characters of a text that are used for detection,
+   *                        or {@code 0} to use the complete text (as far as the underlying
+   *                        language detector considers it)
+   * @param cacheSize the maximum number of texts whose detected language is cached, or {@code 0}
+   *                  to disable caching
+   */
+  public LanguageIdentifier(int maxSampleLength, final int cacheSize) {
+    if (maxSampleLength < 0) {
+      throw new IllegalArgumentException("maxSampleLength must be >= 0: " + maxSampleLength);
+    }
+    if (maxSampleLength > 0 && maxSampleLength < SAMPLE_WINDOWS) {
+      throw new IllegalArgumentException("maxSampleLength must be 0 or >= " + SAMPLE_WINDOWS + ": " + maxSampleLength);
+    }
+    if (cacheSize < 0) {
+      throw new IllegalArgumentException("cacheSize must be >= 0: " + cacheSize);
+    }
+    this.maxSampleLength = maxSampleLength;
+    if (cacheSize > 0) {
+      cache = new LinkedHashMap<TextFingerprint, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TextFingerprint, String> eldest) {
+          return size() > cacheSize;
+        }
+      };
+    } else {
+      cache = null;
+    }
     try {
       List<LanguageProfile> profiles = loadProfiles(getLanguageCodes());
       languageDetector = LanguageDetectorBuilder.create(NgramExtractors.standard())
@@ -116,15 +164,91 @@ public class LanguageIdentifier {
     }
   }
 
+  /**
+   * The share of detections that could be answered from the cache, from {@code 0} to {@code 1}.
+   */
+  public float getCacheHitRate() {
+    long lookupCount = lookups.get();
+    return lookupCount == 0 ? 0.0f : (float) hits.get() / lookupCount;
+  }
+
   /**
    * @return language or {@code null} if language could not be identified
    */
   @Nullable
   private String detectLanguageCode(String text) {
-    TextObject textObject = textObjectFactory.forText(text);
-    Optional<String> lang = languageDetector.detect(textObject);
-    // comment in for debugging:
-    //System.out.println(languageDetector.getProbabilities(textObject));
+    if (cache == null) {
+      return detectLanguageCodeUncached(text);
+    }
+    TextFingerprint fingerprint = new TextFingerprint(text);
+    lookups.incrementAndGet();
+    String cachedLangCode;
+    synchronized (cache) {
+      cachedLangCode = cache.get(fingerprint);
+    }
+    if (cachedLangCode != null) {
+      hits.incrementAndGet();
+      return NO_LANGUAGE.equals(cachedLangCode) ? null : cachedLangCode;
+    }
+    String langCode = detectLanguageCodeUncached(text);
+    synchronized (cache) {
+      cache.put(fingerprint, langCode != null ? langCode : NO_LANGUAGE);
+    }
+    return langCode;
+  }
+
+  @Nullable
+  private String detectLanguageCodeUncached(String text) {
+    if (maxSampleLength == 0 || text.length() <= maxSampleLength) {
+      return toLanguageCode(languageDetector.detect(textObjectFactory.forText(text)));
+    }
+    // evenly spaced windows, the first at the start and the last at the end of the text:
+    int windowLength = maxSampleLength / SAMPLE_WINDOWS;
+    int step = (text.length() - windowLength) / (SAMPLE_WINDOWS - 1);
+    TextObject sample = textObjectFactory.create();
+    for (int i = 0; i < SAMPLE_WINDOWS; i++) {
+      int start = i * step;
+      int end = start + windowLength;
+      sample.append(text.subSequence(getWordStart(text, start, end), getWordEnd(text, start, end)));
+      sample.append(" ");
+      List<DetectedLanguage> probabilities = languageDetector.getProbabilities(sample);
+      // comment in for debugging:
+      //System.out.println(probabilities);
+      if (probabilities.size() > 0 && probabilities.get(0).getProbability() >= MINIMAL_CONFIDENCE) {
+        return toLanguageCode(Optional.of(probabilities.get(0).getLanguage()));
+      }
+    }
+    return null;
+  }
+
+  // don't start a window in the middle of a word:
+  private int getWordStart(String text, int start, int end) {
+    if (start == 0) {
+      return start;
+    }
+    for (int i = start; i < end; i++) {
+      if (Character.isWhitespace(text.charAt(i - 1))) {
+        return i;
+      }
+    }
+    return start;
+  }
+
+  // don't end a window in the middle of a word:
+  private int getWordEnd(String text, int start, int end) {
+    if (end == text.length()) {
+      return end;
+    }
+    for (int i = end; i > start; i--) {
+      if (Character.isWhitespace(text.charAt(i))) {
+        return i;
+      }
+    }
+    return end;
+  }
+
+  @Nullable
+  private String toLanguageCode(Optional<String> lang) {
     if (lang.isPresent()) {
       if ("zh-cn".equals(lang.get()) || "zh-tw".equals(lang.get())) {
         return "zh";
@@ -135,4 +259,37 @@ public class LanguageIdentifier {
     }
   }
 
+  /**
+   * Identifies a text by its length and a 64-bit FNV-1a hash, so the cache
+   * doesn't need to keep the texts themselves.
+   */
+  private static class TextFingerprint {
+
+    private final int length;
+    private final long hash;
+
+    TextFingerprint(String text) {
+      long h = 0xcbf29ce484222325L;
+      for (int i = 0; i < text.length(); i++) {
+        h ^= text.charAt(i);
+        h *= 0x100000001b3L;
+      }
+      this.length = text.length();
+      this.hash = h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      TextFingerprint other = (TextFingerprint) o;
+      return length == other.length && hash == other.hash;
+    }
+
+    @Override
+    public int hashCode() {
+      return (int) (hash ^ (hash >>> 32));
+    }
+  }
+
 }
@@ -0,0 +1,38 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import java.util.List;
+
+/**
+ * A {@link LanguageModel} that can look up several ngrams at once, which can be faster
+ * than looking up each ngram on its own. Users of a language model should check whether
+ * it implements this interface, and fall back to the {@code getCount} methods otherwise.
+ * @since 2.9
+ */
+public interface BatchLanguageModel extends LanguageModel {
+
+  /**
+   * Get the occurrence counts for several ngrams at once.
+   * @param ngrams ngrams of 2 or 3 tokens each
+   * @return the counts, in the same order as {@code ngrams}
+   */
+  public long[] getCounts(List<String[]> ngrams);
+
+}
@@ -0,0 +1,181 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link LanguageModel} that caches the counts of another language model. If the cache
+ * is full, the least recently used ngram is evicted. Thread-safe if the underlying language
+ * model is thread-safe.
+ * @since 2.9
+ */
+public class CachingLanguageModel implements BatchLanguageModel {
+
+  private final LanguageModel languageModel;
+  private final Map<String,Long> cache;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * @param languageModel the language model whose counts get cached
+   * @param maxSize the maximum number of ngrams in the cache
+   */
+  public CachingLanguageModel(LanguageModel languageModel, final int maxSize) {
+    this.languageModel = Objects.requireNonNull(languageModel);
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be > 0: " + maxSize);
+    }
+    cache = new LinkedHashMap<String,Long>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String,Long> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  @Override
+  public long getCount(String token1, String token2) {
+    Objects.requireNonNull(token1);
+    Objects.requireNonNull(token2);
+    String key = token1 + " " + token2;
+    Long count = getCached(key);
+    if (count == null) {
+      count = languageModel.getCount(token1, token2);
+      putCached(key, count);
+    }
+    return count;
+  }
+
+  @Override
+  public long getCount(String token1, String token2, String token3) {
+    Objects.requireNonNull(token1);
+    Objects.requireNonNull(token2);
+    Objects.requireNonNull(token3);
+    String key = token1 + " " + token2 + " " + token3;
+    Long count = getCached(key);
+    if (count == null) {
+      count = languageModel.getCount(token1, token2, token3);
+      putCached(key, count);
+    }
+    return count;
+  }
+
+  /**
+   * Looks up the ngrams that are not cached with one call to the underlying language model,
+   * if it's a {@link BatchLanguageModel}.
+   */
+  @Override
+  public long[] getCounts(List<String[]> ngrams) {
+    long[] counts = new long[ngrams.size()];
+    List<String[]> uncachedNgrams = new ArrayList<>();
+    List<Integer> uncachedIndexes = new ArrayList<>();
+    List<String> uncachedKeys = new ArrayList<>();
+    for (int i = 0; i < counts.length; i++) {
+      String key = StringUtils.join(ngrams.get(i), ' ');
+      Long count = getCached(key);
+      if (count != null) {
+        counts[i] = count;
+      } else {
+        uncachedNgrams.add(ngrams.get(i));
+        uncachedIndexes.add(i);
+        uncachedKeys.add(key);
+      }
+    }
+    if (uncachedNgrams.size() > 0) {
+      long[] uncachedCounts = getUncachedCounts(uncachedNgrams);
+      for (int i = 0; i < uncachedCounts.length; i++) {
+        counts[uncachedIndexes.get(i)] = uncachedCounts[i];
+        putCached(uncachedKeys.get(i), uncachedCounts[i]);
+      }
+    }
+    return counts;
+  }
+
+  private long[] getUncachedCounts(List<String[]> ngrams) {
+    if (languageModel instanceof BatchLanguageModel) {
+      return ((BatchLanguageModel) languageModel).getCounts(ngrams);
+    }
+    long[] counts = new long[ngrams.size()];
+    for (int i = 0; i < counts.length; i++) {
+      String[] ngram = ngrams.get(i);
+      counts[i] = ngram.length == 2 ? languageModel.getCount(ngram[0], ngram[1])
+                                    : languageModel.getCount(ngram[0], ngram[1], ngram[2]);
+    }
+    return counts;
+  }
+
+  private Long getCached(String key) {
+    Long count;
+    synchronized (cache) {
+      count = cache.get(key);
+    }
+    if (count != null) {
+      hits.incrementAndGet();
+    } else {
+      misses.incrementAndGet();
+    }
+    return count;
+  }
+
+  private void putCached(String key, long count) {
+    synchronized (cache) {
+      cache.put(key, count);
+    }
+  }
+
+  /**
+   * The number of lookups that could be answered from the cache.
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * The number of lookups that needed to be passed on to the underlying language model.
+   */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * The share of lookups (0 to 1) that could be answered from the cache, 0 if there has been no lookup yet.
+   */
+  public float getHitRate() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    return total == 0 ? 0 : (float) hitCount / total;
+  }
+
+  @Override
+  public void close() {
+    synchronized (cache) {
+      cache.clear();
+    }
+    languageModel.close();
+  }
+
+  @Override
+  public String toString() {
+    return "cached " + languageModel;
+  }
+}
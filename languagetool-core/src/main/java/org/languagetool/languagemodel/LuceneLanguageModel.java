@@ -18,9 +18,11 @@
  */
 package org.languagetool.languagemodel;
 
+import org.apache.commons.lang.StringUtils;
 import org.apache.lucene.index.*;
 import org.apache.lucene.search.*;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
 
 import java.io.File;
 import java.io.IOException;
@@ -30,7 +32,7 @@ import java.util.*;
  * Information about ngram occurrences, taken from a Lucene index.
  * @since 2.7
  */
-public class LuceneLanguageModel implements LanguageModel {
+public class LuceneLanguageModel implements BatchLanguageModel {
 
   private final List<File> indexes = new ArrayList<>();
   private final Map<Integer,LuceneSearcher> luceneSearcherMap = new HashMap<>();
@@ -82,6 +84,68 @@ public class LuceneLanguageModel implements LanguageModel {
     return count;
   }
 
+  /**
+   * Looks up the ngrams of each size in their sorted order, with one {@link TermsEnum}
+   * per index segment, instead of running a search for each ngram.
+   */
+  @Override
+  public long[] getCounts(List<String[]> ngrams) {
+    long[] counts = new long[ngrams.size()];
+    Map<Integer,List<Integer>> ngramSizeToIndexes = new TreeMap<>();
+    for (int i = 0; i < ngrams.size(); i++) {
+      int ngramSize = ngrams.get(i).length;
+      List<Integer> indexes = ngramSizeToIndexes.get(ngramSize);
+      if (indexes == null) {
+        indexes = new ArrayList<>();
+        ngramSizeToIndexes.put(ngramSize, indexes);
+      }
+      indexes.add(i);
+    }
+    for (Map.Entry<Integer, List<Integer>> entry : ngramSizeToIndexes.entrySet()) {
+      LuceneSearcher luceneSearcher = getLuceneSearcher(entry.getKey());
+      List<Integer> indexes = entry.getValue();
+      final BytesRef[] terms = new BytesRef[ngrams.size()];
+      for (int i : indexes) {
+        terms[i] = new BytesRef(StringUtils.join(ngrams.get(i), ' '));
+      }
+      Collections.sort(indexes, new Comparator<Integer>() {
+        @Override
+        public int compare(Integer i1, Integer i2) {
+          return terms[i1].compareTo(terms[i2]);
+        }
+      });
+      try {
+        getCounts(luceneSearcher, indexes, terms, counts);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    return counts;
+  }
+
+  private void getCounts(LuceneSearcher luceneSearcher, List<Integer> sortedIndexes, BytesRef[] terms, long[] counts) throws IOException {
+    boolean[] found = new boolean[counts.length];
+    for (AtomicReaderContext leaf : luceneSearcher.reader.leaves()) {
+      AtomicReader leafReader = leaf.reader();
+      Terms leafTerms = leafReader.terms("ngram");
+      if (leafTerms == null) {
+        continue;
+      }
+      TermsEnum termsEnum = leafTerms.iterator(null);
+      DocsEnum docsEnum = null;
+      for (int i : sortedIndexes) {
+        if (!found[i] && termsEnum.seekExact(terms[i])) {
+          docsEnum = termsEnum.docs(leafReader.getLiveDocs(), docsEnum, DocsEnum.FLAG_NONE);
+          int docId = docsEnum.nextDoc();
+          if (docId != DocIdSetIterator.NO_MORE_DOCS) {
+            counts[i] = Long.parseLong(leafReader.document(docId).get("count"));
+            found[i] = true;
+          }
+        }
+      }
+    }
+  }
+
   protected LuceneSearcher getLuceneSearcher(int ngramSize) {
     LuceneSearcher luceneSearcher = luceneSearcherMap.get(ngramSize);
     if (luceneSearcher == null) {
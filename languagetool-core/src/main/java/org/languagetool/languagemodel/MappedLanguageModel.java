@@ -0,0 +1,123 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Information about ngram occurrences, taken from memory-mapped hash tables. Lookups are
+ * much faster than with {@link LuceneLanguageModel}, as they don't need any search or
+ * object allocation, and the data is kept off the Java heap.
+ * @since 2.9
+ */
+public class MappedLanguageModel implements BatchLanguageModel {
+
+  private final Map<Integer,MappedNgramTable> tables = new HashMap<>();
+  private final File topIndexDir;
+
+  /**
+   * Whether the directory contains ngram tables that can be used by this class.
+   */
+  public static boolean isAvailable(File topIndexDir) {
+    return getTableFile(topIndexDir, 2).isFile() || getTableFile(topIndexDir, 3).isFile();
+  }
+
+  /**
+   * The file name used for the table of ngrams of the given size, e.g. {@code 3grams.bin}.
+   */
+  public static File getTableFile(File topIndexDir, int ngramSize) {
+    return new File(topIndexDir, ngramSize + "grams.bin");
+  }
+
+  /**
+   * @param topIndexDir a directory which contains at least a file {@code 2grams.bin} or {@code 3grams.bin},
+   *                    as created by {@link MappedNgramTableWriter}
+   */
+  public MappedLanguageModel(File topIndexDir) throws IOException {
+    if (!topIndexDir.exists() || !topIndexDir.isDirectory()) {
+      throw new RuntimeException("Not found or is not a directory: " + topIndexDir);
+    }
+    this.topIndexDir = topIndexDir;
+    addTable(topIndexDir, 2);
+    addTable(topIndexDir, 3);
+    if (tables.size() == 0) {
+      throw new RuntimeException("No files '2grams.bin' and/or '3grams.bin' found in " + topIndexDir);
+    }
+  }
+
+  private void addTable(File topIndexDir, int ngramSize) throws IOException {
+    File file = getTableFile(topIndexDir, ngramSize);
+    if (file.isFile()) {
+      tables.put(ngramSize, new MappedNgramTable(file));
+    }
+  }
+
+  @Override
+  public long getCount(String token1, String token2) {
+    Objects.requireNonNull(token1);
+    Objects.requireNonNull(token2);
+    return getTable(2).getCount(token1, token2);
+  }
+
+  @Override
+  public long getCount(String token1, String token2, String token3) {
+    Objects.requireNonNull(token1);
+    Objects.requireNonNull(token2);
+    Objects.requireNonNull(token3);
+    return getTable(3).getCount(token1, token2, token3);
+  }
+
+  @Override
+  public long[] getCounts(List<String[]> ngrams) {
+    long[] counts = new long[ngrams.size()];
+    for (int i = 0; i < counts.length; i++) {
+      String[] ngram = ngrams.get(i);
+      for (String token : ngram) {
+        Objects.requireNonNull(token);
+      }
+      counts[i] = getTable(ngram.length).getCount(ngram);
+    }
+    return counts;
+  }
+
+  private MappedNgramTable getTable(int ngramSize) {
+    MappedNgramTable table = tables.get(ngramSize);
+    if (table == null) {
+      throw new RuntimeException("No " + getTableFile(topIndexDir, ngramSize).getName() + " found in " + topIndexDir);
+    }
+    return table;
+  }
+
+  @Override
+  public void close() {
+    for (MappedNgramTable table : tables.values()) {
+      table.close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return tables.values().toString();
+  }
+}
@@ -0,0 +1,196 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A memory-mapped, read-only hash table from ngrams to their occurrence counts, as
+ * written by {@link MappedNgramTableWriter}. The table uses open addressing with linear
+ * probing. Each slot is packed into 8 bytes: the upper 32 bits of a 64 bit hash of the
+ * ngram (never 0, so 0 marks an empty slot) and the count as an unsigned 32 bit number.
+ * The lower bits of the hash decide the slot, so together with the stored bits almost
+ * all of the hash is compared. The ngram itself is not stored, so in the rare case of
+ * a hash collision an ngram can get the count of another ngram.
+ * <p>
+ * The few counts that don't fit into 32 bits are stored in a sorted overflow table after
+ * the slots, with {@link #LARGE_COUNT} in the slot. That table is read into memory.
+ * <p>
+ * Lookups don't allocate objects and are thread-safe.
+ * @since 2.9
+ */
+final class MappedNgramTable implements Closeable {
+
+  static final int MAGIC = 0x4C544E47;  // "LTNG"
+  static final int VERSION = 2;
+  // magic, version, capacity, size, overflow size:
+  static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8;
+  static final int SLOT_SIZE = 8;
+  // slot number and count:
+  static final int OVERFLOW_ENTRY_SIZE = 8 + 8;
+  /** The count stored in a slot if the real count is in the overflow table. */
+  static final long LARGE_COUNT = 0xFFFFFFFFL;
+  // a MappedByteBuffer is limited to 2GB, so large tables are mapped in segments of 1GB:
+  static final int SEGMENT_SHIFT = 30;
+  static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private final File file;
+  private final MappedByteBuffer[] segments;
+  private final long capacity;
+  private final long size;
+  private final long[] overflowSlots;
+  private final long[] overflowCounts;
+
+  private volatile boolean closed;
+
+  MappedNgramTable(File file) throws IOException {
+    this.file = file;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      FileChannel channel = raf.getChannel();
+      if (raf.readInt() != MAGIC) {
+        throw new IOException("Not an ngram table: " + file);
+      }
+      int version = raf.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported ngram table version " + version + " in " + file + ", expected " + VERSION);
+      }
+      capacity = raf.readLong();
+      size = raf.readLong();
+      long overflowSize = raf.readLong();
+      if (Long.bitCount(capacity) != 1 || overflowSize < 0 || overflowSize > size
+              || raf.length() != HEADER_SIZE + capacity * SLOT_SIZE + overflowSize * OVERFLOW_ENTRY_SIZE) {
+        throw new IOException("Corrupt ngram table: " + file);
+      }
+      segments = mapSegments(channel, FileChannel.MapMode.READ_ONLY, capacity);
+      overflowSlots = new long[(int) overflowSize];
+      overflowCounts = new long[(int) overflowSize];
+      raf.seek(HEADER_SIZE + capacity * SLOT_SIZE);
+      for (int i = 0; i < overflowSize; i++) {
+        overflowSlots[i] = raf.readLong();
+        overflowCounts[i] = raf.readLong();
+      }
+    }
+  }
+
+  static MappedByteBuffer[] mapSegments(FileChannel channel, FileChannel.MapMode mode, long capacity) throws IOException {
+    long tableSize = capacity * SLOT_SIZE;
+    MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((tableSize + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+    for (int i = 0; i < segments.length; i++) {
+      long start = (long) i << SEGMENT_SHIFT;
+      segments[i] = channel.map(mode, HEADER_SIZE + start, Math.min(SEGMENT_SIZE, tableSize - start));
+    }
+    return segments;
+  }
+
+  /**
+   * Get the count of the ngram made of the given tokens, or 0 if it's not in the table.
+   */
+  long getCount(String... tokens) {
+    return getCount(fingerprint(tokens));
+  }
+
+  long getCount(long fingerprint) {
+    if (closed) {
+      throw new IllegalStateException("Ngram table has been closed: " + file);
+    }
+    int key = key(fingerprint);
+    long mask = capacity - 1;
+    long slot = fingerprint & mask;
+    for (long i = 0; i < capacity; i++) {
+      long position = slot * SLOT_SIZE;
+      MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+      int offset = (int) (position & (SEGMENT_SIZE - 1));
+      long value = segment.getLong(offset);
+      if (value == 0) {
+        return 0;
+      } else if ((int) (value >>> 32) == key) {
+        long count = value & LARGE_COUNT;
+        return count == LARGE_COUNT ? overflowCounts[Arrays.binarySearch(overflowSlots, slot)] : count;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return 0;
+  }
+
+  /**
+   * The number of ngrams in the table.
+   */
+  long size() {
+    return size;
+  }
+
+  /**
+   * The non-zero 64 bit hash of the tokens joined by spaces, e.g. {@code fingerprint("a", "b")}
+   * is the same as {@code fingerprint("a b")}.
+   */
+  static long fingerprint(String... tokens) {
+    long hash = FNV_OFFSET_BASIS;
+    for (int i = 0; i < tokens.length; i++) {
+      if (i > 0) {
+        hash = (hash ^ ' ') * FNV_PRIME;
+      }
+      String token = tokens[i];
+      for (int j = 0; j < token.length(); j++) {
+        hash = (hash ^ token.charAt(j)) * FNV_PRIME;
+      }
+    }
+    // FNV has weak lower bits, but we use them for the slot, so mix all bits (MurmurHash3 finalizer):
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash == 0 ? 1 : hash;
+  }
+
+  /**
+   * The part of the fingerprint that's stored in a slot, never 0.
+   */
+  static int key(long fingerprint) {
+    int key = (int) (fingerprint >>> 32);
+    return key == 0 ? 1 : key;
+  }
+
+  /**
+   * Drops the references to the mapped file. The memory is released by the garbage collector,
+   * as Java offers no way to unmap a file explicitly. Lookups after this throw an
+   * {@link IllegalStateException}. Must not be called while other threads still do lookups.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return file.toString();
+  }
+}
@@ -0,0 +1,136 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.languagetool.languagemodel.MappedNgramTable.*;
+
+/**
+ * Writes a file with ngram occurrence counts as used by {@link MappedLanguageModel}.
+ * The table has a fixed size, so the maximum number of ngrams must be known in advance.
+ * Not thread-safe.
+ * @since 2.9
+ */
+public class MappedNgramTableWriter implements Closeable {
+
+  private static final double MAX_LOAD_FACTOR = 0.6;
+
+  private final RandomAccessFile raf;
+  private final MappedByteBuffer[] segments;
+  private final long capacity;
+  private final long maxSize;
+  // the counts that don't fit into a slot, by slot number:
+  private final TreeMap<Long,Long> overflow = new TreeMap<>();
+  private long size;
+
+  /**
+   * @param file the file to write to, an existing file will be overwritten
+   * @param maxNgrams the maximum number of ngrams that will be added
+   */
+  public MappedNgramTableWriter(File file, long maxNgrams) throws IOException {
+    if (maxNgrams < 0) {
+      throw new IllegalArgumentException("maxNgrams must not be negative: " + maxNgrams);
+    }
+    capacity = Math.max(16, Long.highestOneBit((long) (maxNgrams / MAX_LOAD_FACTOR)) << 1);
+    maxSize = (long) (capacity * 0.9);
+    raf = new RandomAccessFile(file, "rw");
+    raf.setLength(0);
+    raf.setLength(HEADER_SIZE + capacity * SLOT_SIZE);
+    segments = mapSegments(raf.getChannel(), FileChannel.MapMode.READ_WRITE, capacity);
+  }
+
+  /**
+   * Add an ngram. If it has been added before, the counts are summed up.
+   * @param ngram the tokens of the ngram, separated by a single space
+   */
+  public void add(String ngram, long count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("count must not be negative: " + count);
+    }
+    long fingerprint = fingerprint(ngram);
+    int key = key(fingerprint);
+    long mask = capacity - 1;
+    long slot = fingerprint & mask;
+    while (true) {
+      long position = slot * SLOT_SIZE;
+      MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+      int offset = (int) (position & (SEGMENT_SIZE - 1));
+      long value = segment.getLong(offset);
+      if (value == 0) {
+        if (size >= maxSize) {
+          throw new IllegalStateException("Table is full, more ngrams added than expected: " + size);
+        }
+        segment.putLong(offset, pack(key, slot, count));
+        size++;
+        return;
+      } else if ((int) (value >>> 32) == key) {
+        long oldCount = value & LARGE_COUNT;
+        long newCount = (oldCount == LARGE_COUNT ? overflow.get(slot) : oldCount) + count;
+        segment.putLong(offset, pack(key, slot, newCount));
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private long pack(int key, long slot, long count) {
+    if (count >= LARGE_COUNT) {
+      overflow.put(slot, count);
+      count = LARGE_COUNT;
+    }
+    return ((long) key << 32) | count;
+  }
+
+  /**
+   * The number of distinct ngrams added so far.
+   */
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      for (MappedByteBuffer segment : segments) {
+        segment.force();
+      }
+      raf.seek(0);
+      raf.writeInt(MAGIC);
+      raf.writeInt(VERSION);
+      raf.writeLong(capacity);
+      raf.writeLong(size);
+      raf.writeLong(overflow.size());
+      raf.seek(HEADER_SIZE + capacity * SLOT_SIZE);
+      for (Map.Entry<Long,Long> entry : overflow.entrySet()) {
+        raf.writeLong(entry.getKey());
+        raf.writeLong(entry.getValue());
+      }
+    } finally {
+      raf.close();
+    }
+  }
+}
@@ -21,7 +21,6 @@ package org.languagetool.markup;
 import org.apache.commons.lang.StringUtils;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -33,21 +32,30 @@ import java.util.Objects;
 public class AnnotatedText {
 
   private final List<TextPart> parts;
-  private final Map<Integer,Integer> mapping;  // plain text position to original text (with markup) position
+  // plain text positions (sorted) and the original text (with markup) position of each:
+  private final int[] plainTextPositions;
+  private final int[] originalTextPositions;
+  private final String plainText;
 
-  AnnotatedText(List<TextPart> parts, Map<Integer,Integer> mapping) {
+  AnnotatedText(List<TextPart> parts, int[] plainTextPositions, int[] originalTextPositions) {
     this.parts = Objects.requireNonNull(parts);
-    this.mapping = Objects.requireNonNull(mapping);
-  }
-
-  public String getPlainText() {
+    this.plainTextPositions = Objects.requireNonNull(plainTextPositions);
+    this.originalTextPositions = Objects.requireNonNull(originalTextPositions);
+    if (plainTextPositions.length == 0 || plainTextPositions.length != originalTextPositions.length) {
+      throw new IllegalArgumentException("Position arrays must be non-empty and of equal length: "
+              + plainTextPositions.length + ", " + originalTextPositions.length);
+    }
     StringBuilder sb = new StringBuilder();
     for (TextPart part : parts) {
       if (part.getType() == TextPart.Type.TEXT) {
         sb.append(part.getPart());
       }
     }
-    return sb.toString();
+    this.plainText = sb.toString();
+  }
+
+  public String getPlainText() {
+    return plainText;
   }
 
   /**
@@ -60,29 +68,23 @@ public class AnnotatedText {
     if (plainTextPosition < 0) {
       throw new RuntimeException("plainTextPosition must be >= 0: " + plainTextPosition);
     }
-    final Integer origPosition = mapping.get(plainTextPosition);
-    if (origPosition != null) {
-      return origPosition;
-    }
-    int minDiff = Integer.MAX_VALUE;
-    Integer bestMatch = null;
-    // algorithm: find the closest lower position
-    for (Map.Entry<Integer, Integer> entry : mapping.entrySet()) {
-      int maybeClosePosition = entry.getKey();
-      if (plainTextPosition > maybeClosePosition) {
-        int diff = plainTextPosition - maybeClosePosition;
-        if (diff >= 0 && diff < minDiff) {
-          bestMatch = entry.getValue();
-          minDiff = diff;
-        }
+    // algorithm: find the closest position that is not larger (binary search)
+    int low = 0;
+    int high = plainTextPositions.length;
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (plainTextPositions[middle] <= plainTextPosition) {
+        low = middle + 1;
+      } else {
+        high = middle;
       }
     }
-    if (bestMatch == null) {
+    if (low == 0) {
       throw new RuntimeException("Could not map " + plainTextPosition + " to original position");
     }
     // we assume that when we have found the closest match there's a one-to-one mapping
-    // in this region, thus we can add 'minDiff' to get the exact position:
-    return bestMatch + minDiff;
+    // in this region, thus we can add the difference to get the exact position:
+    return originalTextPositions[low - 1] + plainTextPosition - plainTextPositions[low - 1];
   }
 
   @Override
@@ -19,9 +19,8 @@
 package org.languagetool.markup;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Use this builder to create input of text with markup for LanguageTool, so that it
@@ -78,8 +77,9 @@ public class AnnotatedTextBuilder {
   public AnnotatedText build() {
     int plainTextPosition = 0;
     int totalPosition = 0;
-    Map<Integer,Integer> mapping = new HashMap<>();
-    mapping.put(0, 0);
+    int[] plainTextPositions = new int[parts.size() + 1];
+    int[] originalTextPositions = new int[parts.size() + 1];
+    int count = 1;  // position 0 maps to 0 unless there's markup at the start
     for (TextPart part : parts) {
       if (part.getType().equals(TextPart.Type.TEXT)) {
         plainTextPosition += part.getPart().length();
@@ -87,9 +87,14 @@ public class AnnotatedTextBuilder {
       } else if (part.getType().equals(TextPart.Type.MARKUP)) {
         totalPosition += part.getPart().length();
       }
-      mapping.put(plainTextPosition, totalPosition);
+      if (plainTextPositions[count - 1] != plainTextPosition) {
+        count++;
+      }
+      // markup directly after a text part moves the mapping of its end position:
+      plainTextPositions[count - 1] = plainTextPosition;
+      originalTextPositions[count - 1] = totalPosition;
     }
-    return new AnnotatedText(parts, mapping);
+    return new AnnotatedText(parts, Arrays.copyOf(plainTextPositions, count), Arrays.copyOf(originalTextPositions, count));
   }
   
 }
@@ -24,6 +24,7 @@ import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.databroker.ResourceDataBroker;
+import org.languagetool.languagemodel.BatchLanguageModel;
 import org.languagetool.languagemodel.LanguageModel;
 
 import java.io.IOException;
@@ -85,13 +86,22 @@ public abstract class ConfusionProbabilityRule extends Rule {
   @Override
   public RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
     AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
+    // look up the ngrams needed for all tokens of the sentence at once:
+    List<String[]> ngrams = new ArrayList<>();
+    for (int i = 0; i < tokens.length; i++) {
+      ConfusionSet confusionSet = wordToSet.get(tokens[i].getToken());
+      if (confusionSet != null) {
+        addNgrams(ngrams, tokens, i, confusionSet);
+      }
+    }
+    Map<List<String>,Long> ngramCounts = getCounts(ngrams);
     List<RuleMatch> matches = new ArrayList<>();
     int pos = 0;
     for (AnalyzedTokenReadings token : tokens) {
       ConfusionSet confusionSet = wordToSet.get(token.getToken());
       boolean isEasilyConfused = confusionSet != null;
       if (isEasilyConfused) {
-        String betterAlternative = getBetterAlternativeOrNull(tokens, pos, confusionSet);
+        String betterAlternative = getBetterAlternativeOrNull(tokens, pos, confusionSet, ngramCounts);
         if (betterAlternative != null) {
           int endPos = token.getStartPos() + token.getToken().length();
           RuleMatch match = new RuleMatch(this, token.getStartPos(), endPos, getMessage(betterAlternative));
@@ -108,6 +118,11 @@ public abstract class ConfusionProbabilityRule extends Rule {
   public void reset() {
   }
 
+  @Override
+  public boolean isSentenceLocal() {
+    return true;
+  }
+
   /** @deprecated used only for tests */
   public void setConfusionSet(ConfusionSet set) {
     wordToSet.clear();
@@ -119,20 +134,25 @@ public abstract class ConfusionProbabilityRule extends Rule {
   // non-private for tests
   @Nullable
   String getBetterAlternativeOrNull(AnalyzedTokenReadings[] tokens, int pos, ConfusionSet confusionSet) {
+    List<String[]> ngrams = new ArrayList<>();
+    addNgrams(ngrams, tokens, pos, confusionSet);
+    return getBetterAlternativeOrNull(tokens, pos, confusionSet, getCounts(ngrams));
+  }
+
+  @Nullable
+  private String getBetterAlternativeOrNull(AnalyzedTokenReadings[] tokens, int pos, ConfusionSet confusionSet,
+                                            Map<List<String>,Long> ngramCounts) {
     AnalyzedTokenReadings token = tokens[pos];
-    //
-    // TODO: LT's tokenization is different to the Google one. E.g. Google "don't" vs LT "don ' t"
-    //
-    String next = getStringAtOrNull(tokens, pos + 1);
-    String next2 = getStringAtOrNull(tokens, pos + 2);
-    String prev = getStringAtOrNull(tokens, pos - 1);
-    String prev2 = getStringAtOrNull(tokens, pos - 2);
-    if ((next + next2 + prev + prev2).contains(",")) {
-      // v1 of Google ngram corpus doesn't contain commas, so we better stop instead of getting confused:
+    Context context = getContextOrNull(tokens, pos);
+    if (context == null) {
       return null;
     }
+    String next = context.next1;
+    String next2 = context.next2;
+    String prev = context.prev1;
+    String prev2 = context.prev2;
     @SuppressWarnings("UnnecessaryLocalVariable")
-    double textScore = score(token.getToken(), next, next2, prev, prev2);
+    double textScore = score(token.getToken(), next, next2, prev, prev2, ngramCounts);
     if (textScore >= MAX_TEXT_SCORE) {
       // too common, let's assume it is not an error
       return null;
@@ -144,7 +164,7 @@ public abstract class ConfusionProbabilityRule extends Rule {
         // this is the text variant, calculated above already...
         continue;
       }
-      double alternativeScore = score(alternative, next, next2, prev, prev2);
+      double alternativeScore = score(alternative, next, next2, prev, prev2, ngramCounts);
       if (alternativeScore >= bestScore + MIN_SCORE_DIFF && alternativeScore >= MIN_ALTERNATIVE_SCORE) {
         betterAlternative = alternative;
         bestScore = alternativeScore;
@@ -153,6 +173,66 @@ public abstract class ConfusionProbabilityRule extends Rule {
     return betterAlternative;
   }
 
+  /**
+   * Add the ngrams that {@link #score} needs for the token at {@code pos} and its alternatives.
+   */
+  private void addNgrams(List<String[]> ngrams, AnalyzedTokenReadings[] tokens, int pos, ConfusionSet confusionSet) {
+    Context context = getContextOrNull(tokens, pos);
+    if (context == null) {
+      return;
+    }
+    String text = tokens[pos].getToken();
+    addNgrams(ngrams, text, context);
+    for (String alternative : confusionSet.set) {
+      if (!alternative.equalsIgnoreCase(text)) {
+        addNgrams(ngrams, alternative, context);
+      }
+    }
+  }
+
+  private void addNgrams(List<String[]> ngrams, String option, Context context) {
+    if (context.prev1 != null && context.next1 != null) {
+      ngrams.add(new String[] {context.prev1, option, context.next1});
+    }
+    if (context.prev2 != null && context.prev1 != null) {
+      ngrams.add(new String[] {context.prev2, context.prev1, option});
+    }
+    if (context.next1 != null && context.next2 != null) {
+      ngrams.add(new String[] {option, context.next1, context.next2});
+    }
+  }
+
+  // without a BatchLanguageModel, the map stays empty and each ngram is looked up on its own:
+  private Map<List<String>,Long> getCounts(List<String[]> ngrams) {
+    Map<List<String>,Long> ngramCounts = new HashMap<>();
+    if (ngrams.size() > 0 && languageModel instanceof BatchLanguageModel) {
+      long[] counts = ((BatchLanguageModel) languageModel).getCounts(ngrams);
+      for (int i = 0; i < counts.length; i++) {
+        ngramCounts.put(Arrays.asList(ngrams.get(i)), counts[i]);
+      }
+    }
+    return ngramCounts;
+  }
+
+  private long getCount(Map<List<String>,Long> ngramCounts, String token1, String token2, String token3) {
+    Long count = ngramCounts.get(Arrays.asList(token1, token2, token3));
+    return count != null ? count : languageModel.getCount(token1, token2, token3);
+  }
+
+  @Nullable
+  private Context getContextOrNull(AnalyzedTokenReadings[] tokens, int pos) {
+    //
+    // TODO: LT's tokenization is different to the Google one. E.g. Google "don't" vs LT "don ' t"
+    //
+    Context context = new Context(getStringAtOrNull(tokens, pos + 1), getStringAtOrNull(tokens, pos + 2),
+                                  getStringAtOrNull(tokens, pos - 1), getStringAtOrNull(tokens, pos - 2));
+    if ((context.next1 + context.next2 + context.prev1 + context.prev2).contains(",")) {
+      // v1 of Google ngram corpus doesn't contain commas, so we better stop instead of getting confused:
+      return null;
+    }
+    return context;
+  }
+
   @Nullable
   private String getStringAtOrNull(AnalyzedTokenReadings[] tokens, int i) {
     if (i == -1) {
@@ -181,15 +261,16 @@ public abstract class ConfusionProbabilityRule extends Rule {
    * @param next2 the word after the next word
    * @param prev1 the word before {@code option}
    * @param prev2 the word before {@code prev1}
+   * @param ngramCounts counts of the ngrams as collected by {@link #addNgrams}
    */
-  private double score(String option, String next1, String next2, String prev1, String prev2) {
+  private double score(String option, String next1, String next2, String prev1, String prev2, Map<List<String>,Long> ngramCounts) {
     Objects.requireNonNull(option);
     //long ngram2left = languageModel.getCount(prev, option);
     //long ngram2right = languageModel.getCount(option, next);
     // the values may be null, see getStringAtOrNull():
-    long ngram3      = (prev1 != null && next1 != null) ? languageModel.getCount(prev1, option, next1) : 0;
-    long ngram3left  = (prev2 != null && prev1 != null) ? languageModel.getCount(prev2, prev1, option) : 0;
-    long ngram3right = (next1 != null && next2 != null) ? languageModel.getCount(option, next1, next2) : 0;
+    long ngram3      = (prev1 != null && next1 != null) ? getCount(ngramCounts, prev1, option, next1) : 0;
+    long ngram3left  = (prev2 != null && prev1 != null) ? getCount(ngramCounts, prev2, prev1, option) : 0;
+    long ngram3right = (next1 != null && next2 != null) ? getCount(ngramCounts, option, next1, next2) : 0;
 
     //double val1 = Math.log(Math.max(1, ngram2left));
     //double val2 = Math.log(Math.max(1, ngram2right));
@@ -222,6 +303,19 @@ public abstract class ConfusionProbabilityRule extends Rule {
     return val;
   }
 
+  private static class Context {
+    @Nullable private final String next1;
+    @Nullable private final String next2;
+    @Nullable private final String prev1;
+    @Nullable private final String prev2;
+    private Context(@Nullable String next1, @Nullable String next2, @Nullable String prev1, @Nullable String prev2) {
+      this.next1 = next1;
+      this.next2 = next2;
+      this.prev1 = prev1;
+      this.prev2 = prev2;
+    }
+  }
+
   public static class ConfusionSet {
     private final Set<String> set = new HashSet<>();
     ConfusionSet(String... words) {
@@ -131,6 +131,27 @@ public abstract class Rule {
     return false;
   }
 
+  /**
+   * Whether the matches of this rule depend on nothing but the sentence given to
+   * {@link #match(AnalyzedSentence)}, i.e. the rule keeps no state between sentences.
+   * Only the matches of such rules are taken from a {@link org.languagetool.ResultCache}.
+   * @since 2.9
+   */
+  public boolean isSentenceLocal() {
+    return false;
+  }
+
+  /**
+   * A hash of the settings of this rule instance that its matches depend on, e.g. words
+   * that have been added to be ignored. Used as part of the key of a {@link org.languagetool.ResultCache},
+   * so {@link #isSentenceLocal() sentence-local} rules that can be configured after they have been
+   * created need to override this.
+   * @since 2.9
+   */
+  public int getSettingsHash() {
+    return 0;
+  }
+
   /**
    * Set the examples that are correct and thus do not trigger the rule.
    */
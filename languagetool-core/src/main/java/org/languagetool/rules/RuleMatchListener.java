@@ -0,0 +1,37 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+/**
+ * Gets the matches of a check as soon as they are found, see
+ * {@link org.languagetool.JLanguageTool#check(java.io.Reader, RuleMatchListener)}.
+ * @since 2.9
+ */
+public interface RuleMatchListener {
+
+  /**
+   * Called for each match, in the order of the matches' positions in the text.
+   * @param ruleMatch the match, its positions refer to the complete text
+   * @param text the part of the text that has just been checked and that contains the match,
+   *             e.g. to show the match's context
+   * @param textPos the position of {@code text} in the complete text
+   */
+  void matchFound(RuleMatch ruleMatch, String text, int textPos);
+
+}
@@ -20,14 +20,13 @@
 package org.languagetool.rules.patterns;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.Language;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
+import org.languagetool.tools.StringTools;
 
 /**
  * An Abstract Pattern Rule that describes a pattern of words or part-of-speech tags 
@@ -53,6 +52,10 @@ public abstract class AbstractPatternRule extends Rule {
   private final boolean getUnified;
   private final boolean groupsOrUnification;
 
+  // Tokens used for fast checking whether a rule can ever match.
+  private final Set<String> simpleRuleTokens;
+  private final Set<String> inflectedRuleTokens;
+
   public AbstractPatternRule(final String id, 
       final String description,
       final Language language,
@@ -77,6 +80,9 @@ public abstract class AbstractPatternRule extends Rule {
     } else {
       groupsOrUnification = true;
     }
+    //don't instantiate a hash for every sentence, simply store it:
+    simpleRuleTokens = getRuleTokens(false);
+    inflectedRuleTokens = getRuleTokens(true);
   }
 
   @Override
@@ -93,6 +99,47 @@ public abstract class AbstractPatternRule extends Rule {
     return false;
   }
 
+  // tokens that just refer to a word or lemma - no regex etc. - and have no alternatives:
+  private Set<String> getRuleTokens(boolean inflected) {
+    Set<String> ruleTokens = new HashSet<>();
+    for (Element element : patternElements) {
+      if (!element.getNegation() && !element.isRegularExpression() && !element.hasOrGroup()
+              && !element.isReferenceElement() && element.isInflected() == inflected && element.getMinOccurrence() > 0) {
+        String str = element.getString();
+        if (!StringTools.isEmpty(str)) {
+          ruleTokens.add(str.toLowerCase());
+        }
+      }
+    }
+    return ruleTokens;
+  }
+
+  /**
+   * A fast check whether this rule can be ignored for the given sentence
+   * because it can never match. Used internally for performance optimization.
+   * @since 2.4 (in PatternRule, moved here in 2.9)
+   */
+  public boolean canBeIgnoredFor(AnalyzedSentence sentence) {
+    return (!simpleRuleTokens.isEmpty() && !sentence.getTokenSet().containsAll(simpleRuleTokens))
+            || (!inflectedRuleTokens.isEmpty() && !sentence.getLemmaSet().containsAll(inflectedRuleTokens));
+  }
+
+  /**
+   * Plain tokens (lowercase) that all need to appear in a sentence for this rule to match.
+   * @since 2.9
+   */
+  Set<String> getSimpleRuleTokens() {
+    return simpleRuleTokens;
+  }
+
+  /**
+   * Lemmas (lowercase) that all need to appear in a sentence for this rule to match.
+   * @since 2.9
+   */
+  Set<String> getInflectedRuleTokens() {
+    return inflectedRuleTokens;
+  }
+
   @Override
   public String toString() {
     return id + "[" + subId + "]:" + patternElements + ":" + description;
@@ -117,6 +164,11 @@ public abstract class AbstractPatternRule extends Rule {
   public void reset() {
   }
 
+  @Override
+  public boolean isSentenceLocal() {
+    return true;
+  }
+
   /**
    * @since 2.3
    */
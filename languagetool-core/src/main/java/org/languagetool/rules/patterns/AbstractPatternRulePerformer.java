@@ -181,6 +181,14 @@ public abstract class AbstractPatternRulePerformer {
     return minOccurCorrection;
   }
 
+  /**
+   * Whether the token at the given position must not be matched.
+   * @since 2.9
+   */
+  protected boolean isImmunized(AnalyzedTokenReadings[] tokens, int pos) {
+    return tokens[pos].isImmunized();
+  }
+
   /**
    * @since 2.5
    */
@@ -188,7 +196,7 @@ public abstract class AbstractPatternRulePerformer {
     int maxSkip = 0;
     int maxOccurrences = elem.getElement().getMaxOccurrence() == -1 ? Integer.MAX_VALUE : elem.getElement().getMaxOccurrence();
     for (int j = 1; j < maxOccurrences && m+j < tokens.length - remainingElems; j++) {
-      boolean nextAllElementsMatch = !tokens[m+j].isImmunized() &&
+      boolean nextAllElementsMatch = !isImmunized(tokens, m+j) &&
           testAllReadings(tokens, elem, prevElement, m+j, firstMatchToken, prevSkipNext);
       if (nextAllElementsMatch) {
         maxSkip++;
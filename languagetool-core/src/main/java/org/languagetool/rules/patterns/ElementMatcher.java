@@ -20,9 +20,7 @@
 package org.languagetool.rules.patterns;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
 import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
@@ -33,11 +31,18 @@ import org.languagetool.Language;
  */
 public class ElementMatcher {
 
+  // maximum number of compiled reference elements kept per matcher:
+  private static final int MAX_COMPILED_REFERENCES = 32;
+
   private final Element baseElement;
 
   private Element element;
   private List<ElementMatcher> andGroup;
   private boolean[] andGroupCheck;
+  private Map<ReferenceKey, Element> compiledReferences;
+  // not synchronized, like the cache, as a matcher is only used by one thread at a time:
+  private long compiledReferenceLookups;
+  private long compiledReferenceHits;
 
   public ElementMatcher(Element element) {
     baseElement = element;
@@ -65,8 +70,60 @@ public class ElementMatcher {
       final int refPos = firstMatchToken
           + baseElement.getMatch().getTokenRef();
       if (refPos < tokens.length) {
-        element = baseElement.compile(tokens[refPos],
-            language.getSynthesizer());
+        element = getCompiledElement(tokens[refPos], language);
+      }
+    }
+  }
+
+  /**
+   * How often this matcher needed a compiled reference element
+   * (see {@link #resolveReference(int, AnalyzedTokenReadings[], Language)}).
+   * @since 2.9
+   */
+  public long getCompiledReferenceLookups() {
+    return compiledReferenceLookups;
+  }
+
+  /**
+   * How many of the {@link #getCompiledReferenceLookups() lookups} could be taken from the cache.
+   * @since 2.9
+   */
+  public long getCompiledReferenceHits() {
+    return compiledReferenceHits;
+  }
+
+  // Compiling clones the element, may call the synthesizer and compiles a regex,
+  // so results are cached per referenced token:
+  private Element getCompiledElement(AnalyzedTokenReadings token, Language language) throws IOException {
+    if (compiledReferences == null) {
+      compiledReferences = new LinkedHashMap<ReferenceKey, Element>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ReferenceKey, Element> eldest) {
+          return size() > MAX_COMPILED_REFERENCES;
+        }
+      };
+    }
+    compiledReferenceLookups++;
+    ReferenceKey key = new ReferenceKey(token);
+    Element compiled = compiledReferences.get(key);
+    if (compiled == null) {
+      compiled = baseElement.compile(token, language.getSynthesizer());
+      compiledReferences.put(key, compiled);
+    } else {
+      compiledReferenceHits++;
+    }
+    return compiled;
+  }
+
+  /**
+   * Forget the element compiled by {@link #resolveReference(int, AnalyzedTokenReadings[], Language)},
+   * so the matcher can be used for another sentence.
+   */
+  void reset() {
+    element = baseElement;
+    if (andGroup != null) {
+      for (ElementMatcher andMatcher : andGroup) {
+        andMatcher.reset();
       }
     }
   }
@@ -94,8 +151,12 @@ public class ElementMatcher {
       for (ElementMatcher andMatcher : andGroup) {
         andMatcher.resolveReference(firstMatchToken, tokens, language);
       }
-      andGroupCheck = new boolean[element.getAndGroup().size() + 1];
-      Arrays.fill(andGroupCheck, false);
+      int size = element.getAndGroup().size() + 1;
+      if (andGroupCheck == null || andGroupCheck.length != size) {
+        andGroupCheck = new boolean[size];
+      } else {
+        Arrays.fill(andGroupCheck, false);
+      }
     }
   }
 
@@ -153,4 +214,36 @@ public class ElementMatcher {
   public String toString() {
     return "ElementMatcher for " + baseElement;
   }
+  /**
+   * What compiling a reference element depends on: the token and its readings.
+   */
+  private static class ReferenceKey {
+
+    private final String token;
+    private final String[] lemmasAndPosTags;
+
+    private ReferenceKey(AnalyzedTokenReadings tokenReadings) {
+      token = tokenReadings.getToken();
+      lemmasAndPosTags = new String[tokenReadings.getReadingsLength() * 2];
+      for (int i = 0; i < tokenReadings.getReadingsLength(); i++) {
+        AnalyzedToken reading = tokenReadings.getAnalyzedToken(i);
+        lemmasAndPosTags[2 * i] = reading.getLemma();
+        lemmasAndPosTags[2 * i + 1] = reading.getPOSTag();
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      ReferenceKey other = (ReferenceKey) o;
+      return Objects.equals(token, other.token) && Arrays.equals(lemmasAndPosTags, other.lemmasAndPosTags);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Objects.hashCode(token) + Arrays.hashCode(lemmasAndPosTags);
+    }
+  }
+
 }
@@ -102,6 +102,11 @@ public class MatchState {
     }
   }
 
+  /**
+   * Creates the token that replaces the matched one in disambiguation. It stays immunized
+   * if the matched token was immunized by an antipattern during disambiguation. Pattern
+   * rules don't call this, their antipatterns are handled by {@link PatternRuleMatcher}.
+   */
   public final AnalyzedTokenReadings filterReadings() {
     final List<AnalyzedToken> l = new ArrayList<>();
     if (formattedToken != null) {
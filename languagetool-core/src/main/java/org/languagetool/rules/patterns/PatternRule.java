@@ -20,8 +20,11 @@ package org.languagetool.rules.patterns;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.Language;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.tagging.disambiguation.rules.DisambiguationPatternRule;
@@ -40,13 +43,8 @@ public class PatternRule extends AbstractPatternRule {
   // A list of elements as they appear in XML file (phrases count as single tokens in case of matches or skipping).
   private final List<Integer> elementNo;
 
-  // Tokens used for fast checking whether a rule can ever match.
-  private final Set<String> simpleRuleTokens;
-
-  private final Set<String> inflectedRuleTokens;
-
-  // a list of antipatterns used in the rule.
-  private final List<DisambiguationPatternRule> antiPatterns;
+  // a list of antipatterns used in the rule, may be shared with other rules.
+  private List<DisambiguationPatternRule> antiPatterns;
 
   private RuleFilter filter;
   private String filterArgs;
@@ -55,8 +53,6 @@ public class PatternRule extends AbstractPatternRule {
 
   private List<Match> suggestionMatches;
   private List<Match> suggestionMatchesOutMsg;
-  private Set<String> tokenSet;
-  private Set<String> lemmaSet;
 
   // This property is used for short-circuiting evaluation of the elementNo list order.
   private boolean useList;
@@ -64,6 +60,19 @@ public class PatternRule extends AbstractPatternRule {
   // Marks whether the rule is a member of a disjunctive set (in case of OR operation on phraserefs).
   private boolean isMemberOfDisjunctiveSet;
 
+  // Pattern rules are shared between threads, but a matcher must only be used by one thread. Each
+  // thread keeps the matchers of all rules in one array, at the slot of the rule. Rules created
+  // MAX_MATCHERS_PER_THREAD apart share a slot, so a thread never keeps more matchers than that,
+  // not even of rules that are no longer used:
+  private static final int MAX_MATCHERS_PER_THREAD = 1 << 16;
+  private static final AtomicInteger ruleCount = new AtomicInteger();
+  private static final ThreadLocal<PatternRuleMatcher[]> threadMatchers = new ThreadLocal<>();
+  private final int matcherSlot = ruleCount.getAndIncrement() & (MAX_MATCHERS_PER_THREAD - 1);
+
+  // The tokens immunized by antipatterns in the sentence matched last on this thread. Rules
+  // in a rule group usually share their antipatterns, so they are applied only once per sentence:
+  private static final ThreadLocal<SentenceImmunization> lastImmunization = new ThreadLocal<>();
+
   /**
    * @param id Id of the Rule. Used in configuration. Should not contain special characters and should
    *        be stable over time, unless the rule changes completely.
@@ -109,9 +118,6 @@ public class PatternRule extends AbstractPatternRule {
         loopCnt++;
       }
     }
-    //don't instantiate a hash for every sentence, simply store it:
-    simpleRuleTokens = getSimpleTokens();
-    inflectedRuleTokens = getInflectedTokens();
     antiPatterns = new ArrayList<>();
   }  
   
@@ -188,8 +194,7 @@ public class PatternRule extends AbstractPatternRule {
   @Override
   public final RuleMatch[] match(final AnalyzedSentence sentence) throws IOException {
     try {
-      final PatternRuleMatcher matcher = new PatternRuleMatcher(this, useList);
-      return matcher.match(getSentenceWithImmunization(sentence));
+      return getMatcher().match(sentence, getImmunizedTokens(sentence));
     } catch (IOException e) {
       throw new IOException("Error analyzing sentence: '" + sentence + "'", e);
     } catch (Exception e) {
@@ -197,6 +202,34 @@ public class PatternRule extends AbstractPatternRule {
     }
   }
 
+  // non-private for tests
+  PatternRuleMatcher getMatcher() {
+    PatternRuleMatcher[] matchers = threadMatchers.get();
+    if (matchers == null || matchers.length <= matcherSlot) {
+      matchers = growMatchers(matchers);
+    }
+    PatternRuleMatcher matcher = matchers[matcherSlot];
+    if (matcher == null || matcher.rule != this) {
+      matcher = new PatternRuleMatcher(this, useList);
+      matchers[matcherSlot] = matcher;
+    } else if (matcher.isInUse()) {
+      // the rule is being matched further up in the call stack, don't disturb that matcher's state:
+      matcher = new PatternRuleMatcher(this, useList);
+    }
+    return matcher;
+  }
+
+  private PatternRuleMatcher[] growMatchers(@Nullable PatternRuleMatcher[] matchers) {
+    int length = matchers != null ? matchers.length : 1024;
+    while (length <= matcherSlot) {
+      length *= 2;
+    }
+    final PatternRuleMatcher[] newMatchers = matchers != null ?
+            Arrays.copyOf(matchers, length) : new PatternRuleMatcher[length];
+    threadMatchers.set(newMatchers);
+    return newMatchers;
+  }
+
   /** Add formatted suggestion elements. */
   public final void addSuggestionMatch(final Match m) {
     if (suggestionMatches == null) {
@@ -227,50 +260,6 @@ public class PatternRule extends AbstractPatternRule {
     return antiPatterns;
   }
 
-  /**
-   * A fast check whether this rule can be ignored for the given sentence
-   * because it can never match. Used internally for performance optimization.
-   * @since 2.4
-   */
-  public boolean canBeIgnoredFor(AnalyzedSentence sentence) {
-    return (!simpleRuleTokens.isEmpty() && !sentence.getTokenSet().containsAll(simpleRuleTokens))
-            || (!inflectedRuleTokens.isEmpty() && !sentence.getLemmaSet().containsAll(inflectedRuleTokens));
-  }
-
-  // tokens that just refer to a word - no regex, no inflection etc.
-  private synchronized Set<String> getSimpleTokens() {
-    if (tokenSet == null) {
-      tokenSet = new HashSet<>();
-      for (Element element : patternElements) {
-        if (!element.getNegation() && !element.isRegularExpression() 
-                && !element.isReferenceElement() && !element.isInflected() && element.getMinOccurrence() > 0) {
-          String str = element.getString();
-          if (!StringTools.isEmpty(str)) {
-            tokenSet.add(str.toLowerCase());
-          }
-        }
-      }
-    }
-    return tokenSet;
-  }
-
-  // tokens that just refer to a lemma - no regex etc.
-  private synchronized Set<String> getInflectedTokens() {
-    if (lemmaSet == null) {
-      lemmaSet = new HashSet<>();
-      for (Element element : patternElements) {
-        if (!element.getNegation() && !element.isRegularExpression()
-                && !element.isReferenceElement() && element.isInflected() && element.getMinOccurrence() > 0) {
-          String str = element.getString();
-          if (!StringTools.isEmpty(str)) {
-            lemmaSet.add(str.toLowerCase());
-          }
-        }
-      }
-    }
-    return lemmaSet;
-  }
-
   List<Integer> getElementNo() {
     return elementNo;
   }
@@ -315,19 +304,59 @@ public class PatternRule extends AbstractPatternRule {
    * @since 2.5
    */
   public void setAntiPatterns(List<DisambiguationPatternRule> antiPatterns) {
-    this.antiPatterns.addAll(antiPatterns);
+    List<DisambiguationPatternRule> newAntiPatterns = new ArrayList<>(this.antiPatterns);
+    newAntiPatterns.addAll(antiPatterns);
+    this.antiPatterns = newAntiPatterns;
+  }
+
+  /**
+   * Use the given list of antipatterns instead of the current ones. Rules that use the
+   * same list object share the result of applying the antipatterns to a sentence, so the
+   * list must not be modified later.
+   * @since 2.9
+   */
+  void setSharedAntiPatterns(List<DisambiguationPatternRule> antiPatterns) {
+    this.antiPatterns = Objects.requireNonNull(antiPatterns);
   }
 
-  private AnalyzedSentence getSentenceWithImmunization(AnalyzedSentence sentence) throws IOException {
-    if (antiPatterns != null && !antiPatterns.isEmpty()) {
+  /**
+   * Flags for the non-whitespace tokens of the sentence, {@code true} for tokens
+   * immunized by the antipatterns, or {@code null} if the rule has no antipatterns.
+   */
+  @Nullable
+  private boolean[] getImmunizedTokens(AnalyzedSentence sentence) throws IOException {
+    if (antiPatterns.isEmpty()) {
+      return null;
+    }
+    SentenceImmunization immunization = lastImmunization.get();
+    if (immunization == null || immunization.sentence != sentence) {
+      immunization = new SentenceImmunization(sentence);
+      lastImmunization.set(immunization);
+    }
+    boolean[] immunized = immunization.immunizedTokens.get(antiPatterns);
+    if (immunized == null) {
       //we need a copy of the sentence, not reference to the old one
       AnalyzedSentence immunizedSentence = sentence.copy(sentence);
       for (final DisambiguationPatternRule patternRule : antiPatterns) {
         immunizedSentence = patternRule.replace(immunizedSentence);
       }
-      return immunizedSentence;
+      AnalyzedTokenReadings[] tokens = immunizedSentence.getTokensWithoutWhitespace();
+      immunized = new boolean[tokens.length];
+      for (int i = 0; i < tokens.length; i++) {
+        immunized[i] = tokens[i].isImmunized();
+      }
+      immunization.immunizedTokens.put(antiPatterns, immunized);
+    }
+    return immunized;
+  }
+
+  private static class SentenceImmunization {
+    private final AnalyzedSentence sentence;
+    // antipattern list (compared by identity) -> immunized tokens:
+    private final Map<List<DisambiguationPatternRule>, boolean[]> immunizedTokens = new IdentityHashMap<>();
+    private SentenceImmunization(AnalyzedSentence sentence) {
+      this.sentence = sentence;
     }
-    return sentence;
   }
 
 }
@@ -22,8 +22,10 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.lang.ObjectUtils;
 import org.languagetool.Languages;
@@ -68,6 +70,9 @@ public class PatternRuleHandler extends XMLRuleHandler {
 
   private List<DisambiguationPatternRule> rulegroupAntiPatterns;
   private List<DisambiguationPatternRule> ruleAntiPatterns;
+  // distinct antipattern lists, so rules with the same antipatterns share them (the
+  // antipatterns themselves are compared by identity):
+  private final Map<List<DisambiguationPatternRule>, List<DisambiguationPatternRule>> sharedAntiPatterns = new HashMap<>();
 
   private boolean relaxedMode = false;
   private boolean inAntiPattern;
@@ -564,6 +569,19 @@ public class PatternRuleHandler extends XMLRuleHandler {
     }
   }
 
+  private void shareAntiPatterns(PatternRule rule) {
+    List<DisambiguationPatternRule> antiPatterns = rule.getAntiPatterns();
+    if (antiPatterns.isEmpty()) {
+      return;
+    }
+    List<DisambiguationPatternRule> shared = sharedAntiPatterns.get(antiPatterns);
+    if (shared == null) {
+      shared = Collections.unmodifiableList(new ArrayList<>(antiPatterns));
+      sharedAntiPatterns.put(shared, shared);
+    }
+    rule.setSharedAntiPatterns(shared);
+  }
+
   protected void prepareRule(final PatternRule rule) {
     if (startPos != -1 && endPos != -1) {
       rule.setStartPositionCorrection(startPos);
@@ -581,6 +599,7 @@ public class PatternRuleHandler extends XMLRuleHandler {
       rule.setAntiPatterns(ruleAntiPatterns);
       ruleAntiPatterns.clear();
     }
+    shareAntiPatterns(rule);
     if (inRuleGroup) {
       rule.setSubId(Integer.toString(subId));
     } else {
@@ -0,0 +1,209 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.rules.Rule;
+
+import java.util.*;
+
+/**
+ * An index of rules that quickly finds the pattern rules that can possibly match a
+ * sentence. Each {@link AbstractPatternRule} (this includes disambiguation rules) is
+ * indexed by one of its anchors: a plain token or lemma it requires, or - for rules
+ * that only use POS tags - a POS tag prefix it requires. A rule whose anchor doesn't
+ * occur in a sentence is not returned by {@link #getCandidateRules(AnalyzedSentence)}.
+ * All other rules are always returned. Used internally for performance optimization,
+ * it has no effect on matching logic.
+ * @since 2.9
+ */
+public class PatternRuleIndex {
+
+  private static final String POS_REGEX_SPECIAL_CHARS = ".[]()\\{}*+?^$|";
+
+  private final List<Rule> rules;
+  private final boolean[] alwaysCandidate;
+  private final Map<String, List<Integer>> tokenIndex = new HashMap<>();
+  private final Map<String, List<Integer>> lemmaIndex = new HashMap<>();
+  private final Map<String, List<Integer>> posPrefixIndex = new HashMap<>();
+  private final boolean[] posPrefixLengths;
+
+  /**
+   * @param rules the rules to be indexed, the order is kept for the candidate rules
+   */
+  public PatternRuleIndex(List<Rule> rules) {
+    this.rules = new ArrayList<>(rules);
+    this.alwaysCandidate = new boolean[rules.size()];
+    int maxPosPrefixLength = 0;
+    for (int i = 0; i < rules.size(); i++) {
+      Rule rule = rules.get(i);
+      if (rule instanceof AbstractPatternRule) {
+        AbstractPatternRule patternRule = (AbstractPatternRule) rule;
+        String token = getLongest(patternRule.getSimpleRuleTokens());
+        if (token != null) {
+          add(tokenIndex, token, i);
+          continue;
+        }
+        String lemma = getLongest(patternRule.getInflectedRuleTokens());
+        if (lemma != null) {
+          add(lemmaIndex, lemma, i);
+          continue;
+        }
+        String posPrefix = getPosTagPrefix(patternRule);
+        if (posPrefix != null) {
+          add(posPrefixIndex, posPrefix, i);
+          maxPosPrefixLength = Math.max(maxPosPrefixLength, posPrefix.length());
+          continue;
+        }
+      }
+      alwaysCandidate[i] = true;
+    }
+    posPrefixLengths = new boolean[maxPosPrefixLength + 1];
+    for (String prefix : posPrefixIndex.keySet()) {
+      posPrefixLengths[prefix.length()] = true;
+    }
+  }
+
+  /**
+   * Get the rules that may match the given sentence, in the order in which they
+   * were given to the constructor.
+   */
+  public List<Rule> getCandidateRules(AnalyzedSentence sentence) {
+    boolean[] candidate = getCandidates(sentence);
+    List<Rule> result = new ArrayList<>();
+    for (int i = 0; i < candidate.length; i++) {
+      if (candidate[i]) {
+        result.add(rules.get(i));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get a flag for each rule (in the order in which they were given to the constructor)
+   * which is {@code true} if the rule may match the given sentence.
+   */
+  public boolean[] getCandidates(AnalyzedSentence sentence) {
+    boolean[] candidate = alwaysCandidate.clone();
+    if (!tokenIndex.isEmpty()) {
+      for (String token : sentence.getTokenSet()) {
+        mark(candidate, tokenIndex.get(token));
+      }
+    }
+    if (!lemmaIndex.isEmpty()) {
+      for (String lemma : sentence.getLemmaSet()) {
+        mark(candidate, lemmaIndex.get(lemma));
+      }
+    }
+    if (!posPrefixIndex.isEmpty()) {
+      for (AnalyzedTokenReadings tokenReadings : sentence.getTokens()) {
+        for (AnalyzedToken reading : tokenReadings) {
+          String posTag = reading.getPOSTag();
+          if (posTag != null) {
+            int maxLength = Math.min(posTag.length(), posPrefixLengths.length - 1);
+            for (int length = 1; length <= maxLength; length++) {
+              if (posPrefixLengths[length]) {
+                mark(candidate, posPrefixIndex.get(posTag.substring(0, length)));
+              }
+            }
+          }
+        }
+      }
+    }
+    return candidate;
+  }
+
+  private void mark(boolean[] candidate, @Nullable List<Integer> ruleIndexes) {
+    if (ruleIndexes != null) {
+      for (int ruleIndex : ruleIndexes) {
+        candidate[ruleIndex] = true;
+      }
+    }
+  }
+
+  private void add(Map<String, List<Integer>> index, String key, int ruleIndex) {
+    List<Integer> ruleIndexes = index.get(key);
+    if (ruleIndexes == null) {
+      ruleIndexes = new ArrayList<>();
+      index.put(key, ruleIndexes);
+    }
+    ruleIndexes.add(ruleIndex);
+  }
+
+  // longer strings are usually less common, so they make the more selective anchor:
+  @Nullable
+  private String getLongest(Set<String> strings) {
+    String longest = null;
+    for (String s : strings) {
+      if (longest == null || s.length() > longest.length() || (s.length() == longest.length() && s.compareTo(longest) < 0)) {
+        longest = s;
+      }
+    }
+    return longest;
+  }
+
+  @Nullable
+  private String getPosTagPrefix(AbstractPatternRule rule) {
+    String longest = null;
+    for (Element element : rule.getPatternElements()) {
+      String prefix = getPosTagPrefix(element);
+      if (prefix != null && (longest == null || prefix.length() > longest.length())) {
+        longest = prefix;
+      }
+    }
+    return longest;
+  }
+
+  /**
+   * The beginning that every POS tag matched by the element must have, or {@code null}
+   * if the element can match without such a POS tag. An element with an {@code <or>} group
+   * only stores the first alternative's POS tag, so it never has such a prefix.
+   */
+  @Nullable
+  static String getPosTagPrefix(Element element) {
+    String posTag = element.getPOStag();
+    if (posTag == null || element.getPOSNegation() || element.getNegation() || element.hasOrGroup()
+            || element.isReferenceElement() || element.getMinOccurrence() < 1) {
+      return null;
+    }
+    if (!element.isPOStagRegularExpression()) {
+      return Element.UNKNOWN_TAG.equals(posTag) ? null : posTag;
+    }
+    if (posTag.indexOf('|') != -1 || Element.UNKNOWN_TAG.matches(posTag)) {
+      return null;
+    }
+    StringBuilder prefix = new StringBuilder();
+    for (int i = 0; i < posTag.length(); i++) {
+      char c = posTag.charAt(i);
+      if (POS_REGEX_SPECIAL_CHARS.indexOf(c) != -1) {
+        if ((c == '?' || c == '*' || c == '{') && prefix.length() > 0) {
+          // the previous character is optional
+          prefix.setLength(prefix.length() - 1);
+        }
+        break;
+      }
+      prefix.append(c);
+    }
+    return prefix.length() > 0 ? prefix.toString() : null;
+  }
+
+}
@@ -33,27 +33,75 @@ import java.util.Arrays;
 import java.util.List;
 
 /**
- * Matches a pattern rule against text.
+ * Matches a pattern rule against text. A matcher keeps state between
+ * its calls to {@link #match(AnalyzedSentence)} to avoid allocations, so it
+ * must only be used by one thread at a time.
  */
 final class PatternRuleMatcher extends AbstractPatternRulePerformer {
 
   private static final String SUGGESTION_START_TAG = "<suggestion>";
   private static final String SUGGESTION_END_TAG = "</suggestion>";
   private static final String MISTAKE = "<mistake/>";
+  private static final RuleMatch[] NO_MATCHES = new RuleMatch[0];
+
+  // The non-whitespace tokens of the sentence matched last on this thread. All pattern
+  // rules are usually matched against the same sentence one after another, so this
+  // saves one copy of the token array per rule:
+  private static final ThreadLocal<SentenceTokens> lastSentenceTokens = new ThreadLocal<>();
 
   private final boolean useList;
   private final List<ElementMatcher> elementMatchers;
+  // relative positions of the matched tokens, one per element:
+  private final int[] tokenPositions;
+
+  // tokens immunized by the rule's antipatterns in the current sentence, may be null:
+  private boolean[] immunizedTokens;
+  private boolean inUse;
 
   PatternRuleMatcher(PatternRule rule, boolean useList) {
     super(rule, rule.getLanguage().getUnifier());
     this.useList = useList;
     this.elementMatchers = createElementMatchers();
+    this.tokenPositions = new int[elementMatchers.size()];
+  }
+
+  /**
+   * Whether this matcher is currently running {@link #match(AnalyzedSentence)}, e.g. further
+   * up in the call stack when a rule filter checks text.
+   */
+  boolean isInUse() {
+    return inUse;
   }
 
   final RuleMatch[] match(final AnalyzedSentence sentence) throws IOException {
+    return match(sentence, null);
+  }
+
+  /**
+   * @param immunizedTokens flags for the non-whitespace tokens of the sentence, {@code true}
+   *    for tokens that must not be matched (in addition to tokens immunized in the sentence itself)
+   */
+  final RuleMatch[] match(final AnalyzedSentence sentence, @Nullable boolean[] immunizedTokens) throws IOException {
+    inUse = true;
+    this.immunizedTokens = immunizedTokens;
+    try {
+      for (ElementMatcher elementMatcher : elementMatchers) {
+        elementMatcher.reset();
+      }
+      return matchTokens(getTokensWithoutWhitespace(sentence));
+    } finally {
+      this.immunizedTokens = null;
+      inUse = false;
+    }
+  }
+
+  @Override
+  protected boolean isImmunized(AnalyzedTokenReadings[] tokens, int pos) {
+    return tokens[pos].isImmunized() || (immunizedTokens != null && immunizedTokens[pos]);
+  }
+
+  private RuleMatch[] matchTokens(final AnalyzedTokenReadings[] tokens) throws IOException {
     final List<RuleMatch> ruleMatches = new ArrayList<>();
-    final AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
-    final List<Integer> tokenPositions = new ArrayList<>(tokens.length + 1);
     final int patternSize = elementMatchers.size();
     final int limit = Math.max(0, tokens.length - patternSize + 1);
     ElementMatcher elem = null;
@@ -70,7 +118,7 @@ final class PatternRuleMatcher extends AbstractPatternRulePerformer {
       if (rule.testUnification) {
         unifier.reset();
       }
-      tokenPositions.clear();
+      int tokenPositionCount = 0;
       int minOccurSkip = 0;
       //System.out.println("===================================");
       for (int k = 0; k < patternSize; k++) {
@@ -85,18 +133,18 @@ final class PatternRuleMatcher extends AbstractPatternRulePerformer {
         final int maxTok = Math.min(nextPos + prevSkipNext, tokens.length - (patternSize - k) + minOccurCorrection);
         //System.out.println("-----------------------------------");
         for (int m = nextPos; m <= maxTok; m++) {
-          allElementsMatch = !tokens[m].isImmunized() && testAllReadings(tokens, elem, prevElement, m,
+          allElementsMatch = !isImmunized(tokens, m) && testAllReadings(tokens, elem, prevElement, m,
               firstMatchToken, prevSkipNext);
 
           if (elem.getElement().getMinOccurrence() == 0) {
             final ElementMatcher nextElement = elementMatchers.get(k + 1);
-            final boolean nextElementMatch = !tokens[m].isImmunized() && testAllReadings(tokens, nextElement, elem, m,
+            final boolean nextElementMatch = !isImmunized(tokens, m) && testAllReadings(tokens, nextElement, elem, m,
                 firstMatchToken, prevSkipNext);
             if (nextElementMatch) {
               // this element doesn't match, but it's optional so accept this and continue
               allElementsMatch = true;
               minOccurSkip++;
-              tokenPositions.add(0);
+              tokenPositions[tokenPositionCount++] = 0;
               break;
             }
           }
@@ -111,7 +159,7 @@ final class PatternRuleMatcher extends AbstractPatternRulePerformer {
             System.out.println("skipForMax: " + skipForMax);
             System.out.println("");*/
             final int skipShift = lastMatchToken - nextPos;
-            tokenPositions.add(skipShift + 1);
+            tokenPositions[tokenPositionCount++] = skipShift + 1;
             prevSkipNext = translateElementNo(elem.getElement().getSkipNext());
             skipShiftTotal += skipShift;
             if (firstMatchToken == -1) {
@@ -131,9 +179,9 @@ final class PatternRuleMatcher extends AbstractPatternRulePerformer {
         }
       }
 
-      if (allElementsMatch && tokenPositions.size() == patternSize) {
+      if (allElementsMatch && tokenPositionCount == patternSize) {
         //System.out.println("YES");
-        final RuleMatch ruleMatch = createRuleMatch(tokenPositions,
+        final RuleMatch ruleMatch = createRuleMatch(tokenPositions, tokenPositionCount,
             tokens, firstMatchToken, lastMatchToken, firstMarkerMatchToken, lastMarkerMatchToken);
         if (ruleMatch != null) {
           ruleMatches.add(ruleMatch);
@@ -141,26 +189,39 @@ final class PatternRuleMatcher extends AbstractPatternRulePerformer {
       }
       i++;
     }
+    if (ruleMatches.isEmpty()) {
+      return NO_MATCHES;
+    }
     RuleMatchFilter maxFilter = new RuleWithMaxFilter();
     List<RuleMatch> filteredMatches = maxFilter.filter(ruleMatches);
     return filteredMatches.toArray(new RuleMatch[filteredMatches.size()]);
   }
 
+  private static AnalyzedTokenReadings[] getTokensWithoutWhitespace(AnalyzedSentence sentence) {
+    // the token array is not modified by matching, so it can be shared:
+    SentenceTokens last = lastSentenceTokens.get();
+    if (last == null || last.sentence != sentence) {
+      last = new SentenceTokens(sentence, sentence.getTokensWithoutWhitespace());
+      lastSentenceTokens.set(last);
+    }
+    return last.tokens;
+  }
+
   @Nullable
-  private RuleMatch createRuleMatch(final List<Integer> tokenPositions,
+  private RuleMatch createRuleMatch(final int[] tokenPositions, final int tokenPositionCount,
       final AnalyzedTokenReadings[] tokens, final int firstMatchToken,
       final int lastMatchToken, int firstMarkerMatchToken, int lastMarkerMatchToken) throws IOException {
     final PatternRule rule = (PatternRule) this.rule;
-    final String errMessage = formatMatches(tokens, tokenPositions,
+    final String errMessage = formatMatches(tokens, tokenPositions, tokenPositionCount,
             firstMatchToken, rule.getMessage(), rule.getSuggestionMatches());
-    final String shortErrMessage = formatMatches(tokens, tokenPositions,
+    final String shortErrMessage = formatMatches(tokens, tokenPositions, tokenPositionCount,
         firstMatchToken, rule.getShortMessage(), rule.getSuggestionMatches());
-    final String suggestionsOutMsg = formatMatches(tokens, tokenPositions,
+    final String suggestionsOutMsg = formatMatches(tokens, tokenPositions, tokenPositionCount,
             firstMatchToken, rule.getSuggestionsOutMsg(), rule.getSuggestionMatchesOutMsg());
     int correctedStPos = 0;
     if (rule.startPositionCorrection > 0) {
-      for (int l = 0; l <= Math.min(rule.startPositionCorrection, tokenPositions.size() - 1); l++) {
-        correctedStPos += tokenPositions.get(l);
+      for (int l = 0; l <= Math.min(rule.startPositionCorrection, tokenPositionCount - 1); l++) {
+        correctedStPos += tokenPositions[l];
       }
       correctedStPos--;
     }
@@ -205,7 +266,11 @@ final class PatternRuleMatcher extends AbstractPatternRulePerformer {
         if (rule.getFilter() != null) {
           RuleFilterEvaluator evaluator = new RuleFilterEvaluator(rule.getFilter());
           AnalyzedTokenReadings[] patternTokens = Arrays.copyOfRange(tokens, firstMatchToken, lastMatchToken + 1);
-          return evaluator.runFilter(rule.getFilterArguments(), ruleMatch, patternTokens, tokenPositions);
+          List<Integer> positions = new ArrayList<>(tokenPositionCount);
+          for (int l = 0; l < tokenPositionCount; l++) {
+            positions.add(tokenPositions[l]);
+          }
+          return evaluator.runFilter(rule.getFilterArguments(), ruleMatch, patternTokens, positions);
         } else {
           return ruleMatch; 
         }
@@ -256,12 +321,13 @@ final class PatternRuleMatcher extends AbstractPatternRulePerformer {
    * using Match class, and take care of skipping.
    * @param tokenReadings Array of AnalyzedTokenReadings that were matched against the pattern
    * @param positions Array of relative positions of matched tokens
+   * @param positionCount Number of valid entries in {@code positions}
    * @param firstMatchTok Position of the first matched token
    * @param errorMsg String containing suggestion markup
    * @return String Formatted message.
    */
   private String formatMatches(final AnalyzedTokenReadings[] tokenReadings,
-      final List<Integer> positions, final int firstMatchTok, final String errorMsg,
+      final int[] positions, final int positionCount, final int firstMatchTok, final String errorMsg,
       final List<Match> suggestionMatches) throws IOException {
     String errorMessage = errorMsg;
     int matchCounter = 0;
@@ -285,11 +351,11 @@ final class PatternRuleMatcher extends AbstractPatternRulePerformer {
             + numLen)) - 1;
         int repTokenPos = 0;
         int nextTokenPos = 0;
-        for (int l = 0; l <= Math.min(j, positions.size() - 1); l++) {
-          repTokenPos += positions.get(l);
+        for (int l = 0; l <= Math.min(j, positionCount - 1); l++) {
+          repTokenPos += positions[l];
         }
-        if (j + 1 < positions.size()) {
-          nextTokenPos = firstMatchTok + repTokenPos + positions.get(j + 1);
+        if (j + 1 < positionCount) {
+          nextTokenPos = firstMatchTok + repTokenPos + positions[j + 1];
         }
 
         if (suggestionMatches != null) {
@@ -297,7 +363,7 @@ final class PatternRuleMatcher extends AbstractPatternRulePerformer {
             numbersToMatches[j] = matchCounter;
             if (suggestionMatches.get(matchCounter) != null) {
               // if token is optional remove it from suggestions:
-              final String[] matches = j >= positions.size() || positions.get(j) != 0
+              final String[] matches = j >= positionCount || positions[j] != 0
                    ? concatMatches(matchCounter, j, firstMatchTok + repTokenPos, tokenReadings, nextTokenPos, suggestionMatches)
                    : new String[] { "" };
               final String leftSide = errorMessage.substring(0, backslashPos);
@@ -457,4 +523,13 @@ final class PatternRuleMatcher extends AbstractPatternRulePerformer {
     return outputList.toArray(new String[outputList.size()]);
   }
 
+  private static class SentenceTokens {
+    private final AnalyzedSentence sentence;
+    private final AnalyzedTokenReadings[] tokens;
+    private SentenceTokens(AnalyzedSentence sentence, AnalyzedTokenReadings[] tokens) {
+      this.sentence = sentence;
+      this.tokens = tokens;
+    }
+  }
+
 }
@@ -56,12 +56,15 @@ public abstract class SpellingCheckRule extends Rule {
   private static final String SPELLING_PROHIBIT_FILE = "/hunspell/prohibit.txt";
 
   private final Set<String> wordsToBeIgnored = new HashSet<>();
+  // the hash of wordsToBeIgnored, updated when words are added so it doesn't need to be computed:
+  private int wordsToBeIgnoredHash = 0;
   private final Set<String> wordsToBeProhibited = new HashSet<>();
 
   private boolean wordsWithDotsPresent = false;
   private boolean considerIgnoreWords = true;
 
   private boolean convertsCase = false;
+  private boolean suggestionsEnabled = true;
 
   public SpellingCheckRule(final ResourceBundle messages, final Language language) {
     super(messages);
@@ -87,11 +90,46 @@ public abstract class SpellingCheckRule extends Rule {
   public void reset() {
   }
 
+  @Override
+  public boolean isSentenceLocal() {
+    return true;
+  }
+
+  @Override
+  public int getSettingsHash() {
+    return Objects.hash(wordsToBeIgnoredHash, considerIgnoreWords, convertsCase, suggestionsEnabled);
+  }
+
+  /**
+   * Set whether suggestions are created for misspelled words. Creating suggestions usually takes much
+   * longer than detecting the misspelling, so disabling them makes checking faster.
+   * @since 2.9
+   */
+  public void setSuggestionsEnabled(boolean suggestionsEnabled) {
+    this.suggestionsEnabled = suggestionsEnabled;
+  }
+
+  /**
+   * @see #setSuggestionsEnabled(boolean)
+   * @since 2.9
+   */
+  public boolean isSuggestionsEnabled() {
+    return suggestionsEnabled;
+  }
+
   /**
    * Add the given words to the list of words to be ignored during spell check.
    */
   public void addIgnoreTokens(List<String> tokens) {
-    wordsToBeIgnored.addAll(tokens);
+    for (String token : tokens) {
+      addWordToBeIgnored(token);
+    }
+  }
+
+  private void addWordToBeIgnored(String word) {
+    if (wordsToBeIgnored.add(word)) {
+      wordsToBeIgnoredHash += word.hashCode();
+    }
   }
 
   /**
@@ -107,6 +145,7 @@ public abstract class SpellingCheckRule extends Rule {
    */
   public void resetIgnoreTokens() {
     wordsToBeIgnored.clear();
+    wordsToBeIgnoredHash = 0;
     try {
       init();
     } catch (IOException e) {
@@ -272,9 +311,9 @@ public abstract class SpellingCheckRule extends Rule {
           if (language.getShortNameWithCountryAndVariant().equals("de-CH")) {
             // hack: Swiss German doesn't use "ß" but always "ss" - replace this, otherwise
             // misspellings (from Swiss point-of-view) like "äußere" wouldn't be found:
-            wordsToBeIgnored.add(line.replace("ß", "ss"));
+            addWordToBeIgnored(line.replace("ß", "ss"));
           } else {
-            wordsToBeIgnored.add(line);
+            addWordToBeIgnored(line);
           }
           if (line.endsWith(".")) {
             wordsWithDotsPresent = true;
@@ -101,12 +101,14 @@ public class HunspellRule extends SpellingCheckRule {
             len, len + word.length(),
             messages.getString("spelling"),
             messages.getString("desc_spelling_short"));
-        final List<String> suggestions = getSuggestions(word);
-        suggestions.addAll(0, getAdditionalTopSuggestions(suggestions, word));
-        suggestions.addAll(getAdditionalSuggestions(suggestions, word));
-        if (!suggestions.isEmpty()) {
-          filterSuggestions(suggestions);
-          ruleMatch.setSuggestedReplacements(suggestions);
+        if (isSuggestionsEnabled()) {
+          final List<String> suggestions = getSuggestions(word);
+          suggestions.addAll(0, getAdditionalTopSuggestions(suggestions, word));
+          suggestions.addAll(getAdditionalSuggestions(suggestions, word));
+          if (!suggestions.isEmpty()) {
+            filterSuggestions(suggestions);
+            ruleMatch.setSuggestedReplacements(suggestions);
+          }
         }
         ruleMatches.add(ruleMatch);
       }
@@ -65,6 +65,11 @@ public abstract class MorfologikSpellerRule extends SpellingCheckRule {
     return messages.getString("desc_spelling");
   }
 
+  @Override
+  public int getSettingsHash() {
+    return Objects.hash(super.getSettingsHash(), conversionLocale, ignoreTaggedWords);
+  }
+
   public void setLocale(Locale locale) {
     conversionLocale = locale;
   }
@@ -174,6 +179,10 @@ public abstract class MorfologikSpellerRule extends SpellingCheckRule {
       final RuleMatch ruleMatch = new RuleMatch(this, startPos, startPos
           + word.length(), messages.getString("spelling"),
           messages.getString("desc_spelling_short"));
+      if (!isSuggestionsEnabled()) {
+        ruleMatches.add(ruleMatch);
+        return ruleMatches;
+      }
       List<String> suggestions = speller1.getSuggestions(word);
       if (suggestions.size() == 0 && word.length() >= 5) {
         // speller1 uses a maximum edit distance of 1, it won't find suggestion for "garentee", "greatful" ezc.
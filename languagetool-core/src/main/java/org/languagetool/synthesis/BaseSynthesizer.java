@@ -21,8 +21,8 @@ package org.languagetool.synthesis;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import morfologik.stemming.Dictionary;
@@ -32,14 +32,25 @@ import morfologik.stemming.WordData;
 
 import org.languagetool.AnalyzedToken;
 import org.languagetool.JLanguageTool;
+import org.languagetool.tools.LruCache;
 
 public class BaseSynthesizer implements Synthesizer {
 
+  /** The default maximum number of (lemma, tag) pairs whose forms are cached. */
+  public static final int DEFAULT_FORMS_CACHE_SIZE = 10_000;
+
+  private static final int MAX_CACHED_TAG_PATTERNS = 1000;
+
   protected volatile List<String> possibleTags;
 
   private final String tagFileName;
   private final String resourceFileName;
-  private final IStemmer stemmer;
+  // the stemmer is not thread-safe, so every thread gets its own:
+  private final ThreadLocal<IStemmer> stemmers = new ThreadLocal<>();
+  // regular expression -> tags from possibleTags that it matches:
+  private final LruCache<String, List<String>> matchingTags = new LruCache<>(MAX_CACHED_TAG_PATTERNS);
+  // lemma|tag -> inflected forms, null if disabled:
+  private volatile LruCache<String, List<String>> forms = new LruCache<>(DEFAULT_FORMS_CACHE_SIZE);
 
   private volatile Dictionary dictionary;
 
@@ -50,7 +61,19 @@ public class BaseSynthesizer implements Synthesizer {
   public BaseSynthesizer(final String resourceFileName, final String tagFileName) {
     this.resourceFileName = resourceFileName;
     this.tagFileName = tagFileName;
-    this.stemmer = createStemmer();
+  }
+
+  /**
+   * Set the maximum number of (lemma, part-of-speech tag) pairs whose inflected forms are cached.
+   * If the cache is full, the least recently used pair is evicted. The cached forms are dropped.
+   * @param maxSize the maximum number of cached pairs, {@code 0} to not cache any forms
+   * @since 2.9
+   */
+  public void setFormsCacheSize(int maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException("maxSize must not be negative: " + maxSize);
+    }
+    forms = maxSize > 0 ? new LruCache<String, List<String>>(maxSize) : null;
   }
 
   /**
@@ -92,12 +115,20 @@ public class BaseSynthesizer implements Synthesizer {
    * @param results the list to collect the inflected forms.
    */
   protected void lookup(String lemma, String posTag, List<String> results) {
-    synchronized (this) { // the stemmer is not thread-safe
-      final List<WordData> wordForms = stemmer.lookup(lemma + "|" + posTag);
-      for (WordData wd : wordForms) {
-        results.add(wd.getStem().toString());
+    final String key = lemma + "|" + posTag;
+    final LruCache<String, List<String>> cache = forms;
+    List<String> wordForms = cache != null ? cache.get(key) : null;
+    if (wordForms == null) {
+      final List<WordData> wordData = getStemmer().lookup(key);
+      wordForms = new ArrayList<>(wordData.size());
+      for (WordData wd : wordData) {
+        wordForms.add(wd.getStem().toString());
+      }
+      if (cache != null) {
+        cache.put(key, wordForms);
       }
     }
+    results.addAll(wordForms);
   }
 
   /**
@@ -118,15 +149,9 @@ public class BaseSynthesizer implements Synthesizer {
   public String[] synthesize(final AnalyzedToken token, final String posTag,
       final boolean posTagRegExp) throws IOException {
     if (posTagRegExp) {
-      initPossibleTags();
-      final Pattern p = Pattern.compile(posTag);
       final List<String> results = new ArrayList<>();
-
-      for (final String tag : possibleTags) {
-        final Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          lookup(token.getLemma(), tag, results);
-        }
+      for (final String tag : getMatchingTags(posTag)) {
+        lookup(token.getLemma(), tag, results);
       }
       return results.toArray(new String[results.size()]);
     }
@@ -138,11 +163,41 @@ public class BaseSynthesizer implements Synthesizer {
     return posTag;
   }
 
+  /**
+   * The tags from the tag file that match the given regular expression. As the
+   * tags don't change, the result is cached.
+   * @param posTagRegExp a regular expression for part-of-speech tags
+   * @return the matching tags, must not be modified
+   * @since 2.9
+   */
+  protected List<String> getMatchingTags(String posTagRegExp) throws IOException {
+    List<String> tags = matchingTags.get(posTagRegExp);
+    if (tags == null) {
+      initPossibleTags();
+      final Pattern p = Pattern.compile(posTagRegExp);
+      final List<String> newTags = new ArrayList<>();
+      for (final String tag : possibleTags) {
+        if (p.matcher(tag).matches()) {
+          newTags.add(tag);
+        }
+      }
+      tags = Collections.unmodifiableList(newTags);
+      matchingTags.put(posTagRegExp, tags);
+    }
+    return tags;
+  }
+
   /**
    * @since 2.5
-   * @return the stemmer interface to be used.
+   * @return the stemmer interface to be used, it is not shared with other threads
+   *         (since 2.9).
    */
   public IStemmer getStemmer() {
+    IStemmer stemmer = stemmers.get();
+    if (stemmer == null) {
+      stemmer = createStemmer();
+      stemmers.set(stemmer);
+    }
     return stemmer;
   }
 
@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
@@ -32,6 +33,7 @@ import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.JLanguageTool;
+import org.languagetool.tools.LruCache;
 import org.languagetool.tools.StringTools;
 
 /**
@@ -41,9 +43,15 @@ import org.languagetool.tools.StringTools;
  */
 public abstract class BaseTagger implements Tagger {
 
-  protected WordTagger wordTagger;
+  // maximum number of words whose tags are cached, the least recently used ones get evicted:
+  private static final int MAX_CACHED_WORDS = 10_000;
+
+  protected volatile WordTagger wordTagger;
   protected Locale conversionLocale = Locale.getDefault();
 
+  // every token is looked up in up to three spellings, so many lookups are repeated:
+  private final LruCache<String, List<TaggedWord>> taggedWordCache = new LruCache<>(MAX_CACHED_WORDS);
+
   private boolean tagLowercaseWithUppercase = true;
   private volatile Dictionary dictionary;
 
@@ -73,22 +81,32 @@ public abstract class BaseTagger implements Tagger {
   }
 
   protected WordTagger getWordTagger() {
-    if (wordTagger == null) {
-      MorfologikTagger morfologikTagger = new MorfologikTagger(getFileName());
-      try {
-        String manualFileName = getManualAdditionsFileName();
-        if (manualFileName != null) {
-          InputStream stream = JLanguageTool.getDataBroker().getFromResourceDirAsStream(manualFileName);
-          ManualTagger manualTagger = new ManualTagger(stream);
-          wordTagger = new CombiningTagger(morfologikTagger, manualTagger, overwriteWithManualTagger());
-        } else {
-          wordTagger = morfologikTagger;
+    WordTagger tagger = wordTagger;
+    if (tagger == null) {
+      synchronized (this) {
+        tagger = wordTagger;
+        if (tagger == null) {
+          wordTagger = tagger = createWordTagger();
         }
-      } catch (IOException e) {
-        throw new RuntimeException("Could not load manual tagger data from " + getManualAdditionsFileName(), e);
       }
     }
-    return wordTagger;
+    return tagger;
+  }
+
+  private WordTagger createWordTagger() {
+    MorfologikTagger morfologikTagger = new MorfologikTagger(getFileName());
+    try {
+      String manualFileName = getManualAdditionsFileName();
+      if (manualFileName != null) {
+        InputStream stream = JLanguageTool.getDataBroker().getFromResourceDirAsStream(manualFileName);
+        ManualTagger manualTagger = new ManualTagger(stream);
+        return new CombiningTagger(morfologikTagger, manualTagger, overwriteWithManualTagger());
+      } else {
+        return morfologikTagger;
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not load manual tagger data from " + getManualAdditionsFileName(), e);
+    }
   }
 
   protected Dictionary getDictionary() throws IOException {
@@ -130,8 +148,8 @@ public abstract class BaseTagger implements Tagger {
     final String lowerWord = word.toLowerCase(conversionLocale);
     final boolean isLowercase = word.equals(lowerWord);
     final boolean isMixedCase = StringTools.isMixedCase(word);
-    List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(word));
-    List<AnalyzedToken> lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(lowerWord));
+    List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(word));
+    List<AnalyzedToken> lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(lowerWord));
     //normal case:
     addTokens(taggerTokens, result);
     //tag non-lowercase (alluppercase or startuppercase), but not mixedcase word with lowercase word tags:
@@ -143,7 +161,7 @@ public abstract class BaseTagger implements Tagger {
       if (lowerTaggerTokens.isEmpty() && taggerTokens.isEmpty()) {
         if (isLowercase) {
           List<AnalyzedToken> upperTaggerTokens = asAnalyzedTokenListForTaggedWords(word,
-              getWordTagger().tag(StringTools.uppercaseFirstChar(word)));
+              getTaggedWords(StringTools.uppercaseFirstChar(word)));
           if (!upperTaggerTokens.isEmpty()) {
             addTokens(upperTaggerTokens, result);
           }
@@ -161,6 +179,18 @@ public abstract class BaseTagger implements Tagger {
     return result;
   }
 
+  /**
+   * Tags the word with the word tagger, using a cache. The result must not be modified.
+   */
+  private List<TaggedWord> getTaggedWords(String word) {
+    List<TaggedWord> taggedWords = taggedWordCache.get(word);
+    if (taggedWords == null) {
+      taggedWords = Collections.unmodifiableList(getWordTagger().tag(word));
+      taggedWordCache.put(word, taggedWords);
+    }
+    return taggedWords;
+  }
+
   protected List<AnalyzedToken> asAnalyzedTokenList(final String word, final List<WordData> wdList) {
     final List<AnalyzedToken> aTokenList = new ArrayList<>();
     for (WordData wd : wdList) {
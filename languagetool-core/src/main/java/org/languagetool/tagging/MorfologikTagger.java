@@ -37,8 +37,10 @@ import java.util.Objects;
 public class MorfologikTagger implements WordTagger {
 
   private final URL dictUrl;
+  // DictionaryLookup is not thread-safe, so every thread gets its own:
+  private final ThreadLocal<DictionaryLookup> dictLookups = new ThreadLocal<>();
 
-  private Dictionary dictionary;
+  private volatile Dictionary dictionary;
 
   public MorfologikTagger(String dictPath) {
     dictUrl = JLanguageTool.getDataBroker().getFromResourceDirAsUrl(Objects.requireNonNull(dictPath));
@@ -48,24 +50,40 @@ public class MorfologikTagger implements WordTagger {
     this.dictUrl = Objects.requireNonNull(dictUrl);
   }
 
-  private synchronized Dictionary getDictionary() throws IOException {
-    if (dictionary == null) {
-      dictionary = Dictionary.read(dictUrl);
+  private Dictionary getDictionary() throws IOException {
+    Dictionary dict = dictionary;
+    if (dict == null) {
+      synchronized (this) {
+        dict = dictionary;
+        if (dict == null) {
+          dictionary = dict = Dictionary.read(dictUrl);
+        }
+      }
+    }
+    return dict;
+  }
+
+  private IStemmer getDictionaryLookup() throws IOException {
+    DictionaryLookup dictLookup = dictLookups.get();
+    if (dictLookup == null) {
+      dictLookup = new DictionaryLookup(getDictionary());
+      dictLookups.set(dictLookup);
     }
-    return dictionary;
+    return dictLookup;
   }
 
   @Override
   public List<TaggedWord> tag(String word) {
     List<TaggedWord> result = new ArrayList<>();
     try {
-      IStemmer dictLookup = new DictionaryLookup(getDictionary());
-      List<WordData> lookup = dictLookup.lookup(word);
+      boolean frequencyIncluded = getDictionary().metadata.isFrequencyIncluded();
+      // the WordData objects are re-used by the next lookup, so convert them right away:
+      List<WordData> lookup = getDictionaryLookup().lookup(word);
       for (WordData wordData : lookup) {
         String tag = wordData.getTag() == null ? null : wordData.getTag().toString();
         // Remove frequency data from tags (if exists)
         // The frequency data is in the last byte after a separator
-        if (dictionary.metadata.isFrequencyIncluded() && tag != null && tag.length() > 2) {
+        if (frequencyIncluded && tag != null && tag.length() > 2) {
           tag = tag.substring(0, tag.length() - 2);
         }
         String stem = wordData.getStem() == null ? null : wordData.getStem().toString();
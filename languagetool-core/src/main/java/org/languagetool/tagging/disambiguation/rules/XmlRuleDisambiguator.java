@@ -20,14 +20,18 @@
 package org.languagetool.tagging.disambiguation.rules;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.languagetool.AnalyzedSentence;
+import org.languagetool.CancellationToken;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.patterns.PatternRuleIndex;
 import org.languagetool.tagging.disambiguation.Disambiguator;
 import org.languagetool.tools.Tools;
 import org.xml.sax.SAXException;
@@ -42,9 +46,11 @@ public class XmlRuleDisambiguator implements Disambiguator {
 
   private static final String DISAMBIGUATION_FILE = "disambiguation.xml";
   
-  private List<DisambiguationPatternRule> disambiguationRules;
   private final Language language;
 
+  private volatile List<DisambiguationPatternRule> disambiguationRules;
+  private volatile PatternRuleIndex ruleIndex;
+
   public XmlRuleDisambiguator(final Language language) {
     this.language = Objects.requireNonNull(language);
   }
@@ -52,21 +58,46 @@ public class XmlRuleDisambiguator implements Disambiguator {
   @Override
   public AnalyzedSentence disambiguate(final AnalyzedSentence input) throws IOException {
     AnalyzedSentence sentence = input;
-    if (disambiguationRules == null) {
-      final String disambiguationFile =
-        JLanguageTool.getDataBroker().getResourceDir() + "/" + language.getShortName() + "/" + DISAMBIGUATION_FILE;
-      try {
-        disambiguationRules = loadPatternRules(disambiguationFile);
-      } catch (final Exception e) {
-        throw new RuntimeException("Problems with loading disambiguation file: " + disambiguationFile, e);
+    final PatternRuleIndex index = getRuleIndex();
+    final List<DisambiguationPatternRule> rules = disambiguationRules;
+    final CancellationToken cancellationToken = CancellationToken.getCurrent();
+    boolean[] candidates = index.getCandidates(sentence);
+    for (int i = 0; i < candidates.length; i++) {
+      if (candidates[i]) {
+        if (cancellationToken != null) {
+          cancellationToken.checkCancelled();
+        }
+        final AnalyzedSentence newSentence = rules.get(i).replace(sentence);
+        if (newSentence != sentence) {
+          // the rule has changed the readings, which may make other rules match:
+          sentence = newSentence;
+          candidates = index.getCandidates(sentence);
+        }
       }
     }
-    for (final DisambiguationPatternRule patternRule : disambiguationRules) {
-      sentence = patternRule.replace(sentence);
-    }
     return sentence;
   }
 
+  private PatternRuleIndex getRuleIndex() {
+    PatternRuleIndex index = ruleIndex;
+    if (index == null) {
+      synchronized (this) {
+        index = ruleIndex;
+        if (index == null) {
+          final String disambiguationFile =
+            JLanguageTool.getDataBroker().getResourceDir() + "/" + language.getShortName() + "/" + DISAMBIGUATION_FILE;
+          try {
+            disambiguationRules = loadPatternRules(disambiguationFile);
+          } catch (final Exception e) {
+            throw new RuntimeException("Problems with loading disambiguation file: " + disambiguationFile, e);
+          }
+          ruleIndex = index = new PatternRuleIndex(new ArrayList<Rule>(disambiguationRules));
+        }
+      }
+    }
+    return index;
+  }
+
   /**
    * Load disambiguation rules from an XML file. Use {@link org.languagetool.JLanguageTool#addRule} to add
    * these rules to the checking process.
@@ -32,47 +32,44 @@ public class ContextTools {
   }
 
   public String getContext(final int fromPos, final int toPos, final String contents) {
-    final String text = contents.replace('\n', ' ');
     // calculate context region:
     int startContent = fromPos - contextSize;
     String prefix = "...";
     String postfix = "...";
-    String markerPrefix = "   ";
     if (startContent < 0) {
       prefix = "";
-      markerPrefix = "";
       startContent = 0;
     }
     int endContent = toPos + contextSize;
-    final int textLength = text.length();
+    final int textLength = contents.length();
     if (endContent > textLength) {
       postfix = "";
       endContent = textLength;
     }
-    final StringBuilder marker = getMarker(fromPos, toPos, textLength + prefix.length());
-    // now build context string plus marker:
-    final StringBuilder sb = new StringBuilder();
-    sb.append(prefix);
-    sb.append(text.substring(startContent, endContent));
-    final String markerStr = markerPrefix
-        + marker.substring(startContent, endContent);
-    sb.append(postfix);
-    final int startMark = markerStr.indexOf('^');
-    final int endMark = markerStr.lastIndexOf('^');
-    String result = sb.toString();
+    // only the context region is copied, so this doesn't depend on the length of the text:
+    final String context = contents.substring(startContent, endContent).replace('\n', ' ');
+    final int errorStart = Math.max(fromPos, startContent) - startContent;
+    final int errorEnd = Math.max(Math.min(toPos, endContent) - startContent, errorStart);
+    final StringBuilder sb = new StringBuilder(context.length() + 2 * prefix.length()
+            + errorMarkerStart.length() + errorMarkerEnd.length());
     if (escapeHtml) {
-      final String escapedErrorPart = StringTools.escapeHTML(result.substring(startMark, endMark + 1))
+      final String escapedErrorPart = StringTools.escapeHTML(context.substring(errorStart, errorEnd))
               .replace(" ", "&nbsp;");   // make sure whitespace errors are visible
-      result = StringTools.escapeHTML(result.substring(0, startMark))
-          + errorMarkerStart
-          + escapedErrorPart
-          + errorMarkerEnd + StringTools.escapeHTML(result.substring(endMark + 1));
+      sb.append(StringTools.escapeHTML(prefix + context.substring(0, errorStart)))
+        .append(errorMarkerStart)
+        .append(escapedErrorPart)
+        .append(errorMarkerEnd)
+        .append(StringTools.escapeHTML(context.substring(errorEnd) + postfix));
     } else {
-      result = result.substring(0, startMark) + errorMarkerStart
-          + result.substring(startMark, endMark + 1) + errorMarkerEnd
-          + result.substring(endMark + 1);
+      sb.append(prefix)
+        .append(context, 0, errorStart)
+        .append(errorMarkerStart)
+        .append(context, errorStart, errorEnd)
+        .append(errorMarkerEnd)
+        .append(context, errorEnd, context.length())
+        .append(postfix);
     }
-    return result;
+    return sb.toString();
   }
 
   /**
@@ -81,7 +78,6 @@ public class ContextTools {
    * @since 2.3
    */
   public String getPlainTextContext(final int fromPos, final int toPos, final String contents) {
-    final String text = contents.replace('\n', ' ');
     // calculate context region:
     int startContent = fromPos - contextSize;
     String prefix = "...";
@@ -93,13 +89,12 @@ public class ContextTools {
       startContent = 0;
     }
     int endContent = toPos + contextSize;
-    if (endContent > text.length()) {
+    if (endContent > contents.length()) {
       postfix = "";
-      endContent = text.length();
+      endContent = contents.length();
     }
-    final StringBuilder marker = getMarker(fromPos, toPos, text.length() + prefix.length());
-    // now build context string plus marker:
-    return prefix + text.substring(startContent, endContent) + postfix + '\n' + markerPrefix + marker.substring(startContent, endContent);
+    final String context = contents.substring(startContent, endContent).replace('\n', ' ');
+    return prefix + context + postfix + '\n' + markerPrefix + getMarker(fromPos, toPos, startContent, endContent);
   }
 
   /**
@@ -131,10 +126,10 @@ public class ContextTools {
     this.escapeHtml = escapeHtml;
   }
 
-  private StringBuilder getMarker(int fromPos, int toPos, int textLength) {
-    // make "^" marker. inefficient but robust implementation:
-    final StringBuilder marker = new StringBuilder();
-    for (int i = 0; i < textLength; i++) {
+  // the "^" marker for the context region from startContent to endContent:
+  private StringBuilder getMarker(int fromPos, int toPos, int startContent, int endContent) {
+    final StringBuilder marker = new StringBuilder(endContent - startContent);
+    for (int i = startContent; i < endContent; i++) {
       if (i >= fromPos && i < toPos) {
         marker.append('^');
       } else {
@@ -0,0 +1,104 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache that evicts the least recently used entries. To keep threads from
+ * waiting for each other, the entries are spread over several segments by their hash,
+ * each with its own lock and its share of the maximum size, so the eviction order is
+ * only exact inside a segment. Thread-safe. Used internally for performance optimization.
+ * @since 2.9
+ */
+public class LruCache<K, V> {
+
+  private static final int MAX_SEGMENTS = 16;
+
+  private final Map<K, V>[] segments;
+
+  /**
+   * @param maxSize the maximum number of entries
+   */
+  @SuppressWarnings("unchecked")
+  public LruCache(int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be > 0: " + maxSize);
+    }
+    segments = new Map[Math.min(MAX_SEGMENTS, maxSize)];
+    final int segmentSize = maxSize / segments.length;
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new LinkedHashMap<K, V>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+          return size() > segmentSize;
+        }
+      };
+    }
+  }
+
+  /**
+   * The cached value, or {@code null} if there is none.
+   */
+  @Nullable
+  public V get(K key) {
+    Map<K, V> segment = getSegment(key);
+    synchronized (segment) {
+      return segment.get(key);
+    }
+  }
+
+  public void put(K key, V value) {
+    Map<K, V> segment = getSegment(key);
+    synchronized (segment) {
+      segment.put(key, value);
+    }
+  }
+
+  /**
+   * The number of cached entries.
+   */
+  public int size() {
+    int size = 0;
+    for (Map<K, V> segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  public void clear() {
+    for (Map<K, V> segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  private Map<K, V> getSegment(K key) {
+    int hash = key.hashCode();
+    hash ^= hash >>> 16;
+    return segments[(hash & Integer.MAX_VALUE) % segments.length];
+  }
+
+}
@@ -18,6 +18,7 @@
  */
 package org.languagetool.tools;
 
+import org.apache.commons.lang.StringUtils;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.rules.Category;
@@ -25,6 +26,9 @@ import org.languagetool.rules.ITSIssueType;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.patterns.PatternRule;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.List;
 
 /**
@@ -35,6 +39,7 @@ import java.util.List;
 public class RuleAsXmlSerializer {
 
   private static final int CAPACITY = 200;
+  private static final String START_MARKER = "__languagetool_start_marker";
 
   /**
    * Get the string to begin the XML. After this, use {@link #ruleMatchesToXmlSnippet} and then {@link #getXmlEnd()}
@@ -72,58 +77,88 @@ public class RuleAsXmlSerializer {
    * @see #getXmlEnd()
    */
   public String ruleMatchesToXmlSnippet(List<RuleMatch> ruleMatches, String text, int contextSize) {
-    StringBuilder xml = new StringBuilder(CAPACITY);
-    //
-    // IMPORTANT: people rely on this format, don't change it!
-    //
+    StringWriter writer = new StringWriter(CAPACITY);
+    try {
+      writeRuleMatchesXmlSnippet(ruleMatches, text, contextSize, writer);
+    } catch (IOException e) {
+      throw new RuntimeException(e);  // cannot happen with a StringWriter
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Write the XML snippet (i.e. not a complete XML document) for the given rules to the writer,
+   * one match after the other, so the XML for all matches never needs to be in memory at once.
+   * @see #ruleMatchesToXmlSnippet(List, String, int)
+   * @since 2.9
+   */
+  public void writeRuleMatchesXmlSnippet(List<RuleMatch> ruleMatches, String text, int contextSize, Writer writer) throws IOException {
+    writeRuleMatchesXmlSnippet(ruleMatches, text, 0, contextSize, writer);
+  }
+
+  /**
+   * Like {@link #writeRuleMatchesXmlSnippet(List, String, int, Writer)}, but for matches whose positions
+   * refer to a longer text of which {@code text} is only a part, as with
+   * {@link org.languagetool.rules.RuleMatchListener}.
+   * @param textPos the position of {@code text} in the complete text
+   * @since 2.9
+   */
+  public void writeRuleMatchesXmlSnippet(List<RuleMatch> ruleMatches, String text, int textPos, int contextSize, Writer writer) throws IOException {
     ContextTools contextTools = new ContextTools();
     contextTools.setEscapeHtml(false);
     contextTools.setContextSize(contextSize);
-    String startMarker = "__languagetool_start_marker";
-    contextTools.setErrorMarkerStart(startMarker);
+    contextTools.setErrorMarkerStart(START_MARKER);
     contextTools.setErrorMarkerEnd("");
-
+    StringBuilder xml = new StringBuilder(CAPACITY);
     for (RuleMatch match : ruleMatches) {
-      String subId = "";
-      if (match.getRule() instanceof PatternRule) {
-        PatternRule pRule = (PatternRule) match.getRule();
-        if (pRule.getSubId() != null) {
-          subId = " subId=\"" + escapeXMLForAPIOutput(pRule.getSubId()) + "\" ";
-        }
-      }
-      xml.append("<error fromy=\"").append(match.getLine()).append('"')
-              .append(" fromx=\"").append(match.getColumn() - 1).append('"')
-              .append(" toy=\"").append(match.getEndLine()).append('"')
-              .append(" tox=\"").append(match.getEndColumn() - 1).append('"')
-              .append(" ruleId=\"").append(match.getRule().getId()).append('"');
-      String msg = match.getMessage().replaceAll("</?suggestion>", "'");
-      xml.append(subId);
-      xml.append(" msg=\"").append(escapeXMLForAPIOutput(msg)).append('"');
-      String context = contextTools.getContext(match.getFromPos(), match.getToPos(), text);
-      xml.append(" replacements=\"").append(escapeXMLForAPIOutput(StringTools.listToString(
-              match.getSuggestedReplacements(), "#"))).append('"');
-      // get position of error in context and remove artificial marker again:
-      int contextOffset = context.indexOf(startMarker);
-      context = context.replaceFirst(startMarker, "");
-      context = context.replaceAll("[\n\r]", " ");
-      xml.append(" context=\"").append(StringTools.escapeForXmlAttribute(context)).append('"')
-              .append(" contextoffset=\"").append(contextOffset).append('"')
-              .append(" offset=\"").append(match.getFromPos()).append('"')
-              .append(" errorlength=\"").append(match.getToPos() - match.getFromPos()).append('"');
-      if (match.getRule().getUrl() != null) {
-        xml.append(" url=\"").append(escapeXMLForAPIOutput(match.getRule().getUrl().toString())).append('"');
-      }
-      Category category = match.getRule().getCategory();
-      if (category != null) {
-        xml.append(" category=\"").append(escapeXMLForAPIOutput(category.getName())).append('"');
-      }
-      ITSIssueType type = match.getRule().getLocQualityIssueType();
-      if (type != null) {
-        xml.append(" locqualityissuetype=\"").append(escapeXMLForAPIOutput(type.toString())).append('"');
+      xml.setLength(0);
+      appendRuleMatch(xml, match, text, textPos, contextTools);
+      writer.append(xml);
+    }
+  }
+
+  private void appendRuleMatch(StringBuilder xml, RuleMatch match, String text, int textPos, ContextTools contextTools) {
+    //
+    // IMPORTANT: people rely on this format, don't change it!
+    //
+    String subId = "";
+    if (match.getRule() instanceof PatternRule) {
+      PatternRule pRule = (PatternRule) match.getRule();
+      if (pRule.getSubId() != null) {
+        subId = " subId=\"" + escapeXMLForAPIOutput(pRule.getSubId()) + "\" ";
       }
-      xml.append("/>\n");
     }
-    return xml.toString();
+    xml.append("<error fromy=\"").append(match.getLine()).append('"')
+            .append(" fromx=\"").append(match.getColumn() - 1).append('"')
+            .append(" toy=\"").append(match.getEndLine()).append('"')
+            .append(" tox=\"").append(match.getEndColumn() - 1).append('"')
+            .append(" ruleId=\"").append(match.getRule().getId()).append('"');
+    String msg = StringUtils.replace(StringUtils.replace(match.getMessage(), "<suggestion>", "'"), "</suggestion>", "'");
+    xml.append(subId);
+    xml.append(" msg=\"").append(escapeXMLForAPIOutput(msg)).append('"');
+    String context = contextTools.getContext(match.getFromPos() - textPos, match.getToPos() - textPos, text);
+    xml.append(" replacements=\"").append(escapeXMLForAPIOutput(StringTools.listToString(
+            match.getSuggestedReplacements(), "#"))).append('"');
+    // get position of error in context and remove artificial marker again:
+    int contextOffset = context.indexOf(START_MARKER);
+    context = context.substring(0, contextOffset) + context.substring(contextOffset + START_MARKER.length());
+    context = context.replace('\n', ' ').replace('\r', ' ');
+    xml.append(" context=\"").append(StringTools.escapeForXmlAttribute(context)).append('"')
+            .append(" contextoffset=\"").append(contextOffset).append('"')
+            .append(" offset=\"").append(match.getFromPos()).append('"')
+            .append(" errorlength=\"").append(match.getToPos() - match.getFromPos()).append('"');
+    if (match.getRule().getUrl() != null) {
+      xml.append(" url=\"").append(escapeXMLForAPIOutput(match.getRule().getUrl().toString())).append('"');
+    }
+    Category category = match.getRule().getCategory();
+    if (category != null) {
+      xml.append(" category=\"").append(escapeXMLForAPIOutput(category.getName())).append('"');
+    }
+    ITSIssueType type = match.getRule().getLocQualityIssueType();
+    if (type != null) {
+      xml.append(" locqualityissuetype=\"").append(escapeXMLForAPIOutput(type.toString())).append('"');
+    }
+    xml.append("/>\n");
   }
 
   /**
@@ -136,6 +171,21 @@ public class RuleAsXmlSerializer {
     return getXmlStart(lang, motherTongue) + ruleMatchesToXmlSnippet(ruleMatches, text, contextSize) + getXmlEnd();
   }
 
+  /**
+   * Write an XML representation of the given rule matches to the writer. Unlike
+   * {@link #ruleMatchesToXml(List, String, int, Language, Language)}, this doesn't
+   * build the complete XML in memory.
+   * @param text the original text that was checked, used to get the context of the matches
+   * @param contextSize the desired context size in characters
+   * @since 2.9
+   */
+  public void writeRuleMatchesXml(List<RuleMatch> ruleMatches, String text, int contextSize,
+                                  Language lang, Language motherTongue, Writer writer) throws IOException {
+    writer.write(getXmlStart(lang, motherTongue));
+    writeRuleMatchesXmlSnippet(ruleMatches, text, contextSize, writer);
+    writer.write(getXmlEnd());
+  }
+
   /**
    * Get an XML representation of the given rule matches.
    *
@@ -148,7 +198,7 @@ public class RuleAsXmlSerializer {
 
   private static String escapeXMLForAPIOutput(String s) {
     // this is simplified XML, i.e. put the "<error>" in one line:
-    return StringTools.escapeForXmlAttribute(s).replaceAll("[\n\r]", " ");
+    return StringTools.escapeForXmlAttribute(s).replace('\n', ' ').replace('\r', ' ');
   }
 
 }
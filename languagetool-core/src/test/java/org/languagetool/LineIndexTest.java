@@ -0,0 +1,60 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LineIndexTest {
+
+  @Test
+  public void testLineAndColumn() {
+    LineIndex index = new LineIndex(Arrays.asList("One.\n", "Two. ", "Three.\n\n", "Four."), 0, 0, 1);
+    assertThat(index.getLine(0), is(0));
+    assertThat(index.getColumn(0), is(1));
+    assertThat(index.getLine(4), is(0));
+    assertThat(index.getColumn(4), is(5));
+    assertThat(index.getLine(5), is(1));
+    assertThat(index.getColumn(5), is(1));
+    assertThat(index.getLine(10), is(1));
+    assertThat(index.getColumn(10), is(6));
+    assertThat(index.getLine(17), is(2));
+    assertThat(index.getColumn(17), is(1));
+    assertThat(index.getLine(18), is(3));
+    assertThat(index.getColumn(18), is(1));
+    assertThat(index.getLine(23), is(3));
+    assertThat(index.getColumn(23), is(6));
+  }
+
+  @Test
+  public void testStartPosition() {
+    LineIndex index = new LineIndex(Arrays.asList("Two. ", "Three.\nFour."), 100, 7, 11);
+    assertThat(index.getLine(100), is(7));
+    assertThat(index.getColumn(100), is(11));
+    assertThat(index.getLine(105), is(7));
+    assertThat(index.getColumn(105), is(16));
+    assertThat(index.getLine(112), is(8));
+    assertThat(index.getColumn(112), is(1));
+  }
+
+}
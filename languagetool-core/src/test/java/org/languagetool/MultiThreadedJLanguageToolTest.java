@@ -21,13 +21,23 @@ package org.languagetool;
 import static junit.framework.TestCase.assertEquals;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Assert;
 import org.junit.Test;
 import org.languagetool.language.Demo;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.MultipleWhitespaceRule;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
@@ -78,6 +88,119 @@ public class MultiThreadedJLanguageToolTest {
     return ruleMatchIds;
   }
 
+  @Test
+  public void testLongText() throws IOException {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 30; i++) {
+      sb.append("A small toast. No error here. Foo go bar.\nFirst goes last there, please! ");
+    }
+    final List<RuleMatch> expected = new JLanguageTool(new Demo()).check(sb.toString());
+    final MultiThreadedJLanguageTool tool = new MultiThreadedJLanguageTool(new Demo(), 4);
+    // the second check splits the work according to the time the rules took in the first:
+    for (int i = 0; i < 2; i++) {
+      final List<RuleMatch> matches = tool.check(sb.toString());
+      assertThat(matches.size(), is(expected.size()));
+      for (int j = 0; j < matches.size(); j++) {
+        assertThat(matches.get(j).getRule().getId(), is(expected.get(j).getRule().getId()));
+        assertThat(matches.get(j).getFromPos(), is(expected.get(j).getFromPos()));
+        assertThat(matches.get(j).getLine(), is(expected.get(j).getLine()));
+        assertThat(matches.get(j).getColumn(), is(expected.get(j).getColumn()));
+      }
+    }
+  }
+
+  @Test
+  public void testPipelined() throws IOException {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 30; i++) {
+      sb.append("A small toast. No error here. Foo go bar.\nFirst goes last there, please! ");
+    }
+    final JLanguageTool singleThreadedTool = new JLanguageTool(new Demo());
+    singleThreadedTool.addRule(new UppercaseSentenceStartRule(JLanguageTool.getMessageBundle(), new Demo()));
+    final List<RuleMatch> expected = singleThreadedTool.check(sb.toString());
+    final MultiThreadedJLanguageTool tool = new MultiThreadedJLanguageTool(new Demo(), 3);
+    tool.addRule(new UppercaseSentenceStartRule(JLanguageTool.getMessageBundle(), new Demo()));
+    tool.setPipelined(true);
+    final List<RuleMatch> matches = tool.check(sb.toString());
+    assertThat(matches.size(), is(expected.size()));
+    for (int i = 0; i < matches.size(); i++) {
+      assertThat(matches.get(i).getRule().getId(), is(expected.get(i).getRule().getId()));
+      assertThat(matches.get(i).getFromPos(), is(expected.get(i).getFromPos()));
+      assertThat(matches.get(i).getLine(), is(expected.get(i).getLine()));
+      assertThat(matches.get(i).getColumn(), is(expected.get(i).getColumn()));
+    }
+    assertThat(tool.getSentenceCount(), is(120));
+  }
+
+  @Test
+  public void testRuleChunks() throws IOException {
+    final MultiThreadedJLanguageTool tool = new MultiThreadedJLanguageTool(new Demo(), 2);
+    final Rule notSentenceLocalRule = new UppercaseSentenceStartRule(JLanguageTool.getMessageBundle(), new Demo());
+    final List<Rule> rules = new ArrayList<>(tool.getAllRules());
+    rules.add(notSentenceLocalRule);
+    final List<List<Rule>> chunks = tool.createRuleChunks(rules, 2);
+    assertThat(chunks.size(), is(3));
+    assertThat(chunks.get(0), is(Arrays.asList(notSentenceLocalRule)));
+    final Map<String, Integer> chunkOfRuleId = new HashMap<>();
+    int ruleCount = 0;
+    for (int i = 0; i < chunks.size(); i++) {
+      for (Rule rule : chunks.get(i)) {
+        final Integer prevChunk = chunkOfRuleId.put(rule.getId(), i);
+        assertTrue("Rule group split: " + rule.getId(), prevChunk == null || prevChunk == i);
+        ruleCount++;
+      }
+    }
+    assertThat(ruleCount, is(rules.size()));
+  }
+
+  @Test
+  public void testRuleChunksFollowCosts() throws IOException {
+    final MultiThreadedJLanguageTool tool = new MultiThreadedJLanguageTool(new Demo(), 2);
+    final List<Rule> rules = tool.getAllRules();
+    final Map<String, long[]> sameNanos = new HashMap<>();
+    for (Rule rule : rules) {
+      sameNanos.put(rule.getId(), new long[] {100});
+    }
+    tool.getRuleCosts().add(rules, sameNanos, 100);
+    final List<List<Rule>> chunks = tool.getRuleChunks(rules);
+    assertTrue(chunks == tool.getRuleChunks(rules));
+    tool.getRuleCosts().add(rules, sameNanos, 100);
+    assertTrue("unchanged costs must not re-create the chunks", chunks == tool.getRuleChunks(rules));
+    final Map<String, long[]> oneExpensiveRule = new HashMap<>();
+    oneExpensiveRule.put(rules.get(0).getId(), new long[] {100_000});
+    tool.getRuleCosts().add(rules, oneExpensiveRule, 100);
+    assertFalse("the chunks must follow the costs", chunks == tool.getRuleChunks(rules));
+  }
+
+  @Test
+  public void testOwnExecutorService() throws IOException {
+    final AtomicInteger executedTasks = new AtomicInteger();
+    final ExecutorService executorService = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>()) {
+      @Override
+      public void execute(Runnable command) {
+        executedTasks.incrementAndGet();
+        super.execute(command);
+      }
+    };
+    try {
+      final MultiThreadedJLanguageTool tool = new MultiThreadedJLanguageTool(new Demo(), 2) {
+        @Override
+        protected ExecutorService getExecutorService() {
+          return executorService;
+        }
+      };
+      final List<String> expected = getRuleMatchIds(new JLanguageTool(new Demo()));
+      assertEquals(expected, getRuleMatchIds(tool));
+      final int analyzeAndCheckTasks = executedTasks.get();
+      assertTrue(analyzeAndCheckTasks > 4);  // more than the four sentences need for analysis
+      tool.setPipelined(true);
+      assertEquals(expected, getRuleMatchIds(tool));
+      assertTrue(executedTasks.get() > analyzeAndCheckTasks);
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
   @Test
   public void testTwoRulesOnly() throws IOException {
     MultiThreadedJLanguageTool langTool = new MultiThreadedJLanguageTool(new FakeLanguage() {
@@ -98,6 +221,51 @@ public class MultiThreadedJLanguageToolTest {
     assertThat(langTool.check("my test  text").size(), is(2));
   }
 
+  @Test
+  public void testCancelledCheck() throws IOException {
+    final MultiThreadedJLanguageTool pipelinedTool = new MultiThreadedJLanguageTool(new Demo(), 2);
+    pipelinedTool.setPipelined(true);
+    for (JLanguageTool tool : Arrays.asList(new JLanguageTool(new Demo()), new MultiThreadedJLanguageTool(new Demo(), 2), pipelinedTool)) {
+      final CancellationToken token = new CancellationToken();
+      final AtomicInteger ruleCalls = new AtomicInteger();
+      tool.addRule(new Rule() {
+        @Override public String getId() { return "CANCELLING_RULE"; }
+        @Override public String getDescription() { return "cancels the check"; }
+        @Override public void reset() {}
+        @Override public RuleMatch[] match(AnalyzedSentence sentence) {
+          ruleCalls.incrementAndGet();
+          token.cancel();
+          return new RuleMatch[0];
+        }
+      });
+      AnnotatedText text = new AnnotatedTextBuilder().addText("One sentence. Another one. And a third one.").build();
+      try {
+        tool.check(text, true, JLanguageTool.ParagraphHandling.NORMAL, token);
+        fail("Cancelled check did not stop");
+      } catch (CheckCancelledException expected) {
+        assertThat(ruleCalls.get(), is(1));
+      }
+      // later checks are not affected:
+      tool.check(text);
+      assertThat(ruleCalls.get(), is(4));
+    }
+  }
+
+  @Test
+  public void testDeadline() throws Exception {
+    CancellationToken token = new CancellationToken(20);
+    assertFalse(token.isCancelled());
+    Thread.sleep(40);
+    assertTrue(token.isCancelled());
+    try {
+      new MultiThreadedJLanguageTool(new Demo()).check(new AnnotatedTextBuilder().addText("A test.").build(),
+              true, JLanguageTool.ParagraphHandling.NORMAL, token);
+      fail("Check did not stop at deadline");
+    } catch (CheckCancelledException expected) {
+      // expected
+    }
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testIllegalThreadPoolSize1() throws IOException {
     new MultiThreadedJLanguageTool(new Demo(), 0);
@@ -0,0 +1,69 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class ParagraphReaderTest {
+
+  @Test
+  public void testReadChunk() throws IOException {
+    assertThat(readChunks("", false, 100), is(Arrays.<String>asList()));
+    assertThat(readChunks("One. Two.", false, 100), is(Arrays.asList("One. Two.")));
+    assertThat(readChunks("One.\nTwo.\n\nThree.\n", false, 100), is(Arrays.asList("One.\nTwo.\n\n", "Three.\n")));
+    assertThat(readChunks("One.\n \n\tTwo.", false, 100), is(Arrays.asList("One.\n \n\t", "Two.")));
+    assertThat(readChunks("One.\nTwo.\n\nThree.\n", true, 100), is(Arrays.asList("One.\n", "Two.\n\n", "Three.\n")));
+    assertThat(readChunks("One. Two. Three.", false, 6), is(Arrays.asList("One. T", "wo. Th", "ree.")));
+    // a paragraph break is never split:
+    assertThat(readChunks("One.\n\n\n\nTwo.", false, 5), is(Arrays.asList("One.\n\n\n\n", "Two.")));
+  }
+
+  @Test
+  public void testParagraphEnd() throws IOException {
+    ParagraphReader reader = new ParagraphReader(new StringReader("One. Two.\n\nThree."), false, 6);
+    assertThat(reader.readChunk(), is("One. T"));
+    assertThat(reader.isParagraphEnd(), is(false));
+    assertThat(reader.readChunk(), is("wo.\n\n"));
+    assertThat(reader.isParagraphEnd(), is(true));
+    assertThat(reader.isEndOfText(), is(false));
+    assertThat(reader.readChunk(), is("Three."));
+    assertThat(reader.isParagraphEnd(), is(true));
+    assertThat(reader.isEndOfText(), is(true));
+  }
+
+  private List<String> readChunks(String text, boolean singleLineBreaksMarksPara, int maxLength) throws IOException {
+    ParagraphReader reader = new ParagraphReader(new StringReader(text), singleLineBreaksMarksPara, maxLength);
+    List<String> chunks = new ArrayList<>();
+    String chunk;
+    while ((chunk = reader.readChunk()) != null) {
+      chunks.add(chunk);
+    }
+    return chunks;
+  }
+
+}
@@ -0,0 +1,220 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.patterns.Element;
+import org.languagetool.rules.patterns.PatternRule;
+import org.languagetool.rules.spelling.SpellingCheckRule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class ResultCacheTest {
+
+  @Test
+  public void testCachedMatches() throws IOException {
+    ResultCache cache = new ResultCache(100);
+    JLanguageTool lt = makeLanguageTool();
+    lt.setCache(cache);
+    JLanguageTool uncachedLt = makeLanguageTool();
+
+    String text1 = "This is foo. And foo\nagain.";
+    assertSameMatches(lt.check(text1), uncachedLt.check(text1));
+    assertThat(cache.getHitCount(), is(0L));
+    assertThat(cache.size(), is(2));
+
+    String text2 = "Hello. This is foo. And foo\nagain.";
+    List<RuleMatch> matches = lt.check(text2);
+    assertSameMatches(matches, uncachedLt.check(text2));
+    assertFalse(matches.isEmpty());
+    assertThat(cache.getHitCount(), is(2L));
+    assertThat(cache.getHitRate(), is(0.4f));
+
+    lt.disableRule("FOO_RULE");
+    uncachedLt.disableRule("FOO_RULE");
+    assertSameMatches(lt.check(text2), uncachedLt.check(text2));
+    assertThat(cache.getHitCount(), is(2L));
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    ResultCache cache = new ResultCache(2);
+    JLanguageTool lt = makeLanguageTool();
+    lt.setCache(cache);
+    lt.check("One foo. Two foo. Three foo.");
+    assertThat(cache.size(), is(2));
+    lt.check("Three foo.");
+    assertThat(cache.getHitCount(), is(1L));
+    lt.check("One foo.");
+    assertThat(cache.getHitCount(), is(1L));
+  }
+
+  @Test
+  public void testWeightLimit() throws IOException {
+    ResultCache cache = new ResultCache(100, 30);
+    JLanguageTool lt = makeLanguageTool();
+    lt.setCache(cache);
+    lt.check("One. Two. Three.");
+    assertThat(cache.size(), is(3));
+    assertThat(cache.getWeight(), is(16L));
+    lt.check("Four. Five. Six.");
+    assertThat(cache.size(), is(5));
+    assertThat(cache.getWeight(), is(27L));
+    lt.check("This sentence is longer than the whole cache.");
+    assertThat(cache.size(), is(5));
+    lt.check("One. Six.");
+    assertThat(cache.getHitCount(), is(1L));
+  }
+
+  @Test
+  public void testMatchesAddToWeight() throws IOException {
+    ResultCache cache = new ResultCache(100);
+    JLanguageTool lt = makeLanguageTool();
+    lt.setCache(cache);
+    String text = "This is foo.";
+    lt.check(text);
+    assertTrue(cache.getWeight() > text.length() + "message".length());
+  }
+
+  @Test
+  public void testMatchesGetRuleOfCurrentInstance() throws IOException {
+    ResultCache cache = new ResultCache(100);
+    JLanguageTool lt1 = makeLanguageTool();
+    lt1.setCache(cache);
+    JLanguageTool lt2 = makeLanguageTool();
+    lt2.setCache(cache);
+    String text = "This is foo.";
+    lt1.check(text);
+    List<RuleMatch> matches = lt2.check(text);
+    assertThat(cache.getHitCount(), is(1L));
+    assertFalse(matches.isEmpty());
+    for (RuleMatch match : matches) {
+      assertTrue(lt2.getAllRules().contains(match.getRule()));
+      assertFalse(lt1.getAllRules().contains(match.getRule()));
+    }
+  }
+
+  @Test
+  public void testIgnoredWordsAreNotTakenFromCache() throws IOException {
+    ResultCache cache = new ResultCache(100);
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    BarSpellingRule spellingRule = new BarSpellingRule();
+    lt.addRule(spellingRule);
+    lt.setCache(cache);
+    assertThat(getMatchIds(lt.check("This is bar.")).contains("BAR_SPELLING"), is(true));
+    spellingRule.addIgnoreTokens(Arrays.asList("bar"));
+    assertThat(getMatchIds(lt.check("This is bar.")).contains("BAR_SPELLING"), is(false));
+    assertThat(cache.getHitCount(), is(0L));
+    assertThat(getMatchIds(lt.check("This is bar.")).contains("BAR_SPELLING"), is(false));
+    assertThat(cache.getHitCount(), is(1L));
+  }
+
+  @Test
+  public void testInstancesWithAndWithoutSuggestions() throws IOException {
+    ResultCache cache = new ResultCache(100);
+    JLanguageTool withSuggestions = makeSpellingLanguageTool(true);
+    withSuggestions.setCache(cache);
+    JLanguageTool withoutSuggestions = makeSpellingLanguageTool(false);
+    withoutSuggestions.setCache(cache);
+    String text = "This is bar. And foo.";
+    List<RuleMatch> expectedWithSuggestions = makeSpellingLanguageTool(true).check(text);
+    List<RuleMatch> expectedWithoutSuggestions = makeSpellingLanguageTool(false).check(text);
+    assertTrue(getMatchIds(expectedWithoutSuggestions).containsAll(Arrays.asList("BAR_SPELLING", "FOO_RULE")));
+    assertSameMatches(withSuggestions.check(text), expectedWithSuggestions);
+    assertSameMatches(withoutSuggestions.check(text), expectedWithoutSuggestions);
+    assertSameMatches(withoutSuggestions.check(text), expectedWithoutSuggestions);
+    assertSameMatches(withSuggestions.check(text), expectedWithSuggestions);
+    assertThat(cache.getHitCount(), is(4L));
+  }
+
+  private List<String> getMatchIds(List<RuleMatch> matches) {
+    List<String> ids = new ArrayList<>();
+    for (RuleMatch match : matches) {
+      ids.add(match.getRule().getId());
+    }
+    return ids;
+  }
+
+  private JLanguageTool makeLanguageTool() {
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    lt.addRule(new PatternRule("FOO_RULE", new Demo(), Arrays.asList(new Element("foo", false, false, false)),
+            "description", "message", "short message"));
+    return lt;
+  }
+
+  private JLanguageTool makeSpellingLanguageTool(boolean suggestionsEnabled) {
+    JLanguageTool lt = makeLanguageTool();
+    BarSpellingRule spellingRule = new BarSpellingRule();
+    spellingRule.setSuggestionsEnabled(suggestionsEnabled);
+    lt.addRule(spellingRule);
+    return lt;
+  }
+
+  private void assertSameMatches(List<RuleMatch> matches, List<RuleMatch> expectedMatches) {
+    assertThat(matches.size(), is(expectedMatches.size()));
+    for (int i = 0; i < matches.size(); i++) {
+      RuleMatch match = matches.get(i);
+      RuleMatch expected = expectedMatches.get(i);
+      assertThat(match.toString(), is(expected.toString()));
+      assertThat(match.getLine(), is(expected.getLine()));
+      assertThat(match.getEndLine(), is(expected.getEndLine()));
+      assertThat(match.getColumn(), is(expected.getColumn()));
+      assertThat(match.getEndColumn(), is(expected.getEndColumn()));
+      assertThat(match.getSuggestedReplacements(), is(expected.getSuggestedReplacements()));
+    }
+  }
+
+  /** Considers "bar" a spelling error, unless it's ignored. */
+  static class BarSpellingRule extends SpellingCheckRule {
+    BarSpellingRule() {
+      super(JLanguageTool.getMessageBundle(), new Demo());
+    }
+    @Override
+    public String getId() {
+      return "BAR_SPELLING";
+    }
+    @Override
+    public String getDescription() {
+      return "bar spelling";
+    }
+    @Override
+    public RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
+      List<RuleMatch> matches = new ArrayList<>();
+      for (AnalyzedTokenReadings token : sentence.getTokensWithoutWhitespace()) {
+        if ("bar".equals(token.getToken()) && !ignoreWord(token.getToken())) {
+          RuleMatch match = new RuleMatch(this, token.getStartPos(), token.getEndPos(), "Did you mean 'baz'?");
+          if (isSuggestionsEnabled()) {
+            match.setSuggestedReplacement("baz");
+          }
+          matches.add(match);
+        }
+      }
+      return toRuleMatchArray(matches);
+    }
+  }
+
+}
@@ -0,0 +1,173 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.GenericUnpairedBracketsRule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.RuleMatchListener;
+import org.languagetool.rules.UppercaseSentenceStartRule;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class StreamingTextCheckerTest {
+
+  @Test
+  public void testCheck() throws IOException {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      sb.append("A small toast. No error (here). Foo go bar.\nFirst goes last there, please! ");
+      sb.append(i % 3 == 0 ? "\n\n" : "this is lowercase. ");
+    }
+    final String text = sb.toString();
+    final JLanguageTool lt = makeLanguageTool();
+    final List<RuleMatch> expected = lt.check(text);
+    assertThat(expected.size() > 20, is(true));
+    assertSameMatches(check(lt, text, 20000, 100000), expected);
+    // paragraphs longer than the chunks, windows of several paragraphs:
+    assertSameMatches(check(lt, text, 50, 300), expected);
+    // each paragraph checked on its own:
+    assertSameMatches(check(lt, text, 30, 0), expected);
+  }
+
+  @Test
+  public void testMultiThreadedCheck() throws IOException {
+    final StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      sb.append("A small toast. No error (here). Foo go bar.\nFirst goes last there, please!\n\n");
+    }
+    final String text = sb.toString();
+    final List<RuleMatch> expected = makeLanguageTool().check(text);
+    final MultiThreadedJLanguageTool lt = new MultiThreadedJLanguageTool(new Demo(), 3);
+    lt.addRule(new UppercaseSentenceStartRule(JLanguageTool.getMessageBundle(), new Demo()));
+    lt.addRule(new GenericUnpairedBracketsRule(JLanguageTool.getMessageBundle()));
+    assertSameMatches(check(lt, text, 50, 300), expected);
+  }
+
+  @Test
+  public void testTextLevelRuleOverParagraphs() throws IOException {
+    final JLanguageTool lt = makeLanguageTool();
+    final String text = "This is (a test.\n\nAnd) another one.\n\nHere (is no end.";
+    final List<RuleMatch> expected = getBracketMatches(lt.check(text));
+    assertThat(expected.size(), is(1));
+    assertThat(expected.get(0).getFromPos(), is(text.lastIndexOf('(')));
+    assertSameMatches(getBracketMatches(check(lt, text, 100, 100)), expected);
+    // windows that end after each paragraph cannot see that the first bracket gets closed:
+    assertThat(getBracketMatches(check(lt, text, 100, 0)).size(), is(3));
+  }
+
+  @Test
+  public void testCheckWithReader() throws IOException {
+    final JLanguageTool lt = makeLanguageTool();
+    final String text = "A small toast.\n\nthis is (an error. Foo go bar.";
+    final List<RuleMatch> matches = new ArrayList<>();
+    final List<String> texts = new ArrayList<>();
+    lt.check(new StringReader(text), new RuleMatchListener() {
+      @Override
+      public void matchFound(RuleMatch ruleMatch, String matchText, int textPos) {
+        matches.add(ruleMatch);
+        texts.add(matchText.substring(ruleMatch.getFromPos() - textPos, ruleMatch.getToPos() - textPos));
+      }
+    });
+    assertSameMatches(matches, lt.check(text));
+    for (int i = 0; i < matches.size(); i++) {
+      assertThat(texts.get(i), is(text.substring(matches.get(i).getFromPos(), matches.get(i).getToPos())));
+    }
+    assertThat(lt.getSentenceCount(), is(3));
+  }
+
+  @Test
+  public void testTooLongText() throws IOException {
+    final JLanguageTool lt = makeLanguageTool();
+    final List<RuleMatch> matches = new ArrayList<>();
+    final StreamingTextChecker checker = new StreamingTextChecker(lt, lt.getAllRules(), JLanguageTool.ParagraphHandling.NORMAL,
+            new RuleMatchListener() {
+              @Override
+              public void matchFound(RuleMatch ruleMatch, String matchText, int textPos) {
+                matches.add(ruleMatch);
+              }
+            }, 20, 0, 40);
+    try {
+      checker.check(new StringReader("this is a test.\n\nanother test.\n\nthis is too long."));
+      fail();
+    } catch (IllegalArgumentException expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().contains("40 characters"));
+    }
+    // the matches of the paragraphs before the limit have been passed on:
+    final List<Integer> positions = new ArrayList<>();
+    for (RuleMatch match : matches) {
+      assertTrue(match.getToPos() <= 40);
+      positions.add(match.getFromPos());
+    }
+    assertTrue(positions.toString(), positions.contains(17));
+  }
+
+  private JLanguageTool makeLanguageTool() {
+    final JLanguageTool lt = new JLanguageTool(new Demo());
+    lt.addRule(new UppercaseSentenceStartRule(JLanguageTool.getMessageBundle(), new Demo()));
+    lt.addRule(new GenericUnpairedBracketsRule(JLanguageTool.getMessageBundle()));
+    return lt;
+  }
+
+  private List<RuleMatch> check(JLanguageTool lt, String text, int chunkLength, int windowLength) throws IOException {
+    final List<RuleMatch> matches = new ArrayList<>();
+    final StreamingTextChecker checker = new StreamingTextChecker(lt, lt.getAllRules(), JLanguageTool.ParagraphHandling.NORMAL,
+            new RuleMatchListener() {
+              @Override
+              public void matchFound(RuleMatch ruleMatch, String matchText, int textPos) {
+                matches.add(ruleMatch);
+              }
+            }, chunkLength, windowLength);
+    checker.check(new StringReader(text));
+    return matches;
+  }
+
+  private List<RuleMatch> getBracketMatches(List<RuleMatch> matches) {
+    final List<RuleMatch> result = new ArrayList<>();
+    for (RuleMatch match : matches) {
+      if (match.getRule() instanceof GenericUnpairedBracketsRule) {
+        result.add(match);
+      }
+    }
+    return result;
+  }
+
+  private void assertSameMatches(List<RuleMatch> matches, List<RuleMatch> expected) {
+    assertThat(matches.size(), is(expected.size()));
+    for (int i = 0; i < matches.size(); i++) {
+      final RuleMatch match = matches.get(i);
+      final RuleMatch expectedMatch = expected.get(i);
+      assertThat(match.getRule().getId(), is(expectedMatch.getRule().getId()));
+      assertThat(match.getFromPos(), is(expectedMatch.getFromPos()));
+      assertThat(match.getToPos(), is(expectedMatch.getToPos()));
+      assertThat(match.getLine(), is(expectedMatch.getLine()));
+      assertThat(match.getColumn(), is(expectedMatch.getColumn()));
+      assertThat(match.getEndLine(), is(expectedMatch.getEndLine()));
+      assertThat(match.getEndColumn(), is(expectedMatch.getEndColumn()));
+    }
+  }
+
+}
@@ -0,0 +1,102 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CachingLanguageModelTest {
+
+  @Test
+  public void testCache() {
+    BatchCountingLanguageModel countingModel = new BatchCountingLanguageModel();
+    CachingLanguageModel model = new CachingLanguageModel(countingModel, 3);
+    assertThat(model.getHitRate(), is(0f));
+    assertThat(model.getCount("a", "b"), is(3L));
+    assertThat(model.getCount("a", "b"), is(3L));
+    assertThat(model.getCount("a", "b", "c"), is(5L));
+    assertThat(countingModel.lookups, is(2));
+    assertThat(model.getHitCount(), is(1L));
+    assertThat(model.getMissCount(), is(2L));
+
+    List<String[]> ngrams = Arrays.asList(new String[] {"a", "b"}, new String[] {"x", "y"}, new String[] {"a", "b", "c"});
+    assertThat(model.getCounts(ngrams), is(new long[] {3, 3, 5}));
+    assertThat(countingModel.lookups, is(3));
+    assertThat(countingModel.batchSizes, is(Arrays.asList(1)));
+    assertThat(model.getHitCount(), is(3L));
+    assertThat(model.getMissCount(), is(3L));
+    assertThat(model.getHitRate(), is(0.5f));
+
+    model.getCount("foo", "bar");  // cache is full, so the least recently used "a b" is evicted
+    assertThat(model.getCount("x", "y"), is(3L));
+    assertThat(model.getCount("a", "b", "c"), is(5L));
+    assertThat(countingModel.lookups, is(4));
+    assertThat(model.getCount("a", "b"), is(3L));
+    assertThat(countingModel.lookups, is(5));
+  }
+
+  @Test
+  public void testWithoutBatchLookups() {
+    CountingLanguageModel countingModel = new CountingLanguageModel();
+    CachingLanguageModel model = new CachingLanguageModel(countingModel, 10);
+    List<String[]> ngrams = Arrays.asList(new String[] {"a", "b"}, new String[] {"x", "y"}, new String[] {"a", "b", "c"});
+    assertThat(model.getCounts(ngrams), is(new long[] {3, 3, 5}));
+    assertThat(countingModel.lookups, is(3));
+    assertThat(model.getCounts(ngrams), is(new long[] {3, 3, 5}));
+    assertThat(countingModel.lookups, is(3));
+  }
+
+  // returns the length of the ngram as its count
+  static class CountingLanguageModel implements LanguageModel {
+    int lookups;
+    @Override
+    public long getCount(String token1, String token2) {
+      lookups++;
+      return (token1 + " " + token2).length();
+    }
+    @Override
+    public long getCount(String token1, String token2, String token3) {
+      lookups++;
+      return (token1 + " " + token2 + " " + token3).length();
+    }
+    @Override
+    public void close() {}
+  }
+
+  static class BatchCountingLanguageModel extends CountingLanguageModel implements BatchLanguageModel {
+    List<Integer> batchSizes = new ArrayList<>();
+    @Override
+    public long[] getCounts(List<String[]> ngrams) {
+      batchSizes.add(ngrams.size());
+      long[] counts = new long[ngrams.size()];
+      for (int i = 0; i < counts.length; i++) {
+        String[] ngram = ngrams.get(i);
+        counts[i] = ngram.length == 2 ? getCount(ngram[0], ngram[1]) : getCount(ngram[0], ngram[1], ngram[2]);
+      }
+      return counts;
+    }
+  }
+
+}
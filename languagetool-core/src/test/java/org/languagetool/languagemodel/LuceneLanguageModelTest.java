@@ -18,13 +18,75 @@
  */
 package org.languagetool.languagemodel;
 
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Version;
 import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
 
 public class LuceneLanguageModelTest extends LanguageModelTest {
 
+  @Test
+  public void testGetCounts() throws Exception {
+    File topDir = Files.createTempDirectory(LuceneLanguageModelTest.class.getSimpleName()).toFile();
+    File indexDir = new File(topDir, "3grams");
+    try {
+      IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_4_10_3, new FakeAnalyzer());
+      try (IndexWriter writer = new IndexWriter(FSDirectory.open(indexDir), config)) {
+        addDoc(writer, "is a café", "5000");
+        addDoc(writer, "a café in", "1000");
+        writer.commit();  // two segments
+        addDoc(writer, "café in Berlin", "20");
+      }
+      try (LuceneLanguageModel model = new LuceneLanguageModel(topDir)) {
+        List<String[]> ngrams = Arrays.asList(
+                new String[] {"café", "in", "Berlin"},
+                new String[] {"is", "an", "café"},
+                new String[] {"is", "a", "café"},
+                new String[] {"a", "café", "in"},
+                new String[] {"is", "a", "café"});
+        assertThat(model.getCounts(ngrams), is(new long[] {20, 0, 5000, 1000, 5000}));
+        for (String[] ngram : ngrams) {
+          assertThat(model.getCounts(Arrays.<String[]>asList(ngram))[0], is(model.getCount(ngram[0], ngram[1], ngram[2])));
+        }
+      }
+    } finally {
+      File[] files = indexDir.listFiles();
+      if (files != null) {
+        for (File file : files) {
+          file.delete();
+        }
+      }
+      indexDir.delete();
+      topDir.delete();
+    }
+  }
+
+  private void addDoc(IndexWriter writer, String text, String count) throws IOException {
+    Document doc = new Document();
+    doc.add(new Field("ngram", text, StringField.TYPE_NOT_STORED));
+    FieldType fieldType = new FieldType();
+    fieldType.setStored(true);
+    doc.add(new Field("count", count, fieldType));
+    writer.addDocument(doc);
+  }
+
   /**
    * Some values for average time per lookup on 2grams on a 3.7GB Lucene 4.8.1 index with 118,941,740 docs:
    * -no data in OS cache, index on external USB disk: 17626µs = 17ms
@@ -50,4 +112,11 @@ public class LuceneLanguageModelTest extends LanguageModelTest {
     super.testPerformance(model, 3);
   }
   
+  private static class FakeAnalyzer extends Analyzer {
+    @Override
+    protected TokenStreamComponents createComponents(String s, Reader reader) {
+      return null;
+    }
+  }
+
 }
@@ -0,0 +1,119 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class MappedLanguageModelTest extends LanguageModelTest {
+
+  @Test
+  public void testGetCount() throws Exception {
+    File dir = Files.createTempDirectory(MappedLanguageModelTest.class.getSimpleName()).toFile();
+    File bigrams = MappedLanguageModel.getTableFile(dir, 2);
+    File trigrams = MappedLanguageModel.getTableFile(dir, 3);
+    try {
+      assertFalse(MappedLanguageModel.isAvailable(dir));
+      try (MappedNgramTableWriter writer = new MappedNgramTableWriter(bigrams, 1000)) {
+        for (int i = 0; i < 1000; i++) {
+          writer.add("token" + i + " foo", i);
+        }
+        writer.add("token1 foo", 10);  // counts are summed up
+        assertThat(writer.size(), is(1000L));
+      }
+      try (MappedNgramTableWriter writer = new MappedNgramTableWriter(trigrams, 5)) {
+        writer.add("the tall man", 123_456_789_000L);
+        writer.add("_START_ the man", 42);
+        writer.add("a b c", 0xFFFFFFFEL);  // the largest count stored in a slot
+        writer.add("d e f", 0xFFFFFFFEL);
+        writer.add("d e f", 2);  // too large for a slot after summing up
+        writer.add("the tall man", 1);
+      }
+      assertTrue(MappedLanguageModel.isAvailable(dir));
+      try (MappedLanguageModel model = new MappedLanguageModel(dir)) {
+        assertThat(model.getCount("token0", "foo"), is(0L));
+        assertThat(model.getCount("token1", "foo"), is(11L));
+        assertThat(model.getCount("token999", "foo"), is(999L));
+        assertThat(model.getCount("token1000", "foo"), is(0L));
+        assertThat(model.getCount("foo", "token1"), is(0L));
+        assertThat(model.getCount("the", "tall", "man"), is(123_456_789_001L));
+        assertThat(model.getCount("a", "b", "c"), is(0xFFFFFFFEL));
+        assertThat(model.getCount("d", "e", "f"), is(0x100000000L));
+        assertThat(model.getCount(LanguageModel.GOOGLE_SENTENCE_START, "the", "man"), is(42L));
+        assertThat(model.getCount("the", "tallman", ""), is(0L));
+      }
+    } finally {
+      bigrams.delete();
+      trigrams.delete();
+      dir.delete();
+    }
+  }
+
+  @Test
+  public void testClosedTable() throws Exception {
+    File file = File.createTempFile(MappedLanguageModelTest.class.getSimpleName(), ".bin");
+    try {
+      try (MappedNgramTableWriter writer = new MappedNgramTableWriter(file, 1)) {
+        writer.add("a b", 1);
+      }
+      MappedNgramTable table = new MappedNgramTable(file);
+      assertThat(table.getCount("a", "b"), is(1L));
+      table.close();
+      try {
+        table.getCount("a", "b");
+        fail();
+      } catch (IllegalStateException expected) {}
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testFingerprint() {
+    assertThat(MappedNgramTable.fingerprint("a", "b", "c"), is(MappedNgramTable.fingerprint("a b c")));
+    assertThat(MappedNgramTable.fingerprint("a", "b c"), is(MappedNgramTable.fingerprint("a b", "c")));
+    assertNotEquals(MappedNgramTable.fingerprint("a", "b"), MappedNgramTable.fingerprint("b", "a"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTableFull() throws Exception {
+    File file = File.createTempFile(MappedLanguageModelTest.class.getSimpleName(), ".bin");
+    try (MappedNgramTableWriter writer = new MappedNgramTableWriter(file, 1)) {
+      for (int i = 0; i < 100; i++) {
+        writer.add("token" + i, 1);
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  @Ignore("for interactive use only")
+  public void testPerformance() throws Exception {
+    LanguageModel model = new MappedLanguageModel(new File("/data/google-gram-index/"));
+    super.testPerformance(model, 3);
+  }
+
+}
@@ -0,0 +1,58 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.markup;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class AnnotatedTextTest {
+
+  @Test
+  public void testGetOriginalTextPositionFor() {
+    AnnotatedText text = new AnnotatedTextBuilder()
+            .addMarkup("<p>").addText("Here is ").addMarkup("<b>").addText("some text").addMarkup("</b>").addMarkup("</p>")
+            .build();
+    assertThat(text.getPlainText(), is("Here is some text"));
+    assertThat(text.toString(), is("<p>Here is <b>some text</b></p>"));
+    assertThat(text.getOriginalTextPositionFor(0), is(3));
+    assertThat(text.getOriginalTextPositionFor(5), is(8));
+    assertThat(text.getOriginalTextPositionFor(7), is(10));
+    assertThat(text.getOriginalTextPositionFor(8), is(14));
+    assertThat(text.getOriginalTextPositionFor(12), is(18));
+    assertThat(text.getOriginalTextPositionFor(16), is(22));
+    assertThat(text.getOriginalTextPositionFor(17), is(31));
+  }
+
+  @Test
+  public void testWithoutMarkup() {
+    AnnotatedText text = new AnnotatedTextBuilder().addText("Just ").addText("text.").build();
+    assertThat(text.getPlainText(), is("Just text."));
+    assertThat(text.getOriginalTextPositionFor(0), is(0));
+    assertThat(text.getOriginalTextPositionFor(7), is(7));
+    assertThat(text.getOriginalTextPositionFor(10), is(10));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testNegativePosition() {
+    new AnnotatedTextBuilder().addText("Text.").build().getOriginalTextPositionFor(-1);
+  }
+
+}
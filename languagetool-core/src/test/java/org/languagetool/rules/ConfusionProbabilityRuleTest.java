@@ -94,7 +94,17 @@ public class ConfusionProbabilityRuleTest {
   }
 
   private void testIndex(File languageModelIndex) throws IOException {
-    LanguageModel languageModel = new LuceneLanguageModel(languageModelIndex);
+    final LanguageModel luceneModel = new LuceneLanguageModel(languageModelIndex);
+    testLanguageModel(luceneModel);
+    // a model without batch lookups:
+    testLanguageModel(new LanguageModel() {
+      @Override public long getCount(String token1, String token2) { return luceneModel.getCount(token1, token2); }
+      @Override public long getCount(String token1, String token2, String token3) { return luceneModel.getCount(token1, token2, token3); }
+      @Override public void close() {}
+    });
+  }
+
+  private void testLanguageModel(LanguageModel languageModel) throws IOException {
     ConfusionProbabilityRule rule = new ConfusionProbabilityRule(TestTools.getEnglishMessages(), languageModel, new FakeLanguage()) {
       @Override public String getDescription() { return null; }
       @Override public String getMessage(String suggestion) { return null; }
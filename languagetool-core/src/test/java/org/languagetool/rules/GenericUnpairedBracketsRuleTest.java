@@ -23,6 +23,8 @@ import org.languagetool.FakeLanguage;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.TestTools;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -75,8 +77,8 @@ public class GenericUnpairedBracketsRuleTest {
     assertThat(match1.getToPos(), is(6));
     assertThat(match1.getLine(), is(0));
     assertThat(match1.getEndLine(), is(0));
-    assertThat(match1.getColumn(), is(5));
-    assertThat(match1.getEndColumn(), is(6));
+    assertThat(match1.getColumn(), is(6));  // first column is 1, like for sentence-level rules
+    assertThat(match1.getEndColumn(), is(7));
 
     RuleMatch match2 = langTool.check("This.\nSome stuff.\nIt »is a test.").get(0);
     assertThat(match2.getFromPos(), is(21));
@@ -87,6 +89,21 @@ public class GenericUnpairedBracketsRuleTest {
     assertThat(match2.getEndColumn(), is(5));
   }
 
+  @Test
+  public void testRuleMatchPositionsWithMarkup() throws IOException {
+    setUpRule(new FakeLanguage());
+    AnnotatedText text = new AnnotatedTextBuilder()
+            .addMarkup("<p>").addText("This ").addMarkup("<b>").addText("»is").addMarkup("</b>").addText(" a test.")
+            .addMarkup("</p>\n<p>").addText("This is »another test.").addMarkup("</p>").build();
+    List<RuleMatch> matches = langTool.check(text);
+    assertThat(matches.size(), is(2));
+    // like for sentence-level rules, the positions refer to the original text, including markup:
+    assertThat(matches.get(0).getFromPos(), is(11));
+    assertThat(matches.get(0).getToPos(), is(12));
+    assertThat(matches.get(1).getFromPos(), is(42));
+    assertThat(matches.get(1).getToPos(), is(43));
+  }
+
   private void setUpRule(Language language) {
     langTool = new JLanguageTool(language);
     for (Rule rule : langTool.getAllRules()) {
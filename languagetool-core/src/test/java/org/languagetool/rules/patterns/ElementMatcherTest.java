@@ -0,0 +1,75 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.language.Demo;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ElementMatcherTest {
+
+  @Test
+  public void testResolveReference() throws Exception {
+    Element element = new Element("\\0", false, false, false);
+    Match match = new Match(null, null, false, null, null, Match.CaseConversion.NONE, false, false, Match.IncludeRange.NONE);
+    match.setTokenRef(0);
+    element.setMatch(match);
+    ElementMatcher matcher = new ElementMatcher(element);
+    Demo language = new Demo();
+
+    matcher.resolveReference(0, tokens("foo"), language);
+    assertTrue(matcher.isMatched(token("foo")));
+    assertFalse(matcher.isMatched(token("bar")));
+    assertThat(matcher.getCompiledReferenceLookups(), is(1L));
+    assertThat(matcher.getCompiledReferenceHits(), is(0L));
+
+    matcher.resolveReference(0, tokens("bar"), language);
+    assertTrue(matcher.isMatched(token("bar")));
+    assertFalse(matcher.isMatched(token("foo")));
+    assertThat(matcher.getCompiledReferenceLookups(), is(2L));
+    assertThat(matcher.getCompiledReferenceHits(), is(0L));
+
+    matcher.resolveReference(0, tokens("foo"), language);  // compiled element comes from the cache now
+    assertTrue(matcher.isMatched(token("foo")));
+    assertFalse(matcher.isMatched(token("bar")));
+    assertThat(matcher.getCompiledReferenceLookups(), is(3L));
+    assertThat(matcher.getCompiledReferenceHits(), is(1L));
+
+    ElementMatcher otherMatcher = new ElementMatcher(element);  // counters are per matcher
+    otherMatcher.resolveReference(0, tokens("foo"), language);
+    assertThat(otherMatcher.getCompiledReferenceLookups(), is(1L));
+    assertThat(otherMatcher.getCompiledReferenceHits(), is(0L));
+    assertThat(matcher.getCompiledReferenceLookups(), is(3L));
+  }
+
+  private AnalyzedTokenReadings[] tokens(String token) {
+    return new AnalyzedTokenReadings[] { new AnalyzedTokenReadings(token(token), 0) };
+  }
+
+  private AnalyzedToken token(String token) {
+    return new AnalyzedToken(token, "pos", "lemma");
+  }
+
+}
@@ -0,0 +1,129 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.JLanguageTool;
+import org.languagetool.language.Demo;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.WordRepeatRule;
+import org.languagetool.tagging.disambiguation.rules.DisambiguationPatternRule;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class PatternRuleIndexTest {
+
+  @Test
+  public void testGetCandidateRules() throws IOException {
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    Rule tokenRule = makeRule(new Element("foo", false, false, false), new Element("bar", false, false, false));
+    Rule regexRule = makeRule(new Element("fo+", false, true, false));
+    Rule lemmaRule = makeRule(new Element("bar", false, false, true));
+    Element posElement = new Element(null, false, false, false);
+    posElement.setPosElement("NN.*", true, false);
+    Rule posRule = makeRule(posElement);
+    Rule otherRule = new WordRepeatRule(JLanguageTool.getMessageBundle(), new Demo());
+    List<Rule> rules = Arrays.asList(tokenRule, regexRule, lemmaRule, posRule, otherRule);
+    PatternRuleIndex index = new PatternRuleIndex(rules);
+
+    AnalyzedSentence sentence1 = lt.getAnalyzedSentence("This is foo and bar.");
+    assertThat(index.getCandidateRules(sentence1), is(Arrays.asList(tokenRule, regexRule, lemmaRule, otherRule)));
+    AnalyzedSentence sentence2 = lt.getAnalyzedSentence("This is foo.");
+    assertThat(index.getCandidateRules(sentence2), is(Arrays.asList(regexRule, otherRule)));
+    AnalyzedSentence sentence3 = lt.getAnalyzedSentence("Nothing here.");
+    assertThat(index.getCandidateRules(sentence3), is(Arrays.asList(regexRule, otherRule)));
+    AnalyzedSentence sentence4 = lt.getAnalyzedSentence("A house.");
+    sentence4.getTokens()[3].addReading(new AnalyzedToken("house", "NNS", "house"));
+    assertThat(index.getCandidateRules(sentence4), is(Arrays.asList(regexRule, posRule, otherRule)));
+  }
+
+  @Test
+  public void testDisambiguationRules() throws IOException {
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    Rule tokenRule = new DisambiguationPatternRule("ID", "description", new Demo(),
+            Arrays.asList(new Element("foo", false, false, false)), "NN", null, DisambiguationPatternRule.DisambiguatorAction.FILTER);
+    Rule otherRule = new DisambiguationPatternRule("ID", "description", new Demo(),
+            Arrays.asList(new Element("fo+", false, true, false)), "NN", null, DisambiguationPatternRule.DisambiguatorAction.FILTER);
+    PatternRuleIndex index = new PatternRuleIndex(Arrays.asList(tokenRule, otherRule));
+    assertThat(index.getCandidates(lt.getAnalyzedSentence("This is foo.")), is(new boolean[] {true, true}));
+    assertThat(index.getCandidates(lt.getAnalyzedSentence("This is bar.")), is(new boolean[] {false, true}));
+  }
+
+  @Test
+  public void testGetPosTagPrefix() {
+    assertThat(getPosTagPrefix("NN", false), is("NN"));
+    assertThat(getPosTagPrefix("NN.*", true), is("NN"));
+    assertThat(getPosTagPrefix("NNS?", true), is("NN"));
+    assertThat(getPosTagPrefix("SUB:NOM.*", true), is("SUB:NOM"));
+    assertThat(getPosTagPrefix("V[BZ]+", true), is("V"));
+    assertNull(getPosTagPrefix("NN|VB", true));
+    assertNull(getPosTagPrefix("(?i)nn", true));
+    assertNull(getPosTagPrefix(".*", true));
+    assertNull(getPosTagPrefix("UNKNOWN", false));
+    Element negated = new Element(null, false, false, false);
+    negated.setPosElement("NN.*", true, true);
+    assertNull(PatternRuleIndex.getPosTagPrefix(negated));
+    Element optional = new Element(null, false, false, false);
+    optional.setPosElement("NN.*", true, false);
+    optional.setMinOccurrence(0);
+    assertNull(PatternRuleIndex.getPosTagPrefix(optional));
+    Element orGroup = new Element(null, false, false, false);
+    orGroup.setPosElement("NN.*", true, false);
+    Element alternative = new Element(null, false, false, false);
+    alternative.setPosElement("VB.*", true, false);
+    orGroup.setOrGroupElement(alternative);
+    assertNull(PatternRuleIndex.getPosTagPrefix(orGroup));
+  }
+
+  @Test
+  public void testOrGroups() throws IOException {
+    JLanguageTool lt = new JLanguageTool(new Demo());
+    Element tokenElement = new Element("foo", false, false, false);
+    tokenElement.setOrGroupElement(new Element("bar", false, false, false));
+    Rule tokenRule = makeRule(tokenElement);
+    Element posElement = new Element(null, false, false, false);
+    posElement.setPosElement("NN.*", true, false);
+    Element posAlternative = new Element(null, false, false, false);
+    posAlternative.setPosElement("VB.*", true, false);
+    posElement.setOrGroupElement(posAlternative);
+    Rule posRule = makeRule(posElement);
+    PatternRuleIndex index = new PatternRuleIndex(Arrays.asList(tokenRule, posRule));
+    AnalyzedSentence sentence = lt.getAnalyzedSentence("This is bar.");
+    sentence.getTokens()[5].addReading(new AnalyzedToken("bar", "VBZ", "bar"));
+    // only the alternatives occur, so the first element of each group must not be used as an anchor:
+    assertThat(index.getCandidates(sentence), is(new boolean[] {true, true}));
+  }
+
+  private String getPosTagPrefix(String posTag, boolean regex) {
+    Element element = new Element(null, false, false, false);
+    element.setPosElement(posTag, regex, false);
+    return PatternRuleIndex.getPosTagPrefix(element);
+  }
+
+  private PatternRule makeRule(Element... elements) {
+    return new PatternRule("ID", new Demo(), Arrays.asList(elements), "description", "message", "short message");
+  }
+
+}
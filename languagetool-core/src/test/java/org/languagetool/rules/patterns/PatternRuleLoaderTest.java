@@ -18,6 +18,7 @@
  */
 package org.languagetool.rules.patterns;
 
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -25,7 +26,9 @@ import java.util.Set;
 
 import junit.framework.TestCase;
 
+import org.languagetool.AnalyzedSentence;
 import org.languagetool.JLanguageTool;
+import org.languagetool.TestTools;
 import org.languagetool.chunking.ChunkTag;
 import org.languagetool.rules.ITSIssueType;
 import org.languagetool.rules.IncorrectExample;
@@ -91,6 +94,34 @@ public class PatternRuleLoaderTest extends TestCase {
     assertNull("http://fake-server.org/rule-group-url", nextRule.getUrl());
   }
 
+  public void testSharedAntiPatterns() throws Exception {
+    final String xml = "<rules lang='xx'><category name='misc'>" +
+            "<rulegroup id='GROUP' name='group'>" +
+            "  <antipattern><token>bar</token><token>,</token></antipattern>" +
+            "  <rule><pattern><token>foo</token><token>bar</token></pattern><message>msg1</message></rule>" +
+            "  <rule><pattern><token>bar</token></pattern><message>msg2</message></rule>" +
+            "</rulegroup>" +
+            "<rule id='OTHER' name='other'>" +
+            "  <antipattern><token>bar</token><token>,</token></antipattern>" +
+            "  <pattern><token>bar</token></pattern><message>msg3</message>" +
+            "</rule>" +
+            "</category></rules>";
+    final List<PatternRule> rules = new PatternRuleLoader().getRules(new ByteArrayInputStream(xml.getBytes("utf-8")), "test.xml");
+    assertEquals(3, rules.size());
+    assertSame(rules.get(0).getAntiPatterns(), rules.get(1).getAntiPatterns());
+    assertNotSame(rules.get(0).getAntiPatterns(), rules.get(2).getAntiPatterns());
+
+    final JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    final AnalyzedSentence sentence1 = lt.getAnalyzedSentence("This is foo bar, isn't it?");
+    for (PatternRule rule : rules) {
+      assertEquals(0, rule.match(sentence1).length);
+    }
+    final AnalyzedSentence sentence2 = lt.getAnalyzedSentence("This is foo bar.");
+    for (PatternRule rule : rules) {
+      assertEquals(1, rule.match(sentence2).length);
+    }
+  }
+
   private Set<String> getCategoryNames(List<PatternRule> rules) {
     final Set<String> categories = new HashSet<>();
     for (PatternRule rule : rules) {
@@ -35,6 +35,7 @@ import org.languagetool.language.Demo;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.patterns.Match.CaseConversion;
 import org.languagetool.rules.patterns.Match.IncludeRange;
+import org.languagetool.tagging.disambiguation.rules.DisambiguationPatternRule;
 
 public class PatternRuleMatcherTest {
 
@@ -52,6 +53,48 @@ public class PatternRuleMatcherTest {
     assertNoMatch("This is no test.", matcher);
   }
 
+  @Test
+  public void testRuleMatchFromSeveralThreads() throws Exception {
+    final PatternRule rule = getPatternRule("my test");
+    assertThat(rule.match(langTool.getAnalyzedSentence("This is my test.")).length, is(1));
+    assertThat(rule.match(langTool.getAnalyzedSentence("This is no test.")).length, is(0));
+    final List<Integer> otherThreadResult = new ArrayList<>();
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          otherThreadResult.add(rule.match(langTool.getAnalyzedSentence("This is my test and my test.")).length);
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+    thread.start();
+    thread.join();
+    assertThat(otherThreadResult, is(Arrays.asList(2)));
+    assertThat(rule.match(langTool.getAnalyzedSentence("This is my test.")).length, is(1));
+  }
+
+  @Test
+  public void testMatcherIsKeptPerThread() throws Exception {
+    final PatternRule rule1 = getPatternRule("my test");
+    final PatternRule rule2 = getPatternRule("my test");
+    final PatternRuleMatcher matcher1 = rule1.getMatcher();
+    assertSame(matcher1, rule1.getMatcher());
+    assertNotSame(matcher1, rule2.getMatcher());
+    assertSame(matcher1, rule1.getMatcher());
+    final List<PatternRuleMatcher> otherThreadMatchers = new ArrayList<>();
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        otherThreadMatchers.add(rule1.getMatcher());
+      }
+    };
+    thread.start();
+    thread.join();
+    assertNotSame(matcher1, otherThreadMatchers.get(0));
+  }
+
   @Test
   public void testZeroMinOccurrences() throws Exception {
     final Element elementB = makeElement("b");
@@ -349,6 +392,25 @@ public class PatternRuleMatcherTest {
     assertCompleteMatch("a b b b b b b b b b b b b b b b b b b b b b b b b b c", matcher);
   }
 
+  @Test
+  public void testUnlimitedMaxOccurrencesWithAntiPattern() throws Exception {
+    final Element elementB = makeElement("b");
+    elementB.setMaxOccurrence(-1);
+    final PatternRule rule = getPatternRule(Arrays.asList(makeElement("a"), elementB));
+    final DisambiguationPatternRule antiPattern = new DisambiguationPatternRule("ANTI", "antipattern", new Demo(),
+            Arrays.asList(makeElement("b"), makeElement("x")), null, null, DisambiguationPatternRule.DisambiguatorAction.IMMUNIZE);
+    rule.setAntiPatterns(Arrays.asList(antiPattern));
+
+    final RuleMatch[] matches1 = rule.match(langTool.getAnalyzedSentence("a b b b"));
+    assertThat(matches1.length, is(1));
+    assertPosition(matches1[0], 0, 7);
+
+    // the last 'b' is immunized by the antipattern, so it must not be part of the match:
+    final RuleMatch[] matches2 = rule.match(langTool.getAnalyzedSentence("a b b x"));
+    assertThat(matches2.length, is(1));
+    assertPosition(matches2[0], 0, 3);
+  }
+
   @Test
   public void testMaxTwoAndThreeOccurrences() throws Exception {
     final Element elementA = makeElement("a");
@@ -21,7 +21,9 @@ package org.languagetool.tagging;
 import org.junit.Test;
 
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
@@ -52,4 +54,31 @@ public class MorfologikTaggerTest {
     assertThat(noResult.size(), is(0));
   }
 
+  @Test
+  public void testTagFromSeveralThreads() throws Exception {
+    URL url = MorfologikTaggerTest.class.getResource("/org/languagetool/tagging/test.dict");
+    final MorfologikTagger tagger = new MorfologikTagger(url);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        futures.add(executor.submit(new Callable<Integer>() {
+          @Override
+          public Integer call() {
+            int readings = 0;
+            for (int j = 0; j < 100; j++) {
+              readings += tagger.tag("lowercase").size() + tagger.tag("schön").size();
+            }
+            return readings;
+          }
+        }));
+      }
+      for (Future<Integer> future : futures) {
+        assertThat(future.get(), is(300));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
 }
@@ -55,6 +55,19 @@ public class ContextToolsTest extends TestCase {
     assertEquals("<b><font bgcolor=\"#ff8b8b\">Hi</font></b>, this is <html>.", context2);
   }
 
+  public void testContextAtEndOfLongText() throws Exception {
+    final ContextTools contextTools = new ContextTools();
+    contextTools.setContextSize(5);
+    final StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      text.append("Some text.\n");
+    }
+    text.append("An eror.");
+    final int errorPos = text.length() - 5;
+    assertEquals(".... An <b><font bgcolor=\"#ff8b8b\">eror</font></b>.", contextTools.getContext(errorPos, errorPos + 4, text.toString()));
+    assertEquals(".... An eror.\n        ^^^^ ", contextTools.getPlainTextContext(errorPos, errorPos + 4, text.toString()));
+  }
+
   public void testMarkers() throws Exception {
     final ContextTools contextTools = new ContextTools();
     contextTools.setErrorMarkerStart("<X>");
@@ -0,0 +1,69 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tools;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class LruCacheTest {
+
+  @Test
+  public void testEviction() {
+    LruCache<String, Integer> cache = new LruCache<>(2);  // two segments with one entry each
+    cache.put("a", 1);
+    cache.put("b", 2);
+    assertThat(cache.get("a"), is(1));
+    for (int i = 0; i < 100; i++) {
+      cache.put("x" + i, i);
+    }
+    assertThat(cache.size(), is(2));
+    assertThat(cache.get("x99"), is(99));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() {
+    LruCache<Integer, String> cache = new LruCache<>(1);
+    cache.put(1, "one");
+    cache.put(2, "two");
+    assertNull(cache.get(1));
+    assertThat(cache.get(2), is("two"));
+  }
+
+  @Test
+  public void testHotEntriesAreKept() {
+    LruCache<Integer, Integer> cache = new LruCache<>(1600);
+    for (int i = 0; i < 100; i++) {
+      cache.put(i, i);
+    }
+    for (int i = 100; i < 10_000; i++) {
+      cache.put(i, i);
+      // the first 100 entries are used all the time:
+      assertThat(cache.get(i % 100), is(i % 100));
+    }
+    assertThat(cache.size(), is(1600));
+    for (int i = 0; i < 100; i++) {
+      assertThat(cache.get(i), is(i));
+    }
+    cache.clear();
+    assertThat(cache.size(), is(0));
+  }
+
+}
@@ -31,6 +31,7 @@ import org.languagetool.rules.patterns.Element;
 import org.languagetool.rules.patterns.PatternRule;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -39,6 +40,7 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertTrue;
 
 public class RuleAsXmlSerializerTest {
@@ -82,6 +84,21 @@ public class RuleAsXmlSerializerTest {
             "</matches>\n"));
   }
 
+  @Test
+  public void testWriteRuleMatchesXml() throws IOException {
+    final List<RuleMatch> matches = new ArrayList<>();
+    final String text = "This is an test\nsentence. Here's another sentence with more text.";
+    matches.add(new RuleMatch(new FakeRule(), 8, 10, "Use <suggestion>a</suggestion> here"));
+    matches.add(new RuleMatch(new FakeRule(), 16, 24, "Line\nbreak"));
+    final StringWriter writer = new StringWriter();
+    SERIALIZER.writeRuleMatchesXml(matches, text, 10, language, null, writer);
+    final String xml = writer.toString();
+    assertEquals(SERIALIZER.ruleMatchesToXml(matches, text, 10, language), xml);
+    assertTrue(xml.contains("msg=\"Use &apos;a&apos; here\""));
+    assertTrue(xml.contains("context=\"This is an test sent...\" contextoffset=\"8\""));
+    assertTrue(xml.contains("context=\"...s an test sentence. Here&apos;s a...\" contextoffset=\"13\""));
+  }
+
   @Test
   public void testRuleMatchesToXMLWithCategory() throws IOException {
     final List<RuleMatch> matches = new ArrayList<>();
@@ -0,0 +1,101 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev;
+
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.languagetool.languagemodel.MappedLanguageModel;
+import org.languagetool.languagemodel.MappedNgramTableWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Converts the {@code 2grams} and {@code 3grams} Lucene indexes as created by
+ * {@link FrequencyIndexCreator} to the memory-mapped format used by {@link MappedLanguageModel}.
+ * @since 2.9
+ */
+public class MappedLanguageModelCreator {
+
+  private void run(File luceneTopIndexDir, File outputDir) throws IOException {
+    if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+      throw new IOException("Could not create output directory " + outputDir);
+    }
+    for (int ngramSize = 2; ngramSize <= 3; ngramSize++) {
+      File indexDir = new File(luceneTopIndexDir, ngramSize + "grams");
+      if (indexDir.isDirectory()) {
+        convert(indexDir, MappedLanguageModel.getTableFile(outputDir, ngramSize));
+      } else {
+        System.out.println("Skipping " + indexDir + " - not found");
+      }
+    }
+  }
+
+  private void convert(File indexDir, File outputFile) throws IOException {
+    System.out.println("==== Converting " + indexDir + " to " + outputFile + " ====");
+    NumberFormat format = NumberFormat.getNumberInstance(Locale.US);
+    long startTime = System.currentTimeMillis();
+    try (FSDirectory directory = FSDirectory.open(indexDir);
+         IndexReader reader = DirectoryReader.open(directory);
+         MappedNgramTableWriter writer = new MappedNgramTableWriter(outputFile, reader.numDocs())) {
+      Terms terms = MultiFields.getTerms(reader, "ngram");
+      if (terms == null) {
+        System.out.println("No 'ngram' field found in " + indexDir);
+        return;
+      }
+      Bits liveDocs = MultiFields.getLiveDocs(reader);
+      TermsEnum termsEnum = terms.iterator(null);
+      DocsEnum docsEnum = null;
+      BytesRef term;
+      long i = 0;
+      while ((term = termsEnum.next()) != null) {
+        docsEnum = termsEnum.docs(liveDocs, docsEnum, DocsEnum.FLAG_NONE);
+        int docId = docsEnum.nextDoc();
+        if (docId != DocIdSetIterator.NO_MORE_DOCS) {
+          // LuceneLanguageModel only considers the first document for an ngram, so do we:
+          long count = Long.parseLong(reader.document(docId).get("count"));
+          writer.add(term.utf8ToString(), count);
+          if (++i % 1_000_000 == 0) {
+            System.out.println(format.format(i) + " ngrams converted, current: " + term.utf8ToString());
+          }
+        }
+      }
+      System.out.println(format.format(writer.size()) + " ngrams converted in "
+              + (System.currentTimeMillis() - startTime) / 1000 + "s");
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.out.println("Usage: " + MappedLanguageModelCreator.class.getSimpleName() + " <luceneIndexDir> <outputDir>");
+      System.out.println("    <luceneIndexDir> is a directory with '2grams' and/or '3grams' sub directories,");
+      System.out.println("                     as created by " + FrequencyIndexCreator.class.getSimpleName());
+      System.out.println("    <outputDir> is the directory to write '2grams.bin' and/or '3grams.bin' to,");
+      System.out.println("                it can then be used instead of <luceneIndexDir>");
+      System.exit(1);
+    }
+    MappedLanguageModelCreator creator = new MappedLanguageModelCreator();
+    creator.run(new File(args[0]), new File(args[1]));
+  }
+}
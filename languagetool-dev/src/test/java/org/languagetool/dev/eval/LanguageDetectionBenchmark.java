@@ -0,0 +1,111 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.eval;
+
+import com.google.common.io.CharStreams;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.language.LanguageIdentifier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.List;
+
+/**
+ * Compare speed and quality of language detection on a sample of long texts
+ * with detection on the complete texts.
+ *
+ * @since 2.9
+ */
+class LanguageDetectionBenchmark {
+
+  private static final int RUNS = 5;
+
+  private final LanguageIdentifier fullTextIdentifier = new LanguageIdentifier(0, 0);
+  private final LanguageIdentifier samplingIdentifier = new LanguageIdentifier();
+
+  private long fullTextTime = 0;
+  private long samplingTime = 0;
+  private int fullTextFailures = 0;
+  private int samplingFailures = 0;
+  private int totalInputs = 0;
+
+  private void evaluate(Language language) throws IOException {
+    if (language.isVariant()) {
+      return;
+    }
+    String evalTextFile = "/org/languagetool/dev/eval/lang/" + language.getShortName() + ".txt";
+    InputStream stream = LanguageDetectionBenchmark.class.getResourceAsStream(evalTextFile);
+    if (stream == null) {
+      System.out.println("No eval data found for " + language + ", skipping");
+      return;
+    }
+    String text = getText(stream);
+    totalInputs++;
+    long startTime = System.nanoTime();
+    Language fullTextLang = null;
+    for (int i = 0; i < RUNS; i++) {
+      fullTextLang = fullTextIdentifier.detectLanguage(text);
+    }
+    long fullTextMillis = (System.nanoTime() - startTime) / 1_000_000;
+    startTime = System.nanoTime();
+    Language samplingLang = null;
+    for (int i = 0; i < RUNS; i++) {
+      // a sampling identifier without cache would be fairer, but the text is modified
+      // slightly for each run so the cache is never hit:
+      samplingLang = samplingIdentifier.detectLanguage(text + i);
+    }
+    long samplingMillis = (System.nanoTime() - startTime) / 1_000_000;
+    fullTextTime += fullTextMillis;
+    samplingTime += samplingMillis;
+    if (!language.equals(fullTextLang)) {
+      fullTextFailures++;
+    }
+    if (!language.equals(samplingLang)) {
+      samplingFailures++;
+    }
+    System.out.println(language.getShortName() + " (" + text.length() + " chars): full text "
+            + fullTextMillis + "ms -> " + fullTextLang + ", sampling " + samplingMillis + "ms -> " + samplingLang);
+  }
+
+  private String getText(InputStream stream) throws IOException {
+    List<String> lines = CharStreams.readLines(new InputStreamReader(stream, "utf-8"));
+    StringBuilder sb = new StringBuilder();
+    for (String line : lines) {
+      if (!line.startsWith("#")) {
+        sb.append(line).append('\n');
+      }
+    }
+    return sb.toString();
+  }
+
+  public static void main(String[] args) throws IOException {
+    LanguageDetectionBenchmark benchmark = new LanguageDetectionBenchmark();
+    for (Language language : Languages.get()) {
+      benchmark.evaluate(language);
+    }
+    System.out.println();
+    System.out.println("Full text: " + benchmark.fullTextTime + "ms, detection failures: "
+            + benchmark.fullTextFailures + "/" + benchmark.totalInputs);
+    System.out.println("Sampling:  " + benchmark.samplingTime + "ms, detection failures: "
+            + benchmark.samplingFailures + "/" + benchmark.totalInputs);
+  }
+
+}
@@ -75,8 +75,6 @@ public class CatalanSynthesizer extends BaseSynthesizer {
 
   @Override
   public String[] synthesize(final AnalyzedToken token, final String posTag) throws IOException {
-    initPossibleTags();
-    Pattern p;
     boolean addDt = false; 
     String prep = ""; 
     final Matcher mPrep = pPrep.matcher(posTag);
@@ -86,22 +84,14 @@ public class CatalanSynthesizer extends BaseSynthesizer {
         prep=mPrep.group(2); // add preposition before article
       }
     }
-    if (addDt) {
-      p = Pattern.compile("N.*|A.*|V.P.*|PX.");
-    } else {
-      p = Pattern.compile(posTag);
-    }
     final List<String> results = new ArrayList<>();
-    final IStemmer synthesizer = createStemmer();
+    final IStemmer synthesizer = getStemmer();
     
-    for (final String tag : possibleTags) {
-      final Matcher m = p.matcher(tag);
-      if (m.matches()) {
-        if (addDt) {
-          lookupWithEl(token.getLemma(), tag, prep, results, synthesizer);
-        } else {
-          lookup(token.getLemma(), tag, results);
-        }
+    for (final String tag : getMatchingTags(addDt ? "N.*|A.*|V.P.*|PX." : posTag)) {
+      if (addDt) {
+        lookupWithEl(token.getLemma(), tag, prep, results, synthesizer);
+      } else {
+        lookup(token.getLemma(), tag, results);
       }
     }       
     
@@ -121,37 +111,22 @@ public class CatalanSynthesizer extends BaseSynthesizer {
   public String[] synthesize(final AnalyzedToken token, final String posTag,
       final boolean posTagRegExp) throws IOException {
     if (posTagRegExp) {
-      initPossibleTags();
-      Pattern p = Pattern.compile(posTag);
       final List<String> results = new ArrayList<>();
-      for (final String tag : possibleTags) {
-        final Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          lookup(token.getLemma(), tag, results);
-        }
+      for (final String tag : getMatchingTags(posTag)) {
+        lookup(token.getLemma(), tag, results);
       }
       // if not found, try verbs from any regional variant
       if ((results.size() == 0)) {
         final Matcher mVerb = pVerb.matcher(posTag);
         if (mVerb.matches()) {
           if (!posTag.endsWith("0")) {
-            p = Pattern.compile(posTag.substring(0, posTag.length() - 1)
-                .concat("0"));
-            for (final String tag : possibleTags) {
-              final Matcher m = p.matcher(tag);
-              if (m.matches()) {
-                lookup(token.getLemma(), tag, results);
-              }
+            for (final String tag : getMatchingTags(posTag.substring(0, posTag.length() - 1).concat("0"))) {
+              lookup(token.getLemma(), tag, results);
             }
           }
           if (results.size() == 0) { // another try
-            p = Pattern.compile(posTag.substring(0, posTag.length() - 1)
-                .concat("."));
-            for (final String tag : possibleTags) {
-              final Matcher m = p.matcher(tag);
-              if (m.matches()) {
-                lookup(token.getLemma(), tag, results);
-              }
+            for (final String tag : getMatchingTags(posTag.substring(0, posTag.length() - 1).concat("."))) {
+              lookup(token.getLemma(), tag, results);
             }
           }
         }
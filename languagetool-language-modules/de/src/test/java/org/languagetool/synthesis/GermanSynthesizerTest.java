@@ -22,7 +22,10 @@ import org.junit.Test;
 import org.languagetool.AnalyzedToken;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
@@ -39,6 +42,27 @@ public class GermanSynthesizerTest {
     assertThat(synth("Haus", ".*", true), is("[Häuser, Haus, Häusern, Haus, Hause, Häuser, Hauses, Häuser, Haus]"));
   }
 
+  @Test
+  public void testSynthesizeFromSeveralThreads() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> futures = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        futures.add(executor.submit(new Callable<String>() {
+          @Override
+          public String call() throws IOException {
+            return synth("Haus", "SUB:AKK:PLU:NEU") + synth("Haus", "SUB:DAT:.*", true);
+          }
+        }));
+      }
+      for (Future<String> future : futures) {
+        assertThat(future.get(), is("[Häuser][Häusern, Haus, Hause]"));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   private String synth(String word, String posTag) throws IOException {
     return Arrays.toString(synthesizer.synthesize(dummyToken(word), posTag));
   }
@@ -27,8 +27,10 @@ import java.util.ResourceBundle;
 import org.languagetool.Language;
 import org.languagetool.chunking.Chunker;
 import org.languagetool.chunking.EnglishChunker;
+import org.languagetool.languagemodel.CachingLanguageModel;
 import org.languagetool.languagemodel.LanguageModel;
 import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.MappedLanguageModel;
 import org.languagetool.rules.*;
 import org.languagetool.rules.en.*;
 import org.languagetool.synthesis.Synthesizer;
@@ -51,6 +53,7 @@ import org.languagetool.tokenizers.en.EnglishWordTokenizer;
 public class English extends Language implements AutoCloseable {
 
   private static final Language AMERICAN_ENGLISH = new AmericanEnglish();
+  private static final int MAX_CACHED_NGRAMS = 100_000;
 
   private Tagger tagger;
   private Chunker chunker;
@@ -58,7 +61,7 @@ public class English extends Language implements AutoCloseable {
   private Synthesizer synthesizer;
   private Disambiguator disambiguator;
   private WordTokenizer wordTokenizer;
-  private LuceneLanguageModel languageModel;
+  private LanguageModel languageModel;
   private String name = "English";
 
   @Override
@@ -140,7 +143,13 @@ public class English extends Language implements AutoCloseable {
   @Override
   public synchronized LanguageModel getLanguageModel(File indexDir) throws IOException {
     if (languageModel == null) {
-      languageModel = new LuceneLanguageModel(indexDir);
+      LanguageModel model;
+      if (MappedLanguageModel.isAvailable(indexDir)) {
+        model = new MappedLanguageModel(indexDir);
+      } else {
+        model = new LuceneLanguageModel(indexDir);
+      }
+      languageModel = new CachingLanguageModel(model, MAX_CACHED_NGRAMS);
     }
     return languageModel;
   }
@@ -21,11 +21,6 @@ package org.languagetool.synthesis.en;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import morfologik.stemming.IStemmer;
-import morfologik.stemming.WordData;
 
 import org.languagetool.AnalyzedToken;
 import org.languagetool.rules.en.AvsAnRule;
@@ -80,12 +75,8 @@ public class EnglishSynthesizer extends BaseSynthesizer {
       return new String[] { rule.suggestAorAn(token.getToken()) };
     }
 
-    final IStemmer synthesizer = createStemmer();
-    final List<WordData> wordData = synthesizer.lookup(token.getLemma() + "|" + posTag);
     final List<String> wordForms = new ArrayList<>();
-    for (WordData wd : wordData) {
-      wordForms.add(wd.getStem().toString());
-    }
+    lookup(token.getLemma(), posTag, wordForms);
     return wordForms.toArray(new String[wordForms.size()]);
   }
 
@@ -112,15 +103,9 @@ public class EnglishSynthesizer extends BaseSynthesizer {
         det = "the ";
       }
 
-      initPossibleTags();
-      final Pattern p = Pattern.compile(myPosTag);
       final List<String> results = new ArrayList<>();
-
-      for (final String tag : possibleTags) {
-        final Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          lookup(token.getLemma(), tag, results, det);
-        }
+      for (final String tag : getMatchingTags(myPosTag)) {
+        lookup(token.getLemma(), tag, results, det);
       }
       return results.toArray(new String[results.size()]);
     }
@@ -129,11 +114,10 @@ public class EnglishSynthesizer extends BaseSynthesizer {
   }
 
   private void lookup(String lemma, String posTag, List<String> results, String determiner) {
-    synchronized (this) { // the stemmer is not thread-safe
-      final List<WordData> wordForms = getStemmer().lookup(lemma + "|" + posTag);
-      for (WordData wd : wordForms) {
-        results.add(determiner + wd.getStem().toString());
-      }
+    final List<String> wordForms = new ArrayList<>();
+    lookup(lemma, posTag, wordForms);
+    for (String wordForm : wordForms) {
+      results.add(determiner + wordForm);
     }
   }
 
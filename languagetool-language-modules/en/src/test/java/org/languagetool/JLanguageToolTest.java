@@ -120,7 +120,7 @@ public class JLanguageToolTest extends TestCase {
     assertEquals(1, matches.size());
     final RuleMatch match = matches.get(0);
     assertEquals(2, match.getLine());
-    assertEquals(14, match.getColumn());   // TODO: should actually be 15, as in testPositionsWithEnglish()
+    assertEquals(15, match.getColumn());
   }
 
   public void testAnalyzedSentence() throws IOException {
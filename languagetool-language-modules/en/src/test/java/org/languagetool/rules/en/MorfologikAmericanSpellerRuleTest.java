@@ -29,6 +29,7 @@ import org.languagetool.rules.RuleMatch;
 
 import java.io.IOException;
 
+import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -54,6 +55,21 @@ public class MorfologikAmericanSpellerRuleTest extends AbstractEnglishSpellerRul
     super.testNonVariantSpecificSuggestions(rule, language);
   }
 
+  @Test
+  public void testSuggestionsDisabled() throws IOException {
+    MorfologikAmericanSpellerRule rule = new MorfologikAmericanSpellerRule(TestTools.getMessages("en"), language);
+    int settingsHash = rule.getSettingsHash();
+    rule.setSuggestionsEnabled(false);
+    // the matches still depend only on the sentence, but must not be mixed up with those that have suggestions:
+    assertTrue(rule.isSentenceLocal());
+    assertFalse(rule.getSettingsHash() == settingsHash);
+    RuleMatch[] matches = rule.match(langTool.getAnalyzedSentence("behaviour"));
+    assertEquals(1, matches.length);
+    assertEquals(0, matches[0].getFromPos());
+    assertEquals(9, matches[0].getToPos());
+    assertTrue(matches[0].getSuggestedReplacements().isEmpty());
+  }
+
   @Test
   public void testMorfologikSpeller() throws IOException {
 
@@ -123,6 +123,10 @@ public final class MorfologikPolishSpellerRule extends MorfologikSpellerRule {
         ruleMatches.add(ruleMatch);
         return ruleMatches;
       }
+      if (!isSuggestionsEnabled()) {
+        ruleMatches.add(ruleMatch);
+        return ruleMatches;
+      }
       List<String> suggestions = speller1.getSuggestions(word);
       suggestions.addAll(0, getAdditionalTopSuggestions(suggestions, word));
       suggestions.addAll(getAdditionalSuggestions(suggestions, word));
@@ -19,22 +19,15 @@
 package org.languagetool.synthesis.pl;
 
 import java.io.IOException;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-import morfologik.stemming.Dictionary;
-import morfologik.stemming.DictionaryLookup;
 import morfologik.stemming.IStemmer;
 import morfologik.stemming.WordData;
 
 import org.languagetool.AnalyzedToken;
-import org.languagetool.JLanguageTool;
-import org.languagetool.synthesis.Synthesizer;
-import org.languagetool.synthesis.SynthesizerTools;
+import org.languagetool.synthesis.BaseSynthesizer;
 
 /**
  * Polish word form synthesizer. Based on project Morfologik.
@@ -42,7 +35,7 @@ import org.languagetool.synthesis.SynthesizerTools;
  * @author Marcin Milkowski
  */
 
-public class PolishSynthesizer implements Synthesizer {
+public class PolishSynthesizer extends BaseSynthesizer {
 
   private static final String RESOURCE_FILENAME = "/pl/polish_synth.dict";
   private static final String TAGS_FILE_NAME = "/pl/polish_tags.txt";
@@ -52,30 +45,17 @@ public class PolishSynthesizer implements Synthesizer {
   private static final String COMP_TAG = "com";
   private static final String SUP_TAG = "sup";
 
-  private volatile Dictionary dictionary;
-  private List<String> possibleTags;
-
-  private Dictionary getDictionary() throws IOException {
-    Dictionary result = this.dictionary;
-    if (result == null) {
-      synchronized (this) {
-        result = this.dictionary;
-        if (result == null) {
-          final URL url = JLanguageTool.getDataBroker().getFromResourceDirAsUrl(RESOURCE_FILENAME);
-          this.dictionary = result = Dictionary.read(url);
-        }
-      }
-    }
-    return result;
+  public PolishSynthesizer() {
+    super(RESOURCE_FILENAME, TAGS_FILE_NAME);
   }
-  
+
   @Override
   public final String[] synthesize(final AnalyzedToken token,
       final String posTag) throws IOException {
     if (posTag == null) {
       return null;
     }
-    final IStemmer synthesizer = new DictionaryLookup(getDictionary());
+    final IStemmer synthesizer = getStemmer();
     boolean isNegated = false;
     if (token.getPOSTag() != null) {
       isNegated = posTag.indexOf(NEGATION_TAG) > 0
@@ -97,11 +77,7 @@ public class PolishSynthesizer implements Synthesizer {
     }
     String posTag = pos;
     if (posTagRegExp) {
-      if (possibleTags == null) {
-        possibleTags = SynthesizerTools.loadWords(JLanguageTool.getDataBroker().
-            getFromResourceDirAsStream(TAGS_FILE_NAME));
-      }
-      final IStemmer synthesizer = new DictionaryLookup(getDictionary());
+      final IStemmer synthesizer = getStemmer();
       final List<String> results = new ArrayList<>();
 
       boolean isNegated = false;
@@ -116,15 +92,10 @@ public class PolishSynthesizer implements Synthesizer {
         posTag = posTag.replaceAll(NEGATION_TAG, POTENTIAL_NEGATION_TAG + "?");
       }
 
-  
-      final Pattern p = Pattern.compile(posTag.replace('+', '|'));
-      for (final String tag : possibleTags) {
-        final Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          final List<String> wordForms = getWordForms(token, tag, isNegated, synthesizer);
-          if (wordForms != null) {
-            results.addAll(wordForms);
-          }
+      for (final String tag : getMatchingTags(posTag.replace('+', '|'))) {
+        final List<String> wordForms = getWordForms(token, tag, isNegated, synthesizer);
+        if (wordForms != null) {
+          results.addAll(wordForms);
         }
       }
       //remove duplicates
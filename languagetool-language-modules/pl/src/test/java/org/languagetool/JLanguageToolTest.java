@@ -85,7 +85,7 @@ public class JLanguageToolTest extends TestCase {
     assertEquals(17, matches.get(0).getColumn());
     //with a space...
     matches = tool.check("To jest tekst. \nTest 1. To jest linia w której nie ma przecinka.");
-    assertEquals(16, matches.get(0).getColumn());
+    assertEquals(17, matches.get(0).getColumn());
     matches = tool.check("To jest tekst. Test 1. To jest linia w której nie ma przecinka.");
     assertEquals(32, matches.get(0).getColumn());
     //recheck with the -b mode...
@@ -20,7 +20,10 @@
 package org.languagetool.synthesis.pl;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
 
 import junit.framework.TestCase;
 
@@ -47,6 +50,28 @@ public class PolishSynthesizerTest extends TestCase {
                   getSortedArray(synth.synthesize(dummyToken("mieć"), ".*praet:sg.*", true))));
   }
 
+  public final void testSynthesizeFromSeveralThreads() throws Exception {
+    final PolishSynthesizer synth = new PolishSynthesizer();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<String>> futures = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        futures.add(executor.submit(new Callable<String>() {
+          @Override
+          public String call() throws IOException {
+            return Arrays.toString(synth.synthesize(dummyToken("Aaron"), "subst:sg:gen:m1"))
+                + Arrays.toString(getSortedArray(synth.synthesize(dummyToken("toner"), "subst:sg:gen:m.*", true)));
+          }
+        }));
+      }
+      for (Future<String> future : futures) {
+        assertEquals("[Aarona][tonera]", future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   private AnalyzedToken dummyToken(String tokenStr) {
     return new AnalyzedToken(tokenStr, tokenStr, tokenStr);
   }
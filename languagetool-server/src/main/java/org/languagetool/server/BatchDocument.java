@@ -0,0 +1,175 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.CancellationToken;
+import org.languagetool.Language;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One document of a batch check request, together with the result of its check.
+ * The result is set by the check thread and read by the thread that writes the
+ * response. Thread-safe.
+ * @since 2.9
+ */
+class BatchDocument {
+
+  final int index;
+  final String text;
+  // the 'language' parameter, used as the fallback for language detection:
+  @Nullable
+  final String languageParam;
+  @Nullable
+  final Language motherTongue;
+  final QueryParams params;
+  final LoadMonitor.Mode mode;
+
+  private final CountDownLatch done = new CountDownLatch(1);
+
+  private volatile Language language;
+  private volatile JLanguageToolPool.Key key;
+  private volatile List<RuleMatch> matches;
+  private volatile Exception error;
+  private volatile CancellationToken cancellationToken;
+  private volatile boolean cancelled;
+
+  /**
+   * @param language the language of the text, or {@code null} if it is yet to be detected
+   *                 with {@link #setLanguage(Language)}
+   */
+  BatchDocument(int index, String text, @Nullable Language language, @Nullable String languageParam,
+                @Nullable Language motherTongue, QueryParams params, LoadMonitor.Mode mode) {
+    this.index = index;
+    this.text = text;
+    this.languageParam = languageParam;
+    this.motherTongue = motherTongue;
+    this.params = params;
+    this.mode = mode;
+    if (language != null) {
+      setLanguage(language);
+    }
+  }
+
+  /**
+   * Set the detected language, called by the check thread before the check.
+   */
+  void setLanguage(Language language) {
+    this.key = new JLanguageToolPool.Key(language, motherTongue, params, mode);
+    this.language = language;
+  }
+
+  /**
+   * The language of the text, or {@code null} if it has not been detected yet.
+   */
+  @Nullable
+  Language getLanguage() {
+    return language;
+  }
+
+  /**
+   * The key of the pooled instances for this document, or {@code null} if the language has not been detected yet.
+   */
+  @Nullable
+  JLanguageToolPool.Key getKey() {
+    return key;
+  }
+
+  /**
+   * Called by the check thread before the check starts.
+   * @return {@code false} if the document should not be checked anymore
+   */
+  boolean start(CancellationToken token) {
+    cancellationToken = token;
+    if (cancelled) {
+      token.cancel();
+    }
+    return !cancelled;
+  }
+
+  /**
+   * Set the result, unless the document is already done (e.g. because the response
+   * stopped waiting for it).
+   */
+  synchronized void setMatches(List<RuleMatch> matches) {
+    if (!isDone()) {
+      this.matches = matches;
+      done.countDown();
+    }
+  }
+
+  /**
+   * Let the check fail, unless the document is already done.
+   */
+  synchronized void setError(Exception error) {
+    if (!isDone()) {
+      this.error = error;
+      done.countDown();
+    }
+  }
+
+  /**
+   * Stop the check of this document, or don't start it at all.
+   */
+  void cancel() {
+    cancelled = true;
+    CancellationToken token = cancellationToken;
+    if (token != null) {
+      token.cancel();
+    }
+  }
+
+  boolean isDone() {
+    return done.getCount() == 0;
+  }
+
+  /**
+   * Wait until the check of this document is done.
+   * @param timeoutMillis the maximum time to wait, negative to wait without a limit
+   * @return {@code false} if the check is not done after the given time
+   */
+  boolean awaitResult(long timeoutMillis) throws InterruptedException {
+    if (timeoutMillis < 0) {
+      done.await();
+      return true;
+    }
+    return done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * The matches found, or {@code null} if the check failed.
+   */
+  @Nullable
+  List<RuleMatch> getMatches() {
+    return matches;
+  }
+
+  /**
+   * The reason why the check failed, or {@code null} if it didn't fail.
+   */
+  @Nullable
+  Exception getError() {
+    return error;
+  }
+
+}
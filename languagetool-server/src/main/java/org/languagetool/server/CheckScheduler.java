@@ -0,0 +1,332 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The queue of checks waiting for a check thread, used instead of a FIFO queue if the
+ * server's {@code scheduler} is set to {@code fair}. Only {@link ScheduledCheck}s can be queued.
+ * Checks are taken in this order:
+ * <ul>
+ *   <li>Interactive checks come before bulk checks (batch requests and long texts), but if both
+ *     are waiting, a bulk check is taken after every {@value #INTERACTIVE_TURNS} interactive checks,
+ *     so bulk traffic is slowed down but never stopped.</li>
+ *   <li>Inside each of these two lanes, checks are ordered by a virtual finish time: a check starts
+ *     when the previous check of the same client is finished, and it takes as long as its estimated
+ *     cost, i.e. the text length multiplied by the average time per character measured for its
+ *     language. So short checks come first, and a client that sends many checks at once mostly
+ *     delays its own checks.</li>
+ * </ul>
+ * If the given number of checks is waiting already, further checks are rejected.
+ * Thread-safe.
+ * @since 2.9
+ */
+class CheckScheduler extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+  /** Texts with at least this many characters are checked in the bulk lane. */
+  static final int BULK_TEXT_LENGTH = 10000;
+  static final int INTERACTIVE_TURNS = 5;
+
+  private static final int MAX_TRACKED_CLIENTS = 1000;
+  // weight of a new measurement in the average time per character:
+  private static final double COST_SMOOTHING = 0.1;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Lane interactive = new Lane();
+  private final Lane bulk = new Lane();
+  private final Map<String, Double> languageCosts = new HashMap<>();
+  private final int capacity;
+
+  private double defaultCost = 1.0;
+  private boolean costMeasured;
+  private long sequence;
+  private int interactiveTurns;
+
+  /**
+   * @param capacity the maximum number of waiting checks
+   */
+  CheckScheduler(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+    }
+    this.capacity = capacity;
+  }
+
+  /**
+   * Let the scheduler know how long a check took, so it can estimate the cost of later checks.
+   * @param language the language's short name with country and variant
+   */
+  void recordCheckTime(String language, int textLength, long millis) {
+    double costPerChar = (double) Math.max(millis, 1) / Math.max(textLength, 1);
+    lock.lock();
+    try {
+      Double oldCost = languageCosts.get(language);
+      languageCosts.put(language, oldCost == null ? costPerChar : smooth(oldCost, costPerChar));
+      defaultCost = costMeasured ? smooth(defaultCost, costPerChar) : costPerChar;
+      costMeasured = true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The estimated cost of the check, in the unit used by {@link #recordCheckTime(String, int, long)}.
+   */
+  double getCost(ScheduledCheck<?> check) {
+    lock.lock();
+    try {
+      Double costPerChar = languageCosts.get(check.language);
+      return Math.max(check.textLength, 1) * (costPerChar != null ? costPerChar : defaultCost);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private double smooth(double average, double value) {
+    return (1 - COST_SMOOTHING) * average + COST_SMOOTHING * value;
+  }
+
+  @Override
+  public boolean offer(Runnable runnable) {
+    if (!(runnable instanceof ScheduledCheck)) {
+      throw new IllegalArgumentException("Only a " + ScheduledCheck.class.getSimpleName() + " can be scheduled: " + runnable);
+    }
+    ScheduledCheck<?> check = (ScheduledCheck<?>) runnable;
+    lock.lock();
+    try {
+      if (size() >= capacity) {
+        return false;
+      }
+      Lane lane = check.bulk ? bulk : interactive;
+      lane.add(check, getCost(check), sequence++);
+      notEmpty.signal();
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean offer(Runnable runnable, long timeout, TimeUnit unit) {
+    return offer(runnable);  // never blocks, checks that don't fit are rejected at once
+  }
+
+  @Override
+  public void put(Runnable runnable) {
+    if (!offer(runnable)) {
+      throw new IllegalStateException("Queue full, " + capacity + " checks are waiting already");
+    }
+  }
+
+  @Override
+  public Runnable poll() {
+    lock.lock();
+    try {
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (size() == 0) {
+        notEmpty.await();
+      }
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (size() == 0) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Runnable peek() {
+    lock.lock();
+    try {
+      return isBulkTurn() ? bulk.checks.peek() : interactive.checks.peek();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return interactive.checks.size() + bulk.checks.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int remainingCapacity() {
+    lock.lock();
+    try {
+      return Math.max(capacity - size(), 0);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    lock.lock();
+    try {
+      return interactive.checks.remove(o) || bulk.checks.remove(o);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int drainTo(Collection<? super Runnable> c) {
+    return drainTo(c, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public int drainTo(Collection<? super Runnable> c, int maxElements) {
+    lock.lock();
+    try {
+      int count = 0;
+      Runnable runnable;
+      while (count < maxElements && (runnable = dequeue()) != null) {
+        c.add(runnable);
+        count++;
+      }
+      return count;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * A snapshot of the waiting checks, not in any particular order.
+   */
+  @Override
+  public Iterator<Runnable> iterator() {
+    final List<Runnable> snapshot = new ArrayList<>();
+    lock.lock();
+    try {
+      snapshot.addAll(interactive.checks);
+      snapshot.addAll(bulk.checks);
+    } finally {
+      lock.unlock();
+    }
+    final Iterator<Runnable> iterator = snapshot.iterator();
+    return new Iterator<Runnable>() {
+      private Runnable current;
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+      @Override
+      public Runnable next() {
+        current = iterator.next();
+        return current;
+      }
+      @Override
+      public void remove() {
+        CheckScheduler.this.remove(current);
+      }
+    };
+  }
+
+  private boolean isBulkTurn() {
+    return !bulk.checks.isEmpty() && (interactive.checks.isEmpty() || interactiveTurns >= INTERACTIVE_TURNS);
+  }
+
+  private Runnable dequeue() {
+    if (isBulkTurn()) {
+      interactiveTurns = 0;
+      return bulk.poll();
+    }
+    if (interactive.checks.isEmpty()) {
+      return null;
+    }
+    interactiveTurns++;
+    return interactive.poll();
+  }
+
+  private static class Lane {
+
+    private final PriorityQueue<ScheduledCheck<?>> checks = new PriorityQueue<>(16, new Comparator<ScheduledCheck<?>>() {
+      @Override
+      public int compare(ScheduledCheck<?> c1, ScheduledCheck<?> c2) {
+        int result = Double.compare(c1.finishTag, c2.finishTag);
+        return result != 0 ? result : Long.compare(c1.sequence, c2.sequence);
+      }
+    });
+    // the virtual finish time of each client's last check:
+    private final Map<String, Double> clientFinishTags = new HashMap<>();
+    private double virtualTime;
+
+    private void add(ScheduledCheck<?> check, double cost, long sequence) {
+      Double lastFinishTag = clientFinishTags.get(check.client);
+      double startTag = lastFinishTag != null ? Math.max(virtualTime, lastFinishTag) : virtualTime;
+      check.finishTag = startTag + cost;
+      check.sequence = sequence;
+      clientFinishTags.put(check.client, check.finishTag);
+      checks.add(check);
+    }
+
+    private ScheduledCheck<?> poll() {
+      ScheduledCheck<?> check = checks.poll();
+      virtualTime = Math.max(virtualTime, check.finishTag);
+      if (checks.isEmpty()) {
+        // all finish tags are in the past now, so they don't matter anymore:
+        clientFinishTags.clear();
+      } else if (clientFinishTags.size() > MAX_TRACKED_CLIENTS) {
+        Iterator<Double> iterator = clientFinishTags.values().iterator();
+        while (iterator.hasNext()) {
+          if (iterator.next() <= virtualTime) {
+            iterator.remove();
+          }
+        }
+      }
+      return check;
+    }
+  }
+
+}
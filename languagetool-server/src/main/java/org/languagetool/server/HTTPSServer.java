@@ -22,6 +22,7 @@ import com.sun.net.httpserver.HttpsConfigurator;
 import com.sun.net.httpserver.HttpsParameters;
 import com.sun.net.httpserver.HttpsServer;
 import org.languagetool.JLanguageTool;
+import org.languagetool.ResultCache;
 import org.languagetool.gui.Tools;
 
 import javax.net.ssl.KeyManagerFactory;
@@ -70,8 +71,11 @@ public class HTTPSServer extends Server {
       ((HttpsServer)server).setHttpsConfigurator(configurator);
       final RequestLimiter limiter = getRequestLimiterOrNull(config);
       final LinkedBlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>();
-      httpHandler = new LanguageToolHttpHandler(config.isVerbose(), allowedIps, runInternally, limiter, workQueue);
+      httpHandler = new LanguageToolHttpHandler(config.isVerbose(), allowedIps, runInternally, limiter, workQueue,
+              config.getMaxCheckThreads(), getCheckSchedulerOrNull(config));
       httpHandler.setMaxTextLength(config.getMaxTextLength());
+      httpHandler.setMaxBatchSize(config.getMaxBatchSize());
+      httpHandler.setMaxBatchTextLength(config.getMaxBatchTextLength());
       httpHandler.setAllowOriginUrl(config.getAllowOriginUrl());
       httpHandler.setMaxCheckTimeMillis(config.getMaxCheckTimeMillis());
       httpHandler.setTrustXForwardForHeader(config.getTrustXForwardForHeader());
@@ -80,6 +84,12 @@ public class HTTPSServer extends Server {
       }
       httpHandler.setLanguageModel(config.getLanguageModelDir());
       httpHandler.setMaxWorkQueueSize(config.getMaxWorkQueueSize());
+      httpHandler.setLanguageToolPool(getLanguageToolPool(config));
+      httpHandler.setLoadMonitor(getLoadMonitorOrNull(config));
+      httpHandler.setWarmUpLanguages(config.getPreloadLanguages());
+      if (config.getCacheSize() > 0) {
+        httpHandler.setCache(new ResultCache(config.getCacheSize()));
+      }
       server.createContext("/", httpHandler);
       executorService = getExecutorService(workQueue, config);
       server.setExecutor(executorService);
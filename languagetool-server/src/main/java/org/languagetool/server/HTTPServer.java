@@ -20,6 +20,7 @@ package org.languagetool.server;
 
 import com.sun.net.httpserver.HttpServer;
 import org.languagetool.JLanguageTool;
+import org.languagetool.ResultCache;
 import org.languagetool.gui.Tools;
 
 import java.net.InetSocketAddress;
@@ -96,8 +97,11 @@ public class HTTPServer extends Server {
       server = HttpServer.create(address, 0);
       final RequestLimiter limiter = getRequestLimiterOrNull(config);
       final LinkedBlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>();
-      httpHandler = new LanguageToolHttpHandler(config.isVerbose(), allowedIps, runInternally, limiter, workQueue);
+      httpHandler = new LanguageToolHttpHandler(config.isVerbose(), allowedIps, runInternally, limiter, workQueue,
+              config.getMaxCheckThreads(), getCheckSchedulerOrNull(config));
       httpHandler.setMaxTextLength(config.getMaxTextLength());
+      httpHandler.setMaxBatchSize(config.getMaxBatchSize());
+      httpHandler.setMaxBatchTextLength(config.getMaxBatchTextLength());
       httpHandler.setAllowOriginUrl(config.getAllowOriginUrl());
       httpHandler.setMaxCheckTimeMillis(config.getMaxCheckTimeMillis());
       httpHandler.setTrustXForwardForHeader(config.getTrustXForwardForHeader());
@@ -106,6 +110,12 @@ public class HTTPServer extends Server {
       }
       httpHandler.setLanguageModel(config.getLanguageModelDir());
       httpHandler.setMaxWorkQueueSize(config.getMaxWorkQueueSize());
+      httpHandler.setLanguageToolPool(getLanguageToolPool(config));
+      httpHandler.setLoadMonitor(getLoadMonitorOrNull(config));
+      httpHandler.setWarmUpLanguages(config.getPreloadLanguages());
+      if (config.getCacheSize() > 0) {
+        httpHandler.setCache(new ResultCache(config.getCacheSize()));
+      }
       server.createContext("/", httpHandler);
       executorService = getExecutorService(workQueue, config);
       server.setExecutor(executorService);
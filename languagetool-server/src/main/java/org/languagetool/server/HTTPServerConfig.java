@@ -25,6 +25,10 @@ import org.languagetool.Languages;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
 
 /**
@@ -34,6 +38,9 @@ public class HTTPServerConfig {
 
   enum Mode { LanguageTool, AfterTheDeadline }
 
+  /** The order in which waiting checks get a check thread. */
+  enum Scheduler { Fifo, Fair }
+
   public static final String DEFAULT_HOST = "localhost";
 
   /** The default port on which the server is running (8081). */
@@ -53,6 +60,18 @@ public class HTTPServerConfig {
   protected int requestLimitPeriodInSeconds;
   protected boolean trustXForwardForHeader;
   protected int maxWorkQueueSize;
+  protected int instancePoolSize = 10;
+  protected int instancePoolTotalSize = 50;
+  protected int instancePoolIdleSeconds = 300;
+  protected int cacheSize = 0;
+  protected int maxBatchSize = 100;
+  protected int maxBatchTextLength = -1;
+  protected Scheduler scheduler = Scheduler.Fifo;
+  protected int maxWaitingChecks = 50;
+  protected int degradedModeQueueSize = 0;
+  protected long degradedModeWaitMillis = 0;
+  protected List<String> degradedModeDisabledRules = new ArrayList<>();
+  protected List<Language> preloadLanguages = new ArrayList<>();
 
   /**
    * Create a server configuration for the default port ({@link #DEFAULT_PORT}).
@@ -114,6 +133,10 @@ public class HTTPServerConfig {
         maxCheckTimeMillis = Long.parseLong(getOptionalProperty(props, "maxCheckTimeMillis", "-1"));
         requestLimit = Integer.parseInt(getOptionalProperty(props, "requestLimit", "0"));
         requestLimitPeriodInSeconds = Integer.parseInt(getOptionalProperty(props, "requestLimitPeriodInSeconds", "0"));
+        if (requestLimit < 0 || requestLimitPeriodInSeconds < 0) {
+          throw new IllegalArgumentException("Invalid value for requestLimit or requestLimitPeriodInSeconds: "
+                  + requestLimit + ", " + requestLimitPeriodInSeconds);
+        }
         trustXForwardForHeader = Boolean.valueOf(getOptionalProperty(props, "trustXForwardForHeader", "false"));
         maxWorkQueueSize = Integer.parseInt(getOptionalProperty(props, "maxWorkQueueSize", "0"));
         String langModel = getOptionalProperty(props, "languageModel", null);
@@ -123,6 +146,47 @@ public class HTTPServerConfig {
             throw new RuntimeException("LanguageModel directory not found or is not a directory: " + languageModelDir);
           }
         }
+        instancePoolSize = Integer.parseInt(getOptionalProperty(props, "instancePoolSize", "10"));
+        if (instancePoolSize < 0) {
+          throw new IllegalArgumentException("Invalid value for instancePoolSize: " + instancePoolSize);
+        }
+        instancePoolTotalSize = Integer.parseInt(getOptionalProperty(props, "instancePoolTotalSize", "50"));
+        if (instancePoolTotalSize < 0) {
+          throw new IllegalArgumentException("Invalid value for instancePoolTotalSize: " + instancePoolTotalSize);
+        }
+        instancePoolIdleSeconds = Integer.parseInt(getOptionalProperty(props, "instancePoolIdleSeconds", "300"));
+        if (instancePoolIdleSeconds < 1) {
+          throw new IllegalArgumentException("Invalid value for instancePoolIdleSeconds: " + instancePoolIdleSeconds);
+        }
+        cacheSize = Integer.parseInt(getOptionalProperty(props, "cacheSize", "0"));
+        if (cacheSize < 0) {
+          throw new IllegalArgumentException("Invalid value for cacheSize: " + cacheSize);
+        }
+        maxBatchSize = Integer.parseInt(getOptionalProperty(props, "maxBatchSize", "100"));
+        if (maxBatchSize < 1) {
+          throw new IllegalArgumentException("Invalid value for maxBatchSize: " + maxBatchSize);
+        }
+        maxBatchTextLength = Integer.parseInt(getOptionalProperty(props, "maxBatchTextLength", "-1"));
+        scheduler = getOptionalProperty(props, "scheduler", "fifo").equalsIgnoreCase("fair") ? Scheduler.Fair : Scheduler.Fifo;
+        maxWaitingChecks = Integer.parseInt(getOptionalProperty(props, "maxWaitingChecks", "50"));
+        if (maxWaitingChecks < 0) {
+          throw new IllegalArgumentException("Invalid value for maxWaitingChecks: " + maxWaitingChecks);
+        }
+        degradedModeQueueSize = Integer.parseInt(getOptionalProperty(props, "degradedModeQueueSize", "0"));
+        degradedModeWaitMillis = Long.parseLong(getOptionalProperty(props, "degradedModeWaitMillis", "0"));
+        if (degradedModeQueueSize < 0 || degradedModeWaitMillis < 0) {
+          throw new IllegalArgumentException("Invalid value for degradedModeQueueSize or degradedModeWaitMillis: "
+                  + degradedModeQueueSize + ", " + degradedModeWaitMillis);
+        }
+        String disabledRules = getOptionalProperty(props, "degradedModeDisabledRules", "").trim();
+        degradedModeDisabledRules = disabledRules.isEmpty() ? new ArrayList<String>() : Arrays.asList(disabledRules.split("\\s*,\\s*"));
+        String preloadLangCodes = getOptionalProperty(props, "preloadLanguages", "").trim();
+        preloadLanguages = new ArrayList<>();
+        if (!preloadLangCodes.isEmpty()) {
+          for (String langCode : preloadLangCodes.split("\\s*,\\s*")) {
+            preloadLanguages.add(Languages.getLanguageForShortName(langCode));
+          }
+        }
         maxCheckThreads = Integer.parseInt(getOptionalProperty(props, "maxCheckThreads", "10"));
         if (maxCheckThreads < 1) {
           throw new IllegalArgumentException("Invalid value for maxCheckThreads: " + maxCheckThreads);
@@ -172,10 +236,27 @@ public class HTTPServerConfig {
     return maxTextLength;
   }
 
+  /**
+   * @param requestLimit the maximum number of requests per IP address in the period set with
+   *                     {@link #setRequestLimitPeriodInSeconds(int)}
+   * @since 2.9
+   */
+  void setRequestLimit(int requestLimit) {
+    this.requestLimit = requestLimit;
+  }
+
   int getRequestLimit() {
     return requestLimit;
   }
 
+  /**
+   * @param requestLimitPeriodInSeconds the length of the sliding time window for {@link #setRequestLimit(int)}
+   * @since 2.9
+   */
+  void setRequestLimitPeriodInSeconds(int requestLimitPeriodInSeconds) {
+    this.requestLimitPeriodInSeconds = requestLimitPeriodInSeconds;
+  }
+
   int getRequestLimitPeriodInSeconds() {
     return requestLimitPeriodInSeconds;
   }
@@ -246,6 +327,164 @@ public class HTTPServerConfig {
     return maxWorkQueueSize;
   }
 
+  /**
+   * @param instancePoolSize the maximum number of unused {@link org.languagetool.JLanguageTool} instances kept
+   *                         for re-use per language and rule configuration. Use {@code 0} to create a new
+   *                         instance for every request.
+   * @since 2.9
+   */
+  void setInstancePoolSize(int instancePoolSize) {
+    this.instancePoolSize = instancePoolSize;
+  }
+
+  /** @since 2.9 */
+  int getInstancePoolSize() {
+    return instancePoolSize;
+  }
+
+  /**
+   * @param instancePoolTotalSize the maximum number of unused {@link org.languagetool.JLanguageTool} instances kept
+   *                              for all languages and rule configurations together
+   * @since 2.9
+   */
+  void setInstancePoolTotalSize(int instancePoolTotalSize) {
+    this.instancePoolTotalSize = instancePoolTotalSize;
+  }
+
+  /** @since 2.9 */
+  int getInstancePoolTotalSize() {
+    return instancePoolTotalSize;
+  }
+
+  /**
+   * @param instancePoolIdleSeconds time after which an unused pooled instance gets removed from the pool
+   * @since 2.9
+   */
+  void setInstancePoolIdleSeconds(int instancePoolIdleSeconds) {
+    this.instancePoolIdleSeconds = instancePoolIdleSeconds;
+  }
+
+  /** @since 2.9 */
+  int getInstancePoolIdleSeconds() {
+    return instancePoolIdleSeconds;
+  }
+
+  /**
+   * @param cacheSize the number of sentences whose matches are cached, so re-checking an unchanged
+   *                  sentence is fast. Long sentences and sentences with many matches count as more
+   *                  than one sentence, see {@link org.languagetool.ResultCache#ResultCache(int)}.
+   *                  Use {@code 0} to not cache any matches.
+   * @since 2.9
+   */
+  void setCacheSize(int cacheSize) {
+    this.cacheSize = cacheSize;
+  }
+
+  /** @since 2.9 */
+  int getCacheSize() {
+    return cacheSize;
+  }
+
+  /**
+   * @param maxBatchSize the maximum number of documents in a batch check request sent to {@code /v1/batch}
+   * @since 2.9
+   */
+  void setMaxBatchSize(int maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /** @since 2.9 */
+  int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * @param maxBatchTextLength the maximum length of all documents of a batch check request together,
+   *                           or {@code -1} to use the maximum text length of a single check
+   * @since 2.9
+   */
+  void setMaxBatchTextLength(int maxBatchTextLength) {
+    this.maxBatchTextLength = maxBatchTextLength;
+  }
+
+  /** @since 2.9 */
+  int getMaxBatchTextLength() {
+    return maxBatchTextLength < 0 ? maxTextLength : maxBatchTextLength;
+  }
+
+  /**
+   * @param scheduler {@link Scheduler#Fair} to give short texts and interactive checks priority over long texts and
+   *                  batch requests and to share the check threads fairly between clients, {@link Scheduler#Fifo}
+   *                  to run the checks in the order they arrive
+   * @since 2.9
+   */
+  void setScheduler(Scheduler scheduler) {
+    this.scheduler = Objects.requireNonNull(scheduler);
+  }
+
+  /** @since 2.9 */
+  Scheduler getScheduler() {
+    return scheduler;
+  }
+
+  /**
+   * @param maxWaitingChecks the number of requests that can wait for a check thread in addition to those
+   *                         being checked, only used with the {@link Scheduler#Fair} scheduler, which
+   *                         rejects further checks
+   * @since 2.9
+   */
+  void setMaxWaitingChecks(int maxWaitingChecks) {
+    this.maxWaitingChecks = maxWaitingChecks;
+  }
+
+  /** @since 2.9 */
+  int getMaxWaitingChecks() {
+    return maxWaitingChecks;
+  }
+
+  /**
+   * Check with fewer rules when the server is under load, see {@link LoadMonitor}.
+   * @param queueSize the number of waiting requests at which fewer rules are used, {@code 0} to ignore the queue
+   * @param waitMillis the average time in milliseconds that checks wait for a check thread at which fewer rules
+   *                   are used, {@code 0} to ignore the waiting time
+   * @param disabledRules ids of expensive rules that are not used when checking with fewer rules
+   * @since 2.9
+   */
+  void setDegradedMode(int queueSize, long waitMillis, List<String> disabledRules) {
+    this.degradedModeQueueSize = queueSize;
+    this.degradedModeWaitMillis = waitMillis;
+    this.degradedModeDisabledRules = Objects.requireNonNull(disabledRules);
+  }
+
+  /** @since 2.9 */
+  int getDegradedModeQueueSize() {
+    return degradedModeQueueSize;
+  }
+
+  /** @since 2.9 */
+  long getDegradedModeWaitMillis() {
+    return degradedModeWaitMillis;
+  }
+
+  /** @since 2.9 */
+  List<String> getDegradedModeDisabledRules() {
+    return degradedModeDisabledRules;
+  }
+
+  /**
+   * @param languages languages that are loaded and warmed up when the server starts, see
+   *                  {@link LanguageToolHttpHandler#startWarmUp()}
+   * @since 2.9
+   */
+  void setPreloadLanguages(List<Language> languages) {
+    this.preloadLanguages = Objects.requireNonNull(languages);
+  }
+
+  /** @since 2.9 */
+  List<Language> getPreloadLanguages() {
+    return preloadLanguages;
+  }
+
   /**
    * @throws IllegalConfigurationException if property is not set 
    */
@@ -0,0 +1,116 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of non-negative values like durations or sizes, similar to an HDR
+ * histogram: values are counted in buckets whose width grows with the value, so the
+ * percentiles have a relative error of about 6%, independent of the value range.
+ * Recording a value is a few atomic increments, without any allocation.
+ * @since 2.9
+ */
+class Histogram {
+
+  // each power of two range is split into 2^SUB_BUCKET_BITS buckets:
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * @param value the value to count, negative values are counted as {@code 0}
+   */
+  void record(long value) {
+    long v = Math.max(value, 0);
+    counts.incrementAndGet(getBucket(v));
+    count.incrementAndGet();
+    sum.addAndGet(v);
+    long prevMax = max.get();
+    while (v > prevMax && !max.compareAndSet(prevMax, v)) {
+      prevMax = max.get();
+    }
+  }
+
+  long getCount() {
+    return count.get();
+  }
+
+  long getMax() {
+    return max.get();
+  }
+
+  double getMean() {
+    long n = count.get();
+    return n == 0 ? 0 : (double) sum.get() / n;
+  }
+
+  /**
+   * The value that the given share of the values is smaller than or equal to, rounded up to the
+   * bucket's upper bound, or {@code 0} if nothing has been recorded.
+   * @param percentile a value from {@code 0} to {@code 100}
+   */
+  long getPercentile(double percentile) {
+    long total = 0;
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long threshold = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+    long cumulated = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      cumulated += snapshot[i];
+      if (cumulated >= threshold) {
+        return Math.min(getUpperBound(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  static int getBucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+  }
+
+  static long getUpperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+    int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+    long lowerBound = (1L << (shift + SUB_BUCKET_BITS)) + ((long) subBucket << shift);
+    return lowerBound + (1L << shift) - 1;
+  }
+
+}
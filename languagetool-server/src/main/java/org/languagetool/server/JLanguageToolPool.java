@@ -0,0 +1,227 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A pool of configured {@link JLanguageTool} instances. Creating an instance is expensive
+ * (rules get created, false friends get loaded etc.), so instances are kept after
+ * a check and re-used by later requests with the same language, mother tongue, and
+ * rule configuration. As {@link JLanguageTool} is not thread-safe, an instance
+ * is used by only one thread between {@link #borrow(Key)} and {@link #giveBack(Key, JLanguageTool)}.
+ * Instances that have not been used for a while get removed. As clients can create many
+ * keys by using different rule configurations, the total number of idle instances is limited, too:
+ * if the pool is full, the least recently used instance of any key is removed. Thread-safe.
+ * @since 2.9
+ */
+class JLanguageToolPool {
+
+  // the instances of each key, most recently used first; keys without instances get removed:
+  private final Map<Key, Deque<PooledInstance>> pool = new HashMap<>();
+  private final int maxIdleInstancesPerKey;
+  private final int maxIdleInstances;
+  private final long maxIdleMillis;
+
+  private int idleInstanceCount;
+  private long lastEvictionRun = System.currentTimeMillis();
+
+  /**
+   * @param maxIdleInstancesPerKey the maximum number of unused instances kept per language and rule configuration,
+   *                               use {@code 0} to disable pooling
+   * @param maxIdleInstances the maximum number of unused instances kept for all keys together
+   * @param maxIdleMillis time after which an unused instance gets removed from the pool
+   */
+  JLanguageToolPool(int maxIdleInstancesPerKey, int maxIdleInstances, long maxIdleMillis) {
+    if (maxIdleInstancesPerKey < 0) {
+      throw new IllegalArgumentException("maxIdleInstancesPerKey must be >= 0: " + maxIdleInstancesPerKey);
+    }
+    if (maxIdleInstances < 0) {
+      throw new IllegalArgumentException("maxIdleInstances must be >= 0: " + maxIdleInstances);
+    }
+    if (maxIdleMillis <= 0) {
+      throw new IllegalArgumentException("maxIdleMillis must be > 0: " + maxIdleMillis);
+    }
+    this.maxIdleInstancesPerKey = maxIdleInstancesPerKey;
+    this.maxIdleInstances = maxIdleInstances;
+    this.maxIdleMillis = maxIdleMillis;
+  }
+
+  /**
+   * Get an idle instance for the given key. The caller needs to create a new
+   * instance if this returns {@code null}. Call {@link #giveBack(Key, JLanguageTool)}
+   * when done with the instance.
+   */
+  @Nullable
+  synchronized JLanguageTool borrow(Key key) {
+    evictIdleInstancesIfDue(System.currentTimeMillis());
+    Deque<PooledInstance> instances = pool.get(key);
+    if (instances == null) {
+      return null;
+    }
+    // most recently used first, so that old instances can expire:
+    PooledInstance pooled = instances.pollFirst();
+    if (instances.isEmpty()) {
+      pool.remove(key);
+    }
+    idleInstanceCount--;
+    return pooled.languageTool;
+  }
+
+  /**
+   * Put an instance back into the pool after use. It must not be used anymore
+   * by the caller after this. If the pool is full for this key, the instance is dropped.
+   */
+  synchronized void giveBack(Key key, JLanguageTool languageTool) {
+    long now = System.currentTimeMillis();
+    evictIdleInstancesIfDue(now);
+    if (maxIdleInstancesPerKey == 0 || maxIdleInstances == 0) {
+      return;
+    }
+    Deque<PooledInstance> instances = pool.get(key);
+    if (instances != null && instances.size() >= maxIdleInstancesPerKey) {
+      return;
+    }
+    if (idleInstanceCount >= maxIdleInstances) {
+      removeLeastRecentlyUsed();
+      instances = pool.get(key);  // the key may have lost its last instance
+    }
+    if (instances == null) {
+      instances = new ArrayDeque<>();
+      pool.put(key, instances);
+    }
+    instances.addFirst(new PooledInstance(languageTool, now));
+    idleInstanceCount++;
+  }
+
+  /**
+   * The number of idle instances currently in the pool.
+   */
+  synchronized int getIdleInstanceCount() {
+    return idleInstanceCount;
+  }
+
+  /**
+   * The number of keys that currently have idle instances in the pool.
+   */
+  synchronized int getKeyCount() {
+    return pool.size();
+  }
+
+  private void evictIdleInstancesIfDue(long now) {
+    if (now - lastEvictionRun <= maxIdleMillis) {
+      return;
+    }
+    lastEvictionRun = now;
+    Iterator<Deque<PooledInstance>> iterator = pool.values().iterator();
+    while (iterator.hasNext()) {
+      Deque<PooledInstance> instances = iterator.next();
+      while (!instances.isEmpty() && now - instances.peekLast().lastUsed > maxIdleMillis) {
+        instances.pollLast();
+        idleInstanceCount--;
+      }
+      if (instances.isEmpty()) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private void removeLeastRecentlyUsed() {
+    // the number of keys is limited by maxIdleInstances, so searching them is cheap:
+    Map.Entry<Key, Deque<PooledInstance>> oldest = null;
+    for (Map.Entry<Key, Deque<PooledInstance>> entry : pool.entrySet()) {
+      if (oldest == null || entry.getValue().peekLast().lastUsed < oldest.getValue().peekLast().lastUsed) {
+        oldest = entry;
+      }
+    }
+    if (oldest != null) {
+      oldest.getValue().pollLast();
+      idleInstanceCount--;
+      if (oldest.getValue().isEmpty()) {
+        pool.remove(oldest.getKey());
+      }
+    }
+  }
+
+  /**
+   * Everything that's needed to decide whether an instance can be used for a request.
+   */
+  static class Key {
+
+    private final String language;
+    private final String motherTongue;
+    private final QueryParams params;
+    private final LoadMonitor.Mode mode;
+
+    Key(Language language, @Nullable Language motherTongue, QueryParams params) {
+      this(language, motherTongue, params, LoadMonitor.Mode.NORMAL);
+    }
+
+    /** @param mode the mode the instance has been configured for */
+    Key(Language language, @Nullable Language motherTongue, QueryParams params, LoadMonitor.Mode mode) {
+      this.language = language.getShortNameWithCountryAndVariant();
+      this.motherTongue = motherTongue != null ? motherTongue.getShortNameWithCountryAndVariant() : null;
+      this.params = params;
+      this.mode = mode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key other = (Key) o;
+      return language.equals(other.language)
+              && (motherTongue != null ? motherTongue.equals(other.motherTongue) : other.motherTongue == null)
+              && params.equals(other.params)
+              && mode == other.mode;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = language.hashCode();
+      result = 31 * result + (motherTongue != null ? motherTongue.hashCode() : 0);
+      result = 31 * result + params.hashCode();
+      result = 31 * result + mode.hashCode();
+      return result;
+    }
+
+    @Override
+    public String toString() {
+      return language + "/" + motherTongue + "/" + mode.getName();
+    }
+  }
+
+  private static class PooledInstance {
+    private final JLanguageTool languageTool;
+    private final long lastUsed;
+    private PooledInstance(JLanguageTool languageTool, long lastUsed) {
+      this.languageTool = languageTool;
+      this.lastUsed = lastUsed;
+    }
+  }
+
+}
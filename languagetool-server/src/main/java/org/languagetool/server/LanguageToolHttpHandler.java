@@ -23,16 +23,24 @@ import java.net.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.StringUtils;
 import org.jetbrains.annotations.Nullable;
+import org.languagetool.CancellationToken;
+import org.languagetool.CheckCancelledException;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.Languages;
+import org.languagetool.ResultCache;
 import org.languagetool.gui.Configuration;
 import org.languagetool.language.LanguageIdentifier;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.IncorrectExample;
+import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 import org.languagetool.rules.bitext.BitextRule;
+import org.languagetool.rules.spelling.SpellingCheckRule;
 import org.languagetool.tools.RuleAsXmlSerializer;
 import org.languagetool.tools.StringTools;
 import org.languagetool.tools.Tools;
@@ -46,7 +54,15 @@ class LanguageToolHttpHandler implements HttpHandler {
 
   private static final String CONTENT_TYPE_VALUE = "text/xml; charset=UTF-8";
   private static final String ENCODING = "utf-8";
+  private static final String CHECK_MODE_HEADER = "X-LanguageTool-Check-Mode";
   private static final int CONTEXT_SIZE = 40; // characters
+  // parameters that can be set per document of a batch request, e.g. 'language.3' for the fourth document:
+  private static final String[] DOCUMENT_PARAMETERS = {"text", "language", "autodetect", "motherTongue", "enabled", "disabled", "enabledOnly"};
+
+  // SimpleDateFormat is not thread-safe and expensive to create:
+  private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<>();
+
+  private static final int MAX_WARM_UP_SENTENCES = 100;
 
   private static int handleCount = 0;
 
@@ -55,32 +71,54 @@ class LanguageToolHttpHandler implements HttpHandler {
   private final boolean internalServer;
   private final RequestLimiter requestLimiter;
   private final LinkedBlockingQueue<Runnable> workQueue;
-  private final ExecutorService executorService;
+  private final ThreadPoolExecutor executorService;
+  private final CheckScheduler scheduler;
+  private final ServerStats stats = new ServerStats();
   private final LanguageIdentifier identifier;
   private final Set<String> ownIps;
 
+  private JLanguageToolPool languageToolPool = new JLanguageToolPool(0, 0, 1);
+  private ResultCache cache;
+  private LoadMonitor loadMonitor;
   private long maxCheckTimeMillis = -1;
   private int maxTextLength = Integer.MAX_VALUE;
+  private int maxBatchSize = 100;
+  private int maxBatchTextLength = Integer.MAX_VALUE;
   private String allowOriginUrl;
   private boolean afterTheDeadlineMode;
   private Language afterTheDeadlineLanguage;
   private File languageModelDir;
   private int maxWorkQueueSize;
   private boolean trustXForwardForHeader = false;
+  private List<Language> warmUpLanguages = Collections.emptyList();
+  private ExecutorService warmUpService;
+  private volatile boolean ready = true;
   
   /**
    * Create an instance. Call {@link #shutdown()} when done.
    * @param verbose print the input text in case of exceptions
    * @param allowedIps set of IPs that may connect or <tt>null</tt> to allow any IP
    * @param requestLimiter may be null
+   * @param maxCheckThreads the maximum number of checks running at the same time, further
+   *                        checks are queued up to the same number, more checks are rejected
+   * @param scheduler the queue that decides which waiting check runs next, or {@code null}
+   *                  to run the checks in the order they arrive
    */
-  LanguageToolHttpHandler(boolean verbose, Set<String> allowedIps, boolean internal, RequestLimiter requestLimiter, LinkedBlockingQueue<Runnable> workQueue) {
+  LanguageToolHttpHandler(boolean verbose, Set<String> allowedIps, boolean internal, RequestLimiter requestLimiter,
+                          LinkedBlockingQueue<Runnable> workQueue, int maxCheckThreads, @Nullable CheckScheduler scheduler) {
     this.verbose = verbose;
     this.allowedIps = allowedIps;
     this.internalServer = internal;
     this.requestLimiter = requestLimiter;
     this.workQueue = workQueue;
-    this.executorService = Executors.newCachedThreadPool();
+    this.scheduler = scheduler;
+    // Without a scheduler, there are as many request threads as check threads. Each request
+    // thread waits for its check, and batch requests are checked by their request thread, so
+    // the queue is only used when a cancelled check hasn't stopped yet. With a scheduler, there
+    // are more request threads, and their checks and the documents of batches wait in the
+    // scheduler's queue:
+    final BlockingQueue<Runnable> checkQueue = scheduler != null ? scheduler : new ArrayBlockingQueue<Runnable>(maxCheckThreads);
+    this.executorService = new ThreadPoolExecutor(maxCheckThreads, maxCheckThreads, 0L, TimeUnit.MILLISECONDS, checkQueue);
     this.ownIps = getServersOwnIps();
     this.identifier = new LanguageIdentifier();
   }
@@ -88,6 +126,9 @@ class LanguageToolHttpHandler implements HttpHandler {
   /** @since 2.6 */
   void shutdown() {
     executorService.shutdownNow();
+    if (warmUpService != null) {
+      warmUpService.shutdownNow();
+    }
   }
 
   void setMaxTextLength(int maxTextLength) {
@@ -95,8 +136,24 @@ class LanguageToolHttpHandler implements HttpHandler {
   }
 
   /**
-   * Maximum time allowed per check in milliseconds. If the checking takes longer, it will stop with
-   * an exception. Use {@code -1} for no limit.
+   * @param maxBatchSize the maximum number of documents in a batch check request
+   * @since 2.9
+   */
+  void setMaxBatchSize(int maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * @param maxBatchTextLength the maximum length of all documents of a batch check request together
+   * @since 2.9
+   */
+  void setMaxBatchTextLength(int maxBatchTextLength) {
+    this.maxBatchTextLength = maxBatchTextLength;
+  }
+
+  /**
+   * Maximum time allowed per check in milliseconds. If the checking takes longer, it will be cancelled
+   * and the user gets an error. Use {@code -1} for no limit.
    * @since 2.6
    */
   void setMaxCheckTimeMillis(long maxCheckTimeMillis) {
@@ -145,11 +202,121 @@ class LanguageToolHttpHandler implements HttpHandler {
     this.maxWorkQueueSize = size;
   }
 
+  /**
+   * @param pool pool of {@link JLanguageTool} instances to re-use between requests
+   * @since 2.9
+   */
+  void setLanguageToolPool(JLanguageToolPool pool) {
+    this.languageToolPool = pool;
+  }
+
+  /**
+   * @param cache cache for the matches of the sentences, shared by all {@link JLanguageTool} instances,
+   *              or {@code null} to not cache any matches
+   * @since 2.9
+   */
+  void setCache(@Nullable ResultCache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * @param loadMonitor decides how thoroughly texts are checked depending on the load, or {@code null}
+   *                    to always check with all rules
+   * @since 2.9
+   */
+  void setLoadMonitor(@Nullable LoadMonitor loadMonitor) {
+    this.loadMonitor = loadMonitor;
+  }
+
+  /**
+   * @param languages languages to warm up when the server starts, see {@link #startWarmUp()}
+   * @since 2.9
+   */
+  void setWarmUpLanguages(List<Language> languages) {
+    this.warmUpLanguages = languages;
+    this.ready = languages.isEmpty();
+  }
+
+  /**
+   * Whether the warm-up has finished, see {@link #startWarmUp()}.
+   * @since 2.9
+   */
+  boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Load the warm-up languages in parallel in the background and check some sentences with
+   * each of them, so that the first requests don't need to wait for dictionaries, rules, and
+   * models to be loaded. The sentences are the rules' incorrect examples. Until this is done,
+   * {@code /v1/ready} reports that the server is not ready yet. Requests are served meanwhile.
+   * @since 2.9
+   */
+  void startWarmUp() {
+    if (warmUpLanguages.isEmpty() || warmUpService != null) {
+      return;
+    }
+    final long startTime = System.currentTimeMillis();
+    final int threads = Math.min(warmUpLanguages.size(), Runtime.getRuntime().availableProcessors());
+    warmUpService = Executors.newFixedThreadPool(threads);
+    final AtomicInteger remainingLanguages = new AtomicInteger(warmUpLanguages.size());
+    for (final Language lang : warmUpLanguages) {
+      warmUpService.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            warmUp(lang);
+          } catch (Exception e) {
+            // not fatal, the first requests for this language will just be slower:
+            print("Warm-up failed for " + lang + ": " + e, System.err);
+          } finally {
+            if (remainingLanguages.decrementAndGet() == 0) {
+              ready = true;
+              print("Warm-up of " + warmUpLanguages.size() + " languages done in " + (System.currentTimeMillis() - startTime) + "ms");
+            }
+          }
+        }
+      });
+    }
+    warmUpService.shutdown();
+  }
+
+  private void warmUp(Language lang) throws Exception {
+    final QueryParams params = new QueryParams(new ArrayList<String>(), new ArrayList<String>(), false, false);
+    final JLanguageTool lt = createLanguageToolInstance(lang, null, params, LoadMonitor.Mode.NORMAL);
+    lt.setCache(null);  // don't fill the cache with the examples
+    lt.check(getWarmUpText(lt));
+    lt.setCache(cache);
+    languageToolPool.giveBack(new JLanguageToolPool.Key(lang, null, params), lt);
+  }
+
+  private String getWarmUpText(JLanguageTool lt) {
+    final StringBuilder sb = new StringBuilder();
+    int sentenceCount = 0;
+    for (Rule rule : lt.getAllActiveRules()) {
+      // one example per rule so that the examples come from as many rules as possible:
+      final List<IncorrectExample> examples = rule.getIncorrectExamples();
+      if (examples.size() > 0) {
+        sb.append(examples.get(0).getExample().replaceAll("</?marker>", "")).append("\n\n");
+        if (++sentenceCount >= MAX_WARM_UP_SENTENCES) {
+          break;
+        }
+      }
+    }
+    return sb.toString();
+  }
+
+  /** @since 2.9 */
+  ServerStats getStats() {
+    return stats;
+  }
+
   @Override
   public void handle(HttpExchange httpExchange) throws IOException {
     synchronized (this) {
       handleCount++;
     }
+    stats.countRequest();
     String text = null;
     try {
       final URI requestedUri = httpExchange.getRequestURI();
@@ -160,24 +327,37 @@ class LanguageToolHttpHandler implements HttpHandler {
       // not an error but may make the underlying TCP connection unusable for following exchanges.",
       // so we consume the request now, even before checking for request limits:
       final Map<String, String> parameters = getRequestQuery(httpExchange, requestedUri);
+      final boolean allowedIp = allowedIps == null || allowedIps.contains(origAddress);
+      // monitoring requests are cheap and must still work when the server is busy, so they
+      // don't count against the request limit and aren't rejected because of the queue size:
+      if (allowedIp && requestedUri.getRawPath().endsWith("/v1/ready")) {
+        // request type: whether the warm-up has finished, e.g. for a load balancer
+        printReadiness(httpExchange);
+        return;
+      }
+      if (allowedIp && requestedUri.getRawPath().endsWith("/v1/stats")) {
+        // request type: server statistics
+        printStats(httpExchange);
+        return;
+      }
       if (requestLimiter != null && !requestLimiter.isAccessOkay(remoteAddress)) {
-        final String errorMessage = "Error: Access from " + remoteAddress +
-                " denied - too many requests. Allowed maximum requests: " + requestLimiter.getRequestLimit() +
-                " requests per " + requestLimiter.getRequestLimitPeriodInSeconds() + " seconds";
-        sendError(httpExchange, HttpURLConnection.HTTP_FORBIDDEN, errorMessage);
-        print(errorMessage);
+        sendTooManyRequestsError(httpExchange, remoteAddress, "");
         return;
       }
       if (maxWorkQueueSize != 0 && workQueue.size() > maxWorkQueueSize) {
         String response = "Error: There are currently too many parallel requests. Please try again later.";
         print(response + " Queue size: " + workQueue.size() + ", maximum size: " + maxWorkQueueSize);
+        stats.countRejected();
         sendError(httpExchange, HttpURLConnection.HTTP_UNAVAILABLE, "Error: " + response);
         return;
       }
-      if (allowedIps == null || allowedIps.contains(origAddress)) {
+      if (allowedIp) {
         if (requestedUri.getRawPath().endsWith("/Languages")) {
           // request type: list known languages
           printListOfLanguages(httpExchange);
+        } else if (requestedUri.getRawPath().endsWith("/v1/batch")) {
+          // request type: checking many documents at once
+          checkBatch(httpExchange, parameters, remoteAddress);
         } else {
           // request type: text checking
           if (afterTheDeadlineMode) {
@@ -192,7 +372,7 @@ class LanguageToolHttpHandler implements HttpHandler {
               throw new IllegalArgumentException("Missing 'text' parameter");
             }
           }
-          checkText(text, httpExchange, parameters);
+          checkText(text, httpExchange, parameters, remoteAddress);
         }
       } else {
         final String errorMessage = "Error: Access from " + StringTools.escapeXML(origAddress) + " denied";
@@ -209,14 +389,20 @@ class LanguageToolHttpHandler implements HttpHandler {
       e.printStackTrace();
       String response;
       int errorCode;
-      if (e instanceof TextTooLongException) {
+      if (e instanceof TextTooLongException || e instanceof BatchTooLargeException) {
         errorCode = HttpURLConnection.HTTP_ENTITY_TOO_LARGE;
         response = e.getMessage();
-      } else if (e.getCause() != null && e.getCause() instanceof TimeoutException) {
+      } else if (e instanceof RejectedExecutionException) {
+        stats.countRejected();
+        errorCode = HttpURLConnection.HTTP_UNAVAILABLE;
+        response = "There are currently too many parallel requests. Please try again later.";
+      } else if (e.getCause() != null && (e.getCause() instanceof TimeoutException || e.getCause() instanceof CheckCancelledException)) {
+        stats.countTimeout();
         errorCode = HttpURLConnection.HTTP_UNAVAILABLE;
         response = "Checking took longer than " + maxCheckTimeMillis/1000 + " seconds, which is this server's limit. " +
                    "Please make sure you have selected the proper language or consider submitting a shorter text.";
       } else {
+        stats.countError();
         response = Tools.getFullStackTrace(e);
         errorCode = HttpURLConnection.HTTP_INTERNAL_ERROR;
       }
@@ -281,6 +467,15 @@ class LanguageToolHttpHandler implements HttpHandler {
     return lastIp;
   }
 
+  private void sendTooManyRequestsError(HttpExchange httpExchange, String remoteAddress, String details) throws IOException {
+    final String errorMessage = "Error: Access from " + remoteAddress +
+            " denied - too many requests. Allowed maximum requests: " + requestLimiter.getRequestLimit() +
+            " requests per " + requestLimiter.getRequestLimitPeriodInSeconds() + " seconds" + details;
+    stats.countRejected();
+    sendError(httpExchange, HttpURLConnection.HTTP_FORBIDDEN, errorMessage);
+    print(errorMessage);
+  }
+
   private void sendError(HttpExchange httpExchange, int httpReturnCode, String response) throws IOException {
     if (afterTheDeadlineMode) {
       String xmlResponse = "<results><message>" + escapeForXmlContent(response) + "</message></results>";
@@ -309,6 +504,22 @@ class LanguageToolHttpHandler implements HttpHandler {
     httpExchange.getResponseBody().write(response.getBytes(ENCODING));
   }
 
+  private void printStats(HttpExchange httpExchange) throws IOException {
+    setCommonHeaders(httpExchange);
+    final String response = stats.toXml(workQueue.size(), executorService.getQueue().size(), cache);
+    final byte[] bytes = response.getBytes(ENCODING);
+    httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, bytes.length);
+    httpExchange.getResponseBody().write(bytes);
+  }
+
+  private void printReadiness(HttpExchange httpExchange) throws IOException {
+    setCommonHeaders(httpExchange);
+    final String response = "<ready>" + ready + "</ready>\n";
+    final byte[] bytes = response.getBytes(ENCODING);
+    httpExchange.sendResponseHeaders(ready ? HttpURLConnection.HTTP_OK : HttpURLConnection.HTTP_UNAVAILABLE, bytes.length);
+    httpExchange.getResponseBody().write(bytes);
+  }
+
   private void setCommonHeaders(HttpExchange httpExchange) {
     httpExchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE_VALUE);
     if (allowOriginUrl != null) {
@@ -327,43 +538,35 @@ class LanguageToolHttpHandler implements HttpHandler {
     return lang;
   }
 
-  private void checkText(final String text, final HttpExchange httpExchange, final Map<String, String> parameters) throws Exception {
+  private void checkText(final String text, final HttpExchange httpExchange, final Map<String, String> parameters,
+                         String remoteAddress) throws Exception {
     final long timeStart = System.currentTimeMillis();
-    if (text.length() > maxTextLength) {
-      throw new TextTooLongException("Your text is " + text.length() + " characters long, which longer " +
-              "than this server's limit of " + maxTextLength + " characters. Please consider submitting a shorter text.");
-    }
+    checkTextLength(text);
     //print("Check start: " + text.length() + " chars, " + langParam);
     final boolean autoDetectLanguage = getLanguageAutoDetect(parameters);
     final Language lang = getLanguage(text, parameters.get("language"), autoDetectLanguage);
-    final String motherTongueParam = parameters.get("motherTongue");
-    final Language motherTongue = motherTongueParam != null ? Languages.getLanguageForShortName(motherTongueParam) : null;
-    final boolean useEnabledOnly = "yes".equals(parameters.get("enabledOnly"));
-    final String enabledParam = parameters.get("enabled");
-    final List<String> enabledRules = new ArrayList<>();
-    if (enabledParam != null) {
-      enabledRules.addAll(Arrays.asList(enabledParam.split(",")));
-    }
-    
-    final String disabledParam = parameters.get("disabled");
-    final List<String> disabledRules = new ArrayList<>();
-    if (disabledParam != null) {
-      disabledRules.addAll(Arrays.asList(disabledParam.split(",")));
-    }
-
-    if (disabledRules.size() > 0 && useEnabledOnly) {
-      throw new IllegalArgumentException("You cannot specify disabled rules using enabledOnly=yes");
-    }
-    
-    final boolean useQuerySettings = enabledRules.size() > 0 || disabledRules.size() > 0;
-    final QueryParams params = new QueryParams(enabledRules, disabledRules, useEnabledOnly, useQuerySettings);
+    final Language motherTongue = getMotherTongue(parameters);
+    final QueryParams params = getQueryParams(parameters);
+    final LoadMonitor.Mode mode = getCheckMode();
     
-    final Future<List<RuleMatch>> future = executorService.submit(new Callable<List<RuleMatch>>() {
+    final CancellationToken cancellationToken =
+            maxCheckTimeMillis < 0 ? new CancellationToken() : new CancellationToken(maxCheckTimeMillis);
+    final long submitTime = System.currentTimeMillis();
+    final ScheduledCheck<List<RuleMatch>> future = new ScheduledCheck<>(new Callable<List<RuleMatch>>() {
       @Override
       public List<RuleMatch> call() throws Exception {
-        return getRuleMatches(text, parameters, lang, motherTongue, params);
+        final long checkStart = System.currentTimeMillis();
+        recordWaitTime(checkStart - submitTime);
+        final List<RuleMatch> matches = getRuleMatches(text, parameters, lang, motherTongue, params, mode, cancellationToken);
+        final long checkTime = System.currentTimeMillis() - checkStart;
+        stats.recordStage(ServerStats.Stage.CHECK, checkTime);
+        if (scheduler != null) {
+          scheduler.recordCheckTime(lang.getShortNameWithCountryAndVariant(), text.length(), checkTime);
+        }
+        return matches;
       }
-    });
+    }, remoteAddress, lang.getShortNameWithCountryAndVariant(), text.length(), text.length() >= CheckScheduler.BULK_TEXT_LENGTH);
+    executorService.execute(future);
     final List<RuleMatch> matches;
     if (maxCheckTimeMillis < 0) {
       matches = future.get();
@@ -371,6 +574,9 @@ class LanguageToolHttpHandler implements HttpHandler {
       try {
         matches = future.get(maxCheckTimeMillis, TimeUnit.MILLISECONDS);
       } catch (TimeoutException e) {
+        // stop the check so it doesn't keep using resources, or don't start it at all:
+        cancellationToken.cancel();
+        future.cancel(false);
         throw new RuntimeException("Text checking took longer than allowed maximum of " + maxCheckTimeMillis +
                 " milliseconds (handleCount: " + handleCount + ", queue size: " + workQueue.size() +
                 ", language: " + lang.getShortNameWithCountryAndVariant() +
@@ -379,26 +585,350 @@ class LanguageToolHttpHandler implements HttpHandler {
     }
     
     setCommonHeaders(httpExchange);
-    String xmlResponse = getXmlResponse(text, lang, motherTongue, matches);
+    httpExchange.getResponseHeaders().set(CHECK_MODE_HEADER, mode.getName());
     String messageSent = "sent";
     String languageMessage = lang.getShortNameWithCountryAndVariant();
     final String referrer = httpExchange.getRequestHeaders().getFirst("Referer");
+    final long responseStart = System.currentTimeMillis();
     try {
-      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, xmlResponse.getBytes(ENCODING).length);
-      httpExchange.getResponseBody().write(xmlResponse.getBytes(ENCODING));
+      writeXmlResponse(httpExchange, text, lang, motherTongue, matches);
       if (motherTongue != null) {
         languageMessage += " (mother tongue: " + motherTongue.getShortNameWithCountryAndVariant() + ")";
       }
+      if (mode != LoadMonitor.Mode.NORMAL) {
+        languageMessage += " (mode: " + mode.getName() + ")";
+      }
     } catch (IOException exception) {
       // the client is disconnected
       messageSent = "notSent: " + exception.getMessage();
     }
+    final long timeEnd = System.currentTimeMillis();
+    stats.recordStage(ServerStats.Stage.RESPONSE, timeEnd - responseStart);
+    stats.recordCheck(lang.getShortNameWithCountryAndVariant(), text.length(), matches.size(), timeEnd - timeStart);
+    stats.countMode(mode);
     print("Check done: " + text.length() + " chars, " + languageMessage + ", " + referrer + ", "
             + "handlers:" + handleCount + ", queue:" + workQueue.size() + ", " + matches.size() + " matches, "
-            + (System.currentTimeMillis() - timeStart) + "ms"
+            + (timeEnd - timeStart) + "ms"
             + ", " + messageSent);
   }
 
+  /**
+   * Check all documents of a batch request. The documents are given as {@code text.0}, {@code text.1} etc.
+   * All other parameters of {@link #DOCUMENT_PARAMETERS} can be given per document the same way, otherwise
+   * the parameter without index is used for all documents. With a scheduler, the documents are checked
+   * by up to {@code maxCheckThreads} threads at the same time. Each document is a check of its own that
+   * goes through the queue, so interactive checks don't have to wait for the whole batch. Without a
+   * scheduler, the request thread checks the documents one after the other, as the queue only has room
+   * for one check per request thread. The result of each document is sent as soon as it and all
+   * documents before it have been checked.
+   * Each document counts as one request for the request limit, and the maximum check time
+   * applies to the whole batch: documents not checked by then are cancelled and reported as failed.
+   */
+  private void checkBatch(final HttpExchange httpExchange, final Map<String, String> parameters,
+                          String remoteAddress) throws Exception {
+    final long timeStart = System.currentTimeMillis();
+    if (afterTheDeadlineMode) {
+      throw new IllegalArgumentException("Batch checks are not supported in After the Deadline mode");
+    }
+    final LoadMonitor.Mode mode = getCheckMode();
+    final List<BatchDocument> documents = getBatchDocuments(parameters, mode);
+    // the request itself has already been counted for the first document:
+    if (requestLimiter != null && documents.size() > 1 && !requestLimiter.isAccessOkayForRequests(remoteAddress, documents.size() - 1)) {
+      sendTooManyRequestsError(httpExchange, remoteAddress,
+              ", each document of a batch request counts as one request (this one has " + documents.size() + " documents)");
+      return;
+    }
+    final long deadline = maxCheckTimeMillis < 0 ? -1 : timeStart + maxCheckTimeMillis;
+    final boolean checkInRequestThread = scheduler == null;
+    final AtomicInteger nextDocument = new AtomicInteger();
+    final int threads = checkInRequestThread ? 0 : Math.min(documents.size(), executorService.getMaximumPoolSize());
+    for (int i = 0; i < threads; i++) {
+      try {
+        executorService.execute(newBatchCheck(documents, nextDocument, remoteAddress, deadline));
+      } catch (RejectedExecutionException e) {
+        if (i == 0) {
+          throw e;
+        }
+        break;  // the checks already scheduled will check all documents
+      }
+    }
+
+    setCommonHeaders(httpExchange);
+    httpExchange.getResponseHeaders().set(CHECK_MODE_HEADER, mode.getName());
+    String messageSent = "sent";
+    int textLength = 0;
+    int matchCount = 0;
+    int failedCount = 0;
+    final long responseStart = System.currentTimeMillis();
+    try {
+      // a length of 0 means chunked transfer encoding, so the XML can be sent while the documents are being checked:
+      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+      final Writer writer = new BufferedWriter(new OutputStreamWriter(httpExchange.getResponseBody(), ENCODING));
+      final RuleAsXmlSerializer serializer = new RuleAsXmlSerializer();
+      writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+      writer.write("<batch software=\"LanguageTool\" version=\"" + JLanguageTool.VERSION +
+              "\" buildDate=\"" + JLanguageTool.BUILD_DATE + "\" mode=\"" + mode.getName() + "\">\n");
+      for (BatchDocument document : documents) {
+        if (checkInRequestThread) {
+          checkBatchDocument(document, deadline);
+        }
+        if (!document.awaitResult(deadline < 0 ? -1 : Math.max(0, deadline - System.currentTimeMillis()))) {
+          // the deadline has passed, so stop all checks that haven't finished yet:
+          for (BatchDocument unfinished : documents) {
+            if (!unfinished.isDone()) {
+              unfinished.cancel();
+              unfinished.setError(new CheckCancelledException("Check has not finished in time"));
+              stats.countTimeout();
+            }
+          }
+        }
+        writeBatchDocumentXml(writer, serializer, document);
+        textLength += document.text.length();
+        if (document.getMatches() != null) {
+          matchCount += document.getMatches().size();
+        } else {
+          failedCount++;
+        }
+      }
+      writer.write("</batch>\n");
+      writer.flush();
+    } catch (IOException exception) {
+      // the client is disconnected, so there's no need to check the remaining documents:
+      for (BatchDocument document : documents) {
+        document.cancel();
+      }
+      messageSent = "notSent: " + exception.getMessage();
+    }
+    final long timeEnd = System.currentTimeMillis();
+    stats.recordStage(ServerStats.Stage.RESPONSE, timeEnd - responseStart);
+    print("Batch check done: " + documents.size() + " documents, " + textLength + " chars, mode: " + mode.getName() + ", "
+            + "handlers:" + handleCount + ", queue:" + workQueue.size() + ", " + matchCount + " matches, "
+            + failedCount + " failed, " + (timeEnd - timeStart) + "ms"
+            + ", " + messageSent);
+  }
+
+  private List<BatchDocument> getBatchDocuments(Map<String, String> parameters, LoadMonitor.Mode mode) throws TextTooLongException {
+    if (parameters.get("srctext") != null) {
+      throw new IllegalArgumentException("Bilingual checks are not supported in batch requests");
+    }
+    final Map<String, String> defaultParameters = new HashMap<>();
+    for (String name : DOCUMENT_PARAMETERS) {
+      if (parameters.containsKey(name)) {
+        defaultParameters.put(name, parameters.get(name));
+      }
+    }
+    final List<BatchDocument> documents = new ArrayList<>();
+    long totalTextLength = 0;
+    for (int i = 0; parameters.containsKey("text." + i); i++) {
+      if (i == maxBatchSize) {
+        throw new BatchTooLargeException("Your batch request contains more than " + maxBatchSize +
+                " documents, which is this server's limit. Please split it into smaller batch requests.");
+      }
+      final Map<String, String> documentParameters = new HashMap<>(defaultParameters);
+      for (String name : DOCUMENT_PARAMETERS) {
+        final String value = parameters.get(name + "." + i);
+        if (value != null) {
+          documentParameters.put(name, value);
+        }
+      }
+      final String text = documentParameters.get("text");
+      checkTextLength(text);
+      totalTextLength += text.length();
+      if (totalTextLength > maxBatchTextLength) {
+        throw new BatchTooLargeException("The documents of your batch request are more than " + maxBatchTextLength +
+                " characters long in total, which is this server's limit. Please split it into smaller batch requests.");
+      }
+      final String langParam = documentParameters.get("language");
+      // the language is detected by the check thread, so the request thread doesn't spend time on it:
+      final Language lang = getLanguageAutoDetect(documentParameters) ? null : getLanguage(text, langParam, false);
+      documents.add(new BatchDocument(i, text, lang, langParam, getMotherTongue(documentParameters),
+              getQueryParams(documentParameters), mode));
+    }
+    if (documents.isEmpty()) {
+      throw new IllegalArgumentException("Missing 'text.0' parameter");
+    }
+    return documents;
+  }
+
+  /**
+   * A bulk check of the next document of the batch that has not been taken yet.
+   */
+  private ScheduledCheck<Void> newBatchCheck(final List<BatchDocument> documents, final AtomicInteger nextDocument,
+                                             final String remoteAddress, final long deadline) {
+    // only an estimate, as another check of the same batch may take this document:
+    final BatchDocument next = documents.get(Math.min(nextDocument.get(), documents.size() - 1));
+    final Language nextLanguage = next.getLanguage();
+    final long submitTime = System.currentTimeMillis();
+    return new ScheduledCheck<Void>(new Runnable() {
+      @Override
+      public void run() {
+        recordWaitTime(System.currentTimeMillis() - submitTime);
+        checkBatchDocuments(documents, nextDocument, remoteAddress, deadline);
+      }
+    }, remoteAddress, nextLanguage != null ? nextLanguage.getShortNameWithCountryAndVariant() : String.valueOf(next.languageParam),
+       next.text.length(), true);
+  }
+
+  /**
+   * Check the next document of the batch, then queue a new check for the document after it, so
+   * other checks waiting for a thread can run in between. Only if the queue is full, this thread
+   * goes on with the next document itself.
+   */
+  private void checkBatchDocuments(List<BatchDocument> documents, AtomicInteger nextDocument, String remoteAddress, long deadline) {
+    BatchDocument document = null;
+    boolean finished = false;
+    try {
+      int i;
+      while ((i = nextDocument.getAndIncrement()) < documents.size()) {
+        document = documents.get(i);
+        checkBatchDocument(document, deadline);
+        document = null;
+        if (nextDocument.get() >= documents.size()) {
+          break;
+        }
+        try {
+          executorService.execute(newBatchCheck(documents, nextDocument, remoteAddress, deadline));
+          break;
+        } catch (RejectedExecutionException ignored) {
+          // the queue is full or the server is shutting down
+        }
+      }
+      finished = true;
+    } finally {
+      if (!finished) {
+        // an Error was thrown, don't let the response wait for this or any document not taken yet,
+        // as there may be no other thread left to check them:
+        if (document != null) {
+          document.setError(new RuntimeException("Check failed"));
+        }
+        int i;
+        while ((i = nextDocument.getAndIncrement()) < documents.size()) {
+          documents.get(i).setError(new RuntimeException("Check failed"));
+        }
+      }
+    }
+  }
+
+  private void checkBatchDocument(BatchDocument document, long deadline) {
+    final CancellationToken cancellationToken =
+            deadline < 0 ? new CancellationToken() : new CancellationToken(Math.max(0, deadline - System.currentTimeMillis()));
+    if (!document.start(cancellationToken)) {
+      document.setError(new CheckCancelledException("Check has been cancelled"));
+      return;
+    }
+    if (deadline >= 0 && System.currentTimeMillis() >= deadline) {
+      if (!document.isDone()) {
+        stats.countTimeout();
+      }
+      document.setError(new CheckCancelledException("Check has not finished in time"));
+      return;
+    }
+    final long checkStart = System.currentTimeMillis();
+    try {
+      if (document.getLanguage() == null) {
+        document.setLanguage(getLanguage(document.text, document.languageParam, true));
+      }
+      final Language lang = document.getLanguage();
+      final JLanguageToolPool.Key key = document.getKey();
+      final JLanguageTool lt = getLanguageToolInstance(key, lang, document.motherTongue, document.params, document.mode);
+      final List<RuleMatch> matches;
+      try {
+        matches = lt.check(new AnnotatedTextBuilder().addText(document.text).build(),
+                true, JLanguageTool.ParagraphHandling.NORMAL, cancellationToken);
+      } finally {
+        languageToolPool.giveBack(key, lt);
+      }
+      final long checkTime = System.currentTimeMillis() - checkStart;
+      stats.recordStage(ServerStats.Stage.CHECK, checkTime);
+      stats.recordCheck(lang.getShortNameWithCountryAndVariant(), document.text.length(), matches.size(), checkTime);
+      stats.countMode(document.mode);
+      if (scheduler != null) {
+        scheduler.recordCheckTime(lang.getShortNameWithCountryAndVariant(), document.text.length(), checkTime);
+      }
+      document.setMatches(matches);
+    } catch (CheckCancelledException e) {
+      if (!document.isDone()) {  // otherwise the timeout has been counted when the response stopped waiting
+        stats.countTimeout();
+      }
+      document.setError(e);
+    } catch (Exception e) {
+      stats.countError();
+      print("Checking document " + document.index + " of a batch request failed: " + e, System.err);
+      document.setError(e);
+    }
+  }
+
+  private void writeBatchDocumentXml(Writer writer, RuleAsXmlSerializer serializer, BatchDocument document) throws IOException {
+    writer.write("<document index=\"" + document.index + "\"");
+    final Language lang = document.getLanguage();
+    if (lang != null) {  // null if the language was to be detected, but the document hasn't been checked
+      writer.write(" language=\"" + lang.getShortNameWithCountryAndVariant() + "\"");
+    }
+    final List<RuleMatch> matches = document.getMatches();
+    if (matches != null) {
+      writer.write(">\n");
+      serializer.writeRuleMatchesXmlSnippet(matches, document.text, CONTEXT_SIZE, writer);
+      writer.write("</document>\n");
+    } else {
+      final String message;
+      if (document.getError() instanceof CheckCancelledException) {
+        message = "Checking the batch took longer than " + maxCheckTimeMillis/1000 + " seconds, which is this server's limit.";
+      } else {
+        message = String.valueOf(document.getError().getMessage());
+      }
+      writer.write(" failed=\"true\" message=\"" + StringTools.escapeForXmlAttribute(message) + "\"/>\n");
+    }
+  }
+
+  private LoadMonitor.Mode getCheckMode() {
+    if (loadMonitor == null) {
+      return LoadMonitor.Mode.NORMAL;
+    }
+    return loadMonitor.getMode(workQueue.size() + executorService.getQueue().size());
+  }
+
+  private void recordWaitTime(long millis) {
+    stats.recordStage(ServerStats.Stage.QUEUE, millis);
+    if (loadMonitor != null) {
+      loadMonitor.recordWaitTime(millis);
+    }
+  }
+
+  private void checkTextLength(String text) throws TextTooLongException {
+    if (text.length() > maxTextLength) {
+      throw new TextTooLongException("Your text is " + text.length() + " characters long, which longer " +
+              "than this server's limit of " + maxTextLength + " characters. Please consider submitting a shorter text.");
+    }
+  }
+
+  @Nullable
+  private Language getMotherTongue(Map<String, String> parameters) {
+    final String motherTongueParam = parameters.get("motherTongue");
+    return motherTongueParam != null ? Languages.getLanguageForShortName(motherTongueParam) : null;
+  }
+
+  private QueryParams getQueryParams(Map<String, String> parameters) {
+    final boolean useEnabledOnly = "yes".equals(parameters.get("enabledOnly"));
+    final String enabledParam = parameters.get("enabled");
+    final List<String> enabledRules = new ArrayList<>();
+    if (enabledParam != null) {
+      enabledRules.addAll(Arrays.asList(enabledParam.split(",")));
+    }
+    
+    final String disabledParam = parameters.get("disabled");
+    final List<String> disabledRules = new ArrayList<>();
+    if (disabledParam != null) {
+      disabledRules.addAll(Arrays.asList(disabledParam.split(",")));
+    }
+
+    if (disabledRules.size() > 0 && useEnabledOnly) {
+      throw new IllegalArgumentException("You cannot specify disabled rules using enabledOnly=yes");
+    }
+    
+    final boolean useQuerySettings = enabledRules.size() > 0 || disabledRules.size() > 0;
+    return new QueryParams(enabledRules, disabledRules, useEnabledOnly, useQuerySettings);
+  }
+
   private boolean getLanguageAutoDetect(Map<String, String> parameters) {
     if (afterTheDeadlineMode) {
       return "true".equals(parameters.get("guess"));
@@ -426,12 +956,17 @@ class LanguageToolHttpHandler implements HttpHandler {
     return lang;
   }
 
-  private List<RuleMatch> getRuleMatches(String text, Map<String, String> parameters, Language lang,
-                                         Language motherTongue, QueryParams params) throws Exception {
+  private List<RuleMatch> getRuleMatches(String text, Map<String, String> parameters, Language lang, Language motherTongue,
+                                         QueryParams params, LoadMonitor.Mode mode, CancellationToken cancellationToken) throws Exception {
     final String sourceText = parameters.get("srctext");
     if (sourceText == null) {
-      final JLanguageTool lt = getLanguageToolInstance(lang, motherTongue, params);
-      return lt.check(text);
+      final JLanguageToolPool.Key key = new JLanguageToolPool.Key(lang, motherTongue, params, mode);
+      final JLanguageTool lt = getLanguageToolInstance(key, lang, motherTongue, params, mode);
+      try {
+        return lt.check(new AnnotatedTextBuilder().addText(text).build(), true, JLanguageTool.ParagraphHandling.NORMAL, cancellationToken);
+      } finally {
+        languageToolPool.giveBack(key, lt);
+      }
     } else {
       if (parameters.get("motherTongue") == null) {
         throw new IllegalArgumentException("Missing 'motherTongue' parameter for bilingual checks");
@@ -439,21 +974,36 @@ class LanguageToolHttpHandler implements HttpHandler {
       print("Checking bilingual text, with source length " + sourceText.length() +
           " and target length " + text.length() + " (characters), source language " +
           motherTongue + " and target language " + lang.getShortNameWithCountryAndVariant());
-      final JLanguageTool sourceLt = getLanguageToolInstance(motherTongue, null, params);
-      final JLanguageTool targetLt = getLanguageToolInstance(lang, null, params);
-      final List<BitextRule> bRules = Tools.selectBitextRules(Tools.getBitextRules(motherTongue, lang),
-          params.disabledRules, params.enabledRules, params.useEnabledOnly);
-      return Tools.checkBitext(sourceText, text, sourceLt, targetLt, bRules);
+      final JLanguageToolPool.Key sourceKey = new JLanguageToolPool.Key(motherTongue, null, params, mode);
+      final JLanguageToolPool.Key targetKey = new JLanguageToolPool.Key(lang, null, params, mode);
+      final JLanguageTool sourceLt = getLanguageToolInstance(sourceKey, motherTongue, null, params, mode);
+      final JLanguageTool targetLt = getLanguageToolInstance(targetKey, lang, null, params, mode);
+      try {
+        final List<BitextRule> bRules = Tools.selectBitextRules(Tools.getBitextRules(motherTongue, lang),
+            params.disabledRules, params.enabledRules, params.useEnabledOnly);
+        return Tools.checkBitext(sourceText, text, sourceLt, targetLt, bRules);
+      } finally {
+        languageToolPool.giveBack(sourceKey, sourceLt);
+        languageToolPool.giveBack(targetKey, targetLt);
+      }
     }
   }
 
-  private String getXmlResponse(String text, Language lang, Language motherTongue, List<RuleMatch> matches) {
+  private void writeXmlResponse(HttpExchange httpExchange, String text, Language lang, Language motherTongue,
+                                List<RuleMatch> matches) throws IOException {
     if (afterTheDeadlineMode) {
       AtDXmlSerializer serializer = new AtDXmlSerializer();
-      return serializer.ruleMatchesToXml(matches, text);
+      String xmlResponse = serializer.ruleMatchesToXml(matches, text);
+      byte[] bytes = xmlResponse.getBytes(ENCODING);
+      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, bytes.length);
+      httpExchange.getResponseBody().write(bytes);
     } else {
+      // a length of 0 means chunked transfer encoding, so the XML can be sent while it's being created:
+      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+      Writer writer = new BufferedWriter(new OutputStreamWriter(httpExchange.getResponseBody(), ENCODING));
       RuleAsXmlSerializer serializer = new RuleAsXmlSerializer();
-      return serializer.ruleMatchesToXml(matches, text, CONTEXT_SIZE, lang, motherTongue);
+      serializer.writeRuleMatchesXml(matches, text, CONTEXT_SIZE, lang, motherTongue, writer);
+      writer.flush();
     }
   }
 
@@ -486,20 +1036,40 @@ class LanguageToolHttpHandler implements HttpHandler {
   }
 
   private static void print(String s, PrintStream outputStream) {
-    final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    SimpleDateFormat dateFormat = DATE_FORMAT.get();
+    if (dateFormat == null) {
+      dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+      DATE_FORMAT.set(dateFormat);
+    }
     final String now = dateFormat.format(new Date());
     outputStream.println(now + " " + s);
   }
 
+  /**
+   * Get a JLanguageTool instance for a specific language, mother tongue, and rule configuration,
+   * re-using an instance from the pool if possible. Give it back to the pool after use.
+   */
+  private JLanguageTool getLanguageToolInstance(JLanguageToolPool.Key key, Language lang, Language motherTongue,
+                                                QueryParams params, LoadMonitor.Mode mode) throws Exception {
+    final JLanguageTool pooledLanguageTool = languageToolPool.borrow(key);
+    if (pooledLanguageTool != null) {
+      return pooledLanguageTool;
+    }
+    return createLanguageToolInstance(lang, motherTongue, params, mode);
+  }
+
   /**
    * Create a JLanguageTool instance for a specific language, mother tongue, and rule configuration.
    *
    * @param lang the language to be used.
    * @param motherTongue the user's mother tongue or {@code null}
+   * @param mode the mode that decides which rules are left out to make checking faster
    */
-  private JLanguageTool getLanguageToolInstance(Language lang, Language motherTongue, QueryParams params) throws Exception {
+  private JLanguageTool createLanguageToolInstance(Language lang, Language motherTongue, QueryParams params,
+                                                   LoadMonitor.Mode mode) throws Exception {
     final JLanguageTool newLanguageTool = new JLanguageTool(lang, motherTongue);
-    if (languageModelDir != null) {
+    newLanguageTool.setCache(cache);
+    if (languageModelDir != null && mode == LoadMonitor.Mode.NORMAL) {
       newLanguageTool.activateLanguageModelRules(languageModelDir);
     }
     final Configuration config = new Configuration(lang);
@@ -509,6 +1079,18 @@ class LanguageToolHttpHandler implements HttpHandler {
     if (params.useQuerySettings) {
       Tools.selectRules(newLanguageTool, params.disabledRules, params.enabledRules, params.useEnabledOnly);
     }
+    if (mode != LoadMonitor.Mode.NORMAL) {
+      for (String ruleId : loadMonitor.getExpensiveRuleIds()) {
+        newLanguageTool.disableRule(ruleId);
+      }
+    }
+    if (mode == LoadMonitor.Mode.MINIMAL) {
+      for (Rule rule : newLanguageTool.getAllActiveRules()) {
+        if (rule instanceof SpellingCheckRule) {
+          ((SpellingCheckRule) rule).setSuggestionsEnabled(false);
+        }
+      }
+    }
     return newLanguageTool;
   }
 
@@ -562,18 +1144,4 @@ class LanguageToolHttpHandler implements HttpHandler {
     return xmlBuffer.toString();
   }
 
-  private class QueryParams {
-    final List<String> enabledRules;
-    final List<String> disabledRules;
-    final boolean useEnabledOnly;
-    final boolean useQuerySettings;
-
-    QueryParams(List<String> enabledRules, List<String> disabledRules, boolean useEnabledOnly, boolean useQuerySettings) {
-      this.enabledRules = enabledRules;
-      this.disabledRules = disabledRules;
-      this.useEnabledOnly = useEnabledOnly;
-      this.useQuerySettings = useQuerySettings;
-    }
-  }
-
 }
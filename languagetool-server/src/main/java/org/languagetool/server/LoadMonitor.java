@@ -0,0 +1,116 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decides how thoroughly texts are checked, depending on the server's load. The load is
+ * measured by the number of waiting requests and by the time checks recently had to wait for
+ * a check thread. If one of them exceeds its limit, checks switch to {@link Mode#REDUCED}, if
+ * one exceeds twice its limit, they switch to {@link Mode#MINIMAL}. A mode is only left when the
+ * load has dropped clearly below its limit again, so the mode doesn't change with every request.
+ * Thread-safe.
+ * @since 2.9
+ */
+class LoadMonitor {
+
+  enum Mode {
+    /** all rules are used */
+    NORMAL,
+    /** rules that use a language model and the rules configured as expensive are not used */
+    REDUCED,
+    /** like {@link #REDUCED}, and spelling errors are found but no suggestions are created */
+    MINIMAL;
+
+    /** The name used in responses and in the server configuration. */
+    String getName() {
+      return name().toLowerCase();
+    }
+  }
+
+  // a mode is only left when the load is below this part of its limit:
+  private static final double RECOVERY_FACTOR = 0.7;
+  // weight of a new measurement in the average waiting time:
+  private static final double WAIT_SMOOTHING = 0.2;
+
+  private final int maxQueueSize;
+  private final long maxWaitMillis;
+  private final List<String> expensiveRuleIds;
+
+  private Mode mode = Mode.NORMAL;
+  private double averageWaitMillis;
+
+  /**
+   * @param maxQueueSize the number of waiting requests at which checking gets reduced, {@code 0} to ignore the queue
+   * @param maxWaitMillis the average time checks wait for a thread at which checking gets reduced, {@code 0} to
+   *                      ignore the waiting time
+   * @param expensiveRuleIds ids of rules that are not used in the {@link Mode#REDUCED} and {@link Mode#MINIMAL} modes
+   */
+  LoadMonitor(int maxQueueSize, long maxWaitMillis, List<String> expensiveRuleIds) {
+    if (maxQueueSize < 0 || maxWaitMillis < 0) {
+      throw new IllegalArgumentException("maxQueueSize and maxWaitMillis must be >= 0: " + maxQueueSize + ", " + maxWaitMillis);
+    }
+    this.maxQueueSize = maxQueueSize;
+    this.maxWaitMillis = maxWaitMillis;
+    this.expensiveRuleIds = new ArrayList<>(expensiveRuleIds);
+  }
+
+  List<String> getExpensiveRuleIds() {
+    return expensiveRuleIds;
+  }
+
+  /**
+   * Record how long a check had to wait for a check thread.
+   */
+  synchronized void recordWaitTime(long millis) {
+    averageWaitMillis = (1 - WAIT_SMOOTHING) * averageWaitMillis + WAIT_SMOOTHING * millis;
+  }
+
+  /**
+   * Get the mode for a check that's about to be started.
+   * @param queueSize the number of requests currently waiting
+   */
+  synchronized Mode getMode(int queueSize) {
+    double load = 0;
+    if (maxQueueSize > 0) {
+      load = Math.max(load, (double) queueSize / maxQueueSize);
+    }
+    if (maxWaitMillis > 0) {
+      load = Math.max(load, averageWaitMillis / maxWaitMillis);
+    }
+    Mode newMode = load >= 2 ? Mode.MINIMAL : load >= 1 ? Mode.REDUCED : Mode.NORMAL;
+    if (newMode.ordinal() > mode.ordinal()) {
+      mode = newMode;
+    } else if (newMode.ordinal() < mode.ordinal() && load < mode.ordinal() * RECOVERY_FACTOR) {
+      // the limit of REDUCED is a load of 1, the limit of MINIMAL a load of 2:
+      mode = load < RECOVERY_FACTOR ? Mode.NORMAL : Mode.REDUCED;
+    }
+    return mode;
+  }
+
+  /**
+   * The mode of the most recently started check.
+   */
+  synchronized Mode getCurrentMode() {
+    return mode;
+  }
+
+}
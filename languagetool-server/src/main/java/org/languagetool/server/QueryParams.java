@@ -0,0 +1,61 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.List;
+
+/**
+ * The rule configuration of a check request, as given by the
+ * {@code enabled}, {@code disabled} and {@code enabledOnly} parameters.
+ * @since 2.9
+ */
+class QueryParams {
+
+  final List<String> enabledRules;
+  final List<String> disabledRules;
+  final boolean useEnabledOnly;
+  final boolean useQuerySettings;
+
+  QueryParams(List<String> enabledRules, List<String> disabledRules, boolean useEnabledOnly, boolean useQuerySettings) {
+    this.enabledRules = enabledRules;
+    this.disabledRules = disabledRules;
+    this.useEnabledOnly = useEnabledOnly;
+    this.useQuerySettings = useQuerySettings;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    QueryParams other = (QueryParams) o;
+    return useEnabledOnly == other.useEnabledOnly
+            && useQuerySettings == other.useQuerySettings
+            && enabledRules.equals(other.enabledRules)
+            && disabledRules.equals(other.disabledRules);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = enabledRules.hashCode();
+    result = 31 * result + disabledRules.hashCode();
+    result = 31 * result + (useEnabledOnly ? 1 : 0);
+    result = 31 * result + (useQuerySettings ? 1 : 0);
+    return result;
+  }
+}
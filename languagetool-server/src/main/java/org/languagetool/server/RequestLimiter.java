@@ -18,28 +18,40 @@
  */
 package org.languagetool.server;
 
-import java.util.Date;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Limit the maximum number of request per IP address for a given time range.
+ * Each IP address has its own sliding window with the times of its latest allowed requests,
+ * so a check takes constant time and only locks the window of that IP address.
+ * Windows of IP addresses that haven't sent a request for a whole period get removed.
  */
 class RequestLimiter {
 
-  private static final int API_REQUEST_QUEUE_SIZE = 1000;
-
-  private final List<RequestEvent> requestEvents = new CopyOnWriteArrayList<>();
+  private final ConcurrentMap<String, RequestWindow> windows = new ConcurrentHashMap<>();
   private final int requestLimit;
   private final int requestLimitPeriodInSeconds;
+  private final long periodMillis;
+
+  private volatile long lastCleanup = System.currentTimeMillis();
 
   /**
    * @param requestLimit the maximum number of request per <tt>requestLimitPeriodInSeconds</tt>
    * @param requestLimitPeriodInSeconds the time period over which requests are considered, in seconds
    */
   RequestLimiter(int requestLimit, int requestLimitPeriodInSeconds) {
+    if (requestLimit < 0) {
+      throw new IllegalArgumentException("requestLimit must be >= 0: " + requestLimit);
+    }
+    if (requestLimitPeriodInSeconds < 0) {
+      throw new IllegalArgumentException("requestLimitPeriodInSeconds must be >= 0: " + requestLimitPeriodInSeconds);
+    }
     this.requestLimit = requestLimit;
     this.requestLimitPeriodInSeconds = requestLimitPeriodInSeconds;
+    this.periodMillis = requestLimitPeriodInSeconds * 1000L;
   }
 
   /**
@@ -61,36 +73,116 @@ class RequestLimiter {
    * @return true if access is allowed because the request limit is not reached yet
    */
   boolean isAccessOkay(String ipAddress) {
-    while (requestEvents.size() > API_REQUEST_QUEUE_SIZE) {
-      requestEvents.remove(0);
+    return isAccessOkay(ipAddress, System.currentTimeMillis());
+  }
+
+  boolean isAccessOkay(String ipAddress, long now) {
+    return isAccessOkayForRequests(ipAddress, 1, now);
+  }
+
+  /**
+   * Count several requests at once, e.g. one for each document of a batch request. Either all
+   * of them are counted or, if that would exceed the request limit, none of them.
+   * @param ipAddress the client's IP address
+   * @param requestCount the number of requests, at least 1
+   * @return true if access is allowed because the request limit is not reached by these requests
+   * @since 2.9
+   */
+  boolean isAccessOkayForRequests(String ipAddress, int requestCount) {
+    return isAccessOkayForRequests(ipAddress, requestCount, System.currentTimeMillis());
+  }
+
+  boolean isAccessOkayForRequests(String ipAddress, int requestCount, long now) {
+    if (requestCount < 1) {
+      throw new IllegalArgumentException("requestCount must be > 0: " + requestCount);
     }
-    requestEvents.add(new RequestEvent(ipAddress, new Date()));
-    return !limitReached(ipAddress);
+    if (now - lastCleanup > periodMillis) {
+      lastCleanup = now;
+      removeIdleWindows(now);
+    }
+    while (true) {
+      RequestWindow window = getWindow(ipAddress, now);
+      synchronized (window) {
+        if (!window.removed) {
+          return window.tryAcquire(now, periodMillis, requestCount);
+        }
+      }
+      // the window has just been removed as idle, so get a new one
+    }
+  }
+
+  /**
+   * The number of IP addresses whose requests are currently tracked.
+   */
+  int getTrackedAddressCount() {
+    return windows.size();
   }
-  
-  private boolean limitReached(String ipAddress) {
-    int requestsByIp = 0;
-    // all requests before this date are considered old:
-    Date thresholdDate = new Date(System.currentTimeMillis() - requestLimitPeriodInSeconds * 1000);
-    for (RequestEvent requestEvent : requestEvents) {
-      if (requestEvent.ip.equals(ipAddress) && requestEvent.date.after(thresholdDate)) {
-        requestsByIp++;
-        if (requestsByIp > requestLimit) {
-          return true;
+
+  private void removeIdleWindows(long now) {
+    Iterator<Map.Entry<String, RequestWindow>> iterator = windows.entrySet().iterator();
+    while (iterator.hasNext()) {
+      RequestWindow window = iterator.next().getValue();
+      synchronized (window) {
+        if (window.isIdle(now, periodMillis)) {
+          window.removed = true;
+          iterator.remove();
         }
       }
     }
-    return false;
   }
-  
-  class RequestEvent {
 
-    private final String ip;
-    private final Date date;
+  private RequestWindow getWindow(String ipAddress, long now) {
+    RequestWindow window = windows.get(ipAddress);
+    if (window == null) {
+      RequestWindow newWindow = new RequestWindow(requestLimit, now);
+      window = windows.putIfAbsent(ipAddress, newWindow);
+      if (window == null) {
+        window = newWindow;
+      }
+    }
+    return window;
+  }
+
+  /**
+   * The times of the latest allowed requests of one IP address, as a ring buffer
+   * with one slot per allowed request. Access needs to be synchronized on the window.
+   */
+  private static class RequestWindow {
+
+    private final long[] requestTimes;
+    private int used;
+    private int oldest;
+    private long latest;
+    private boolean removed;
+
+    RequestWindow(int requestLimit, long now) {
+      requestTimes = new long[requestLimit];
+      latest = now;
+    }
+
+    boolean tryAcquire(long now, long periodMillis, int requestCount) {
+      latest = now;
+      if (requestCount > requestTimes.length) {
+        return false;
+      }
+      // the slots are re-used in order, the unused ones first, then those of the oldest requests:
+      for (int i = requestTimes.length - used; i < requestCount; i++) {
+        if (now - requestTimes[(oldest + i) % requestTimes.length] < periodMillis) {
+          return false;
+        }
+      }
+      for (int i = 0; i < requestCount; i++) {
+        if (used < requestTimes.length) {
+          used++;
+        }
+        requestTimes[oldest] = now;
+        oldest = (oldest + 1) % requestTimes.length;
+      }
+      return true;
+    }
 
-    RequestEvent(String ip, Date date) {
-      this.ip = ip;
-      this.date = date;
+    boolean isIdle(long now, long periodMillis) {
+      return now - latest > periodMillis;
     }
   }
 
@@ -0,0 +1,63 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A check to be run by the check thread pool, with the information a {@link CheckScheduler}
+ * needs to decide when it runs.
+ * @since 2.9
+ */
+class ScheduledCheck<V> extends FutureTask<V> {
+
+  final String client;
+  final String language;
+  final int textLength;
+  final boolean bulk;
+
+  // set by the scheduler when the check gets queued:
+  double finishTag;
+  long sequence;
+
+  /**
+   * @param client the client's address, the same that's used for the request limit
+   * @param language the language's short name with country and variant
+   * @param textLength the number of characters to be checked
+   * @param bulk whether this check is part of bulk traffic, like a batch request, that may
+   *             be delayed in favor of interactive checks
+   */
+  ScheduledCheck(Callable<V> callable, String client, String language, int textLength, boolean bulk) {
+    super(callable);
+    this.client = client;
+    this.language = language;
+    this.textLength = textLength;
+    this.bulk = bulk;
+  }
+
+  ScheduledCheck(Runnable runnable, String client, String language, int textLength, boolean bulk) {
+    super(runnable, null);
+    this.client = client;
+    this.language = language;
+    this.textLength = textLength;
+    this.bulk = bulk;
+  }
+
+}
@@ -62,6 +62,7 @@ abstract class Server {
     System.out.println("Starting LanguageTool " + JLanguageTool.VERSION +
             " (build date: " + JLanguageTool.BUILD_DATE + ") server on " + getProtocol() + "://" + hostName + ":" + port  + "...");
     server.start();
+    httpHandler.startWarmUp();
     isRunning = true;
     System.out.println("Server started");
   }
@@ -99,6 +100,25 @@ abstract class Server {
     return null;
   }
 
+  @Nullable
+  protected CheckScheduler getCheckSchedulerOrNull(HTTPServerConfig config) {
+    return config.getScheduler() == HTTPServerConfig.Scheduler.Fair ? new CheckScheduler(config.getMaxWaitingChecks()) : null;
+  }
+
+  @Nullable
+  protected LoadMonitor getLoadMonitorOrNull(HTTPServerConfig config) {
+    if (config.getDegradedModeQueueSize() > 0 || config.getDegradedModeWaitMillis() > 0) {
+      return new LoadMonitor(config.getDegradedModeQueueSize(), config.getDegradedModeWaitMillis(),
+              config.getDegradedModeDisabledRules());
+    }
+    return null;
+  }
+
+  protected JLanguageToolPool getLanguageToolPool(HTTPServerConfig config) {
+    return new JLanguageToolPool(config.getInstancePoolSize(), config.getInstancePoolTotalSize(),
+            config.getInstancePoolIdleSeconds() * 1000L);
+  }
+
   protected static boolean usageRequested(String[] args) {
     return args.length == 1 && (args[0].equals("-h") || args[0].equals("--help"));
   }
@@ -107,13 +127,33 @@ abstract class Server {
     System.out.println("                 'mode' - 'LanguageTool' or 'AfterTheDeadline' for emulation of After the Deadline output (optional, experimental)");
     System.out.println("                 'afterTheDeadlineLanguage' - language code like 'en' or 'en-GB' (required if mode is 'AfterTheDeadline')");
     System.out.println("                 'maxTextLength' - maximum text length, longer texts will cause an error (optional)");
+    System.out.println("                 'maxBatchSize' - maximum number of documents in a batch request to /v1/batch (optional, default: 100)");
+    System.out.println("                 'maxBatchTextLength' - maximum length of all documents in a batch request together");
+    System.out.println("                  (optional, default: the same as 'maxTextLength')");
     System.out.println("                 'maxCheckTimeMillis' - maximum time in milliseconds allowed per check (optional)");
     System.out.println("                 'maxCheckThreads' - maximum number of threads working in parallel (optional)");
+    System.out.println("                 'degradedModeQueueSize' - check with fewer rules if this many requests are waiting (optional)");
+    System.out.println("                 'degradedModeWaitMillis' - check with fewer rules if checks wait this long on average (optional)");
+    System.out.println("                 'degradedModeDisabledRules' - comma-separated ids of expensive rules not used when checking");
+    System.out.println("                  with fewer rules; language model rules are never used then and with twice the");
+    System.out.println("                  load, spelling errors come without suggestions (optional)");
+    System.out.println("                 'scheduler' - 'fifo' to check texts in the order they arrive, 'fair' to check short texts first");
+    System.out.println("                  and share the threads fairly between clients (optional, default: fifo)");
+    System.out.println("                 'maxWaitingChecks' - number of requests that can wait for a check thread with");
+    System.out.println("                  the 'fair' scheduler, further checks are rejected (optional, default: 50)");
+    System.out.println("                 'preloadLanguages' - comma-separated language codes like 'en-US' of languages that are");
+    System.out.println("                  loaded and warmed up in parallel at startup; /v1/ready reports the server as ready only");
+    System.out.println("                  after that (optional)");
     System.out.println("                 'requestLimit' - maximum number of requests (optional)");
     System.out.println("                 'requestLimitPeriodInSeconds' - time period to which requestLimit applies (optional)");
     System.out.println("                 'languageModel' - a directory with a '3grams' sub directory with a Lucene index that");
     System.out.println("                  contains ngram occurrence counts; activates the confusion rule if supported (optional)");
     System.out.println("                 'maxWorkQueueSize' - reject request if request queue gets larger than this (optional)");
+    System.out.println("                 'instancePoolSize' - number of unused LanguageTool instances kept for re-use per language");
+    System.out.println("                  and rule configuration, 0 to create a new instance for each request (optional, default: 10)");
+    System.out.println("                 'instancePoolTotalSize' - number of unused LanguageTool instances kept for re-use for all");
+    System.out.println("                  languages and rule configurations together (optional, default: 50)");
+    System.out.println("                 'instancePoolIdleSeconds' - remove pooled instances not used for this long (optional, default: 300)");
   }
   
   protected static void printCommonOptions() {
@@ -128,6 +168,10 @@ abstract class Server {
 
   protected ThreadPoolExecutor getExecutorService(LinkedBlockingQueue<Runnable> workQueue, HTTPServerConfig config) {
     int threadPoolSize = config.getMaxCheckThreads();
+    if (config.getScheduler() == HTTPServerConfig.Scheduler.Fair) {
+      // the requests need to be read before the scheduler can decide which check runs next:
+      threadPoolSize += config.getMaxWaitingChecks();
+    }
     System.out.println("Setting up thread pool with " + threadPoolSize + " threads");
     return new ThreadPoolExecutor(threadPoolSize, threadPoolSize,
             0L, TimeUnit.MILLISECONDS,
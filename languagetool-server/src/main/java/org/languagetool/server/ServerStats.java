@@ -0,0 +1,202 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.ResultCache;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.languagetool.tools.StringTools.escapeForXmlAttribute;
+
+/**
+ * Statistics about the requests served, shown at {@code /v1/stats}. All counters and
+ * histograms are lock-free, so they can always be recorded. Nothing gets formatted
+ * until the statistics are requested.
+ * @since 2.9
+ */
+class ServerStats {
+
+  enum Stage {
+    /** waiting for a free check thread */
+    QUEUE,
+    /** analyzing and checking the text */
+    CHECK,
+    /** creating and sending the response */
+    RESPONSE,
+    /** the complete check request */
+    TOTAL
+  }
+
+  private final long startTime = System.currentTimeMillis();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong checks = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong timeouts = new AtomicLong();
+  private final AtomicLong errors = new AtomicLong();
+  private final AtomicLong[] modeCounts = new AtomicLong[LoadMonitor.Mode.values().length];
+  private final Histogram[] stageMillis = new Histogram[Stage.values().length];
+  private final Histogram textSizes = new Histogram();
+  private final Histogram matchCounts = new Histogram();
+  private final ConcurrentMap<String, Histogram> languageMillis = new ConcurrentHashMap<>();
+
+  ServerStats() {
+    for (int i = 0; i < stageMillis.length; i++) {
+      stageMillis[i] = new Histogram();
+    }
+    for (int i = 0; i < modeCounts.length; i++) {
+      modeCounts[i] = new AtomicLong();
+    }
+  }
+
+  /** Count any request, including those for statistics and the list of languages. */
+  void countRequest() {
+    requests.incrementAndGet();
+  }
+
+  /** Count a request that was rejected because of request limits or a full queue. */
+  void countRejected() {
+    rejected.incrementAndGet();
+  }
+
+  /** Count a check that took longer than allowed. */
+  void countTimeout() {
+    timeouts.incrementAndGet();
+  }
+
+  /** Count a request that failed for any other reason. */
+  void countError() {
+    errors.incrementAndGet();
+  }
+
+  /** Count a check done in the given mode. */
+  void countMode(LoadMonitor.Mode mode) {
+    modeCounts[mode.ordinal()].incrementAndGet();
+  }
+
+  long getModeCount(LoadMonitor.Mode mode) {
+    return modeCounts[mode.ordinal()].get();
+  }
+
+  void recordStage(Stage stage, long millis) {
+    stageMillis[stage.ordinal()].record(millis);
+  }
+
+  /**
+   * Record a successful check.
+   * @param language the language's short name with country and variant
+   */
+  void recordCheck(String language, int textLength, int matchCount, long millis) {
+    checks.incrementAndGet();
+    textSizes.record(textLength);
+    matchCounts.record(matchCount);
+    recordStage(Stage.TOTAL, millis);
+    getLanguageHistogram(language).record(millis);
+  }
+
+  long getRequestCount() {
+    return requests.get();
+  }
+
+  long getCheckCount() {
+    return checks.get();
+  }
+
+  long getRejectedCount() {
+    return rejected.get();
+  }
+
+  long getTimeoutCount() {
+    return timeouts.get();
+  }
+
+  long getErrorCount() {
+    return errors.get();
+  }
+
+  Histogram getStageHistogram(Stage stage) {
+    return stageMillis[stage.ordinal()];
+  }
+
+  Histogram getLanguageHistogram(String language) {
+    Histogram histogram = languageMillis.get(language);
+    if (histogram == null) {
+      Histogram newHistogram = new Histogram();
+      histogram = languageMillis.putIfAbsent(language, newHistogram);
+      if (histogram == null) {
+        histogram = newHistogram;
+      }
+    }
+    return histogram;
+  }
+
+  /**
+   * @param workQueueSize the number of requests waiting for an HTTP thread
+   * @param checkQueueSize the number of checks waiting for a check thread
+   * @param cache the cache for sentence matches, or {@code null}
+   */
+  String toXml(int workQueueSize, int checkQueueSize, @Nullable ResultCache cache) {
+    StringBuilder xml = new StringBuilder(1000);
+    xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    xml.append("<stats uptimeSeconds=\"").append((System.currentTimeMillis() - startTime) / 1000).append("\">\n");
+    xml.append("<requests total=\"").append(requests.get())
+       .append("\" checks=\"").append(checks.get())
+       .append("\" rejected=\"").append(rejected.get())
+       .append("\" timeouts=\"").append(timeouts.get())
+       .append("\" errors=\"").append(errors.get()).append("\"/>\n");
+    xml.append("<modes");
+    for (LoadMonitor.Mode mode : LoadMonitor.Mode.values()) {
+      xml.append(' ').append(mode.getName()).append("=\"").append(getModeCount(mode)).append('"');
+    }
+    xml.append("/>\n");
+    xml.append("<queue workQueue=\"").append(workQueueSize)
+       .append("\" checkQueue=\"").append(checkQueueSize).append("\"/>\n");
+    for (Stage stage : Stage.values()) {
+      appendHistogram(xml, "latency stage=\"" + stage.name().toLowerCase() + "\" unit=\"ms\"", getStageHistogram(stage));
+    }
+    appendHistogram(xml, "textSize unit=\"chars\"", textSizes);
+    appendHistogram(xml, "matches", matchCounts);
+    for (Map.Entry<String, Histogram> entry : new TreeMap<>(languageMillis).entrySet()) {
+      appendHistogram(xml, "language shortname=\"" + escapeForXmlAttribute(entry.getKey()) + "\" unit=\"ms\"", entry.getValue());
+    }
+    if (cache != null) {
+      xml.append("<cache size=\"").append(cache.size())
+         .append("\" weight=\"").append(cache.getWeight())
+         .append("\" lookups=\"").append(cache.getLookupCount())
+         .append("\" hitRate=\"").append(cache.getHitRate()).append("\"/>\n");
+    }
+    xml.append("</stats>\n");
+    return xml.toString();
+  }
+
+  private void appendHistogram(StringBuilder xml, String elementAndAttributes, Histogram histogram) {
+    xml.append('<').append(elementAndAttributes)
+       .append(" count=\"").append(histogram.getCount())
+       .append("\" mean=\"").append(Math.round(histogram.getMean()))
+       .append("\" p50=\"").append(histogram.getPercentile(50))
+       .append("\" p90=\"").append(histogram.getPercentile(90))
+       .append("\" p99=\"").append(histogram.getPercentile(99))
+       .append("\" max=\"").append(histogram.getMax()).append("\"/>\n");
+  }
+
+}
@@ -0,0 +1,65 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.Languages;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class BatchDocumentTest {
+
+  @Test
+  public void testAwaitResultTimesOut() throws InterruptedException {
+    BatchDocument document = newDocument();
+    assertFalse(document.awaitResult(10));
+    assertFalse(document.isDone());
+  }
+
+  @Test
+  public void testDetectedLanguage() {
+    QueryParams params = new QueryParams(Collections.<String>emptyList(), Collections.<String>emptyList(), false, true);
+    BatchDocument document = new BatchDocument(0, "foo", null, "en", null, params, LoadMonitor.Mode.NORMAL);
+    assertNull(document.getLanguage());
+    assertNull(document.getKey());
+    document.setLanguage(Languages.getLanguageForShortName("en"));
+    assertEquals("en", document.getLanguage().getShortName());
+    assertNotNull(document.getKey());
+  }
+
+  @Test
+  public void testFirstResultWins() throws InterruptedException {
+    BatchDocument document = newDocument();
+    document.setError(new RuntimeException("Check failed"));
+    document.setMatches(Collections.<RuleMatch>emptyList());
+    assertTrue(document.awaitResult(10));
+    assertTrue(document.isDone());
+    assertNull(document.getMatches());
+    assertEquals("Check failed", document.getError().getMessage());
+  }
+
+  private BatchDocument newDocument() {
+    QueryParams params = new QueryParams(Collections.<String>emptyList(), Collections.<String>emptyList(), false, true);
+    return new BatchDocument(0, "foo", Languages.getLanguageForShortName("en"), "en", null, params, LoadMonitor.Mode.NORMAL);
+  }
+
+}
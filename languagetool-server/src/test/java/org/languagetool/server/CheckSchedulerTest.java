@@ -0,0 +1,173 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class CheckSchedulerTest {
+
+  @Test
+  public void testShortChecksFirst() {
+    CheckScheduler scheduler = new CheckScheduler(100);
+    ScheduledCheck<Void> longCheck = check("client1", "en", 1000, false);
+    ScheduledCheck<Void> shortCheck = check("client2", "en", 10, false);
+    scheduler.offer(longCheck);
+    scheduler.offer(shortCheck);
+    assertThat(scheduler.size(), is(2));
+    assertThat(scheduler.peek(), is((Runnable) shortCheck));
+    assertThat(poll(scheduler, 2), is(Arrays.<Runnable>asList(shortCheck, longCheck)));
+    assertNull(scheduler.poll());
+  }
+
+  @Test
+  public void testFairnessBetweenClients() {
+    CheckScheduler scheduler = new CheckScheduler(100);
+    ScheduledCheck<Void> check1 = check("client1", "en", 100, false);
+    ScheduledCheck<Void> check2 = check("client1", "en", 100, false);
+    ScheduledCheck<Void> check3 = check("client1", "en", 100, false);
+    ScheduledCheck<Void> otherClientCheck = check("client2", "en", 100, false);
+    scheduler.offer(check1);
+    scheduler.offer(check2);
+    scheduler.offer(check3);
+    scheduler.offer(otherClientCheck);
+    assertThat(poll(scheduler, 4), is(Arrays.<Runnable>asList(check1, otherClientCheck, check2, check3)));
+  }
+
+  @Test
+  public void testBulkLane() {
+    CheckScheduler scheduler = new CheckScheduler(100);
+    ScheduledCheck<Void> bulkCheck = check("client1", "en", 10, true);
+    scheduler.offer(bulkCheck);
+    List<Runnable> interactiveChecks = new ArrayList<>();
+    for (int i = 0; i < CheckScheduler.INTERACTIVE_TURNS + 2; i++) {
+      ScheduledCheck<Void> check = check("client" + i, "en", 1000, false);
+      interactiveChecks.add(check);
+      scheduler.offer(check);
+    }
+    List<Runnable> expected = new ArrayList<>(interactiveChecks);
+    expected.add(CheckScheduler.INTERACTIVE_TURNS, bulkCheck);
+    assertThat(poll(scheduler, expected.size()), is(expected));
+  }
+
+  @Test
+  public void testLanguageCost() {
+    CheckScheduler scheduler = new CheckScheduler(100);
+    scheduler.recordCheckTime("de", 1000, 1000);
+    scheduler.recordCheckTime("en", 1000, 10);
+    ScheduledCheck<Void> slowCheck = check("client1", "de", 100, false);
+    ScheduledCheck<Void> fastCheck = check("client2", "en", 1000, false);
+    assertThat(scheduler.getCost(slowCheck), is(100.0));
+    assertThat(scheduler.getCost(fastCheck), is(10.0));
+    scheduler.offer(slowCheck);
+    scheduler.offer(fastCheck);
+    assertThat(poll(scheduler, 2), is(Arrays.<Runnable>asList(fastCheck, slowCheck)));
+  }
+
+  @Test
+  public void testCapacity() {
+    CheckScheduler scheduler = new CheckScheduler(2);
+    assertTrue(scheduler.offer(check("client1", "en", 10, false)));
+    assertTrue(scheduler.offer(check("client2", "en", 10, true)));
+    assertThat(scheduler.remainingCapacity(), is(0));
+    assertFalse(scheduler.offer(check("client3", "en", 10, false)));
+    assertThat(scheduler.size(), is(2));
+    scheduler.poll();
+    assertThat(scheduler.remainingCapacity(), is(1));
+    assertTrue(scheduler.offer(check("client3", "en", 10, false)));
+  }
+
+  @Test
+  public void testRejectedByExecutorWhenFull() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new CheckScheduler(1));
+    try {
+      executor.execute(new ScheduledCheck<>(new Callable<Void>() {
+        @Override
+        public Void call() throws InterruptedException {
+          release.await();
+          return null;
+        }
+      }, "client1", "en", 10, false));
+      executor.execute(check("client2", "en", 10, false));
+      try {
+        executor.execute(check("client3", "en", 10, false));
+        fail();
+      } catch (RejectedExecutionException expected) {}
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOnlyScheduledChecks() {
+    new CheckScheduler(100).offer(new FutureTask<>(new Runnable() {
+      @Override
+      public void run() {}
+    }, null));
+  }
+
+  @Test
+  public void testWithExecutor() throws Exception {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS, new CheckScheduler(100));
+    try {
+      List<ScheduledCheck<Integer>> checks = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        final int value = i;
+        ScheduledCheck<Integer> check = new ScheduledCheck<>(new Callable<Integer>() {
+          @Override
+          public Integer call() {
+            return value;
+          }
+        }, "client" + i % 3, "en", i, i % 2 == 0);
+        executor.execute(check);
+        checks.add(check);
+      }
+      for (int i = 0; i < checks.size(); i++) {
+        assertThat(checks.get(i).get(10, TimeUnit.SECONDS), is(i));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private ScheduledCheck<Void> check(String client, String language, int textLength, boolean bulk) {
+    return new ScheduledCheck<>(new Runnable() {
+      @Override
+      public void run() {}
+    }, client, language, textLength, bulk);
+  }
+
+  private List<Runnable> poll(CheckScheduler scheduler, int count) {
+    List<Runnable> result = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      result.add(scheduler.poll());
+    }
+    return result;
+  }
+
+}
@@ -20,6 +20,10 @@ package org.languagetool.server;
 
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
@@ -48,4 +52,20 @@ public class HTTPServerConfigTest {
     assertThat(config4.isVerbose(), is(false));
   }
 
+  @Test
+  public void testPreloadLanguages() throws IOException {
+    final File propertyFile = File.createTempFile(HTTPServerConfigTest.class.getSimpleName(), ".properties");
+    try {
+      try (FileWriter writer = new FileWriter(propertyFile)) {
+        writer.write("preloadLanguages = de-DE, en-US\n");
+      }
+      final HTTPServerConfig config = new HTTPServerConfig(new String[]{"--config", propertyFile.getAbsolutePath()});
+      assertThat(config.getPreloadLanguages().size(), is(2));
+      assertThat(config.getPreloadLanguages().get(0).getShortNameWithCountryAndVariant(), is("de-DE"));
+      assertThat(config.getPreloadLanguages().get(1).getShortNameWithCountryAndVariant(), is("en-US"));
+    } finally {
+      propertyFile.delete();
+    }
+  }
+
 }
@@ -31,10 +31,14 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLConnection;
 import java.net.URLEncoder;
+import java.util.Arrays;
 import java.util.HashSet;
 
+import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
 
 public class HTTPServerTest {
@@ -182,6 +186,271 @@ public class HTTPServerTest {
     }
   }
 
+  @Test
+  public void testCache() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort(), false);
+    config.setCacheSize(100);
+    final HTTPServer server = new HTTPServer(config, false);
+    try {
+      server.run();
+      final String text = "This is an test. A sentence with a error in the Hitchhiker's Guide tot he Galaxy.";
+      final String result1 = check(new AmericanEnglish(), text);
+      final String result2 = check(new AmericanEnglish(), "Another sentence. " + text);
+      assertTrue(result1.contains("EN_A_VS_AN"));
+      assertEquals(StringUtils.countMatches(result1, "<error "), StringUtils.countMatches(result2, "<error "));
+      assertEquals(result1, check(new AmericanEnglish(), text));
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testStats() throws Exception {
+    final HTTPServer server = new HTTPServer(new HTTPServerConfig(HTTPTools.getDefaultPort()), false);
+    try {
+      server.run();
+      check(new AmericanEnglish(), "This is an test.");
+      final String stats = HTTPTools.checkAtUrl(new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v1/stats"));
+      assertTrue(stats, stats.contains("<requests total=\"2\" checks=\"1\" rejected=\"0\" timeouts=\"0\" errors=\"0\"/>"));
+      assertTrue(stats, stats.contains("<latency stage=\"total\" unit=\"ms\" count=\"1\""));
+      assertTrue(stats, stats.contains("<language shortname=\"en\" unit=\"ms\" count=\"1\""));
+      assertTrue(stats, stats.contains("<textSize unit=\"chars\" count=\"1\" mean=\"16\""));
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testMonitoringIgnoresRequestLimit() throws Exception {
+    final HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config.setRequestLimit(1);
+    config.setRequestLimitPeriodInSeconds(60);
+    final HTTPServer server = new HTTPServer(config, false);
+    try {
+      server.run();
+      check(new AmericanEnglish(), "This is an test.");
+      for (int i = 0; i < 3; i++) {
+        assertThat(HTTPTools.checkAtUrl(new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v1/ready")), is("<ready>true</ready>\n"));
+        assertTrue(HTTPTools.checkAtUrl(new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v1/stats")).contains("<requests "));
+      }
+      try {
+        System.out.println("=== Testing request limit now, please ignore the following exception ===");
+        check(new AmericanEnglish(), "This is an test.");
+        fail();
+      } catch (IOException expected) {
+        if (!expected.toString().contains(" 403 ")) {
+          fail("Expected exception with error 403, got: " + expected);
+        }
+      }
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testBatch() throws Exception {
+    final HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config.setMaxBatchSize(3);
+    final HTTPServer server = new HTTPServer(config, false);
+    try {
+      server.run();
+      final String postData = "language=en&disabled=HUNSPELL_RULE" +
+              "&text.0=" + URLEncoder.encode("This is an test.", "UTF-8") +
+              "&text.1=" + URLEncoder.encode("Das ist ein test. ein kleiner Test.", "UTF-8") + "&language.1=de" +
+              "&text.2=" + URLEncoder.encode("This is an test.", "UTF-8") + "&disabled.2=EN_A_VS_AN";
+      final URL url = new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v1/batch");
+      final String result = HTTPTools.checkAtUrlByPost(url, postData);
+      assertTrue(result, result.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<batch software=\"LanguageTool\""));
+      final String document0 = StringUtils.substringBetween(result, "<document index=\"0\" language=\"en\">", "</document>");
+      assertTrue(result, document0.contains("ruleId=\"EN_A_VS_AN\""));
+      final String document1 = StringUtils.substringBetween(result, "<document index=\"1\" language=\"de\">", "</document>");
+      assertTrue(result, document1.contains("ruleId=\"UPPERCASE_SENTENCE_START\""));
+      assertTrue(result, result.contains("<document index=\"2\" language=\"en\">\n</document>\n</batch>\n"));
+      try {
+        System.out.println("=== Testing too large batch now, please ignore the following exception ===");
+        HTTPTools.checkAtUrlByPost(url, postData + "&text.3=foo");
+        fail();
+      } catch (IOException expected) {
+        if (!expected.toString().contains(" 413 ")) {
+          fail("Expected exception with error 413, got: " + expected);
+        }
+      }
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testBatchLimits() throws Exception {
+    final HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config.setMaxTextLength(100);
+    config.setRequestLimit(5);
+    config.setRequestLimitPeriodInSeconds(60);
+    final HTTPServer server = new HTTPServer(config, false);
+    try {
+      server.run();
+      final URL url = new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v1/batch");
+      final String text = URLEncoder.encode("This is an test. This is a longer sentence that has no errors.", "UTF-8");
+      try {
+        System.out.println("=== Testing too long batch now, please ignore the following exception ===");
+        HTTPTools.checkAtUrlByPost(url, "language=en&text.0=" + text + "&text.1=" + text);
+        fail();
+      } catch (IOException expected) {
+        if (!expected.toString().contains(" 413 ")) {
+          fail("Expected exception with error 413, got: " + expected);
+        }
+      }
+      // the language of a document can be detected:
+      final String result = HTTPTools.checkAtUrlByPost(url, "language=en&text.0=Test&text.1=" + text + "&autodetect.1=1&text.2=Test");
+      assertTrue(result, result.contains("<document index=\"1\" language=\"en-US\">"));
+      assertTrue(result, result.contains("ruleId=\"EN_A_VS_AN\""));
+      try {
+        // each document counts as a request, so the request limit of 5 would be exceeded:
+        System.out.println("=== Testing request limit for batches now, please ignore the following exception ===");
+        HTTPTools.checkAtUrlByPost(url, "language=en&text.0=Test&text.1=Test");
+        fail();
+      } catch (IOException expected) {
+        if (!expected.toString().contains(" 403 ")) {
+          fail("Expected exception with error 403, got: " + expected);
+        }
+      }
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testFifoBatchWithOneThread() throws Exception {
+    final HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config.setMaxCheckThreads(1);
+    final HTTPServer server = new HTTPServer(config, false);
+    try {
+      server.run();
+      // the request thread checks the documents itself, so they don't fill the check queue:
+      final String postData = "language=en&text.0=Test&text.1=Test&text.2=" + URLEncoder.encode("This is an test.", "UTF-8");
+      final String result = HTTPTools.checkAtUrlByPost(new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v1/batch"), postData);
+      assertTrue(result, result.contains("<document index=\"1\" language=\"en\">\n</document>\n"));
+      assertTrue(result, result.contains("ruleId=\"EN_A_VS_AN\""));
+      assertTrue(check(new AmericanEnglish(), "This is an test.").contains("EN_A_VS_AN"));
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testFairScheduler() throws Exception {
+    final HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config.setScheduler(HTTPServerConfig.Scheduler.Fair);
+    config.setMaxCheckThreads(1);
+    final HTTPServer server = new HTTPServer(config, false);
+    try {
+      server.run();
+      assertTrue(check(new AmericanEnglish(), "This is an test.").contains("EN_A_VS_AN"));
+      // with a single thread, each document is queued again after the one before it has been checked:
+      final String postData = "language=en&text.0=" + URLEncoder.encode("This is an test.", "UTF-8") + "&text.1=Test&text.2=Test";
+      final String result = HTTPTools.checkAtUrlByPost(new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v1/batch"), postData);
+      assertTrue(result, result.contains("ruleId=\"EN_A_VS_AN\""));
+      assertTrue(result, result.contains("<document index=\"1\" language=\"en\">\n</document>\n"));
+      assertTrue(result, result.contains("<document index=\"2\" language=\"en\">\n</document>\n</batch>\n"));
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testWarmUp() throws Exception {
+    final HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config.setPreloadLanguages(Arrays.<Language>asList(new GermanyGerman(), new AmericanEnglish()));
+    final HTTPServer server = new HTTPServer(config, false);
+    assertFalse(server.httpHandler.isReady());
+    try {
+      server.run();
+      final URL url = new URL("http://localhost:" + HTTPTools.getDefaultPort() + "/v1/ready");
+      final long startTime = System.currentTimeMillis();
+      while (!server.httpHandler.isReady()) {
+        assertTrue("Warm-up took too long", System.currentTimeMillis() - startTime < 60_000);
+        final HttpURLConnection notReadyConnection = (HttpURLConnection) url.openConnection();
+        if (notReadyConnection.getResponseCode() == HttpURLConnection.HTTP_UNAVAILABLE) {
+          assertThat(StringTools.streamToString(notReadyConnection.getErrorStream(), "UTF-8"), is("<ready>false</ready>\n"));
+        }
+        Thread.sleep(50);
+      }
+      final HttpURLConnection readyConnection = (HttpURLConnection) url.openConnection();
+      assertThat(readyConnection.getResponseCode(), is(HttpURLConnection.HTTP_OK));
+      assertThat(StringTools.streamToString(readyConnection.getInputStream(), "UTF-8"), is("<ready>true</ready>\n"));
+      // the warmed-up instances are kept for requests without rule configuration:
+      final URL checkUrl = new URL("http://localhost:" + HTTPTools.getDefaultPort() +
+              "/?language=de-DE&text=" + URLEncoder.encode("Das ist ein Test. ein kleiner Test.", "UTF-8"));
+      assertTrue(HTTPTools.checkAtUrl(checkUrl).contains("UPPERCASE_SENTENCE_START"));
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testDegradedMode() throws Exception {
+    final HTTPServer server = new HTTPServer(new HTTPServerConfig(HTTPTools.getDefaultPort()), false);
+    try {
+      server.run();
+      final URL url = new URL("http://localhost:" + HTTPTools.getDefaultPort() +
+              "/?language=en-US&text=" + URLEncoder.encode("This is an tset.", "UTF-8"));
+      final URLConnection normalConnection = url.openConnection();
+      final String normalResult = StringTools.streamToString(normalConnection.getInputStream(), "UTF-8");
+      assertThat(normalConnection.getHeaderField("X-LanguageTool-Check-Mode"), is("normal"));
+      assertTrue(normalResult, normalResult.contains("EN_A_VS_AN"));
+      assertTrue(normalResult, normalResult.contains("replacements=\"set#test"));
+      server.httpHandler.setLoadMonitor(new LoadMonitor(1, 0, Arrays.asList("EN_A_VS_AN")) {
+        @Override
+        synchronized Mode getMode(int queueSize) {
+          return Mode.MINIMAL;
+        }
+      });
+      final URLConnection minimalConnection = url.openConnection();
+      final String minimalResult = StringTools.streamToString(minimalConnection.getInputStream(), "UTF-8");
+      assertThat(minimalConnection.getHeaderField("X-LanguageTool-Check-Mode"), is("minimal"));
+      assertFalse(minimalResult, minimalResult.contains("EN_A_VS_AN"));
+      assertTrue(minimalResult, minimalResult.contains("ruleId=\"MORFOLOGIK_RULE_EN_US\""));
+      assertTrue(minimalResult, minimalResult.contains("replacements=\"\""));
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testDegradedModesSharingCache() throws Exception {
+    final HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config.setCacheSize(100);
+    final HTTPServer server = new HTTPServer(config, false);
+    try {
+      server.run();
+      final URL url = new URL("http://localhost:" + HTTPTools.getDefaultPort() +
+              "/?language=en-US&text=" + URLEncoder.encode("This is is an tset.", "UTF-8"));
+      setCheckMode(server, LoadMonitor.Mode.REDUCED);
+      final String reducedResult = HTTPTools.checkAtUrl(url);
+      assertTrue(reducedResult, reducedResult.contains("ruleId=\"ENGLISH_WORD_REPEAT_RULE\""));
+      assertTrue(reducedResult, reducedResult.contains("replacements=\"set#test"));
+      // a MINIMAL instance must not take the matches of the REDUCED instance from the cache, nor lose any:
+      setCheckMode(server, LoadMonitor.Mode.MINIMAL);
+      final String minimalResult = HTTPTools.checkAtUrl(url);
+      assertTrue(minimalResult, minimalResult.contains("ruleId=\"ENGLISH_WORD_REPEAT_RULE\""));
+      assertTrue(minimalResult, minimalResult.contains("ruleId=\"MORFOLOGIK_RULE_EN_US\""));
+      assertFalse(minimalResult, minimalResult.contains("replacements=\"set#test"));
+      setCheckMode(server, LoadMonitor.Mode.REDUCED);
+      assertThat(HTTPTools.checkAtUrl(url), is(reducedResult));
+    } finally {
+      server.stop();
+    }
+  }
+
+  private void setCheckMode(HTTPServer server, final LoadMonitor.Mode mode) {
+    server.httpHandler.setLoadMonitor(new LoadMonitor(1, 0, Arrays.asList("EN_A_VS_AN")) {
+      @Override
+      synchronized Mode getMode(int queueSize) {
+        return mode;
+      }
+    });
+  }
+
   @Test
   public void testAccessDenied() throws Exception {
     final HTTPServer server = new HTTPServer(new HTTPServerConfig(HTTPTools.getDefaultPort()), false, new HashSet<String>());
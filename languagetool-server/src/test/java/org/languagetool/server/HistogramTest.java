@@ -0,0 +1,59 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+
+  @Test
+  public void testPercentiles() {
+    Histogram histogram = new Histogram();
+    assertThat(histogram.getPercentile(50), is(0L));
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+    assertThat(histogram.getCount(), is(1000L));
+    assertThat(histogram.getMax(), is(1000L));
+    assertThat(histogram.getMean(), is(500.5));
+    assertWithinRelativeError(histogram.getPercentile(50), 500);
+    assertWithinRelativeError(histogram.getPercentile(90), 900);
+    assertWithinRelativeError(histogram.getPercentile(99), 990);
+    assertThat(histogram.getPercentile(100), is(1000L));
+  }
+
+  @Test
+  public void testBuckets() {
+    for (long value : new long[] {0, 1, 15, 16, 17, 31, 32, 1000, 123456789, Long.MAX_VALUE}) {
+      int bucket = Histogram.getBucket(value);
+      assertTrue(value + " above bucket", value <= Histogram.getUpperBound(bucket));
+      assertTrue(value + " below bucket", bucket == 0 || value > Histogram.getUpperBound(bucket - 1));
+    }
+    assertThat(Histogram.getUpperBound(Histogram.getBucket(Long.MAX_VALUE)), is(Long.MAX_VALUE));
+  }
+
+  private void assertWithinRelativeError(long actual, long expected) {
+    assertTrue("Expected about " + expected + ", got " + actual, Math.abs(actual - expected) <= expected * 0.07);
+  }
+
+}
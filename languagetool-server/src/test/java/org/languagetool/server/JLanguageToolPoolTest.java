@@ -0,0 +1,114 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.TestTools;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.*;
+
+public class JLanguageToolPoolTest {
+
+  private final Language lang = TestTools.getDemoLanguage();
+  private final QueryParams noParams = new QueryParams(Collections.<String>emptyList(), Collections.<String>emptyList(), false, false);
+
+  @Test
+  public void testBorrowAndGiveBack() {
+    JLanguageToolPool pool = new JLanguageToolPool(1, 10, 60_000);
+    JLanguageToolPool.Key key = new JLanguageToolPool.Key(lang, null, noParams);
+    assertNull(pool.borrow(key));
+    JLanguageTool lt1 = new JLanguageTool(lang);
+    JLanguageTool lt2 = new JLanguageTool(lang);
+    pool.giveBack(key, lt1);
+    pool.giveBack(key, lt2);  // pool is full, so this gets dropped
+    assertThat(pool.getIdleInstanceCount(), is(1));
+    assertSame(lt1, pool.borrow(new JLanguageToolPool.Key(lang, null, noParams)));
+    assertNull(pool.borrow(key));
+    assertThat(pool.getIdleInstanceCount(), is(0));
+  }
+
+  @Test
+  public void testDifferentRuleConfiguration() {
+    JLanguageToolPool pool = new JLanguageToolPool(5, 10, 60_000);
+    JLanguageToolPool.Key key = new JLanguageToolPool.Key(lang, null, noParams);
+    QueryParams params = new QueryParams(Collections.<String>emptyList(), Arrays.asList("DEMO_RULE"), false, true);
+    JLanguageToolPool.Key otherKey = new JLanguageToolPool.Key(lang, null, params);
+    pool.giveBack(key, new JLanguageTool(lang));
+    assertNull(pool.borrow(otherKey));
+    assertNull(pool.borrow(new JLanguageToolPool.Key(lang, lang, noParams)));
+    assertNotNull(pool.borrow(key));
+  }
+
+  @Test
+  public void testDisabledPool() {
+    JLanguageToolPool pool = new JLanguageToolPool(0, 10, 60_000);
+    JLanguageToolPool.Key key = new JLanguageToolPool.Key(lang, null, noParams);
+    pool.giveBack(key, new JLanguageTool(lang));
+    assertNull(pool.borrow(key));
+  }
+
+  @Test
+  public void testIdleEviction() throws InterruptedException {
+    JLanguageToolPool pool = new JLanguageToolPool(5, 10, 10);
+    JLanguageToolPool.Key key = new JLanguageToolPool.Key(lang, null, noParams);
+    pool.giveBack(key, new JLanguageTool(lang));
+    Thread.sleep(50);
+    JLanguageTool lt = new JLanguageTool(lang);
+    pool.giveBack(key, lt);  // triggers removal of the older instance
+    assertThat(pool.getIdleInstanceCount(), is(1));
+    assertSame(lt, pool.borrow(key));
+    assertThat(pool.getKeyCount(), is(0));
+  }
+
+  @Test
+  public void testIdleEvictionOnBorrow() throws InterruptedException {
+    JLanguageToolPool pool = new JLanguageToolPool(5, 10, 10);
+    JLanguageToolPool.Key key = new JLanguageToolPool.Key(lang, null, noParams);
+    pool.giveBack(key, new JLanguageTool(lang));
+    Thread.sleep(50);
+    assertNull(pool.borrow(new JLanguageToolPool.Key(lang, lang, noParams)));  // triggers removal
+    assertThat(pool.getIdleInstanceCount(), is(0));
+    assertThat(pool.getKeyCount(), is(0));
+  }
+
+  @Test
+  public void testTotalLimit() throws InterruptedException {
+    JLanguageToolPool pool = new JLanguageToolPool(5, 3, 60_000);
+    JLanguageToolPool.Key[] keys = new JLanguageToolPool.Key[4];
+    for (int i = 0; i < keys.length; i++) {
+      QueryParams params = new QueryParams(Collections.<String>emptyList(), Arrays.asList("RULE_" + i), false, true);
+      keys[i] = new JLanguageToolPool.Key(lang, null, params);
+      pool.giveBack(keys[i], new JLanguageTool(lang));
+      Thread.sleep(5);
+    }
+    // the instance used least recently has been removed for the last one:
+    assertThat(pool.getIdleInstanceCount(), is(3));
+    assertThat(pool.getKeyCount(), is(3));
+    assertNull(pool.borrow(keys[0]));
+    assertNotNull(pool.borrow(keys[3]));
+    assertThat(pool.getKeyCount(), is(2));
+  }
+
+}
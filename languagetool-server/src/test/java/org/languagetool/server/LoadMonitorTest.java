@@ -0,0 +1,71 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.languagetool.server.LoadMonitor.Mode.*;
+
+public class LoadMonitorTest {
+
+  @Test
+  public void testQueueSize() {
+    LoadMonitor monitor = new LoadMonitor(10, 0, Collections.<String>emptyList());
+    assertThat(monitor.getMode(0), is(NORMAL));
+    assertThat(monitor.getMode(9), is(NORMAL));
+    assertThat(monitor.getMode(10), is(REDUCED));
+    assertThat(monitor.getMode(20), is(MINIMAL));
+    // only leave a mode when the load is clearly below its limit:
+    assertThat(monitor.getMode(15), is(MINIMAL));
+    assertThat(monitor.getMode(13), is(REDUCED));
+    assertThat(monitor.getMode(8), is(REDUCED));
+    assertThat(monitor.getMode(6), is(NORMAL));
+    assertThat(monitor.getMode(25), is(MINIMAL));
+    assertThat(monitor.getMode(0), is(NORMAL));
+    assertThat(monitor.getCurrentMode(), is(NORMAL));
+  }
+
+  @Test
+  public void testWaitTime() {
+    LoadMonitor monitor = new LoadMonitor(0, 100, Collections.<String>emptyList());
+    assertThat(monitor.getMode(1000), is(NORMAL));
+    for (int i = 0; i < 50; i++) {
+      monitor.recordWaitTime(150);
+    }
+    assertThat(monitor.getMode(0), is(REDUCED));
+    for (int i = 0; i < 50; i++) {
+      monitor.recordWaitTime(500);
+    }
+    assertThat(monitor.getMode(0), is(MINIMAL));
+    for (int i = 0; i < 50; i++) {
+      monitor.recordWaitTime(0);
+    }
+    assertThat(monitor.getMode(0), is(NORMAL));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidLimit() {
+    new LoadMonitor(-1, 0, Collections.<String>emptyList());
+  }
+
+}
@@ -0,0 +1,86 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2015 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Many threads sending requests from a few IP addresses at the same time, the
+ * limit must be enforced exactly.
+ */
+public class RequestLimiterConcurrencyTest {
+
+  private static final int THREADS = Runtime.getRuntime().availableProcessors() * 4;
+  private static final int REQUESTS_PER_PERIOD = 20_000;
+  private static final int IPS = 50;
+  private static final int LIMIT = 1000;
+  private static final int PERIODS = 5;
+
+  @Test
+  public void testConcurrentRequests() throws Exception {
+    final RequestLimiter limiter = new RequestLimiter(LIMIT, 60);
+    final long start = System.currentTimeMillis();
+    final AtomicIntegerArray allowed = new AtomicIntegerArray(IPS * PERIODS);
+    // all threads start a period at the same time, like requests that arrive in time order:
+    final CyclicBarrier barrier = new CyclicBarrier(THREADS + 1);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      final int threadNum = i;
+      Thread thread = new Thread() {
+        @Override
+        public void run() {
+          try {
+            for (int period = 0; period < PERIODS; period++) {
+              barrier.await();
+              long now = start + period * 61_000L;
+              for (int j = 0; j < REQUESTS_PER_PERIOD; j++) {
+                int ip = (threadNum + j) % IPS;
+                if (limiter.isAccessOkay("10.0.0." + ip, now)) {
+                  allowed.incrementAndGet(period * IPS + ip);
+                }
+              }
+            }
+            barrier.await();
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          }
+        }
+      };
+      thread.start();
+      threads.add(thread);
+    }
+    for (int period = 0; period <= PERIODS; period++) {
+      barrier.await();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    for (int i = 0; i < allowed.length(); i++) {
+      assertEquals("allowed requests for IP " + (i % IPS) + " in period " + (i / IPS), LIMIT, allowed.get(i));
+    }
+  }
+
+}
@@ -20,7 +20,9 @@ package org.languagetool.server;
 
 import org.junit.Test;
 
+import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 public class RequestLimiterTest {
@@ -42,5 +44,51 @@ public class RequestLimiterTest {
     assertTrue(limiter.isAccessOkay(secondIp));
     assertFalse(limiter.isAccessOkay(secondIp));
   }
-  
+
+  @Test
+  public void testSlidingWindow() {
+    final RequestLimiter limiter = new RequestLimiter(2, 10);
+    final String ip = "192.168.10.1";
+    assertTrue(limiter.isAccessOkay(ip, 1000));
+    assertTrue(limiter.isAccessOkay(ip, 6000));
+    assertFalse(limiter.isAccessOkay(ip, 10999));
+    assertTrue(limiter.isAccessOkay(ip, 11000));  // the first request is out of the window now
+    assertFalse(limiter.isAccessOkay(ip, 15999));
+    assertTrue(limiter.isAccessOkay(ip, 16000));
+  }
+
+  @Test
+  public void testSeveralRequestsAtOnce() {
+    final RequestLimiter limiter = new RequestLimiter(4, 10);
+    final String ip = "192.168.10.1";
+    assertFalse(limiter.isAccessOkayForRequests(ip, 5, 1000));
+    assertTrue(limiter.isAccessOkay(ip, 1000));
+    assertTrue(limiter.isAccessOkayForRequests(ip, 2, 2000));
+    assertFalse(limiter.isAccessOkayForRequests(ip, 2, 3000));  // all or nothing
+    assertTrue(limiter.isAccessOkay(ip, 3000));
+    assertFalse(limiter.isAccessOkay(ip, 10999));
+    assertFalse(limiter.isAccessOkayForRequests(ip, 2, 11000));  // only the first request is out of the window
+    assertTrue(limiter.isAccessOkayForRequests(ip, 3, 12000));
+    assertFalse(limiter.isAccessOkay(ip, 12999));
+  }
+
+  @Test
+  public void testIdleAddressesGetRemoved() {
+    final RequestLimiter limiter = new RequestLimiter(2, 10);
+    final long start = System.currentTimeMillis();
+    assertTrue(limiter.isAccessOkay("192.168.10.1", start));
+    assertTrue(limiter.isAccessOkay("192.168.10.2", start + 5000));
+    assertThat(limiter.getTrackedAddressCount(), is(2));
+    assertTrue(limiter.isAccessOkay("192.168.10.3", start + 12000));
+    assertThat(limiter.getTrackedAddressCount(), is(2));
+    assertTrue(limiter.isAccessOkay("192.168.10.3", start + 30000));
+    assertThat(limiter.getTrackedAddressCount(), is(1));
+  }
+
+  @Test
+  public void testNoRequestsAllowed() {
+    final RequestLimiter limiter = new RequestLimiter(0, 10);
+    assertFalse(limiter.isAccessOkay("192.168.10.1"));
+  }
+
 }
@@ -70,6 +70,30 @@ public class LanguageIdentifierTest {
     langAssert("eo", "Imperiestraj pingvenoj manĝas ĉefe krustacojn kaj malgrandajn ...");
   }
 
+  @Test
+  public void testSampling() {
+    LanguageIdentifier sampling = new LanguageIdentifier(100, 0);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 50; i++) {
+      sb.append("Das ist ein deutscher Text, der etwas länger ist als die Stichprobe. ");
+    }
+    assertEquals(Languages.getLanguageForShortName("de"), sampling.detectLanguage(sb.toString()));
+    assertNull(sampling.detectLanguage("X"));
+  }
+
+  @Test
+  public void testCache() {
+    LanguageIdentifier caching = new LanguageIdentifier(100, 10);
+    assertEquals(0.0f, caching.getCacheHitRate(), 0.0f);
+    assertEquals(Languages.getLanguageForShortName("en"), caching.detectLanguage("This is an English text"));
+    assertEquals(0.0f, caching.getCacheHitRate(), 0.0f);
+    assertEquals(Languages.getLanguageForShortName("en"), caching.detectLanguage("This is an English text"));
+    assertEquals(0.5f, caching.getCacheHitRate(), 0.0f);
+    assertNull(caching.detectLanguage("X"));
+    assertNull(caching.detectLanguage("X"));
+    assertEquals(0.5f, caching.getCacheHitRate(), 0.0f);
+  }
+
   @Test
   @Ignore("this test isn't stable due to https://github.com/optimaize/language-detector/issues/14")   // TODO: re-activate
   public void testKnownLimitations() {